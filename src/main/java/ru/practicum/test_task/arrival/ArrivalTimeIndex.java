@@ -0,0 +1,137 @@
+package ru.practicum.test_task.arrival;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.test_task.model.ArrivalTime;
+import ru.practicum.test_task.model.HotelChangeType;
+import ru.practicum.test_task.outbox.HotelChangeEvent;
+import ru.practicum.test_task.outbox.HotelChangeListener;
+import ru.practicum.test_task.outbox.OutboxTailer;
+import ru.practicum.test_task.outbox.RebuildPoint;
+import ru.practicum.test_task.repository.HotelRepository;
+import ru.practicum.test_task.sharding.ShardContext;
+import ru.practicum.test_task.sharding.ShardRouter;
+
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+// Check-in and check-out times of every hotel as sorted minutes of day per shard. Arrival times never change
+// after a hotel is created, so the index only grows: local creations are added on commit, others via the outbox.
+@Component
+@Slf4j
+public class ArrivalTimeIndex implements HotelChangeListener {
+
+    private final HotelRepository hotelRepository;
+    private final OutboxTailer outboxTailer;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shardRouter;
+
+    private volatile ArrivalTimes[] shards;
+
+    public ArrivalTimeIndex(HotelRepository hotelRepository, OutboxTailer outboxTailer,
+                            PlatformTransactionManager transactionManager, ShardRouter shardRouter) {
+        this.hotelRepository = hotelRepository;
+        this.outboxTailer = outboxTailer;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.shardRouter = shardRouter;
+    }
+
+    @Override
+    public String getName() {
+        return "arrival-time-index";
+    }
+
+    @Override
+    public void onChange(HotelChangeEvent event) {
+        ArrivalTimes times = current();
+        if (times == null || event.type() != HotelChangeType.HOTEL_CREATED) {
+            return;
+        }
+        List<Object[]> rows = transactionTemplate.execute(status ->
+                hotelRepository.findArrivalTimeRowsByHotelIds(List.of(event.hotelId())));
+        for (Object[] row : rows) {
+            times.add((Long) row[0], ArrivalTimeWindow.minuteOfDay((LocalTime) row[1]),
+                    ArrivalTimeWindow.minuteOfDay((LocalTime) row[2]));
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        rebuild();
+    }
+
+    public int rebuild() {
+        long startedAt = System.currentTimeMillis();
+        RebuildPoint rebuildPoint = outboxTailer.rebuildPoint();
+        ArrivalTimes[] rebuilt = new ArrivalTimes[shardRouter.getShardCount()];
+        shardRouter.forEachShard(shard -> transactionTemplate.executeWithoutResult(status -> {
+            rebuildPoint.take();
+            List<Object[]> rows = hotelRepository.findAllArrivalTimeRows();
+            long[] ids = new long[rows.size()];
+            int[] checkIns = new int[rows.size()];
+            int[] checkOuts = new int[rows.size()];
+            for (int i = 0; i < rows.size(); i++) {
+                Object[] row = rows.get(i);
+                ids[i] = (Long) row[0];
+                checkIns[i] = ArrivalTimeWindow.minuteOfDay((LocalTime) row[1]);
+                checkOuts[i] = ArrivalTimeWindow.minuteOfDay((LocalTime) row[2]);
+            }
+            rebuilt[shard] = new ArrivalTimes(ids, checkIns, checkOuts, rows.size());
+        }));
+
+        shards = rebuilt;
+        rebuildPoint.resume(getName());
+
+        int hotels = 0;
+        for (ArrivalTimes times : rebuilt) {
+            hotels += times.size();
+        }
+        log.info("Built arrival time index with {} hotels in {} ms", hotels, System.currentTimeMillis() - startedAt);
+        return hotels;
+    }
+
+    // a hotel created on this node is searchable by time right after its transaction commits
+    public void addAfterCommit(Long hotelId, ArrivalTime arrivalTime) {
+        ArrivalTimes times = current();
+        if (times == null || arrivalTime == null) {
+            return;
+        }
+        int checkIn = ArrivalTimeWindow.minuteOfDay(arrivalTime.getCheckIn());
+        int checkOut = ArrivalTimeWindow.minuteOfDay(arrivalTime.getCheckOut());
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            times.add(hotelId, checkIn, checkOut);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                times.add(hotelId, checkIn, checkOut);
+            }
+        });
+    }
+
+    // hotel ids sorted ascending
+    public Optional<long[]> findIds(ArrivalTimeWindow window) {
+        ArrivalTimes times = current();
+        return times == null ? Optional.empty() : Optional.of(times.find(window));
+    }
+
+    public Optional<Map<Integer, Long>> checkInsPerHour() {
+        ArrivalTimes times = current();
+        return times == null ? Optional.empty() : Optional.of(times.checkInsPerHour());
+    }
+
+    private ArrivalTimes current() {
+        ArrivalTimes[] current = shards;
+        return current == null ? null : current[ShardContext.current()];
+    }
+}
@@ -0,0 +1,55 @@
+package ru.practicum.test_task.arrival;
+
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+// Inclusive bounds in minutes of day; a hotel without arrival times never matches a restricted window
+public record ArrivalTimeWindow(int checkInFrom, int checkInTo, int checkOutFrom) {
+
+    public static final int MINUTES_PER_DAY = 24 * 60;
+    public static final ArrivalTimeWindow ANY = new ArrivalTimeWindow(0, MINUTES_PER_DAY - 1, 0);
+
+    private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("HH:mm");
+
+    public static ArrivalTimeWindow of(String checkInAfter, String checkInBefore, String checkOutAfter) {
+        ArrivalTimeWindow window = new ArrivalTimeWindow(
+                checkInAfter == null ? ANY.checkInFrom() : minuteOfDay(checkInAfter),
+                checkInBefore == null ? ANY.checkInTo() : minuteOfDay(checkInBefore),
+                checkOutAfter == null ? ANY.checkOutFrom() : minuteOfDay(checkOutAfter));
+        if (window.checkInFrom() > window.checkInTo()) {
+            throw new IllegalArgumentException("checkInAfter must not be later than checkInBefore: "
+                    + checkInAfter + " > " + checkInBefore);
+        }
+        return window;
+    }
+
+    public static int minuteOfDay(LocalTime time) {
+        return time.getHour() * 60 + time.getMinute();
+    }
+
+    public boolean isUnrestricted() {
+        return equals(ANY);
+    }
+
+    public LocalTime checkInFromTime() {
+        return LocalTime.ofSecondOfDay(checkInFrom * 60L);
+    }
+
+    // the last instant of the minute, so that seconds stored in the database do not fall out of the window
+    public LocalTime checkInToTime() {
+        return LocalTime.ofSecondOfDay(checkInTo * 60L + 59).withNano(999_999_999);
+    }
+
+    public LocalTime checkOutFromTime() {
+        return LocalTime.ofSecondOfDay(checkOutFrom * 60L);
+    }
+
+    private static int minuteOfDay(String value) {
+        try {
+            return minuteOfDay(LocalTime.parse(value.trim(), TIME_FORMATTER));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid time, expected HH:mm: " + value);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package ru.practicum.test_task.arrival;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Check-in and check-out columns of one shard
+final class ArrivalTimes {
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TimeColumn checkIns;
+    private final TimeColumn checkOuts;
+
+    ArrivalTimes(long[] ids, int[] checkInMinutes, int[] checkOutMinutes, int count) {
+        this.checkIns = TimeColumn.build(ids, checkInMinutes, count);
+        this.checkOuts = TimeColumn.build(ids, checkOutMinutes, count);
+    }
+
+    void add(long id, int checkInMinute, int checkOutMinute) {
+        lock.writeLock().lock();
+        try {
+            checkIns.insert(checkInMinute, id);
+            checkOuts.insert(checkOutMinute, id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // both runs are sorted by id, so the two constraints combine with a merge
+    long[] find(ArrivalTimeWindow window) {
+        lock.readLock().lock();
+        try {
+            long[] byCheckIn = checkIns.idsBetween(window.checkInFrom(), window.checkInTo());
+            if (window.checkOutFrom() == ArrivalTimeWindow.ANY.checkOutFrom()) {
+                return byCheckIn;
+            }
+            return intersect(byCheckIn, checkOuts.idsBetween(window.checkOutFrom(), ArrivalTimeWindow.MINUTES_PER_DAY - 1));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    Map<Integer, Long> checkInsPerHour() {
+        lock.readLock().lock();
+        try {
+            Map<Integer, Long> histogram = new LinkedHashMap<>();
+            for (int hour = 0; hour < 24; hour++) {
+                histogram.put(hour, (long) checkIns.countBetween(hour * 60, hour * 60 + 59));
+            }
+            return histogram;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return checkIns.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static long[] intersect(long[] left, long[] right) {
+        long[] result = new long[Math.min(left.length, right.length)];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < left.length && j < right.length) {
+            if (left[i] < right[j]) {
+                i++;
+            } else if (left[i] > right[j]) {
+                j++;
+            } else {
+                result[count++] = left[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+}
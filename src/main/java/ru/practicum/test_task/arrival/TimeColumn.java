@@ -0,0 +1,81 @@
+package ru.practicum.test_task.arrival;
+
+import java.util.Arrays;
+
+// (minute of day, hotel id) pairs packed into one sorted long[]: the minute takes the top bits, so ordering the
+// packed values orders by minute and then by id, and a time range is one contiguous run found by binary search
+final class TimeColumn {
+
+    private static final int ID_BITS = 52;
+    private static final long ID_MASK = (1L << ID_BITS) - 1;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private long[] entries;
+    private int size;
+
+    private TimeColumn(long[] entries, int size) {
+        this.entries = entries;
+        this.size = size;
+    }
+
+    static TimeColumn build(long[] ids, int[] minutes, int count) {
+        long[] entries = new long[Math.max(INITIAL_CAPACITY, count)];
+        for (int i = 0; i < count; i++) {
+            entries[i] = pack(minutes[i], ids[i]);
+        }
+        Arrays.sort(entries, 0, count);
+        return new TimeColumn(entries, count);
+    }
+
+    // returns false when the pair is already present, redelivered changes are harmless
+    boolean insert(int minute, long id) {
+        long entry = pack(minute, id);
+        int position = Arrays.binarySearch(entries, 0, size, entry);
+        if (position >= 0) {
+            return false;
+        }
+        position = -position - 1;
+        if (size == entries.length) {
+            entries = Arrays.copyOf(entries, entries.length * 2);
+        }
+        System.arraycopy(entries, position, entries, position + 1, size - position);
+        entries[position] = entry;
+        size++;
+        return true;
+    }
+
+    // hotel ids with a minute in [from, to], sorted by id
+    long[] idsBetween(int from, int to) {
+        if (from > to) {
+            return new long[0];
+        }
+        int start = lowerBound(from);
+        int end = lowerBound(to + 1);
+        long[] ids = new long[end - start];
+        for (int i = start; i < end; i++) {
+            ids[i - start] = entries[i] & ID_MASK;
+        }
+        Arrays.sort(ids);
+        return ids;
+    }
+
+    int countBetween(int from, int to) {
+        return from > to ? 0 : lowerBound(to + 1) - lowerBound(from);
+    }
+
+    int size() {
+        return size;
+    }
+
+    private int lowerBound(int minute) {
+        int position = Arrays.binarySearch(entries, 0, size, pack(minute, 0));
+        return position >= 0 ? position : -position - 1;
+    }
+
+    private static long pack(int minute, long id) {
+        if (id < 0 || id > ID_MASK) {
+            throw new IllegalArgumentException("Hotel id out of range for the arrival time index: " + id);
+        }
+        return ((long) minute << ID_BITS) | id;
+    }
+}
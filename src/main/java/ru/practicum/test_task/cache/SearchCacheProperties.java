@@ -0,0 +1,13 @@
+package ru.practicum.test_task.cache;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "hotels.search-cache")
+public class SearchCacheProperties {
+
+    private boolean enabled = true;
+
+    private int maxEntries = 10_000;
+}
@@ -0,0 +1,40 @@
+package ru.practicum.test_task.cache;
+
+import lombok.Value;
+import ru.practicum.test_task.util.TextNormalizer;
+
+import java.util.List;
+import java.util.Objects;
+
+@Value
+public class SearchCriteria {
+
+    String name;
+    String brand;
+    String city;
+    String county;
+    List<String> amenities;
+
+    public static SearchCriteria of(String name, String brand, String city, String county, List<String> amenities) {
+        List<String> normalizedAmenities = amenities == null
+                ? List.of()
+                : amenities.stream()
+                        .map(TextNormalizer::normalize)
+                        .filter(Objects::nonNull)
+                        .distinct()
+                        .sorted()
+                        .toList();
+
+        return new SearchCriteria(
+                TextNormalizer.normalize(name),
+                TextNormalizer.normalize(brand),
+                TextNormalizer.normalize(city),
+                TextNormalizer.normalize(county),
+                normalizedAmenities
+        );
+    }
+
+    public boolean isUnrestricted() {
+        return name == null && brand == null && city == null && county == null && amenities.isEmpty();
+    }
+}
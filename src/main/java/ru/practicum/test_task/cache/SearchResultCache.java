@@ -0,0 +1,87 @@
+package ru.practicum.test_task.cache;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.practicum.test_task.sharding.ShardContext;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SearchResultCache {
+
+    private final SearchCacheProperties properties;
+
+    private final AtomicLong generation = new AtomicLong();
+    private final ConcurrentMap<Key, Entry> entries = new ConcurrentHashMap<>();
+
+    public long currentGeneration() {
+        return generation.get();
+    }
+
+    public Optional<List<Long>> get(SearchCriteria criteria) {
+        if (!properties.isEnabled()) return Optional.empty();
+
+        Key key = new Key(ShardContext.current(), criteria);
+        Entry entry = entries.get(key);
+        if (entry == null) return Optional.empty();
+
+        if (entry.generation() != generation.get()) {
+            entries.remove(key, entry);
+            return Optional.empty();
+        }
+        return Optional.of(entry.hotelIds());
+    }
+
+    public void put(SearchCriteria criteria, long observedGeneration, List<Long> hotelIds) {
+        if (!properties.isEnabled() || observedGeneration != generation.get()) return;
+
+        if (entries.size() >= properties.getMaxEntries()) {
+            evictStale();
+        }
+        entries.put(new Key(ShardContext.current(), criteria), new Entry(observedGeneration, List.copyOf(hotelIds)));
+    }
+
+    // bumped again after completion so results read before commit never land under the new generation
+    public void invalidate() {
+        generation.incrementAndGet();
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    generation.incrementAndGet();
+                }
+            });
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private void evictStale() {
+        long current = generation.get();
+        entries.values().removeIf(entry -> entry.generation() != current);
+
+        if (entries.size() >= properties.getMaxEntries()) {
+            log.debug("Search cache is full ({} entries), clearing", entries.size());
+            entries.clear();
+        }
+    }
+
+    // ids are cached per shard, every shard answers the same criteria with its own hotels
+    private record Key(int shard, SearchCriteria criteria) {
+    }
+
+    private record Entry(long generation, List<Long> hotelIds) {
+    }
+}
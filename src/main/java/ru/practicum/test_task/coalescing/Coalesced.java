@@ -0,0 +1,13 @@
+package ru.practicum.test_task.coalescing;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Concurrent calls with equal arguments on the same shard share one execution and its result or exception.
+// Only for reads whose result is not modified by callers, the same instance is returned to all of them.
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Coalesced {
+}
@@ -0,0 +1,58 @@
+package ru.practicum.test_task.coalescing;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.test_task.datasource.ClientWrites;
+import ru.practicum.test_task.datasource.ReplicaRoutingProperties;
+import ru.practicum.test_task.sharding.ShardContext;
+
+import java.util.Arrays;
+import java.util.List;
+
+// Runs outside the transactional advice, so waiting callers hold no connection. A caller that already has
+// a transaction open keeps its own execution, it may expect to see its uncommitted writes. So does a client inside
+// its read-your-writes window: a flight started by someone else may read a lagging replica or predate its commit.
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnProperty(prefix = "hotels.coalescing", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class CoalescingAspect {
+
+    private final CoalescingProperties properties;
+    private final ReplicaRoutingProperties replicaRoutingProperties;
+    private final SingleFlight singleFlight = new SingleFlight();
+
+    public CoalescingAspect(CoalescingProperties properties, ReplicaRoutingProperties replicaRoutingProperties) {
+        this.properties = properties;
+        this.replicaRoutingProperties = replicaRoutingProperties;
+    }
+
+    @Around("@annotation(ru.practicum.test_task.coalescing.Coalesced)")
+    public Object coalesce(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (TransactionSynchronizationManager.isActualTransactionActive()
+                || ClientWrites.wroteWithin(replicaRoutingProperties.getReadYourWritesWindow())) {
+            return joinPoint.proceed();
+        }
+        CallKey key = new CallKey(ShardContext.current(), joinPoint.getSignature().toShortString(),
+                Arrays.asList(joinPoint.getArgs()));
+        return singleFlight.execute(key, properties.getTimeout(), joinPoint::proceed);
+    }
+
+    public SingleFlight getSingleFlight() {
+        return singleFlight;
+    }
+
+    private record CallKey(int shard, String method, List<Object> args) {
+
+        @Override
+        public String toString() {
+            return method + " " + args + " on shard " + shard;
+        }
+    }
+}
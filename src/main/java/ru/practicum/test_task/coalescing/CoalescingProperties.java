@@ -0,0 +1,16 @@
+package ru.practicum.test_task.coalescing;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "hotels.coalescing")
+public class CoalescingProperties {
+
+    private boolean enabled = true;
+
+    // how long a caller waits for an identical call that is already running
+    private Duration timeout = Duration.ofSeconds(5);
+}
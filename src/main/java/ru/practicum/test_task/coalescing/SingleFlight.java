@@ -0,0 +1,70 @@
+package ru.practicum.test_task.coalescing;
+
+import ru.practicum.test_task.exception.CoalescedCallTimeoutException;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+// The first caller for a key runs the call on its own thread, callers arriving while it runs wait for its outcome.
+// The key is released as soon as the call finishes, so nothing is cached beyond the duration of one execution.
+public class SingleFlight {
+
+    private final ConcurrentMap<Object, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong executions = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+
+    public Object execute(Object key, Duration timeout, Call call) throws Throwable {
+        CompletableFuture<Object> own = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(key, own);
+        if (running != null) {
+            coalesced.incrementAndGet();
+            return await(key, running, timeout);
+        }
+
+        executions.incrementAndGet();
+        try {
+            Object result = call.call();
+            own.complete(result);
+            return result;
+        } catch (Throwable e) {
+            own.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, own);
+        }
+    }
+
+    public long getExecutions() {
+        return executions.get();
+    }
+
+    public long getCoalesced() {
+        return coalesced.get();
+    }
+
+    // a waiter gives up on its own, the running call is left alone for the callers still waiting on it
+    private static Object await(Object key, CompletableFuture<Object> running, Duration timeout) throws Throwable {
+        try {
+            return running.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            throw e.getCause();
+        } catch (TimeoutException e) {
+            throw new CoalescedCallTimeoutException(key.toString(), timeout);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CoalescedCallTimeoutException(key.toString(), timeout);
+        }
+    }
+
+    @FunctionalInterface
+    public interface Call {
+
+        Object call() throws Throwable;
+    }
+}
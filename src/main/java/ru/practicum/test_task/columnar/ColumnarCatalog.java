@@ -0,0 +1,345 @@
+package ru.practicum.test_task.columnar;
+
+import ru.practicum.test_task.cache.SearchCriteria;
+import ru.practicum.test_task.model.Address;
+import ru.practicum.test_task.model.Amenity;
+import ru.practicum.test_task.model.ArrivalTime;
+import ru.practicum.test_task.model.Contact;
+import ru.practicum.test_task.model.Hotel;
+import ru.practicum.test_task.util.TextNormalizer;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+// The hotels of one shard as parallel column arrays indexed by row, rows are kept sorted by hotel id.
+// Low-cardinality strings are dictionary codes, amenity links are code arrays and times are seconds of day.
+final class ColumnarCatalog {
+
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int NO_ARRIVAL = Integer.MIN_VALUE;
+    private static final int NO_TIME = -1;
+    private static final int[] NO_CODES = new int[0];
+    private static final String[] NO_VALUES = new String[0];
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final StringDictionary brands = new StringDictionary();
+    private final StringDictionary cities = new StringDictionary();
+    private final StringDictionary counties = new StringDictionary();
+    private final StringDictionary contactTypes = new StringDictionary();
+    private final StringDictionary amenities = new StringDictionary();
+
+    private int size;
+    private final BitSet removed = new BitSet();
+    private final BitSet withAddress = new BitSet();
+
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private String[] names = new String[INITIAL_CAPACITY];
+    private String[] nameNorms = new String[INITIAL_CAPACITY];
+    private String[] descriptions = new String[INITIAL_CAPACITY];
+    private int[] brandCodes = new int[INITIAL_CAPACITY];
+    private String[] houseNumbers = new String[INITIAL_CAPACITY];
+    private String[] streets = new String[INITIAL_CAPACITY];
+    private int[] cityCodes = new int[INITIAL_CAPACITY];
+    private int[] countyCodes = new int[INITIAL_CAPACITY];
+    private String[] postCodes = new String[INITIAL_CAPACITY];
+    private int[][] contactTypeCodes = new int[INITIAL_CAPACITY][];
+    private String[][] contactValues = new String[INITIAL_CAPACITY][];
+    private int[] checkIns = new int[INITIAL_CAPACITY];
+    private int[] checkOuts = new int[INITIAL_CAPACITY];
+    private int[][] amenityCodes = new int[INITIAL_CAPACITY][];
+
+    int liveCount() {
+        lock.readLock().lock();
+        try {
+            return size - removed.cardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    void upsert(Hotel hotel) {
+        lock.writeLock().lock();
+        try {
+            int row = findRow(hotel.getId());
+            if (row < 0) {
+                row = insertRow(-row - 1, hotel.getId());
+            }
+            removed.clear(row);
+            write(row, hotel);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(long hotelId) {
+        lock.writeLock().lock();
+        try {
+            int row = findRow(hotelId);
+            if (row >= 0 && !removed.get(row)) {
+                removed.set(row);
+                clear(row);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    Hotel find(long hotelId) {
+        lock.readLock().lock();
+        try {
+            int row = findRow(hotelId);
+            return row >= 0 && !removed.get(row) ? toHotel(row) : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // in id order
+    <T> List<T> mapAll(Function<Hotel, T> mapper) {
+        lock.readLock().lock();
+        try {
+            List<T> result = new ArrayList<>(size);
+            for (int row = removed.nextClearBit(0); row < size; row = removed.nextClearBit(row + 1)) {
+                result.add(mapper.apply(toHotel(row)));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // keeps the order of the given ids and drops the unknown ones
+    <T> List<T> map(List<Long> hotelIds, Function<Hotel, T> mapper) {
+        lock.readLock().lock();
+        try {
+            List<T> result = new ArrayList<>(hotelIds.size());
+            for (Long hotelId : hotelIds) {
+                int row = findRow(hotelId);
+                if (row >= 0 && !removed.get(row)) {
+                    result.add(mapper.apply(toHotel(row)));
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // same semantics as HotelRepository.findIdsBySearchCriteria, ordered by id
+    List<Long> search(SearchCriteria criteria) {
+        lock.readLock().lock();
+        try {
+            boolean[] brandMatches = criteria.getBrand() == null ? null
+                    : brands.matching(value -> criteria.getBrand().equals(TextNormalizer.normalize(value)));
+            boolean[] cityMatches = criteria.getCity() == null ? null
+                    : cities.matching(value -> criteria.getCity().equals(TextNormalizer.normalize(value)));
+            boolean[] countyMatches = criteria.getCounty() == null ? null
+                    : counties.matching(value -> criteria.getCounty().equals(TextNormalizer.normalize(value)));
+            List<boolean[]> amenityMatches = criteria.getAmenities().stream()
+                    .map(name -> amenities.matching(value -> name.equals(TextNormalizer.normalize(value))))
+                    .toList();
+
+            List<Long> result = new ArrayList<>();
+            for (int row = removed.nextClearBit(0); row < size; row = removed.nextClearBit(row + 1)) {
+                if (criteria.getName() != null
+                        && (nameNorms[row] == null || !nameNorms[row].contains(criteria.getName()))) {
+                    continue;
+                }
+                if (!matches(brandMatches, brandCodes[row])
+                        || cityMatches != null && !(withAddress.get(row) && matches(cityMatches, cityCodes[row]))
+                        || countyMatches != null && !(withAddress.get(row) && matches(countyMatches, countyCodes[row]))
+                        || !hasAllAmenities(amenityMatches, amenityCodes[row])) {
+                    continue;
+                }
+                result.add(ids[row]);
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static boolean matches(boolean[] codeMatches, int code) {
+        return codeMatches == null || code != StringDictionary.NULL_CODE && codeMatches[code];
+    }
+
+    private static boolean hasAllAmenities(List<boolean[]> amenityMatches, int[] codes) {
+        for (boolean[] codeMatches : amenityMatches) {
+            boolean found = false;
+            for (int code : codes) {
+                if (codeMatches[code]) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // binary search over the sorted ids: the row, or -(insertion point) - 1
+    private int findRow(long hotelId) {
+        return Arrays.binarySearch(ids, 0, size, hotelId);
+    }
+
+    // ids mostly arrive in ascending order, a commit that overtook a lower id makes room in the middle
+    private int insertRow(int row, long hotelId) {
+        if (size == ids.length) {
+            grow(size * 2);
+        }
+        if (row < size) {
+            shift(row);
+        }
+        ids[row] = hotelId;
+        size++;
+        return row;
+    }
+
+    private void grow(int capacity) {
+        ids = Arrays.copyOf(ids, capacity);
+        names = Arrays.copyOf(names, capacity);
+        nameNorms = Arrays.copyOf(nameNorms, capacity);
+        descriptions = Arrays.copyOf(descriptions, capacity);
+        brandCodes = Arrays.copyOf(brandCodes, capacity);
+        houseNumbers = Arrays.copyOf(houseNumbers, capacity);
+        streets = Arrays.copyOf(streets, capacity);
+        cityCodes = Arrays.copyOf(cityCodes, capacity);
+        countyCodes = Arrays.copyOf(countyCodes, capacity);
+        postCodes = Arrays.copyOf(postCodes, capacity);
+        contactTypeCodes = Arrays.copyOf(contactTypeCodes, capacity);
+        contactValues = Arrays.copyOf(contactValues, capacity);
+        checkIns = Arrays.copyOf(checkIns, capacity);
+        checkOuts = Arrays.copyOf(checkOuts, capacity);
+        amenityCodes = Arrays.copyOf(amenityCodes, capacity);
+    }
+
+    private void shift(int row) {
+        int length = size - row;
+        for (Object column : new Object[]{ids, names, nameNorms, descriptions, brandCodes, houseNumbers, streets,
+                cityCodes, countyCodes, postCodes, contactTypeCodes, contactValues, checkIns, checkOuts, amenityCodes}) {
+            System.arraycopy(column, row, column, row + 1, length);
+        }
+        shift(removed, row);
+        shift(withAddress, row);
+    }
+
+    private void shift(BitSet bits, int row) {
+        for (int bit = bits.previousSetBit(size - 1); bit >= row; bit = bits.previousSetBit(bit - 1)) {
+            bits.set(bit + 1);
+            bits.clear(bit);
+        }
+    }
+
+    private void write(int row, Hotel hotel) {
+        names[row] = hotel.getName();
+        nameNorms[row] = TextNormalizer.normalize(hotel.getName());
+        descriptions[row] = hotel.getDescription();
+        brandCodes[row] = brands.encode(hotel.getBrand());
+
+        Address address = hotel.getAddress();
+        withAddress.set(row, address != null);
+        houseNumbers[row] = address != null ? address.getHouseNumber() : null;
+        streets[row] = address != null ? address.getStreet() : null;
+        cityCodes[row] = cities.encode(address != null ? address.getCity() : null);
+        countyCodes[row] = counties.encode(address != null ? address.getCounty() : null);
+        postCodes[row] = address != null ? address.getPostCode() : null;
+
+        List<Contact> contacts = Objects.requireNonNullElse(hotel.getContacts(), List.of());
+        int[] types = contacts.isEmpty() ? NO_CODES : new int[contacts.size()];
+        String[] values = contacts.isEmpty() ? NO_VALUES : new String[contacts.size()];
+        for (int i = 0; i < contacts.size(); i++) {
+            types[i] = contactTypes.encode(contacts.get(i).getContactType());
+            values[i] = contacts.get(i).getContactValue();
+        }
+        contactTypeCodes[row] = types;
+        contactValues[row] = values;
+
+        ArrivalTime arrivalTime = hotel.getArrivalTime();
+        checkIns[row] = arrivalTime != null ? encodeTime(arrivalTime.getCheckIn()) : NO_ARRIVAL;
+        checkOuts[row] = arrivalTime != null ? encodeTime(arrivalTime.getCheckOut()) : NO_ARRIVAL;
+
+        List<Amenity> hotelAmenities = Objects.requireNonNullElse(hotel.getAmenities(), List.of());
+        amenityCodes[row] = hotelAmenities.isEmpty() ? NO_CODES : hotelAmenities.stream()
+                .mapToInt(amenity -> amenities.encode(amenity.getName()))
+                .toArray();
+    }
+
+    private void clear(int row) {
+        names[row] = null;
+        nameNorms[row] = null;
+        descriptions[row] = null;
+        houseNumbers[row] = null;
+        streets[row] = null;
+        postCodes[row] = null;
+        contactTypeCodes[row] = NO_CODES;
+        contactValues[row] = NO_VALUES;
+        amenityCodes[row] = NO_CODES;
+        withAddress.clear(row);
+    }
+
+    private Hotel toHotel(int row) {
+        Hotel hotel = new Hotel();
+        hotel.setId(ids[row]);
+        hotel.setName(names[row]);
+        hotel.setDescription(descriptions[row]);
+        hotel.setBrand(brands.decode(brandCodes[row]));
+
+        if (withAddress.get(row)) {
+            Address address = new Address();
+            address.setHouseNumber(houseNumbers[row]);
+            address.setStreet(streets[row]);
+            address.setCity(cities.decode(cityCodes[row]));
+            address.setCounty(counties.decode(countyCodes[row]));
+            address.setPostCode(postCodes[row]);
+            hotel.setAddress(address);
+        }
+
+        hotel.setContacts(decode(contactTypeCodes[row].length, i -> {
+            Contact contact = new Contact();
+            contact.setContactType(contactTypes.decode(contactTypeCodes[row][i]));
+            contact.setContactValue(contactValues[row][i]);
+            return contact;
+        }));
+
+        if (checkIns[row] != NO_ARRIVAL) {
+            ArrivalTime arrivalTime = new ArrivalTime();
+            arrivalTime.setCheckIn(decodeTime(checkIns[row]));
+            arrivalTime.setCheckOut(decodeTime(checkOuts[row]));
+            hotel.setArrivalTime(arrivalTime);
+        }
+
+        hotel.setAmenities(decode(amenityCodes[row].length, i -> {
+            Amenity amenity = new Amenity();
+            amenity.setName(amenities.decode(amenityCodes[row][i]));
+            return amenity;
+        }));
+        return hotel;
+    }
+
+    private static <T> List<T> decode(int count, IntFunction<T> decoder) {
+        List<T> values = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            values.add(decoder.apply(i));
+        }
+        return values;
+    }
+
+    private static int encodeTime(LocalTime time) {
+        return time != null ? time.toSecondOfDay() : NO_TIME;
+    }
+
+    private static LocalTime decodeTime(int secondOfDay) {
+        return secondOfDay != NO_TIME ? LocalTime.ofSecondOfDay(secondOfDay) : null;
+    }
+}
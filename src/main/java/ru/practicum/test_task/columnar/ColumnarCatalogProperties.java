@@ -0,0 +1,13 @@
+package ru.practicum.test_task.columnar;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "hotels.columnar")
+public class ColumnarCatalogProperties {
+
+    private boolean enabled = false;
+
+    private int batchSize = 500;
+}
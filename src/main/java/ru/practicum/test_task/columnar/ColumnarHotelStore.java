@@ -0,0 +1,253 @@
+package ru.practicum.test_task.columnar;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.cache.jcache.internal.JCacheAccessImpl;
+import org.hibernate.cache.spi.Region;
+import org.hibernate.cache.spi.support.DomainDataRegionTemplate;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.test_task.cache.SearchCriteria;
+import ru.practicum.test_task.dto.response.CatalogFootprintDto;
+import ru.practicum.test_task.dto.response.HotelSummaryDto;
+import ru.practicum.test_task.model.Hotel;
+import ru.practicum.test_task.outbox.HotelChangeEvent;
+import ru.practicum.test_task.outbox.HotelChangeListener;
+import ru.practicum.test_task.outbox.OutboxTailer;
+import ru.practicum.test_task.outbox.RebuildPoint;
+import ru.practicum.test_task.repository.HotelRepository;
+import ru.practicum.test_task.repository.OutboxEventRepository;
+import ru.practicum.test_task.service.HotelRowLoader;
+import ru.practicum.test_task.sharding.ShardContext;
+import ru.practicum.test_task.sharding.ShardRouter;
+import ru.practicum.test_task.util.ObjectSizeEstimator;
+
+import javax.cache.Cache;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Read model of the catalog kept as primitive columns per shard. It is built on startup, follows the outbox
+// like the full-text index and additionally catches up right after local commits, so a node reads its own writes.
+@Component
+@Slf4j
+public class ColumnarHotelStore implements HotelChangeListener {
+
+    private static final String HOTEL_REGION = "hotels.hotel";
+
+    private final ColumnarCatalogProperties properties;
+    private final HotelRepository hotelRepository;
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxTailer outboxTailer;
+    private final HotelRowLoader hotelRowLoader;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shardRouter;
+    private final EntityManagerFactory entityManagerFactory;
+
+    private volatile ColumnarCatalog[] catalogs;
+    private volatile boolean ready;
+    // the highest event refreshed after a local commit, later refreshes start from here instead of the offset
+    private final AtomicLongArray refreshedUpTo;
+
+    public ColumnarHotelStore(ColumnarCatalogProperties properties, HotelRepository hotelRepository,
+                              OutboxEventRepository outboxEventRepository, OutboxTailer outboxTailer,
+                              HotelRowLoader hotelRowLoader, PlatformTransactionManager transactionManager,
+                              ShardRouter shardRouter, EntityManagerFactory entityManagerFactory) {
+        this.properties = properties;
+        this.hotelRepository = hotelRepository;
+        this.outboxEventRepository = outboxEventRepository;
+        this.outboxTailer = outboxTailer;
+        this.hotelRowLoader = hotelRowLoader;
+        // also used after a commit, when the finished transaction can no longer be joined
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.shardRouter = shardRouter;
+        this.entityManagerFactory = entityManagerFactory;
+        this.catalogs = new ColumnarCatalog[shardRouter.getShardCount()];
+        this.refreshedUpTo = new AtomicLongArray(shardRouter.getShardCount());
+    }
+
+    @Override
+    public String getName() {
+        return "columnar-catalog";
+    }
+
+    @Override
+    public void onChange(HotelChangeEvent event) {
+        if (ready) {
+            refresh(List.of(event.hotelId()));
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        if (properties.isEnabled()) {
+            rebuild();
+        }
+    }
+
+    public int rebuild() {
+        long startedAt = System.currentTimeMillis();
+        RebuildPoint rebuildPoint = outboxTailer.rebuildPoint();
+        ColumnarCatalog[] rebuilt = new ColumnarCatalog[shardRouter.getShardCount()];
+        shardRouter.forEachShard(shard -> {
+            rebuildPoint.take();
+            rebuilt[shard] = new ColumnarCatalog();
+            List<Long> ids = transactionTemplate.execute(status -> hotelRepository.findAllIds());
+            for (int from = 0; from < ids.size(); from += properties.getBatchSize()) {
+                List<Long> batch = ids.subList(from, Math.min(ids.size(), from + properties.getBatchSize()));
+                transactionTemplate.execute(status -> hotelRowLoader.loadAll(batch))
+                        .forEach(rebuilt[shard]::upsert);
+            }
+        });
+
+        catalogs = rebuilt;
+        for (int shard = 0; shard < refreshedUpTo.length(); shard++) {
+            refreshedUpTo.set(shard, 0);
+        }
+        ready = true;
+        rebuildPoint.resume(getName());
+
+        int hotels = 0;
+        for (ColumnarCatalog catalog : rebuilt) {
+            hotels += catalog.liveCount();
+        }
+        log.info("Built columnar catalog with {} hotels in {} ms", hotels, System.currentTimeMillis() - startedAt);
+        return hotels;
+    }
+
+    // refreshes everything the outbox tailer has not delivered yet, which includes the caller's own changes
+    public void refreshAfterCommit() {
+        if (!ready) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            refreshPending();
+            return;
+        }
+        int shard = ShardContext.current();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                ShardContext.call(shard, () -> {
+                    refreshPending();
+                    return null;
+                });
+            }
+        });
+    }
+
+    public Optional<Hotel> findHotel(Long hotelId) {
+        return ready ? Optional.ofNullable(catalog().find(hotelId)) : Optional.empty();
+    }
+
+    public Optional<List<HotelSummaryDto>> findAllSummaries() {
+        return ready ? Optional.of(catalog().mapAll(HotelSummaryDto::new)) : Optional.empty();
+    }
+
+    public Optional<List<HotelSummaryDto>> findSummaries(List<Long> hotelIds) {
+        return ready ? Optional.of(catalog().map(hotelIds, HotelSummaryDto::new)) : Optional.empty();
+    }
+
+    public Optional<List<Long>> findIds(SearchCriteria criteria) {
+        return ready ? Optional.of(catalog().search(criteria)) : Optional.empty();
+    }
+
+    public CatalogFootprintDto footprint() {
+        ObjectSizeEstimator columnarEstimator = new ObjectSizeEstimator();
+        long columnarHotels = 0;
+        long columnarBytes = 0;
+        for (ColumnarCatalog catalog : catalogs) {
+            if (catalog != null) {
+                columnarHotels += catalog.liveCount();
+                columnarBytes += columnarEstimator.sizeOf(catalog);
+            }
+        }
+
+        // every domain region takes part: entities, their collections and the amenities they point to
+        ObjectSizeEstimator cacheEstimator = new ObjectSizeEstimator();
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        long cachedHotels = 0;
+        long cacheBytes = 0;
+        for (String regionName : sessionFactory.getCache().getCacheRegionNames()) {
+            Region region = sessionFactory.getCache().getRegion(regionName);
+            if (region instanceof DomainDataRegionTemplate template
+                    && template.getCacheStorageAccess() instanceof JCacheAccessImpl access) {
+                Cache<?, ?> cache = access.getUnderlyingCache();
+                for (Cache.Entry<?, ?> entry : cache) {
+                    cacheBytes += cacheEstimator.sizeOf(entry.getKey()) + cacheEstimator.sizeOf(entry.getValue());
+                    if (HOTEL_REGION.equals(regionName)) {
+                        cachedHotels++;
+                    }
+                }
+            }
+        }
+
+        return new CatalogFootprintDto(columnarHotels, columnarBytes, perHotel(columnarBytes, columnarHotels),
+                cachedHotels, cacheBytes, perHotel(cacheBytes, cachedHotels));
+    }
+
+    private static long perHotel(long bytes, long hotels) {
+        return hotels > 0 ? bytes / hotels : 0;
+    }
+
+    private ColumnarCatalog catalog() {
+        return catalogs[ShardContext.current()];
+    }
+
+    // an event that commits after a higher one was refreshed is skipped here, the tailer still delivers it
+    private void refreshPending() {
+        try {
+            int shard = ShardContext.current();
+            long afterId = Math.max(outboxTailer.currentOffset(getName()), refreshedUpTo.get(shard));
+            List<Object[]> changes = transactionTemplate.execute(status ->
+                    outboxEventRepository.findHotelChangesAfter(afterId));
+            if (changes.isEmpty()) {
+                return;
+            }
+            Set<Long> hotelIds = new LinkedHashSet<>();
+            changes.forEach(change -> hotelIds.add((Long) change[1]));
+            refresh(hotelIds);
+            refreshedUpTo.accumulateAndGet(shard, (Long) changes.get(changes.size() - 1)[0], Math::max);
+        } catch (RuntimeException e) {
+            // the tailer delivers the same changes shortly
+            log.warn("Could not refresh the columnar catalog after commit: {}", e.getMessage());
+        }
+    }
+
+    private void refresh(Collection<Long> hotelIds) {
+        if (hotelIds.isEmpty()) {
+            return;
+        }
+        ColumnarCatalog catalog = catalog();
+        Set<Long> missing = new HashSet<>(hotelIds);
+        for (List<Long> batch : batches(new ArrayList<>(hotelIds))) {
+            for (Hotel hotel : transactionTemplate.execute(status -> hotelRowLoader.loadAll(batch))) {
+                catalog.upsert(hotel);
+                missing.remove(hotel.getId());
+            }
+        }
+        missing.forEach(catalog::remove);
+    }
+
+    private List<List<Long>> batches(List<Long> ids) {
+        List<List<Long>> batches = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += properties.getBatchSize()) {
+            batches.add(ids.subList(from, Math.min(ids.size(), from + properties.getBatchSize())));
+        }
+        return batches;
+    }
+}
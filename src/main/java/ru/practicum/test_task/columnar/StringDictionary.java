@@ -0,0 +1,50 @@
+package ru.practicum.test_task.columnar;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+
+// Maps repeated values to dense int codes, every distinct value is kept once. Codes are never reused,
+// a value that is no longer referenced stays in the dictionary until the catalog is rebuilt.
+final class StringDictionary {
+
+    static final int NULL_CODE = -1;
+
+    private final Map<String, Integer> codes = new HashMap<>();
+    private String[] values = new String[16];
+    private int size;
+
+    int encode(String value) {
+        if (value == null) {
+            return NULL_CODE;
+        }
+        Integer code = codes.get(value);
+        if (code != null) {
+            return code;
+        }
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        values[size] = value;
+        codes.put(value, size);
+        return size++;
+    }
+
+    String decode(int code) {
+        return code == NULL_CODE ? null : values[code];
+    }
+
+    int size() {
+        return size;
+    }
+
+    // filters run against the dictionary once instead of against every row
+    boolean[] matching(Predicate<String> predicate) {
+        boolean[] matches = new boolean[size];
+        for (int code = 0; code < size; code++) {
+            matches[code] = predicate.test(values[code]);
+        }
+        return matches;
+    }
+}
@@ -0,0 +1,48 @@
+package ru.practicum.test_task.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import ru.practicum.test_task.columnar.ColumnarHotelStore;
+import ru.practicum.test_task.dto.response.CatalogFootprintDto;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/admin/columnar-catalog")
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "hotels.columnar", name = "enabled", havingValue = "true")
+@Slf4j
+@Tag(name = "Колоночный каталог")
+public class ColumnarCatalogController {
+
+    private final ColumnarHotelStore columnarHotelStore;
+
+    @Operation(summary = "Оценка памяти колоночного каталога в сравнении с кэшем сущностей")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Байт на отель в каждом из представлений")
+    })
+    @GetMapping("/footprint")
+    public ResponseEntity<CatalogFootprintDto> getFootprint() {
+        return ResponseEntity.ok(columnarHotelStore.footprint());
+    }
+
+    @Operation(summary = "Перестроение колоночного каталога из базы данных")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Количество отелей в каталоге")
+    })
+    @PostMapping("/rebuild")
+    public ResponseEntity<Map<String, Integer>> rebuild() {
+        log.info("Rebuilding columnar catalog on request");
+        return ResponseEntity.ok(Map.of("hotels", columnarHotelStore.rebuild()));
+    }
+}
@@ -1,13 +1,21 @@
 package ru.practicum.test_task.controller;
 
+import ru.practicum.test_task.arrival.ArrivalTimeWindow;
+import ru.practicum.test_task.dto.FieldSelection;
+import ru.practicum.test_task.dto.request.BulkAmenitiesRequest;
 import ru.practicum.test_task.dto.request.CreateHotelRequest;
+import ru.practicum.test_task.dto.response.BulkAmenitiesResultDto;
+import ru.practicum.test_task.dto.response.HistogramsDto;
+import ru.practicum.test_task.dto.response.HotelChangesDto;
 import ru.practicum.test_task.dto.response.HotelDetailedDto;
 import ru.practicum.test_task.dto.response.HotelSummaryDto;
+import ru.practicum.test_task.dto.response.TopHistogramDto;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.test_task.service.HotelService;
 
@@ -44,9 +52,33 @@ public class HotelController {
             )
     })
     @GetMapping("/hotels")
-    public ResponseEntity<List<HotelSummaryDto>> getAllHotels() {
+    public ResponseEntity<MappingJacksonValue> getAllHotels(
+            @Parameter(description = "Список полей ответа через запятую, например id,name. По умолчанию возвращаются все поля")
+            @RequestParam(required = false) String fields) {
+        FieldSelection selection = FieldSelection.parse(fields, HotelSummaryDto.FIELDS);
         List<HotelSummaryDto> hotels = hotelService.getAllHotels();
-        return ResponseEntity.ok(hotels);
+        return ResponseEntity.ok(selection.apply(hotels));
+    }
+
+    @Operation(summary = "Получение изменений отелей с момента последней синхронизации",
+            description = "Без токена возвращает все отели и токен для следующих запросов. " +
+                    "С токеном возвращает только созданные или изменённые после него отели")
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = HotelChangesDto.class)
+                    )
+            ),
+            @ApiResponse(responseCode = "400", description = "Некорректный токен"),
+            @ApiResponse(responseCode = "410", description = "Токен устарел, требуется полная синхронизация")
+    })
+    @GetMapping("/hotels/changes")
+    public ResponseEntity<HotelChangesDto> getHotelChanges(
+            @Parameter(description = "Токен из предыдущего ответа")
+            @RequestParam(required = false) String since) {
+        return ResponseEntity.ok(hotelService.getHotelChanges(since));
     }
 
     @Operation(summary = "Получение детальной информации об отеле")
@@ -64,11 +96,15 @@ public class HotelController {
             )
     })
     @GetMapping("/hotels/{id}")
-    public ResponseEntity<HotelDetailedDto> getHotelById(
+    public ResponseEntity<MappingJacksonValue> getHotelById(
             @Parameter(description = "ID отеля", required = true)
-            @PathVariable Long id) {
-        HotelDetailedDto hotel = hotelService.getHotelById(id);
-        return ResponseEntity.ok(hotel);
+            @PathVariable Long id,
+
+            @Parameter(description = "Список полей ответа через запятую, например id,name. По умолчанию возвращаются все поля")
+            @RequestParam(required = false) String fields) {
+        FieldSelection selection = FieldSelection.parse(fields, HotelDetailedDto.FIELDS);
+        HotelDetailedDto hotel = hotelService.getHotelById(id, selection);
+        return ResponseEntity.ok(selection.apply(hotel));
     }
 
     @Operation(summary = "Поиск отелей по параметрам")
@@ -82,7 +118,11 @@ public class HotelController {
             )
     })
     @GetMapping("/search")
-    public ResponseEntity<List<HotelSummaryDto>> searchHotels(
+    public ResponseEntity<MappingJacksonValue> searchHotels(
+            @Parameter(description = "Полнотекстовый запрос по названию, бренду, описанию, городу и удобствам. "
+                    + "Результаты упорядочиваются по релевантности")
+            @RequestParam(required = false) String q,
+
             @Parameter(description = "Название отеля ")
             @RequestParam(required = false) String name,
 
@@ -96,10 +136,24 @@ public class HotelController {
             @RequestParam(required = false) String county,
 
             @Parameter(description = "Список удобств", schema = @Schema(type = "array", implementation = String.class))
-            @RequestParam(required = false) List<String> amenities) {
+            @RequestParam(required = false) List<String> amenities,
 
-        List<HotelSummaryDto> hotels = hotelService.searchHotels(name, brand, city, county, amenities);
-        return ResponseEntity.ok(hotels);
+            @Parameter(description = "Заезд не раньше указанного времени, HH:mm", example = "12:00")
+            @RequestParam(required = false) String checkInAfter,
+
+            @Parameter(description = "Заезд не позже указанного времени, HH:mm", example = "15:00")
+            @RequestParam(required = false) String checkInBefore,
+
+            @Parameter(description = "Выезд не раньше указанного времени, HH:mm", example = "12:00")
+            @RequestParam(required = false) String checkOutAfter,
+
+            @Parameter(description = "Список полей ответа через запятую, например id,name. По умолчанию возвращаются все поля")
+            @RequestParam(required = false) String fields) {
+
+        FieldSelection selection = FieldSelection.parse(fields, HotelSummaryDto.FIELDS);
+        List<HotelSummaryDto> hotels = hotelService.searchHotels(q, name, brand, city, county, amenities,
+                ArrivalTimeWindow.of(checkInAfter, checkInBefore, checkOutAfter));
+        return ResponseEntity.ok(selection.apply(hotels));
     }
 
     @Operation(summary = "Создание нового отеля")
@@ -158,6 +212,25 @@ public class HotelController {
         return ResponseEntity.status(HttpStatus.CREATED).build();
     }
 
+    @Operation(summary = "Массовое добавление или удаление удобств у набора отелей",
+            description = "Набор отелей задаётся списком ID или фильтром. " +
+                    "Изменение выполняется несколькими SQL-запросами независимо от количества отелей")
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = BulkAmenitiesResultDto.class)
+                    )
+            ),
+            @ApiResponse(responseCode = "400", description = "Некорректный запрос")
+    })
+    @PostMapping("/amenities/bulk")
+    public ResponseEntity<BulkAmenitiesResultDto> updateAmenitiesInBulk(
+            @Valid @RequestBody BulkAmenitiesRequest request) {
+        return ResponseEntity.ok(hotelService.updateAmenitiesInBulk(request));
+    }
+
     @Operation(summary = "Получение гистограммы распределения по определённому параметру")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", content = @Content(mediaType = "application/json")),
@@ -166,10 +239,60 @@ public class HotelController {
     @GetMapping("/histogram/{param}")
     public ResponseEntity<Map<String, Long>> getHistogram(
             @Parameter(description = "Параметр для построения гистограммы",
-                    schema = @Schema(allowableValues = {"city", "county", "brand", "amenities"})
+                    schema = @Schema(allowableValues = {"city", "county", "brand", "amenities", "arrival"})
             )
             @PathVariable String param) {
         Map<String, Long> histogram = hotelService.getHistogram(param);
         return ResponseEntity.ok(histogram);
     }
+
+    @Operation(summary = "Получение первых N столбцов гистограммы",
+            description = "Сортировка и ограничение выполняются в базе, остальные столбцы возвращаются одной суммой. " +
+                    "В приближённом режиме результат считается по скетчам count-min и HyperLogLog без обращения к базе")
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = TopHistogramDto.class)
+                    )
+            ),
+            @ApiResponse(responseCode = "400", description = "Некорректные параметры")
+    })
+    @GetMapping(value = "/histogram/{param}", params = "limit")
+    public ResponseEntity<TopHistogramDto> getTopHistogram(
+            @Parameter(description = "Параметр для построения гистограммы",
+                    schema = @Schema(allowableValues = {"city", "county", "brand", "amenities"})
+            )
+            @PathVariable String param,
+            @Parameter(description = "Количество столбцов в ответе", example = "10")
+            @RequestParam int limit,
+            @Parameter(description = "Порядок столбцов по количеству отелей",
+                    schema = @Schema(allowableValues = {"desc", "asc"}))
+            @RequestParam(defaultValue = "desc") String order,
+            @Parameter(description = "Приближённый режим по потоковым скетчам")
+            @RequestParam(defaultValue = "false") boolean approximate) {
+        return ResponseEntity.ok(hotelService.getTopHistogram(param, limit, order, approximate));
+    }
+
+    @Operation(summary = "Получение нескольких гистограмм и перекрёстных таблиц одним запросом",
+            description = "Все запрошенные гистограммы считаются одним SQL-запросом к базе. " +
+                    "Перекрёстная таблица задаётся двумя параметрами через двоеточие, например city:brand")
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = HistogramsDto.class)
+                    )
+            ),
+            @ApiResponse(responseCode = "400", description = "Неизвестный параметр")
+    })
+    @GetMapping("/histogram")
+    public ResponseEntity<HistogramsDto> getHistograms(
+            @Parameter(description = "Параметры через запятую: city, county, brand, amenities " +
+                    "или их пары через двоеточие", example = "city,brand,city:brand")
+            @RequestParam List<String> params) {
+        return ResponseEntity.ok(hotelService.getHistograms(params));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,35 @@
+package ru.practicum.test_task.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import ru.practicum.test_task.search.HotelIndexer;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/admin/search-index")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Полнотекстовый индекс")
+public class SearchIndexController {
+
+    private final HotelIndexer hotelIndexer;
+
+    @Operation(summary = "Перестроение полнотекстового индекса из базы данных")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Количество проиндексированных отелей")
+    })
+    @PostMapping("/rebuild")
+    public ResponseEntity<Map<String, Integer>> rebuild() {
+        log.info("Rebuilding full-text index on request");
+        return ResponseEntity.ok(Map.of("indexed", hotelIndexer.rebuild()));
+    }
+}
@@ -0,0 +1,51 @@
+package ru.practicum.test_task.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import ru.practicum.test_task.slowquery.SlowQuery;
+import ru.practicum.test_task.slowquery.SlowQueryLog;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/admin/slow-queries")
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "hotels.slow-query", name = "enabled", havingValue = "true", matchIfMissing = true)
+@Tag(name = "Журнал медленных запросов")
+public class SlowQueryController {
+
+    private final SlowQueryLog slowQueryLog;
+
+    @Operation(summary = "Последние медленные и выборочные SQL-запросы, начиная с самых новых")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Запросы с параметрами, числом строк, вызывающим методом и планом выполнения")
+    })
+    @GetMapping
+    public ResponseEntity<List<SlowQuery>> getSlowQueries(
+            @Parameter(description = "Только запросы, превысившие порог")
+            @RequestParam(defaultValue = "false") boolean slowOnly) {
+        List<SlowQuery> entries = slowQueryLog.getEntries();
+        return ResponseEntity.ok(slowOnly ? entries.stream().filter(SlowQuery::isSlow).toList() : entries);
+    }
+
+    @Operation(summary = "Очистка журнала медленных запросов")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "Журнал очищен")
+    })
+    @DeleteMapping
+    public ResponseEntity<Void> clear() {
+        slowQueryLog.clear();
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,57 @@
+package ru.practicum.test_task.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import ru.practicum.test_task.tracing.StoredTrace;
+import ru.practicum.test_task.tracing.TraceStore;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/admin/traces")
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "hotels.tracing", name = "enabled", havingValue = "true", matchIfMissing = true)
+@Tag(name = "Трассировка запросов")
+public class TraceController {
+
+    private final TraceStore traceStore;
+
+    @Operation(summary = "Сохранённые трассы запросов, начиная с самых новых")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Трассы с разбивкой времени по контроллеру, сервису, SQL и сериализации")
+    })
+    @GetMapping
+    public ResponseEntity<List<StoredTrace>> getTraces(
+            @Parameter(description = "Минимальная длительность запроса в миллисекундах")
+            @RequestParam(defaultValue = "0") double minDurationMs,
+            @Parameter(description = "Фрагмент URI запроса")
+            @RequestParam(required = false) String uri) {
+        return ResponseEntity.ok(traceStore.getTraces().stream()
+                .filter(trace -> trace.durationMillis() >= minDurationMs)
+                .filter(trace -> uri == null || trace.uri().contains(uri))
+                .toList());
+    }
+
+    @Operation(summary = "Трасса запроса по ID")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Трасса найдена"),
+            @ApiResponse(responseCode = "404", description = "Трасса не найдена или уже вытеснена")
+    })
+    @GetMapping("/{id}")
+    public ResponseEntity<StoredTrace> getTrace(@PathVariable long id) {
+        return traceStore.find(id)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+}
@@ -0,0 +1,54 @@
+package ru.practicum.test_task.datasource;
+
+import java.time.Duration;
+import java.util.function.LongConsumer;
+
+// When the current client last committed a write, as epoch millis. A web request carries it in a cookie, any other
+// thread keeps its own, so one client's writes never pin another client's reads to the primary.
+public final class ClientWrites {
+
+    public static final long NEVER = Long.MIN_VALUE;
+
+    private static final ThreadLocal<Client> CURRENT = ThreadLocal.withInitial(() -> new Client(NEVER, null));
+
+    private ClientWrites() {
+    }
+
+    public static long lastWriteAt() {
+        return CURRENT.get().lastWriteAt;
+    }
+
+    // the clocks of different instances may disagree a little either way
+    public static boolean wroteWithin(Duration window) {
+        long lastWrite = lastWriteAt();
+        return lastWrite != NEVER && Math.abs(System.currentTimeMillis() - lastWrite) < window.toMillis();
+    }
+
+    public static void recordWrite(long writtenAt) {
+        Client client = CURRENT.get();
+        client.lastWriteAt = writtenAt;
+        if (client.onWrite != null) {
+            client.onWrite.accept(writtenAt);
+        }
+    }
+
+    // onWrite hands a new write time back to the client, e.g. as a cookie
+    public static void bind(long lastWriteAt, LongConsumer onWrite) {
+        CURRENT.set(new Client(lastWriteAt, onWrite));
+    }
+
+    public static void unbind() {
+        CURRENT.remove();
+    }
+
+    private static final class Client {
+
+        private long lastWriteAt;
+        private final LongConsumer onWrite;
+
+        private Client(long lastWriteAt, LongConsumer onWrite) {
+            this.lastWriteAt = lastWriteAt;
+            this.onWrite = onWrite;
+        }
+    }
+}
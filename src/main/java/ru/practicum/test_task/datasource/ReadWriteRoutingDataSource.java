@@ -0,0 +1,119 @@
+package ru.practicum.test_task.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+@Slf4j
+public class ReadWriteRoutingDataSource extends AbstractDataSource implements AutoCloseable {
+
+    private static final long NEVER = Long.MIN_VALUE;
+
+    private final DataSource primary;
+    private final List<DataSource> replicas;
+    private final ReplicaRoutingProperties properties;
+
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private final AtomicLongArray replicaDownUntil;
+
+    public ReadWriteRoutingDataSource(DataSource primary, List<DataSource> replicas, ReplicaRoutingProperties properties) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.properties = properties;
+        this.replicaDownUntil = new AtomicLongArray(replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            replicaDownUntil.set(i, NEVER);
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            trackWrite();
+            return primary.getConnection();
+        }
+        if (replicas.isEmpty() || isWithinReadYourWritesWindow()) {
+            return primary.getConnection();
+        }
+        return getReplicaConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return getConnection();
+    }
+
+    // only the client that wrote is pinned
+    public boolean isWithinReadYourWritesWindow() {
+        return ClientWrites.wroteWithin(properties.getReadYourWritesWindow());
+    }
+
+    public void markWrite() {
+        ClientWrites.recordWrite(System.currentTimeMillis());
+    }
+
+    @Override
+    public void close() throws Exception {
+        closeIfPossible(primary);
+        for (DataSource replica : replicas) {
+            closeIfPossible(replica);
+        }
+    }
+
+    private Connection getReplicaConnection() throws SQLException {
+        int start = selectReplica();
+        long now = System.nanoTime();
+
+        for (int attempt = 0; attempt < replicas.size(); attempt++) {
+            int index = (start + attempt) % replicas.size();
+            long downUntil = replicaDownUntil.get(index);
+            if (downUntil != NEVER && downUntil - now > 0) {
+                continue;
+            }
+            try {
+                return replicas.get(index).getConnection();
+            } catch (SQLException e) {
+                log.warn("Replica {} is unavailable, falling back: {}", index, e.getMessage());
+                replicaDownUntil.set(index, now + properties.getReplicaRetryInterval().toNanos());
+            }
+        }
+
+        log.debug("No replica available, routing read-only transaction to primary");
+        return primary.getConnection();
+    }
+
+    private int selectReplica() {
+        if (properties.getLoadBalancing() == ReplicaRoutingProperties.LoadBalancingPolicy.RANDOM) {
+            return ThreadLocalRandom.current().nextInt(replicas.size());
+        }
+        return Math.floorMod(nextReplica.getAndIncrement(), replicas.size());
+    }
+
+    private void trackWrite() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()
+                || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                markWrite();
+            }
+        });
+    }
+
+    private void closeIfPossible(DataSource dataSource) throws Exception {
+        if (dataSource instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+}
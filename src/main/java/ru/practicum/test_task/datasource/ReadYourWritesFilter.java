@@ -0,0 +1,62 @@
+package ru.practicum.test_task.datasource;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+// Binds the client's last write time from a cookie for the routing data source and hands a new one back after a
+// write commits. The cookie expires with the read-your-writes window and follows the client to any instance.
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    public static final String COOKIE_NAME = "hotels-last-write";
+
+    private final ReplicaRoutingProperties properties;
+
+    public ReadYourWritesFilter(ReplicaRoutingProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        ClientWrites.bind(readLastWrite(request), writtenAt -> {
+            if (!response.isCommitted()) {
+                response.addCookie(lastWriteCookie(writtenAt));
+            }
+        });
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            ClientWrites.unbind();
+        }
+    }
+
+    private long readLastWrite(HttpServletRequest request) {
+        if (request.getCookies() == null) {
+            return ClientWrites.NEVER;
+        }
+        for (Cookie cookie : request.getCookies()) {
+            if (COOKIE_NAME.equals(cookie.getName())) {
+                try {
+                    return Long.parseLong(cookie.getValue());
+                } catch (NumberFormatException e) {
+                    return ClientWrites.NEVER;
+                }
+            }
+        }
+        return ClientWrites.NEVER;
+    }
+
+    private Cookie lastWriteCookie(long writtenAt) {
+        Cookie cookie = new Cookie(COOKIE_NAME, String.valueOf(writtenAt));
+        cookie.setPath("/");
+        cookie.setHttpOnly(true);
+        cookie.setMaxAge((int) Math.max(1, properties.getReadYourWritesWindow().toSeconds()));
+        return cookie;
+    }
+}
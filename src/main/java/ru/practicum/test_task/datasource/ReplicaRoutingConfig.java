@@ -0,0 +1,49 @@
+package ru.practicum.test_task.datasource;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+// replicas are not routed per shard; with sharding on, ShardingConfig refuses to start instead
+@Configuration
+@ConditionalOnExpression("${hotels.datasource.routing.enabled:false} and !${hotels.sharding.enabled:false}")
+public class ReplicaRoutingConfig {
+
+    @Bean
+    public ReadWriteRoutingDataSource readWriteRoutingDataSource(DataSourceProperties dataSourceProperties,
+                                                                 ReplicaRoutingProperties properties) {
+        DataSource primary = dataSourceProperties.initializeDataSourceBuilder().build();
+
+        List<DataSource> replicas = properties.getReplicas().stream()
+                .<DataSource>map(replica -> DataSourceBuilder.create()
+                        .url(replica.getUrl())
+                        .username(replica.getUsername() != null ? replica.getUsername() : dataSourceProperties.getUsername())
+                        .password(replica.getPassword() != null ? replica.getPassword() : dataSourceProperties.getPassword())
+                        .driverClassName(replica.getDriverClassName() != null
+                                ? replica.getDriverClassName()
+                                : dataSourceProperties.getDriverClassName())
+                        .build())
+                .toList();
+
+        return new ReadWriteRoutingDataSource(primary, replicas, properties);
+    }
+
+    @Bean
+    public ReadYourWritesFilter readYourWritesFilter(ReplicaRoutingProperties properties) {
+        return new ReadYourWritesFilter(properties);
+    }
+
+    // the physical connection is fetched on the first statement, after the transaction's read-only flag is known
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadWriteRoutingDataSource readWriteRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(readWriteRoutingDataSource);
+    }
+}
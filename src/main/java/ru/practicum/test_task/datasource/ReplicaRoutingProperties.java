@@ -0,0 +1,40 @@
+package ru.practicum.test_task.datasource;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "hotels.datasource.routing")
+public class ReplicaRoutingProperties {
+
+    private boolean enabled = false;
+
+    private LoadBalancingPolicy loadBalancing = LoadBalancingPolicy.ROUND_ROBIN;
+
+    private Duration readYourWritesWindow = Duration.ofSeconds(2);
+
+    private Duration replicaRetryInterval = Duration.ofSeconds(30);
+
+    private List<Replica> replicas = new ArrayList<>();
+
+    public enum LoadBalancingPolicy {
+        ROUND_ROBIN,
+        RANDOM
+    }
+
+    @Data
+    public static class Replica {
+
+        private String url;
+
+        private String username;
+
+        private String password;
+
+        private String driverClassName;
+    }
+}
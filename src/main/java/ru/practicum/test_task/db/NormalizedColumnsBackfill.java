@@ -0,0 +1,91 @@
+package ru.practicum.test_task.db;
+
+import liquibase.change.custom.CustomTaskChange;
+import liquibase.database.Database;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.exception.CustomChangeException;
+import liquibase.exception.ValidationErrors;
+import liquibase.resource.ResourceAccessor;
+import ru.practicum.test_task.util.TextNormalizer;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+// Backfills the *_norm columns with the same Java routine the entities use, which SQL functions cannot reproduce
+public class NormalizedColumnsBackfill implements CustomTaskChange {
+
+    private static final int BATCH_SIZE = 500;
+
+    // set from the changeset; the columns added later get a changeset of their own
+    private String tables = "hotels,addresses";
+
+    public void setTables(String tables) {
+        this.tables = tables;
+    }
+
+    @Override
+    public void execute(Database database) throws CustomChangeException {
+        Connection connection = ((JdbcConnection) database.getConnection()).getUnderlyingConnection();
+        try {
+            for (String table : List.of(tables.split(","))) {
+                switch (table.trim()) {
+                    case "hotels" -> backfill(connection, "SELECT id, name, brand FROM hotels",
+                            "UPDATE hotels SET name_norm = ?, brand_norm = ? WHERE id = ?");
+                    case "addresses" -> backfill(connection, "SELECT id, city, county FROM addresses",
+                            "UPDATE addresses SET city_norm = ?, county_norm = ? WHERE id = ?");
+                    case "amenities" -> backfill(connection, "SELECT id, name FROM amenities",
+                            "UPDATE amenities SET name_norm = ? WHERE id = ?");
+                    default -> throw new CustomChangeException("No normalized columns in table " + table);
+                }
+            }
+        } catch (SQLException e) {
+            throw new CustomChangeException("Failed to backfill normalized columns", e);
+        }
+    }
+
+    // the select returns the id followed by the source columns, in the order of the update's parameters
+    private void backfill(Connection connection, String select, String update) throws SQLException {
+        try (Statement query = connection.createStatement();
+             ResultSet rows = query.executeQuery(select);
+             PreparedStatement statement = connection.prepareStatement(update)) {
+            int columns = rows.getMetaData().getColumnCount() - 1;
+            int pending = 0;
+            while (rows.next()) {
+                for (int column = 1; column <= columns; column++) {
+                    statement.setString(column, TextNormalizer.normalize(rows.getString(column + 1)));
+                }
+                statement.setLong(columns + 1, rows.getLong(1));
+                statement.addBatch();
+                if (++pending == BATCH_SIZE) {
+                    statement.executeBatch();
+                    pending = 0;
+                }
+            }
+            if (pending > 0) {
+                statement.executeBatch();
+            }
+        }
+    }
+
+    @Override
+    public String getConfirmationMessage() {
+        return "Normalized columns backfilled";
+    }
+
+    @Override
+    public void setUp() {
+    }
+
+    @Override
+    public void setFileOpener(ResourceAccessor resourceAccessor) {
+    }
+
+    @Override
+    public ValidationErrors validate(Database database) {
+        return new ValidationErrors();
+    }
+}
@@ -0,0 +1,36 @@
+package ru.practicum.test_task.dto.request;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Data
+@Schema(description = "Запрос на массовое добавление или удаление удобств у набора отелей. " +
+        "Набор задаётся либо списком ID, либо фильтром")
+public class BulkAmenitiesRequest {
+
+    @Schema(description = "Действие над удобствами", requiredMode = Schema.RequiredMode.REQUIRED)
+    @NotNull(message = "Action is required")
+    private Action action;
+
+    @Schema(description = "Названия удобств", requiredMode = Schema.RequiredMode.REQUIRED,
+            example = "[\"Wi-Fi\", \"Парковка\"]")
+    @NotEmpty(message = "Amenities are required")
+    private List<String> amenities;
+
+    @Schema(description = "ID отелей. Не задаётся вместе с фильтром", nullable = true)
+    private List<Long> hotelIds;
+
+    @Schema(description = "Фильтр отелей с той же семантикой, что и у поиска. Не задаётся вместе со списком ID. " +
+            "Для выбора всех отелей передаётся {\"all\": true}", nullable = true)
+    private HotelFilterRequest filter;
+
+    @Schema(description = "Действие над удобствами")
+    public enum Action {
+        ATTACH,
+        DETACH
+    }
+}
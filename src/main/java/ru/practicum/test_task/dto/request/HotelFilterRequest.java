@@ -0,0 +1,30 @@
+package ru.practicum.test_task.dto.request;
+
+import lombok.Data;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Data
+@Schema(description = "Фильтр отелей")
+public class HotelFilterRequest {
+
+    @Schema(description = "Часть названия отеля", nullable = true)
+    private String name;
+
+    @Schema(description = "Бренд отеля", nullable = true)
+    private String brand;
+
+    @Schema(description = "Город", nullable = true)
+    private String city;
+
+    @Schema(description = "Страна", nullable = true)
+    private String county;
+
+    @Schema(description = "Удобства, которые должны быть у отеля (все сразу)", nullable = true)
+    private List<String> amenities;
+
+    @Schema(description = "Явное подтверждение выбора всех отелей. Пустой фильтр без этого флага отклоняется, " +
+            "с условиями фильтра флаг не задаётся")
+    private boolean all;
+}
@@ -0,0 +1,30 @@
+package ru.practicum.test_task.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@Schema(description = "Результат массового изменения удобств")
+public class BulkAmenitiesResultDto {
+
+    @Schema(description = "Количество отелей, у которых изменился набор удобств")
+    private int hotelsAffected;
+
+    @Schema(description = "Количество добавленных или удалённых связей отель-удобство")
+    private int rowsAffected;
+
+    @Schema(description = "Шарды, на которых изменение не выполнено; изменения на остальных шардах сохранены")
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    private List<Integer> failedShards = new ArrayList<>();
+
+    public BulkAmenitiesResultDto(int hotelsAffected, int rowsAffected) {
+        this.hotelsAffected = hotelsAffected;
+        this.rowsAffected = rowsAffected;
+    }
+}
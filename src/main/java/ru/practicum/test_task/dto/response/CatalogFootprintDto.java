@@ -0,0 +1,31 @@
+package ru.practicum.test_task.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Оценка занимаемой памяти: колоночный каталог против кэша сущностей второго уровня")
+public class CatalogFootprintDto {
+
+    @Schema(description = "Количество отелей в колоночном каталоге")
+    private long columnarHotels;
+
+    @Schema(description = "Память колоночного каталога, байт")
+    private long columnarBytes;
+
+    @Schema(description = "Память колоночного каталога на один отель, байт")
+    private long columnarBytesPerHotel;
+
+    @Schema(description = "Количество отелей в кэше сущностей")
+    private long entityCacheHotels;
+
+    @Schema(description = "Память кэша сущностей (отели, адреса, контакты, время заезда, удобства и их коллекции), байт")
+    private long entityCacheBytes;
+
+    @Schema(description = "Память кэша сущностей на один отель, байт")
+    private long entityCacheBytesPerHotel;
+}
@@ -0,0 +1,19 @@
+package ru.practicum.test_task.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Столбец гистограммы")
+public class HistogramBucketDto {
+
+    @Schema(description = "Значение параметра", example = "Minsk")
+    private String label;
+
+    @Schema(description = "Количество отелей", example = "42")
+    private long count;
+}
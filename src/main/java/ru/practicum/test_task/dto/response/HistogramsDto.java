@@ -0,0 +1,22 @@
+package ru.practicum.test_task.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Гистограммы по нескольким параметрам, построенные одним запросом к базе")
+public class HistogramsDto {
+
+    @Schema(description = "Гистограммы по отдельным параметрам: параметр → значение → количество отелей")
+    private Map<String, Map<String, Long>> histograms;
+
+    @Schema(description = "Перекрёстные таблицы: пара параметров через двоеточие → значение первого параметра → " +
+            "значение второго параметра → количество отелей")
+    private Map<String, Map<String, Map<String, Long>>> crossTabs;
+}
@@ -0,0 +1,27 @@
+package ru.practicum.test_task.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Изменения отелей с момента, заданного токеном синхронизации")
+public class HotelChangesDto {
+
+    @Schema(description = "Созданные или изменённые отели")
+    private List<HotelSummaryDto> hotels;
+
+    @Schema(description = "ID отелей, которых больше нет")
+    private List<Long> removedIds;
+
+    @Schema(description = "Токен для следующего запроса изменений")
+    private String nextToken;
+
+    @Schema(description = "Есть ли ещё изменения, не поместившиеся в ответ")
+    private boolean hasMore;
+}
@@ -1,6 +1,8 @@
 package ru.practicum.test_task.dto.response;
 
+import com.fasterxml.jackson.annotation.JsonFilter;
 import lombok.Data;
+import ru.practicum.test_task.dto.FieldSelection;
 import ru.practicum.test_task.model.Amenity;
 import ru.practicum.test_task.model.Contact;
 import ru.practicum.test_task.model.Hotel;
@@ -9,12 +11,17 @@ import io.swagger.v3.oas.annotations.media.ArraySchema;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Data
+@JsonFilter(FieldSelection.FILTER_ID)
 @Schema(description = "Детальная информация об отеле")
 public class HotelDetailedDto {
 
+    public static final Set<String> FIELDS =
+            Set.of("id", "name", "brand", "address", "contacts", "arrivalTime", "amenities");
+
     @Schema(description = "ID отеля")
     private Long id;
 
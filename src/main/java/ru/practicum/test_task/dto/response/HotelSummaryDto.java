@@ -1,19 +1,26 @@
 package ru.practicum.test_task.dto.response;
 
+import com.fasterxml.jackson.annotation.JsonFilter;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import ru.practicum.test_task.dto.FieldSelection;
 import ru.practicum.test_task.model.Address;
 import ru.practicum.test_task.model.Contact;
 import ru.practicum.test_task.model.Hotel;
+import ru.practicum.test_task.model.HotelSummary;
 import io.swagger.v3.oas.annotations.media.Schema;
 
 import java.util.List;
+import java.util.Set;
 
 @Data
 @NoArgsConstructor
+@JsonFilter(FieldSelection.FILTER_ID)
 @Schema(description = "Краткая информация об отеле")
 public class HotelSummaryDto {
 
+    public static final Set<String> FIELDS = Set.of("id", "name", "description", "address", "phone");
+
     @Schema(description = "ID отеля")
     private Long id;
 
@@ -43,7 +50,15 @@ public class HotelSummaryDto {
         this.phone = extractPhone(hotel.getContacts());
     }
 
-    private String formatAddress(Address address) {
+    public HotelSummaryDto(HotelSummary summary) {
+        this.id = summary.getId();
+        this.name = summary.getName();
+        this.description = summary.getDescription();
+        this.address = summary.getAddress();
+        this.phone = summary.getPhone();
+    }
+
+    public static String formatAddress(Address address) {
         if (address == null) return null;
 
         return String.format("%s %s, %s, %s, %s",
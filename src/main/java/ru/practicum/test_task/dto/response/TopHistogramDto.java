@@ -0,0 +1,28 @@
+package ru.practicum.test_task.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Первые N столбцов гистограммы и сумма по остальным")
+public class TopHistogramDto {
+
+    @Schema(description = "Столбцы в запрошенном порядке")
+    private List<HistogramBucketDto> buckets;
+
+    @Schema(description = "Суммарное количество отелей в столбцах, не вошедших в ответ")
+    private long other;
+
+    @Schema(description = "Количество различных значений параметра; в приближённом режиме не уменьшается при удалениях " +
+            "до следующего перестроения скетчей")
+    private long distinct;
+
+    @Schema(description = "Признак приближённого результата, посчитанного по потоковым скетчам")
+    private boolean approximate;
+}
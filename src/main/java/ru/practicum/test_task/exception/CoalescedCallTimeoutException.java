@@ -0,0 +1,10 @@
+package ru.practicum.test_task.exception;
+
+import java.time.Duration;
+
+public class CoalescedCallTimeoutException extends RuntimeException {
+
+    public CoalescedCallTimeoutException(String call, Duration timeout) {
+        super("Timed out after " + timeout.toMillis() + " ms waiting for an identical request: " + call);
+    }
+}
@@ -0,0 +1,8 @@
+package ru.practicum.test_task.exception;
+
+public class HistogramsNotReadyException extends RuntimeException {
+
+    public HistogramsNotReadyException() {
+        super("Approximate histograms are not built yet, retry later");
+    }
+}
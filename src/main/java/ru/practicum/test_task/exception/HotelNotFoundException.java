@@ -0,0 +1,15 @@
+package ru.practicum.test_task.exception;
+
+import lombok.Getter;
+
+// Thrown for every probe of an unknown id, so it skips the stack trace and suppression bookkeeping
+@Getter
+public class HotelNotFoundException extends RuntimeException {
+
+    private final Long hotelId;
+
+    public HotelNotFoundException(Long hotelId) {
+        super("Hotel not found with id: " + hotelId, null, false, false);
+        this.hotelId = hotelId;
+    }
+}
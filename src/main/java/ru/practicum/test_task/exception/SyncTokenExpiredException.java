@@ -0,0 +1,14 @@
+package ru.practicum.test_task.exception;
+
+import lombok.Getter;
+
+@Getter
+public class SyncTokenExpiredException extends RuntimeException {
+
+    private final String token;
+
+    public SyncTokenExpiredException(String token) {
+        super("Sync token " + token + " has expired, a full sync is required");
+        this.token = token;
+    }
+}
@@ -0,0 +1,38 @@
+package ru.practicum.test_task.histogram;
+
+// Frequencies in depth x width counters. As long as no true count goes below zero an estimate never undercounts,
+// and it overcounts by more than 2 * total / width with probability below 2^-depth. Removals are negative deltas.
+public class CountMinSketch {
+
+    private final long[][] counters;
+    private final int width;
+
+    public CountMinSketch(int depth, int width) {
+        if (depth < 1 || width < 1) {
+            throw new IllegalArgumentException("Count-min sketch dimensions must be positive");
+        }
+        this.counters = new long[depth][width];
+        this.width = width;
+    }
+
+    public void add(long hash, long delta) {
+        for (int row = 0; row < counters.length; row++) {
+            counters[row][column(hash, row)] += delta;
+        }
+    }
+
+    public long estimate(long hash) {
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < counters.length; row++) {
+            estimate = Math.min(estimate, counters[row][column(hash, row)]);
+        }
+        return estimate;
+    }
+
+    // the rows use independent-enough hashes derived from the two halves of one 64-bit hash
+    private int column(long hash, int row) {
+        int low = (int) hash;
+        int high = (int) (hash >>> 32);
+        return Math.floorMod(low + row * high, width);
+    }
+}
@@ -0,0 +1,79 @@
+package ru.practicum.test_task.histogram;
+
+import ru.practicum.test_task.dto.response.HistogramsDto;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Rolls fine-grained group counts up into the requested histograms. Groups are keyed by normalized labels and
+// shown with the smallest spelling, like MIN(label) ... GROUP BY *_norm does on a single database.
+public class HistogramAccumulator {
+
+    private final List<HistogramSpec> specs;
+    private final Map<HistogramSpec, Map<List<String>, Cell>> cells = new HashMap<>();
+
+    public HistogramAccumulator(List<HistogramSpec> specs) {
+        this.specs = specs;
+        specs.forEach(spec -> cells.put(spec, new LinkedHashMap<>()));
+    }
+
+    // groups without a value for one of the dimensions, e.g. hotels without a brand, are not counted
+    public void add(HistogramSpec spec, List<String> labels, long count) {
+        List<String> key = new ArrayList<>(labels.size());
+        for (int i = 0; i < labels.size(); i++) {
+            if (labels.get(i) == null) {
+                return;
+            }
+            key.add(spec.dimensions().get(i).groupKey(labels.get(i)));
+        }
+        cells.get(spec).merge(key, new Cell(labels, count), Cell::merge);
+    }
+
+    public void addAll(HistogramsDto histograms) {
+        for (HistogramSpec spec : specs) {
+            if (spec.isCrossTab()) {
+                histograms.getCrossTabs().getOrDefault(spec.name(), Map.of()).forEach((row, columns) ->
+                        columns.forEach((column, count) -> add(spec, List.of(row, column), count)));
+            } else {
+                histograms.getHistograms().getOrDefault(spec.name(), Map.of())
+                        .forEach((label, count) -> add(spec, List.of(label), count));
+            }
+        }
+    }
+
+    public HistogramsDto toDto() {
+        Map<String, Map<String, Long>> histograms = new LinkedHashMap<>();
+        Map<String, Map<String, Map<String, Long>>> crossTabs = new LinkedHashMap<>();
+        for (HistogramSpec spec : specs) {
+            if (spec.isCrossTab()) {
+                Map<String, Map<String, Long>> table = new TreeMap<>();
+                cells.get(spec).values().forEach(cell -> table
+                        .computeIfAbsent(cell.labels().get(0), row -> new TreeMap<>())
+                        .put(cell.labels().get(1), cell.count()));
+                crossTabs.put(spec.name(), table);
+            } else {
+                Map<String, Long> histogram = new TreeMap<>();
+                cells.get(spec).values().forEach(cell -> histogram.put(cell.labels().get(0), cell.count()));
+                histograms.put(spec.name(), histogram);
+            }
+        }
+        return new HistogramsDto(histograms, crossTabs);
+    }
+
+    private record Cell(List<String> labels, long count) {
+
+        Cell merge(Cell other) {
+            List<String> labels = new ArrayList<>(this.labels.size());
+            for (int i = 0; i < this.labels.size(); i++) {
+                String label = this.labels.get(i);
+                String otherLabel = other.labels.get(i);
+                labels.add(label.compareTo(otherLabel) <= 0 ? label : otherLabel);
+            }
+            return new Cell(labels, count + other.count);
+        }
+    }
+}
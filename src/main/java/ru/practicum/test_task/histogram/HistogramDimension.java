@@ -0,0 +1,51 @@
+package ru.practicum.test_task.histogram;
+
+import ru.practicum.test_task.util.TextNormalizer;
+
+import java.util.Locale;
+
+// Columns are those of the grouped histogram statement: hotels h, addresses a, amenities am
+public enum HistogramDimension {
+    BRAND("h.brand", "h.brand_norm"),
+    CITY("a.city", "a.city_norm"),
+    COUNTY("a.county", "a.county_norm"),
+    AMENITIES("am.name", "am.id");
+
+    private final String labelColumn;
+    private final String groupColumn;
+
+    HistogramDimension(String labelColumn, String groupColumn) {
+        this.labelColumn = labelColumn;
+        this.groupColumn = groupColumn;
+    }
+
+    public static HistogramDimension of(String param) {
+        for (HistogramDimension dimension : values()) {
+            if (dimension.paramName().equalsIgnoreCase(param.trim())) {
+                return dimension;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported histogram parameter: " + param);
+    }
+
+    public String paramName() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    public String labelColumn() {
+        return labelColumn;
+    }
+
+    public String groupColumn() {
+        return groupColumn;
+    }
+
+    public boolean isAddressColumn() {
+        return this == CITY || this == COUNTY;
+    }
+
+    // labels are counted together when they normalize to the same value, amenity names are unique as stored
+    public String groupKey(String label) {
+        return this == AMENITIES ? label : TextNormalizer.normalize(label);
+    }
+}
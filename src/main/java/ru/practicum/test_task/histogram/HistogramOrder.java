@@ -0,0 +1,15 @@
+package ru.practicum.test_task.histogram;
+
+public enum HistogramOrder {
+    ASC,
+    DESC;
+
+    public static HistogramOrder of(String order) {
+        for (HistogramOrder value : values()) {
+            if (value.name().equalsIgnoreCase(order.trim())) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported histogram order: " + order);
+    }
+}
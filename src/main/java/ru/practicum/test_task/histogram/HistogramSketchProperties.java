@@ -0,0 +1,22 @@
+package ru.practicum.test_task.histogram;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "hotels.histogram-sketch")
+public class HistogramSketchProperties {
+
+    private boolean enabled = true;
+
+    // count-min counters per row and number of rows
+    private int width = 2048;
+
+    private int depth = 5;
+
+    // HyperLogLog uses 2^precision registers
+    private int precision = 14;
+
+    // heavy-hitter candidates kept per dimension, the largest limit an approximate histogram can serve
+    private int topCapacity = 100;
+}
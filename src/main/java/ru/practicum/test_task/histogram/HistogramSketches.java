@@ -0,0 +1,244 @@
+package ru.practicum.test_task.histogram;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.test_task.dto.response.HistogramBucketDto;
+import ru.practicum.test_task.dto.response.TopHistogramDto;
+import ru.practicum.test_task.exception.HistogramsNotReadyException;
+import ru.practicum.test_task.model.HotelChangeType;
+import ru.practicum.test_task.outbox.HotelChangeEvent;
+import ru.practicum.test_task.outbox.HotelChangeListener;
+import ru.practicum.test_task.outbox.OutboxTailer;
+import ru.practicum.test_task.outbox.RebuildPoint;
+import ru.practicum.test_task.repository.HistogramRepository;
+import ru.practicum.test_task.repository.HotelRepository;
+import ru.practicum.test_task.sharding.ShardContext;
+import ru.practicum.test_task.sharding.ShardRouter;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Approximate histograms of the whole catalog, all shards included: a count-min sketch for frequencies,
+// HyperLogLog for the number of distinct values and a bounded set of heavy-hitter candidates per dimension.
+// Built from one grouped query on startup and then kept up to date from the outbox, one event at a time.
+// HyperLogLog cannot forget a value, so the distinct count never goes down until the next rebuild.
+@Component
+@Slf4j
+public class HistogramSketches implements HotelChangeListener {
+
+    private final HistogramSketchProperties properties;
+    private final HistogramRepository histogramRepository;
+    private final HotelRepository hotelRepository;
+    private final OutboxTailer outboxTailer;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shardRouter;
+
+    private Map<HistogramDimension, DimensionSketch> sketches;
+    // delivery is at-least-once, an event at or below this id was already counted on its shard
+    private final AtomicLongArray appliedUpTo;
+
+    public HistogramSketches(HistogramSketchProperties properties, HistogramRepository histogramRepository,
+                             HotelRepository hotelRepository, OutboxTailer outboxTailer,
+                             PlatformTransactionManager transactionManager, ShardRouter shardRouter) {
+        this.properties = properties;
+        this.histogramRepository = histogramRepository;
+        this.hotelRepository = hotelRepository;
+        this.outboxTailer = outboxTailer;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.shardRouter = shardRouter;
+        this.appliedUpTo = new AtomicLongArray(shardRouter.getShardCount());
+    }
+
+    @Override
+    public String getName() {
+        return "histogram-sketches";
+    }
+
+    @Override
+    public void onChange(HotelChangeEvent event) {
+        int shard = ShardContext.current();
+        synchronized (this) {
+            if (sketches == null || event.id() <= appliedUpTo.get(shard)) {
+                return;
+            }
+        }
+
+        Map<HistogramDimension, List<String>> labels = new EnumMap<>(HistogramDimension.class);
+        long delta = 1;
+        switch (event.type()) {
+            case HOTEL_CREATED -> transactionTemplate.executeWithoutResult(status -> {
+                for (Object[] row : hotelRepository.findBasicRowsByIds(List.of(event.hotelId()))) {
+                    labels.put(HistogramDimension.BRAND, nullableList((String) row[3]));
+                }
+                for (Object[] row : hotelRepository.findAddressRowsByHotelIds(List.of(event.hotelId()))) {
+                    labels.put(HistogramDimension.CITY, nullableList((String) row[3]));
+                    labels.put(HistogramDimension.COUNTY, nullableList((String) row[4]));
+                }
+            });
+            case AMENITIES_ADDED, AMENITIES_REMOVED -> {
+                labels.put(HistogramDimension.AMENITIES, event.amenities());
+                delta = event.type() == HotelChangeType.AMENITIES_ADDED ? 1 : -1;
+            }
+        }
+
+        synchronized (this) {
+            if (sketches == null || event.id() <= appliedUpTo.get(shard)) {
+                return;
+            }
+            long change = delta;
+            labels.forEach((dimension, values) -> values.forEach(label -> sketches.get(dimension).add(label, change)));
+            appliedUpTo.set(shard, event.id());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        if (properties.isEnabled()) {
+            rebuild();
+        }
+    }
+
+    public void rebuild() {
+        long startedAt = System.currentTimeMillis();
+        List<HistogramSpec> specs = new ArrayList<>();
+        Map<HistogramDimension, DimensionSketch> rebuilt = new EnumMap<>(HistogramDimension.class);
+        for (HistogramDimension dimension : HistogramDimension.values()) {
+            specs.add(new HistogramSpec(List.of(dimension)));
+            rebuilt.put(dimension, new DimensionSketch(dimension, properties));
+        }
+
+        RebuildPoint rebuildPoint = outboxTailer.rebuildPoint();
+        shardRouter.forEachShard(shard -> transactionTemplate.executeWithoutResult(status -> {
+            rebuildPoint.take();
+            for (HistogramRepository.HistogramGroup group : histogramRepository.findGroups(specs)) {
+                for (HistogramDimension dimension : HistogramDimension.values()) {
+                    // a group has a label for every dimension of its query branch: brand, city and county
+                    // together for hotels, the amenity alone for amenities; the other labels are null
+                    String label = group.label(dimension);
+                    if (label != null && group.count() > 0) {
+                        rebuilt.get(dimension).add(label, group.count());
+                    }
+                }
+            }
+        }));
+
+        synchronized (this) {
+            sketches = rebuilt;
+            for (int shard = 0; shard < appliedUpTo.length(); shard++) {
+                appliedUpTo.set(shard, rebuildPoint.get(shard));
+            }
+        }
+        rebuildPoint.resume(getName());
+        log.info("Built histogram sketches in {} ms", System.currentTimeMillis() - startedAt);
+    }
+
+    public synchronized TopHistogramDto top(HistogramDimension dimension, int limit) {
+        if (!properties.isEnabled()) {
+            throw new IllegalArgumentException("Approximate histograms are disabled");
+        }
+        if (sketches == null) {
+            throw new HistogramsNotReadyException();
+        }
+        if (limit > properties.getTopCapacity()) {
+            throw new IllegalArgumentException(
+                    "Approximate histograms keep at most " + properties.getTopCapacity() + " buckets");
+        }
+        return sketches.get(dimension).top(limit);
+    }
+
+    private static List<String> nullableList(String value) {
+        return value == null ? List.of() : List.of(value);
+    }
+
+    private static final class DimensionSketch {
+
+        private final HistogramDimension dimension;
+        private final CountMinSketch frequencies;
+        private final HyperLogLog distinct;
+        private final int capacity;
+        // normalized value -> the spelling that is shown, estimates are re-read from the sketch on every query
+        private final Map<String, Candidate> candidates = new HashMap<>();
+        private long total;
+
+        DimensionSketch(HistogramDimension dimension, HistogramSketchProperties properties) {
+            this.dimension = dimension;
+            this.frequencies = new CountMinSketch(properties.getDepth(), properties.getWidth());
+            this.distinct = new HyperLogLog(properties.getPrecision());
+            this.capacity = properties.getTopCapacity();
+        }
+
+        void add(String label, long delta) {
+            String key = dimension.groupKey(label);
+            if (key == null) {
+                return;
+            }
+            long hash = SketchHash.of(key);
+            frequencies.add(hash, delta);
+            total += delta;
+            // removals are not subtracted from the distinct count, see the class comment
+            if (delta > 0) {
+                distinct.add(hash);
+            }
+
+            long estimate = frequencies.estimate(hash);
+            Candidate candidate = candidates.get(key);
+            if (candidate != null) {
+                candidate.estimate = estimate;
+                return;
+            }
+            if (candidates.size() < capacity) {
+                candidates.put(key, new Candidate(key, label, hash, estimate));
+                return;
+            }
+            Candidate smallest = null;
+            for (Candidate current : candidates.values()) {
+                current.estimate = frequencies.estimate(current.hash);
+                if (smallest == null || current.estimate < smallest.estimate) {
+                    smallest = current;
+                }
+            }
+            if (estimate > smallest.estimate) {
+                candidates.remove(smallest.key);
+                candidates.put(key, new Candidate(key, label, hash, estimate));
+            }
+        }
+
+        TopHistogramDto top(int limit) {
+            candidates.values().forEach(candidate -> candidate.estimate = frequencies.estimate(candidate.hash));
+            List<HistogramBucketDto> buckets = candidates.values().stream()
+                    .filter(candidate -> candidate.estimate > 0)
+                    .sorted(Comparator.comparingLong((Candidate candidate) -> candidate.estimate).reversed()
+                            .thenComparing(candidate -> candidate.label))
+                    .limit(limit)
+                    .map(candidate -> new HistogramBucketDto(candidate.label, candidate.estimate))
+                    .toList();
+            long shown = buckets.stream().mapToLong(HistogramBucketDto::getCount).sum();
+            return new TopHistogramDto(buckets, Math.max(0, total - shown), distinct.estimate(), true);
+        }
+    }
+
+    private static final class Candidate {
+
+        private final String key;
+        private final String label;
+        private final long hash;
+        private long estimate;
+
+        Candidate(String key, String label, long hash, long estimate) {
+            this.key = key;
+            this.label = label;
+            this.hash = hash;
+            this.estimate = estimate;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package ru.practicum.test_task.histogram;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// A requested histogram: a single dimension such as "city" or a cross-tab of two such as "city:brand"
+public record HistogramSpec(List<HistogramDimension> dimensions) {
+
+    public static final String CROSS_TAB_SEPARATOR = ":";
+
+    public static HistogramSpec parse(String param) {
+        List<HistogramDimension> dimensions = new ArrayList<>();
+        for (String part : param.split(CROSS_TAB_SEPARATOR, -1)) {
+            dimensions.add(HistogramDimension.of(part));
+        }
+        if (dimensions.size() > 2 || dimensions.stream().distinct().count() != dimensions.size()) {
+            throw new IllegalArgumentException("Unsupported histogram cross-tab: " + param);
+        }
+        return new HistogramSpec(List.copyOf(dimensions));
+    }
+
+    public static List<HistogramSpec> parseAll(List<String> params) {
+        if (params == null || params.isEmpty()) {
+            throw new IllegalArgumentException("At least one histogram parameter is required");
+        }
+        Set<HistogramSpec> specs = new LinkedHashSet<>();
+        params.forEach(param -> specs.add(parse(param)));
+        return List.copyOf(specs);
+    }
+
+    public String name() {
+        return dimensions.stream().map(HistogramDimension::paramName)
+                .collect(Collectors.joining(CROSS_TAB_SEPARATOR));
+    }
+
+    public boolean isCrossTab() {
+        return dimensions.size() > 1;
+    }
+
+    public boolean hasAmenities() {
+        return dimensions.contains(HistogramDimension.AMENITIES);
+    }
+}
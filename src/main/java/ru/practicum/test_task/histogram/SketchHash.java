@@ -0,0 +1,24 @@
+package ru.practicum.test_task.histogram;
+
+import java.nio.charset.StandardCharsets;
+
+// 64-bit FNV-1a finished with the MurmurHash3 mixer, so that every bit of the result depends on every input byte
+final class SketchHash {
+
+    private SketchHash() {
+    }
+
+    static long of(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
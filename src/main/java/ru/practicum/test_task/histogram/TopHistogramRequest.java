@@ -0,0 +1,18 @@
+package ru.practicum.test_task.histogram;
+
+// The top buckets of one dimension, validated once for the single-database and the sharded service
+public record TopHistogramRequest(HistogramDimension dimension, int limit, HistogramOrder order, boolean approximate) {
+
+    public static TopHistogramRequest of(String param, int limit, String order, boolean approximate) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Histogram limit must be positive");
+        }
+        TopHistogramRequest request = new TopHistogramRequest(HistogramDimension.of(param), limit,
+                HistogramOrder.of(order), approximate);
+        // a sketch only knows its heavy hitters, the rarest values are never tracked
+        if (approximate && request.order() == HistogramOrder.ASC) {
+            throw new IllegalArgumentException("Approximate histograms only support descending order");
+        }
+        return request;
+    }
+}
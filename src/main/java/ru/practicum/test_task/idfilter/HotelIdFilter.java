@@ -0,0 +1,71 @@
+package ru.practicum.test_task.idfilter;
+
+import org.springframework.stereotype.Component;
+import ru.practicum.test_task.ratelimit.TokenBucket;
+import ru.practicum.test_task.sharding.ShardRouter;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Answers "is this hotel id known to exist?" without a query. A hit is reliable. A miss at or below the highest
+// id the table or the outbox has shown for the id's shard is final as well; above it the hotel may have been
+// created on another instance and not delivered yet, so callers confirm such a miss in the database.
+// Until HotelIdFilterLoader has read the table every id is let through. Deleted ids stay set.
+// Injected into the Hotel entity listener while JPA starts, so it must not depend on JPA beans itself.
+@Component
+public class HotelIdFilter {
+
+    private final HotelIdFilterProperties properties;
+    private final ShardRouter shardRouter;
+    private final IdBitSet ids = new IdBitSet();
+    private final AtomicLongArray settledMaxIds;
+    private final TokenBucket confirmations;
+
+    private volatile boolean loaded;
+
+    public HotelIdFilter(HotelIdFilterProperties properties, ShardRouter shardRouter) {
+        this.properties = properties;
+        this.shardRouter = shardRouter;
+        this.settledMaxIds = new AtomicLongArray(shardRouter.getShardCount());
+        int perSecond = Math.max(1, properties.getConfirmationsPerSecond());
+        this.confirmations = new TokenBucket(perSecond, perSecond, System.nanoTime());
+    }
+
+    public boolean mightExist(Long id) {
+        if (!properties.isEnabled() || !loaded) {
+            return true;
+        }
+        return id != null && ids.contains(id);
+    }
+
+    // A hotel whose insert commits after a higher id on its shard is the one case below the watermark; it is
+    // rejected until the outbox delivers it, one poll interval. Above the watermark confirmations are rate limited,
+    // so probing random ids costs a bounded number of queries.
+    public boolean shouldConfirm(long id) {
+        if (!properties.isEnabled() || !loaded) {
+            return true;
+        }
+        if (id <= settledMaxIds.get(shardRouter.shardForId(id))) {
+            return false;
+        }
+        return confirmations.tryConsume(1, System.nanoTime()).allowed();
+    }
+
+    // inserts made by this instance, lower ids may still be in flight elsewhere
+    public void add(long id) {
+        ids.add(id);
+    }
+
+    // ids read from the table or delivered by the outbox
+    public void addSettled(long id) {
+        ids.add(id);
+        settledMaxIds.accumulateAndGet(shardRouter.shardForId(id), id, Math::max);
+    }
+
+    void markLoaded() {
+        loaded = true;
+    }
+
+    long memoryBytes() {
+        return ids.memoryBytes();
+    }
+}
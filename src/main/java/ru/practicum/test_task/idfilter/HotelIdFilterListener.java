@@ -0,0 +1,19 @@
+package ru.practicum.test_task.idfilter;
+
+import jakarta.persistence.PostPersist;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import ru.practicum.test_task.model.Hotel;
+
+// Hibernate obtains this listener from Spring through SpringBeanContainer, so it is the singleton bean
+@Component
+@RequiredArgsConstructor
+public class HotelIdFilterListener {
+
+    private final HotelIdFilter hotelIdFilter;
+
+    @PostPersist
+    public void onPersist(Hotel hotel) {
+        hotelIdFilter.add(hotel.getId());
+    }
+}
@@ -0,0 +1,62 @@
+package ru.practicum.test_task.idfilter;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.test_task.outbox.HotelChangeEvent;
+import ru.practicum.test_task.outbox.HotelChangeListener;
+import ru.practicum.test_task.repository.HotelRepository;
+import ru.practicum.test_task.sharding.ShardRouter;
+
+import java.util.List;
+
+// Fills the filter from the table on startup and from the outbox for hotels created by other instances;
+// inserts made by this instance are added right away by the entity listener.
+@Component
+@Slf4j
+public class HotelIdFilterLoader implements HotelChangeListener {
+
+    private final HotelIdFilter hotelIdFilter;
+    private final HotelRepository hotelRepository;
+    private final HotelIdFilterProperties properties;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shardRouter;
+
+    public HotelIdFilterLoader(HotelIdFilter hotelIdFilter, HotelRepository hotelRepository,
+                               HotelIdFilterProperties properties, PlatformTransactionManager transactionManager,
+                               ShardRouter shardRouter) {
+        this.hotelIdFilter = hotelIdFilter;
+        this.hotelRepository = hotelRepository;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.shardRouter = shardRouter;
+    }
+
+    @Override
+    public String getName() {
+        return "hotel-id-filter";
+    }
+
+    @Override
+    public void onChange(HotelChangeEvent event) {
+        hotelIdFilter.addSettled(event.hotelId());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        long loaded = 0;
+        for (List<Long> ids : shardRouter.fanOut(() -> transactionTemplate.execute(status -> hotelRepository.findAllIds()))) {
+            ids.forEach(hotelIdFilter::addSettled);
+            loaded += ids.size();
+        }
+        hotelIdFilter.markLoaded();
+        log.info("Hotel id filter loaded with {} ids ({} KB)", loaded, hotelIdFilter.memoryBytes() / 1024);
+    }
+}
@@ -0,0 +1,14 @@
+package ru.practicum.test_task.idfilter;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "hotels.id-filter")
+public class HotelIdFilterProperties {
+
+    private boolean enabled = true;
+
+    // database lookups for ids above the known ones; beyond that such ids are answered 404 without a query
+    private int confirmationsPerSecond = 100;
+}
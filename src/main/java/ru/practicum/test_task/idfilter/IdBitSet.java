@@ -0,0 +1,47 @@
+package ru.practicum.test_task.idfilter;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Exact set of non-negative ids. Reads are lock-free; writes are serialized so that growing the
+// word array cannot lose a concurrently set bit. Ids are never removed.
+class IdBitSet {
+
+    private static final int MIN_WORDS = 1024;
+
+    private volatile AtomicLongArray words = new AtomicLongArray(MIN_WORDS);
+
+    boolean contains(long id) {
+        if (id < 0) {
+            return false;
+        }
+        AtomicLongArray current = words;
+        long word = id >>> 6;
+        return word < current.length() && (current.get((int) word) & (1L << id)) != 0;
+    }
+
+    synchronized void add(long id) {
+        if (id < 0) {
+            throw new IllegalArgumentException("Id must not be negative: " + id);
+        }
+        int word = Math.toIntExact(id >>> 6);
+        AtomicLongArray current = words;
+        if (word >= current.length()) {
+            int length = current.length();
+            while (length <= word) {
+                length = length > Integer.MAX_VALUE / 2 ? Integer.MAX_VALUE : length * 2;
+            }
+            AtomicLongArray grown = new AtomicLongArray(length);
+            for (int i = 0; i < current.length(); i++) {
+                grown.set(i, current.get(i));
+            }
+            words = grown;
+            current = grown;
+        }
+        long bit = 1L << id;
+        current.getAndAccumulate(word, bit, (existing, mask) -> existing | mask);
+    }
+
+    long memoryBytes() {
+        return (long) words.length() * Long.BYTES;
+    }
+}
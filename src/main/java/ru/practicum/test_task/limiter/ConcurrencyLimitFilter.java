@@ -0,0 +1,117 @@
+package ru.practicum.test_task.limiter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 100)
+@ConditionalOnProperty(prefix = "hotels.concurrency-limit", name = "enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private static final String API_PREFIX = "/property-view/";
+    private static final String REJECTED_BODY = "{\"error\":\"Service is overloaded, retry later\"}";
+
+    private final Map<EndpointClass, VegasLimiter> limiters = new EnumMap<>(EndpointClass.class);
+    private final Map<EndpointClass, Counter> rejections = new EnumMap<>(EndpointClass.class);
+    private final String retryAfterSeconds;
+
+    public ConcurrencyLimitFilter(ConcurrencyLimitProperties properties, MeterRegistry meterRegistry) {
+        limiters.put(EndpointClass.EXPENSIVE, new VegasLimiter(properties.getExpensive()));
+        limiters.put(EndpointClass.CHEAP, new VegasLimiter(properties.getCheap()));
+        this.retryAfterSeconds = String.valueOf(Math.max(1, (properties.getRetryAfter().toMillis() + 999) / 1000));
+
+        limiters.forEach((endpointClass, limiter) -> {
+            String tag = endpointClass.name().toLowerCase(Locale.ROOT);
+            Gauge.builder("hotels.concurrency.limit", limiter, VegasLimiter::getLimit)
+                    .tag("class", tag)
+                    .register(meterRegistry);
+            Gauge.builder("hotels.concurrency.in-flight", limiter, VegasLimiter::getInFlight)
+                    .tag("class", tag)
+                    .register(meterRegistry);
+            rejections.put(endpointClass, Counter.builder("hotels.concurrency.rejected")
+                    .tag("class", tag)
+                    .register(meterRegistry));
+        });
+    }
+
+    public VegasLimiter getLimiter(EndpointClass endpointClass) {
+        return limiters.get(endpointClass);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith(request.getContextPath() + API_PREFIX);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        EndpointClass endpointClass = classify(request);
+        VegasLimiter limiter = limiters.get(endpointClass);
+
+        if (!limiter.tryAcquire()) {
+            rejections.get(endpointClass).increment();
+            log.debug("Rejected {} {} at {} limit {}", request.getMethod(), request.getRequestURI(),
+                    endpointClass, limiter.getLimit());
+            reject(response);
+            return;
+        }
+
+        long startedAt = System.nanoTime();
+        boolean completed = false;
+        try {
+            filterChain.doFilter(request, response);
+            completed = true;
+        } finally {
+            if (!completed || response.getStatus() >= HttpStatus.INTERNAL_SERVER_ERROR.value()) {
+                limiter.onDropped();
+            } else if (response.getStatus() >= HttpStatus.BAD_REQUEST.value()) {
+                // rejected ids and rate-limited calls answer in microseconds and would drag the no-load RTT down
+                limiter.onIgnored();
+            } else {
+                limiter.onSuccess(System.nanoTime() - startedAt);
+            }
+        }
+    }
+
+    private EndpointClass classify(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length() + API_PREFIX.length() - 1);
+        if (path.startsWith("/search") || path.startsWith("/histogram")) {
+            return EndpointClass.EXPENSIVE;
+        }
+        if (path.equals("/hotels") && HttpMethod.GET.matches(request.getMethod())) {
+            return EndpointClass.EXPENSIVE;
+        }
+        return EndpointClass.CHEAP;
+    }
+
+    private void reject(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.getWriter().write(REJECTED_BODY);
+    }
+}
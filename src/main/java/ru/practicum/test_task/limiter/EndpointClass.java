@@ -0,0 +1,6 @@
+package ru.practicum.test_task.limiter;
+
+public enum EndpointClass {
+    EXPENSIVE,
+    CHEAP
+}
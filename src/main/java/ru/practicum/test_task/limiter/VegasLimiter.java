@@ -0,0 +1,115 @@
+package ru.practicum.test_task.limiter;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class VegasLimiter {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double smoothing;
+    private final int probeInterval;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private volatile int limit;
+    private double estimatedLimit;
+    private long noLoadRttNanos;
+    private int samplesUntilProbe;
+
+    public VegasLimiter(ConcurrencyLimitProperties.Limit properties) {
+        this.minLimit = Math.max(1, properties.getMinLimit());
+        this.maxLimit = Math.max(minLimit, properties.getMaxLimit());
+        this.smoothing = properties.getSmoothing();
+        this.probeInterval = properties.getProbeInterval();
+        this.estimatedLimit = Math.max(minLimit, Math.min(maxLimit, properties.getInitialLimit()));
+        this.limit = (int) estimatedLimit;
+        this.samplesUntilProbe = probeInterval;
+    }
+
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    public void onSuccess(long rttNanos) {
+        int inFlightAtStart = inFlight.getAndDecrement();
+        update(rttNanos, inFlightAtStart, false);
+    }
+
+    public void onDropped() {
+        int inFlightAtStart = inFlight.getAndDecrement();
+        update(0, inFlightAtStart, true);
+    }
+
+    public void onIgnored() {
+        inFlight.decrementAndGet();
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private synchronized void update(long rttNanos, int inFlightAtStart, boolean dropped) {
+        if (dropped) {
+            apply(estimatedLimit - log10(estimatedLimit));
+            return;
+        }
+        if (rttNanos <= 0) {
+            return;
+        }
+
+        // Periodically forget the baseline so a permanently slower database does not pin the limit at minimum
+        if (--samplesUntilProbe <= 0) {
+            samplesUntilProbe = probeInterval;
+            noLoadRttNanos = rttNanos;
+            return;
+        }
+        if (noLoadRttNanos == 0 || rttNanos < noLoadRttNanos) {
+            noLoadRttNanos = rttNanos;
+            return;
+        }
+
+        // Vegas: queue = limit * (1 - noLoadRtt / rtt), grow below alpha, shrink above beta
+        double current = estimatedLimit;
+        double queueSize = Math.ceil(current * (1 - (double) noLoadRttNanos / rttNanos));
+        double threshold = log10(current);
+        double alpha = 3 * threshold;
+        double beta = 6 * threshold;
+
+        double next;
+        if (queueSize <= threshold) {
+            next = current + beta;
+        } else if (queueSize < alpha) {
+            next = current + threshold;
+        } else if (queueSize > beta) {
+            next = current - threshold;
+        } else {
+            return;
+        }
+
+        // Do not grow the limit when the application is not using it
+        if (next > current && inFlightAtStart * 2 < current) {
+            return;
+        }
+        apply((1 - smoothing) * current + smoothing * next);
+    }
+
+    private void apply(double next) {
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, next));
+        limit = (int) estimatedLimit;
+    }
+
+    private static double log10(double value) {
+        return Math.max(1, Math.log10(Math.max(1, value)));
+    }
+}
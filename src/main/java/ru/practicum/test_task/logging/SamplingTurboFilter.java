@@ -0,0 +1,81 @@
+package ru.practicum.test_task.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Keeps every n-th INFO-or-lower event of the configured loggers, WARN and ERROR always pass.
+// Runs before the message is formatted, so dropped events cost a map lookup and an increment.
+public class SamplingTurboFilter extends TurboFilter {
+
+    private static final Sampler NOT_SAMPLED = new Sampler(1);
+
+    private final List<Rule> rules = new ArrayList<>();
+    private final ConcurrentMap<String, Sampler> samplers = new ConcurrentHashMap<>();
+
+    // "logger.name=rate", where rate is the share of events to keep, e.g. ru.practicum.test_task.service=0.01
+    public void addSample(String sample) {
+        int separator = sample.lastIndexOf('=');
+        if (separator <= 0) {
+            addError("Sample must look like logger.name=rate: " + sample);
+            return;
+        }
+        String prefix = sample.substring(0, separator).trim();
+        double rate = Double.parseDouble(sample.substring(separator + 1).trim());
+        rules.add(new Rule(prefix, rate));
+        rules.sort(Comparator.comparingInt((Rule rule) -> rule.prefix().length()).reversed());
+        samplers.clear();
+    }
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        // isXxxEnabled() checks carry no format, they must not consume a sampling slot
+        if (!isStarted() || format == null || level.isGreaterOrEqual(Level.WARN)
+                || !level.isGreaterOrEqual(logger.getEffectiveLevel())) {
+            return FilterReply.NEUTRAL;
+        }
+        Sampler sampler = samplers.computeIfAbsent(logger.getName(), this::samplerFor);
+        if (sampler == NOT_SAMPLED) {
+            return FilterReply.NEUTRAL;
+        }
+        return sampler.keep() ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+
+    private Sampler samplerFor(String loggerName) {
+        for (Rule rule : rules) {
+            if (loggerName.equals(rule.prefix()) || loggerName.startsWith(rule.prefix() + ".")) {
+                if (rule.rate() >= 1) {
+                    return NOT_SAMPLED;
+                }
+                return new Sampler(rule.rate() <= 0 ? 0 : Math.round(1 / rule.rate()));
+            }
+        }
+        return NOT_SAMPLED;
+    }
+
+    private record Rule(String prefix, double rate) {
+    }
+
+    private static final class Sampler {
+
+        private final long period;
+        private final AtomicLong counter = new AtomicLong();
+
+        Sampler(long period) {
+            this.period = period;
+        }
+
+        boolean keep() {
+            return period > 0 && counter.getAndIncrement() % period == 0;
+        }
+    }
+}
@@ -2,9 +2,15 @@ package ru.practicum.test_task.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import ru.practicum.test_task.summary.HotelSummaryListener;
+import ru.practicum.test_task.util.TextNormalizer;
 
 @Entity
 @Table(name = "addresses")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "hotels.address")
+@EntityListeners(HotelSummaryListener.class)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -22,10 +28,25 @@ public class Address {
     private String city;
     private String county;
 
+    @Column(name = "city_norm")
+    @Setter(AccessLevel.NONE)
+    private String cityNorm;
+
+    @Column(name = "county_norm")
+    @Setter(AccessLevel.NONE)
+    private String countyNorm;
+
     @Column(name = "post_code")
     private String postCode;
 
     @OneToOne
     @JoinColumn(name = "hotel_id")
     private Hotel hotel;
+
+    @PrePersist
+    @PreUpdate
+    void normalize() {
+        cityNorm = TextNormalizer.normalize(city);
+        countyNorm = TextNormalizer.normalize(county);
+    }
 }
@@ -2,11 +2,16 @@ package ru.practicum.test_task.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import ru.practicum.test_task.util.TextNormalizer;
+
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
 @Table(name = "amenities")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "hotels.amenity")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -21,6 +26,16 @@ public class Amenity {
     @Column(unique = true)
     private String name;
 
+    @Column(name = "name_norm")
+    @Setter(AccessLevel.NONE)
+    private String nameNorm;
+
     @ManyToMany(mappedBy = "amenities")
     private List<Hotel> hotels = new ArrayList<>();
+
+    @PrePersist
+    @PreUpdate
+    void normalize() {
+        nameNorm = TextNormalizer.normalize(name);
+    }
 }
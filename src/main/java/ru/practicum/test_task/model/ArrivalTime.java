@@ -2,11 +2,14 @@ package ru.practicum.test_task.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.LocalTime;
 
 @Entity
 @Table(name = "arrival_times")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "hotels.arrival-time")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
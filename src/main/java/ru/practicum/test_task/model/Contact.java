@@ -2,10 +2,15 @@ package ru.practicum.test_task.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import ru.practicum.test_task.summary.HotelSummaryListener;
 
 
 @Entity
 @Table(name = "contacts")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "hotels.contact")
+@EntityListeners(HotelSummaryListener.class)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
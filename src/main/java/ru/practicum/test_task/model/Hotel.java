@@ -2,12 +2,19 @@ package ru.practicum.test_task.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import ru.practicum.test_task.idfilter.HotelIdFilterListener;
+import ru.practicum.test_task.summary.HotelSummaryListener;
+import ru.practicum.test_task.util.TextNormalizer;
 
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
 @Table(name = "hotels")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "hotels.hotel")
+@EntityListeners({HotelSummaryListener.class, HotelIdFilterListener.class})
 @Data
 @Getter
 @Setter
@@ -25,20 +32,37 @@ public class Hotel {
     private String description;
     private String brand;
 
+    @Column(name = "name_norm")
+    @Setter(AccessLevel.NONE)
+    private String nameNorm;
+
+    @Column(name = "brand_norm")
+    @Setter(AccessLevel.NONE)
+    private String brandNorm;
+
     @OneToOne(mappedBy = "hotel", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private Address address;
 
     @OneToMany(mappedBy = "hotel", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "hotels.hotel.contacts")
     private List<Contact> contacts = new ArrayList<>();
 
     @OneToOne(mappedBy = "hotel", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private ArrivalTime arrivalTime;
 
     @ManyToMany(cascade = {CascadeType.PERSIST, CascadeType.MERGE})
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "hotels.hotel.amenities")
     @JoinTable(
             name = "hotel_amenities",
             joinColumns = @JoinColumn(name = "hotel_id"),
             inverseJoinColumns = @JoinColumn(name = "amenity_id")
     )
     private List<Amenity> amenities = new ArrayList<>();
-}
\ No newline at end of file
+
+    @PrePersist
+    @PreUpdate
+    void normalize() {
+        nameNorm = TextNormalizer.normalize(name);
+        brandNorm = TextNormalizer.normalize(brand);
+    }
+}
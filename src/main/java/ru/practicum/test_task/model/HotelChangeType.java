@@ -0,0 +1,7 @@
+package ru.practicum.test_task.model;
+
+public enum HotelChangeType {
+    HOTEL_CREATED,
+    AMENITIES_ADDED,
+    AMENITIES_REMOVED
+}
@@ -0,0 +1,25 @@
+package ru.practicum.test_task.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.Immutable;
+import org.hibernate.annotations.Synchronize;
+
+@Entity
+@Table(name = "hotel_summary")
+@Immutable
+@Synchronize({"hotels", "addresses", "contacts"})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+public class HotelSummary {
+    @Id
+    @EqualsAndHashCode.Include
+    private Long id;
+
+    private String name;
+    private String description;
+    private String address;
+    private String phone;
+}
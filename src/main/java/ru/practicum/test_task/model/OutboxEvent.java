@@ -0,0 +1,31 @@
+package ru.practicum.test_task.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "hotel_outbox")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+public class OutboxEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @EqualsAndHashCode.Include
+    private Long id;
+
+    @Column(name = "hotel_id")
+    private Long hotelId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type")
+    private HotelChangeType eventType;
+
+    private String payload;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,19 @@
+package ru.practicum.test_task.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+@Entity
+@Table(name = "outbox_offsets")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+public class OutboxOffset {
+    @Id
+    @EqualsAndHashCode.Include
+    private String consumer;
+
+    @Column(name = "last_event_id")
+    private Long lastEventId;
+}
@@ -0,0 +1,52 @@
+package ru.practicum.test_task.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ru.practicum.test_task.model.HotelChangeType;
+import ru.practicum.test_task.model.OutboxEvent;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+// amenity events carry the changed names as a JSON array, names may contain any character
+public record HotelChangeEvent(long id, long hotelId, HotelChangeType type, String payload, LocalDateTime createdAt) {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final TypeReference<List<String>> NAMES = new TypeReference<>() {
+    };
+
+    public static String amenitiesPayload(Collection<String> names) {
+        try {
+            return JSON.writeValueAsString(names);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize amenity names", e);
+        }
+    }
+
+    public List<String> amenities() {
+        if (payload == null) {
+            return List.of();
+        }
+        // events written before payloads became JSON are still waiting in the outbox after an upgrade
+        if (!payload.startsWith("[")) {
+            return List.of(payload.split(","));
+        }
+        try {
+            return JSON.readValue(payload, NAMES);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Malformed amenities payload in outbox event " + id, e);
+        }
+    }
+
+    static HotelChangeEvent from(OutboxEvent event) {
+        return new HotelChangeEvent(
+                event.getId(),
+                event.getHotelId(),
+                event.getEventType(),
+                event.getPayload(),
+                event.getCreatedAt()
+        );
+    }
+}
@@ -0,0 +1,66 @@
+package ru.practicum.test_task.outbox;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import ru.practicum.test_task.exception.SyncTokenExpiredException;
+import ru.practicum.test_task.model.OutboxEvent;
+import ru.practicum.test_task.repository.OutboxEventRepository;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+// Serves "what changed since" from the outbox: a sync token is simply the id of the last event the client has seen.
+// Like the tailer it stops at ids that are still missing from the sequence, so late commits are never skipped.
+@Component
+@RequiredArgsConstructor
+public class HotelChangeFeed {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxTailer outboxTailer;
+    private final OutboxProperties properties;
+
+    public String headToken() {
+        return String.valueOf(outboxTailer.settledHead());
+    }
+
+    public Page readAfter(String token) {
+        long afterId = parse(token);
+        if (afterId < outboxTailer.currentOffset(OutboxTailer.PRUNED_OFFSET)) {
+            throw new SyncTokenExpiredException(token);
+        }
+
+        List<OutboxEvent> events = outboxEventRepository.findBatchAfter(afterId, visibleBefore(),
+                PageRequest.of(0, properties.getChangesPageSize()));
+        int settled = outboxTailer.settledCount(afterId, events.stream().map(OutboxEvent::getId).toList());
+        if (settled == 0) {
+            return new Page(List.of(), token, false);
+        }
+
+        Set<Long> hotelIds = new LinkedHashSet<>();
+        events.subList(0, settled).forEach(event -> hotelIds.add(event.getHotelId()));
+        String nextToken = String.valueOf(events.get(settled - 1).getId());
+        return new Page(List.copyOf(hotelIds), nextToken, settled == properties.getChangesPageSize());
+    }
+
+    private LocalDateTime visibleBefore() {
+        return LocalDateTime.now().minus(properties.getVisibilityDelay());
+    }
+
+    private long parse(String token) {
+        try {
+            long id = Long.parseLong(token.trim());
+            if (id >= 0) {
+                return id;
+            }
+        } catch (NumberFormatException e) {
+            // reported below
+        }
+        throw new IllegalArgumentException("Invalid sync token: " + token);
+    }
+
+    public record Page(List<Long> hotelIds, String nextToken, boolean hasMore) {
+    }
+}
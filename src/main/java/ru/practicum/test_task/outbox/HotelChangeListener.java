@@ -0,0 +1,10 @@
+package ru.practicum.test_task.outbox;
+
+public interface HotelChangeListener {
+
+    // identifies the listener's persisted offset, so it must stay stable across restarts
+    String getName();
+
+    // delivery is at-least-once: a listener may see the same event again after a failure or restart
+    void onChange(HotelChangeEvent event);
+}
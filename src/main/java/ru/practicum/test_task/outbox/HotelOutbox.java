@@ -0,0 +1,28 @@
+package ru.practicum.test_task.outbox;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.test_task.model.HotelChangeType;
+import ru.practicum.test_task.model.OutboxEvent;
+import ru.practicum.test_task.repository.OutboxEventRepository;
+
+import java.time.LocalDateTime;
+
+@Component
+@RequiredArgsConstructor
+public class HotelOutbox {
+
+    private final OutboxEventRepository outboxEventRepository;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(Long hotelId, HotelChangeType type, String payload) {
+        OutboxEvent event = new OutboxEvent();
+        event.setHotelId(hotelId);
+        event.setEventType(type);
+        event.setPayload(payload);
+        event.setCreatedAt(LocalDateTime.now());
+        outboxEventRepository.save(event);
+    }
+}
@@ -0,0 +1,21 @@
+package ru.practicum.test_task.outbox;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "hotels.outbox")
+public class OutboxProperties {
+
+    private int batchSize = 100;
+
+    private Duration visibilityDelay = Duration.ofSeconds(1);
+
+    private Duration gapTimeout = Duration.ofSeconds(30);
+
+    private Duration retention = Duration.ofDays(7);
+
+    private int changesPageSize = 500;
+}
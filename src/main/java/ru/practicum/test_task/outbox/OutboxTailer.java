@@ -0,0 +1,180 @@
+package ru.practicum.test_task.outbox;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.test_task.model.OutboxOffset;
+import ru.practicum.test_task.repository.OutboxEventRepository;
+import ru.practicum.test_task.repository.OutboxOffsetRepository;
+import ru.practicum.test_task.sharding.ShardContext;
+import ru.practicum.test_task.sharding.ShardRouter;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OutboxTailer {
+
+    // not a consumer: remembers the highest pruned event id, change feed tokens below it can no longer be served
+    public static final String PRUNED_OFFSET = "pruned";
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxOffsetRepository outboxOffsetRepository;
+    private final ObjectProvider<HotelChangeListener> listeners;
+    private final OutboxProperties properties;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shardRouter;
+
+    // when a missing id was first noticed, per shard
+    private final Map<Gap, Instant> openGaps = new ConcurrentHashMap<>();
+    private final Map<Integer, Long> settledHeads = new ConcurrentHashMap<>();
+
+    @Scheduled(fixedDelayString = "${hotels.outbox.poll-interval:PT0.5S}",
+            initialDelayString = "${hotels.outbox.initial-delay:PT5S}")
+    // every shard has its own outbox and offsets, listeners see the events of all shards
+    public synchronized void poll() {
+        shardRouter.forEachShard(shard -> listeners.orderedStream().forEach(listener -> {
+            while (deliverBatch(listener)) {
+                log.debug("Outbox listener {} is catching up on shard {}", listener.getName(), shard);
+            }
+        }));
+    }
+
+    @Scheduled(fixedDelayString = "${hotels.outbox.prune-interval:PT1H}",
+            initialDelayString = "${hotels.outbox.prune-interval:PT1H}")
+    public synchronized void prune() {
+        shardRouter.forEachShard(shard -> pruneShard());
+    }
+
+    private void pruneShard() {
+        long deliveredToAll = listeners.orderedStream()
+                .mapToLong(listener -> currentOffset(listener.getName()))
+                .min()
+                .orElse(Long.MAX_VALUE);
+        LocalDateTime createdBefore = LocalDateTime.now().minus(properties.getRetention());
+
+        Integer deleted = transactionTemplate.execute(status -> {
+            long prunedUpTo = outboxEventRepository.findMaxDeliveredId(deliveredToAll, createdBefore);
+            if (prunedUpTo > currentOffset(PRUNED_OFFSET)) {
+                outboxOffsetRepository.save(new OutboxOffset(PRUNED_OFFSET, prunedUpTo));
+            }
+            return outboxEventRepository.deleteDelivered(deliveredToAll, createdBefore);
+        });
+        int shard = ShardContext.current();
+        openGaps.keySet().removeIf(gap -> gap.shard() == shard && gap.firstMissingId() <= deliveredToAll);
+        log.info("Pruned {} outbox events", deleted);
+    }
+
+    public long currentOffset(String consumer) {
+        return outboxOffsetRepository.findById(consumer)
+                .map(OutboxOffset::getLastEventId)
+                .orElse(0L);
+    }
+
+    public RebuildPoint rebuildPoint() {
+        return new RebuildPoint(this, shardRouter, transactionTemplate.getTransactionManager());
+    }
+
+    // a consumer that rebuilt its state from a snapshot replays everything after the snapshot point
+    public synchronized void rewind(String consumer, long lastEventId) {
+        if (lastEventId < currentOffset(consumer)) {
+            saveOffset(consumer, lastEventId);
+        }
+    }
+
+    // Ids are taken when a transaction inserts its event, not when it commits, so an event may show up below ids
+    // that are already visible. Returns how many of the events read after afterId can be handed out: everything
+    // behind a missing id waits until it shows up, or until gapTimeout says its transaction was rolled back.
+    public int settledCount(long afterId, List<Long> eventIds) {
+        int shard = ShardContext.current();
+        long expected = Math.max(afterId, currentOffset(PRUNED_OFFSET)) + 1;
+        Instant now = Instant.now();
+
+        for (int i = 0; i < eventIds.size(); i++) {
+            long id = eventIds.get(i);
+            if (id > expected) {
+                Instant firstSeen = openGaps.computeIfAbsent(new Gap(shard, expected), gap -> now);
+                if (Duration.between(firstSeen, now).compareTo(properties.getGapTimeout()) < 0) {
+                    log.debug("Outbox ids {}..{} on shard {} are not committed yet, holding later events",
+                            expected, id - 1, shard);
+                    return i;
+                }
+            }
+            expected = id + 1;
+        }
+        return eventIds.size();
+    }
+
+    // the highest event id with no open gap below it, where a change feed client can safely start
+    public long settledHead() {
+        int shard = ShardContext.current();
+        long head = Math.max(settledHeads.getOrDefault(shard, 0L), currentOffset(PRUNED_OFFSET));
+        while (true) {
+            List<Long> eventIds = readBatch(head).stream()
+                    .map(HotelChangeEvent::id)
+                    .toList();
+            int settled = settledCount(head, eventIds);
+            if (settled > 0) {
+                head = eventIds.get(settled - 1);
+            }
+            if (settled < properties.getBatchSize()) {
+                break;
+            }
+        }
+        return settledHeads.merge(shard, head, Math::max);
+    }
+
+    // returns true when a full batch was delivered and more events may be waiting
+    private boolean deliverBatch(HotelChangeListener listener) {
+        long offset = currentOffset(listener.getName());
+        List<HotelChangeEvent> batch = readBatch(offset);
+        batch = batch.subList(0, settledCount(offset, batch.stream().map(HotelChangeEvent::id).toList()));
+
+        long delivered = offset;
+        for (HotelChangeEvent event : batch) {
+            try {
+                listener.onChange(event);
+            } catch (RuntimeException e) {
+                log.warn("Outbox listener {} failed on event {}, will retry: {}",
+                        listener.getName(), event.id(), e.getMessage());
+                break;
+            }
+            delivered = event.id();
+        }
+
+        if (delivered != offset) {
+            saveOffset(listener.getName(), delivered);
+        }
+        return batch.size() == properties.getBatchSize()
+                && delivered == batch.get(batch.size() - 1).id();
+    }
+
+    // the visibility delay only spares most late commits a wait for the gap timeout, settledCount is what keeps them
+    private List<HotelChangeEvent> readBatch(long offset) {
+        LocalDateTime visibleBefore = LocalDateTime.now().minus(properties.getVisibilityDelay());
+
+        return transactionTemplate.execute(status ->
+                outboxEventRepository.findBatchAfter(offset, visibleBefore, PageRequest.of(0, properties.getBatchSize()))
+                        .stream()
+                        .map(HotelChangeEvent::from)
+                        .toList());
+    }
+
+    private void saveOffset(String consumer, long lastEventId) {
+        transactionTemplate.executeWithoutResult(status ->
+                outboxOffsetRepository.save(new OutboxOffset(consumer, lastEventId)));
+    }
+
+    private record Gap(int shard, long firstMissingId) {
+    }
+}
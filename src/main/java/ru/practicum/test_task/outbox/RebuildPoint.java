@@ -0,0 +1,41 @@
+package ru.practicum.test_task.outbox;
+
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.test_task.sharding.ShardContext;
+import ru.practicum.test_task.sharding.ShardRouter;
+
+// Where a listener that rebuilt its state from the tables picks up the outbox again, per shard. take() runs on
+// the shard right before its rows are read. The settled head is used rather than the highest id: an event below
+// the highest id may still commit after the read and would never be replayed. Events above the head are
+// replayed, possibly over rows that already contain them. The head is read-only like the rows, so with replica
+// routing both come from the same database.
+public final class RebuildPoint {
+
+    private final OutboxTailer outboxTailer;
+    private final ShardRouter shardRouter;
+    private final TransactionTemplate transactionTemplate;
+    private final long[] lastEventIds;
+
+    RebuildPoint(OutboxTailer outboxTailer, ShardRouter shardRouter, PlatformTransactionManager transactionManager) {
+        this.outboxTailer = outboxTailer;
+        this.shardRouter = shardRouter;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.lastEventIds = new long[shardRouter.getShardCount()];
+    }
+
+    public long take() {
+        long head = transactionTemplate.execute(status -> outboxTailer.settledHead());
+        lastEventIds[ShardContext.current()] = head;
+        return head;
+    }
+
+    public long get(int shard) {
+        return lastEventIds[shard];
+    }
+
+    public void resume(String consumer) {
+        shardRouter.forEachShard(shard -> outboxTailer.rewind(consumer, lastEventIds[shard]));
+    }
+}
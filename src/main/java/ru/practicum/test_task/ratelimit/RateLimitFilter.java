@@ -0,0 +1,115 @@
+package ru.practicum.test_task.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 50)
+@ConditionalOnProperty(prefix = "hotels.rate-limit", name = "enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    public static final String LIMIT_HEADER = "RateLimit-Limit";
+    public static final String REMAINING_HEADER = "RateLimit-Remaining";
+    public static final String RESET_HEADER = "RateLimit-Reset";
+
+    private static final String API_PREFIX = "/property-view/";
+    private static final String THROTTLED_BODY = "{\"error\":\"Too many requests\"}";
+    private static final String TOO_EXPENSIVE_BODY = "{\"error\":\"Request costs more than the rate limit allows\"}";
+
+    private final RateLimitProperties properties;
+    private final Cache<String, TokenBucket> buckets;
+    private final Counter apiKeyThrottled;
+    private final Counter ipThrottled;
+
+    public RateLimitFilter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxClients())
+                .expireAfterAccess(properties.getIdleExpiry())
+                .build();
+        this.apiKeyThrottled = Counter.builder("hotels.rate-limit.throttled")
+                .tag("scope", "api-key")
+                .register(meterRegistry);
+        this.ipThrottled = Counter.builder("hotels.rate-limit.throttled")
+                .tag("scope", "ip")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith(request.getContextPath() + API_PREFIX);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String apiKey = request.getHeader(properties.getApiKeyHeader());
+        boolean byApiKey = StringUtils.hasText(apiKey) && properties.getApiKeys().contains(apiKey);
+        String clientKey = byApiKey ? "key:" + apiKey : "ip:" + request.getRemoteAddr();
+        RateLimitProperties.Bucket limits = byApiKey ? properties.getApiKey() : properties.getIp();
+
+        long now = System.nanoTime();
+        TokenBucket bucket = buckets.get(clientKey,
+                key -> new TokenBucket(limits.getCapacity(), limits.getRefillPerSecond(), now));
+        TokenBucket.Result result = bucket.tryConsume(cost(request), now);
+
+        response.setHeader(LIMIT_HEADER, String.valueOf(result.limit()));
+        response.setHeader(REMAINING_HEADER, String.valueOf(Math.max(0, result.remaining())));
+        response.setHeader(RESET_HEADER, String.valueOf(toSeconds(result.resetNanos())));
+
+        if (!result.allowed()) {
+            (byApiKey ? apiKeyThrottled : ipThrottled).increment();
+            log.debug("Throttled {} {} for {}", request.getMethod(), request.getRequestURI(), clientKey);
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            if (result.retryable()) {
+                response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(toSeconds(result.retryAfterNanos())));
+            }
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+            response.getWriter().write(result.retryable() ? THROTTLED_BODY : TOO_EXPENSIVE_BODY);
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private int cost(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length() + API_PREFIX.length() - 1);
+        RateLimitProperties.Costs costs = properties.getCosts();
+        if (path.startsWith("/search")) {
+            return costs.getSearch();
+        }
+        if (path.startsWith("/histogram")) {
+            return costs.getHistogram();
+        }
+        if (path.equals("/hotels") && HttpMethod.POST.matches(request.getMethod())) {
+            return costs.getCreate();
+        }
+        return costs.getOther();
+    }
+
+    private static long toSeconds(long nanos) {
+        return (nanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1);
+    }
+}
@@ -0,0 +1,58 @@
+package ru.practicum.test_task.ratelimit;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+
+@Data
+@ConfigurationProperties(prefix = "hotels.rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    private String apiKeyHeader = "X-API-Key";
+
+    // keys issued to partners; any other key is limited like an anonymous client of its IP
+    private Set<String> apiKeys = new HashSet<>();
+
+    private int maxClients = 100_000;
+
+    private Duration idleExpiry = Duration.ofMinutes(10);
+
+    private Bucket apiKey = new Bucket(500, 100);
+
+    private Bucket ip = new Bucket(100, 20);
+
+    private Costs costs = new Costs();
+
+    @Data
+    public static class Bucket {
+
+        private long capacity;
+
+        private long refillPerSecond;
+
+        public Bucket() {
+        }
+
+        public Bucket(long capacity, long refillPerSecond) {
+            this.capacity = capacity;
+            this.refillPerSecond = refillPerSecond;
+        }
+    }
+
+    @Data
+    public static class Costs {
+
+        private int search = 5;
+
+        private int histogram = 5;
+
+        private int create = 10;
+
+        private int other = 1;
+    }
+}
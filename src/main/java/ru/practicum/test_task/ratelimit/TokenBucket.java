@@ -0,0 +1,50 @@
+package ru.practicum.test_task.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Token bucket kept as a single "theoretical arrival time" (GCRA), so a check is one CAS on one long
+public class TokenBucket {
+
+    public static final long NEVER = -1;
+
+    private final long capacity;
+    private final long nanosPerToken;
+    private final long burstNanos;
+    private final AtomicLong theoreticalArrival;
+
+    public TokenBucket(long capacity, long refillPerSecond, long nowNanos) {
+        this.capacity = capacity;
+        this.nanosPerToken = Math.max(1, 1_000_000_000L / Math.max(1, refillPerSecond));
+        this.burstNanos = capacity * nanosPerToken;
+        this.theoreticalArrival = new AtomicLong(nowNanos);
+    }
+
+    public Result tryConsume(int cost, long nowNanos) {
+        long costNanos = cost * nanosPerToken;
+        if (costNanos > burstNanos) {
+            // even a full bucket cannot pay for it, so there is no point in telling the client when to retry
+            long used = Math.max(theoreticalArrival.get(), nowNanos) - nowNanos;
+            return new Result(false, capacity, (burstNanos - used) / nanosPerToken, NEVER, used);
+        }
+        while (true) {
+            long current = theoreticalArrival.get();
+            long used = Math.max(current, nowNanos) - nowNanos;
+            long next = nowNanos + used + costNanos;
+            if (used + costNanos > burstNanos) {
+                return new Result(false, capacity, (burstNanos - used) / nanosPerToken,
+                        used + costNanos - burstNanos, used);
+            }
+            if (theoreticalArrival.compareAndSet(current, next)) {
+                return new Result(true, capacity, (burstNanos - used - costNanos) / nanosPerToken,
+                        0, used + costNanos);
+            }
+        }
+    }
+
+    public record Result(boolean allowed, long limit, long remaining, long retryAfterNanos, long resetNanos) {
+
+        public boolean retryable() {
+            return retryAfterNanos != NEVER;
+        }
+    }
+}
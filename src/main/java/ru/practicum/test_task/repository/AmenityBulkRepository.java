@@ -0,0 +1,141 @@
+package ru.practicum.test_task.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.query.NativeQuery;
+import org.springframework.stereotype.Repository;
+import ru.practicum.test_task.cache.SearchCriteria;
+import ru.practicum.test_task.model.HotelChangeType;
+import ru.practicum.test_task.util.TextNormalizer;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Set-based amenity changes for many hotels at once: the statement count depends on the number of amenities,
+// never on the number of hotels. Declared query spaces let Hibernate evict only the affected cache regions.
+@Repository
+public class AmenityBulkRepository {
+
+    private static final String HOTEL_AMENITIES = "hotel_amenities";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public int insertMissingAmenities(Collection<String> names) {
+        entityManager.flush();
+        int inserted = 0;
+        for (String name : names) {
+            inserted += nativeQuery("INSERT INTO amenities (name, name_norm) " +
+                    "SELECT CAST(:name AS VARCHAR(100)), CAST(:nameNorm AS VARCHAR(300)) " +
+                    "WHERE NOT EXISTS (SELECT 1 FROM amenities WHERE name = :name)", "amenities")
+                    .setParameter("name", name)
+                    .setParameter("nameNorm", TextNormalizer.normalize(name))
+                    .executeUpdate();
+        }
+        return inserted;
+    }
+
+    // must run before the change itself, the selection may depend on the amenities being changed;
+    // the payload is a JSON array of the amenities that actually change for that hotel
+    public int appendOutboxEvents(HotelSelection selection, Collection<String> amenities, HotelChangeType type) {
+        entityManager.flush();
+        String linked = "EXISTS (SELECT 1 FROM hotel_amenities ha WHERE ha.hotel_id = h.id AND ha.amenity_id = am.id)";
+        String changed = "am.name IN (:amenities) AND "
+                + (type == HotelChangeType.AMENITIES_REMOVED ? linked : "NOT " + linked);
+
+        Map<String, Object> parameters = new HashMap<>();
+        String sql = "INSERT INTO hotel_outbox (hotel_id, event_type, payload, created_at) " +
+                "SELECT h.id, :type, " +
+                "(SELECT CAST(JSON_ARRAYAGG(am.name ORDER BY am.name) AS VARCHAR) FROM amenities am WHERE " + changed + "), " +
+                ":createdAt FROM hotels h " +
+                "WHERE h.id IN (" + selection.toSql(parameters) + ") " +
+                "AND EXISTS (SELECT 1 FROM amenities am WHERE " + changed + ")";
+        parameters.put("amenities", amenities);
+        parameters.put("type", type.name());
+        parameters.put("createdAt", LocalDateTime.now());
+        return execute(sql, parameters, "hotel_outbox");
+    }
+
+    public int attach(HotelSelection selection, Collection<String> amenities) {
+        entityManager.flush();
+        Map<String, Object> parameters = new HashMap<>();
+        String sql = "INSERT INTO hotel_amenities (hotel_id, amenity_id) " +
+                "SELECT h.id, am.id FROM hotels h JOIN amenities am ON am.name IN (:amenities) " +
+                "WHERE h.id IN (" + selection.toSql(parameters) + ") " +
+                "AND NOT EXISTS (SELECT 1 FROM hotel_amenities ha WHERE ha.hotel_id = h.id AND ha.amenity_id = am.id)";
+        parameters.put("amenities", amenities);
+        return execute(sql, parameters, HOTEL_AMENITIES);
+    }
+
+    public int detach(HotelSelection selection, Collection<String> amenities) {
+        entityManager.flush();
+        Map<String, Object> parameters = new HashMap<>();
+        String sql = "DELETE FROM hotel_amenities " +
+                "WHERE amenity_id IN (SELECT am.id FROM amenities am WHERE am.name IN (:amenities)) " +
+                "AND hotel_id IN (" + selection.toSql(parameters) + ")";
+        parameters.put("amenities", amenities);
+        return execute(sql, parameters, HOTEL_AMENITIES);
+    }
+
+    private int execute(String sql, Map<String, Object> parameters, String querySpace) {
+        NativeQuery<?> query = nativeQuery(sql, querySpace);
+        parameters.forEach(query::setParameter);
+        return query.executeUpdate();
+    }
+
+    private NativeQuery<?> nativeQuery(String sql, String querySpace) {
+        return entityManager.createNativeQuery(sql)
+                .unwrap(NativeQuery.class)
+                .addSynchronizedQuerySpace(querySpace);
+    }
+
+    // either explicit ids or the search filter, rendered as a subquery over hotels
+    public record HotelSelection(List<Long> hotelIds, SearchCriteria criteria) {
+
+        public static HotelSelection ofIds(List<Long> hotelIds) {
+            return new HotelSelection(List.copyOf(hotelIds), null);
+        }
+
+        public static HotelSelection ofCriteria(SearchCriteria criteria) {
+            return new HotelSelection(null, criteria);
+        }
+
+        String toSql(Map<String, Object> parameters) {
+            if (hotelIds != null) {
+                parameters.put("hotelIds", hotelIds);
+                return "SELECT s.id FROM hotels s WHERE s.id IN (:hotelIds)";
+            }
+
+            StringBuilder sql = new StringBuilder("SELECT s.id FROM hotels s " +
+                    "LEFT JOIN addresses sa ON sa.hotel_id = s.id WHERE 1 = 1");
+            if (criteria.getName() != null) {
+                sql.append(" AND s.name_norm LIKE :name");
+                parameters.put("name", "%" + criteria.getName() + "%");
+            }
+            if (criteria.getBrand() != null) {
+                sql.append(" AND s.brand_norm = :brand");
+                parameters.put("brand", criteria.getBrand());
+            }
+            if (criteria.getCity() != null) {
+                sql.append(" AND sa.city_norm = :city");
+                parameters.put("city", criteria.getCity());
+            }
+            if (criteria.getCounty() != null) {
+                sql.append(" AND sa.county_norm = :county");
+                parameters.put("county", criteria.getCounty());
+            }
+            if (!criteria.getAmenities().isEmpty()) {
+                sql.append(" AND s.id IN (SELECT sha.hotel_id FROM hotel_amenities sha " +
+                        "JOIN amenities sam ON sam.id = sha.amenity_id " +
+                        "WHERE sam.name_norm IN (:filterAmenities) " +
+                        "GROUP BY sha.hotel_id HAVING COUNT(DISTINCT sam.name_norm) = :filterAmenityCount)");
+                parameters.put("filterAmenities", criteria.getAmenities());
+                parameters.put("filterAmenityCount", criteria.getAmenities().size());
+            }
+            return sql.toString();
+        }
+    }
+}
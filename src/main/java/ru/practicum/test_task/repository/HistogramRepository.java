@@ -0,0 +1,126 @@
+package ru.practicum.test_task.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.query.NativeQuery;
+import org.springframework.stereotype.Repository;
+import ru.practicum.test_task.histogram.HistogramDimension;
+import ru.practicum.test_task.histogram.HistogramOrder;
+import ru.practicum.test_task.histogram.HistogramSpec;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+// Counts for any number of histograms in one statement. Hotel attributes are grouped in a single pass over hotels
+// and addresses at the finest grain the requested histograms need, amenities in a second branch over the join
+// table, and callers roll the groups up per histogram. H2 has no GROUPING SETS, UNION ALL keeps it one round trip.
+@Repository
+public class HistogramRepository {
+
+    private static final String CACHE_REGION = "hotels.histograms";
+    private static final List<String> QUERY_SPACES = List.of("hotels", "addresses", "amenities", "hotel_amenities");
+    private static final int HOTEL_BRANCH = 0;
+    private static final int AMENITY_BRANCH = 1;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public List<HistogramGroup> findGroups(List<HistogramSpec> specs) {
+        Set<HistogramDimension> hotelDimensions = EnumSet.noneOf(HistogramDimension.class);
+        Set<HistogramDimension> amenityDimensions = EnumSet.noneOf(HistogramDimension.class);
+        for (HistogramSpec spec : specs) {
+            (spec.hasAmenities() ? amenityDimensions : hotelDimensions).addAll(spec.dimensions());
+        }
+
+        List<String> branches = new ArrayList<>();
+        if (!hotelDimensions.isEmpty()) {
+            branches.add(branch(HOTEL_BRANCH, hotelDimensions, "COUNT(*)", "FROM hotels h"));
+        }
+        if (!amenityDimensions.isEmpty()) {
+            branches.add(branch(AMENITY_BRANCH, amenityDimensions, "COUNT(h.id)", "FROM amenities am " +
+                    "LEFT JOIN hotel_amenities ha ON ha.amenity_id = am.id " +
+                    "LEFT JOIN hotels h ON h.id = ha.hotel_id"));
+        }
+
+        NativeQuery<?> query = entityManager.createNativeQuery(String.join(" UNION ALL ", branches))
+                .unwrap(NativeQuery.class);
+        QUERY_SPACES.forEach(query::addSynchronizedQuerySpace);
+        query.setCacheable(true);
+        query.setCacheRegion(CACHE_REGION);
+
+        List<HistogramGroup> groups = new ArrayList<>();
+        for (Object result : query.getResultList()) {
+            Object[] row = (Object[]) result;
+            int labelCount = HistogramDimension.values().length;
+            List<String> labels = Arrays.asList(Arrays.copyOfRange(row, 1, labelCount + 1, String[].class));
+            groups.add(new HistogramGroup(((Number) row[0]).intValue() == AMENITY_BRANCH, labels,
+                    ((Number) row[labelCount + 1]).longValue()));
+        }
+        return groups;
+    }
+
+    // label, hotels, the total over all buckets and the number of buckets; the window functions run after
+    // GROUP BY, so the totals cover every bucket while only the first ones leave the database
+    public List<Object[]> findTop(HistogramDimension dimension, int limit, HistogramOrder order) {
+        String direction = order == HistogramOrder.ASC ? "ASC" : "DESC";
+        String sql = "SELECT MIN(" + dimension.labelColumn() + ") AS label, " + topCount(dimension) + " AS hotels, " +
+                "SUM(" + topCount(dimension) + ") OVER () AS total, COUNT(*) OVER () AS buckets " +
+                topSource(dimension) + " WHERE " + dimension.groupColumn() + " IS NOT NULL " +
+                "GROUP BY " + dimension.groupColumn() + " " +
+                "ORDER BY hotels " + direction + ", label LIMIT :limit";
+
+        NativeQuery<?> query = entityManager.createNativeQuery(sql).unwrap(NativeQuery.class);
+        QUERY_SPACES.forEach(query::addSynchronizedQuerySpace);
+        query.setCacheable(true);
+        query.setCacheRegion(CACHE_REGION);
+        query.setParameter("limit", limit);
+
+        List<Object[]> rows = new ArrayList<>();
+        for (Object result : query.getResultList()) {
+            rows.add((Object[]) result);
+        }
+        return rows;
+    }
+
+    private static String topCount(HistogramDimension dimension) {
+        return dimension == HistogramDimension.AMENITIES ? "COUNT(ha.hotel_id)" : "COUNT(*)";
+    }
+
+    private static String topSource(HistogramDimension dimension) {
+        if (dimension == HistogramDimension.AMENITIES) {
+            return "FROM amenities am LEFT JOIN hotel_amenities ha ON ha.amenity_id = am.id";
+        }
+        return dimension.isAddressColumn()
+                ? "FROM hotels h JOIN addresses a ON a.hotel_id = h.id"
+                : "FROM hotels h";
+    }
+
+    // columns are the branch tag, one label per dimension in declaration order (NULL when not grouped by) and count
+    private String branch(int tag, Set<HistogramDimension> dimensions, String count, String from) {
+        StringBuilder sql = new StringBuilder("SELECT ").append(tag);
+        List<String> groupBy = new ArrayList<>();
+        for (HistogramDimension dimension : HistogramDimension.values()) {
+            if (dimensions.contains(dimension)) {
+                sql.append(", MIN(").append(dimension.labelColumn()).append(")");
+                groupBy.add(dimension.groupColumn());
+            } else {
+                sql.append(", CAST(NULL AS VARCHAR(255))");
+            }
+        }
+        sql.append(", ").append(count).append(" ").append(from);
+        if (dimensions.stream().anyMatch(HistogramDimension::isAddressColumn)) {
+            sql.append(" LEFT JOIN addresses a ON a.hotel_id = h.id");
+        }
+        return sql.append(" GROUP BY ").append(String.join(", ", groupBy)).toString();
+    }
+
+    public record HistogramGroup(boolean amenities, List<String> labels, long count) {
+
+        public String label(HistogramDimension dimension) {
+            return labels.get(dimension.ordinal());
+        }
+    }
+}
@@ -1,17 +1,24 @@
 package ru.practicum.test_task.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import ru.practicum.test_task.model.Hotel;
+import ru.practicum.test_task.util.TextNormalizer;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface HotelRepository extends JpaRepository<Hotel, Long> {
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT h FROM Hotel h " +
             "LEFT JOIN FETCH h.address " +
             "LEFT JOIN FETCH h.arrivalTime " +
@@ -28,51 +35,159 @@ public interface HotelRepository extends JpaRepository<Hotel, Long> {
             "WHERE h.id = :id")
     Optional<Hotel> findByIdWithContacts(@Param("id") Long id);
 
-    List<Hotel> findByNameContainingIgnoreCase(String name);
+    // one bag per query, the amenities of the same hotels are fetched by findAllByIdWithAmenities
+    @Query("SELECT h FROM Hotel h " +
+            "LEFT JOIN FETCH h.address " +
+            "LEFT JOIN FETCH h.arrivalTime " +
+            "LEFT JOIN FETCH h.contacts " +
+            "WHERE h.id IN :ids")
+    List<Hotel> findAllByIdWithDetailsAndContacts(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT h FROM Hotel h " +
+            "LEFT JOIN FETCH h.amenities " +
+            "WHERE h.id IN :ids")
+    List<Hotel> findAllByIdWithAmenities(@Param("ids") Collection<Long> ids);
+
+    default List<Hotel> findByNameContainingIgnoreCase(String name) {
+        String normalized = TextNormalizer.normalize(name);
+        return findByNameNormContaining(normalized != null ? normalized : "");
+    }
+
+    List<Hotel> findByNameNormContaining(String nameNorm);
 
     List<Hotel> findByBrand(String brand);
 
+    default List<Hotel> findByCity(String city) {
+        return findByCityNorm(TextNormalizer.normalize(city));
+    }
+
     @Query("SELECT h FROM Hotel h " +
             "JOIN h.address a " +
-            "WHERE LOWER(a.city) = LOWER(:city)")
-    List<Hotel> findByCity(@Param("city") String city);
+            "WHERE a.cityNorm = :cityNorm")
+    List<Hotel> findByCityNorm(@Param("cityNorm") String cityNorm);
+
+    default List<Hotel> findByCounty(String county) {
+        return findByCountyNorm(TextNormalizer.normalize(county));
+    }
 
     @Query("SELECT h FROM Hotel h " +
             "JOIN h.address a " +
-            "WHERE LOWER(a.county) = LOWER(:county)")
-    List<Hotel> findByCounty(@Param("county") String county);
+            "WHERE a.countyNorm = :countyNorm")
+    List<Hotel> findByCountyNorm(@Param("countyNorm") String countyNorm);
 
     @Query("SELECT DISTINCT h FROM Hotel h " +
             "JOIN h.amenities a " +
             "WHERE LOWER(a.name) = LOWER(:amenityName)")
     List<Hotel> findByAmenityName(@Param("amenityName") String amenityName);
 
+    default List<Hotel> findBySearchCriteria(String name, String brand, String city, String county, String amenityName) {
+        return findByNormalizedCriteria(
+                TextNormalizer.normalize(name),
+                TextNormalizer.normalize(brand),
+                TextNormalizer.normalize(city),
+                TextNormalizer.normalize(county),
+                amenityName);
+    }
+
     @Query("SELECT DISTINCT h FROM Hotel h " +
             "LEFT JOIN h.address a " +
             "LEFT JOIN h.amenities am " +
-            "WHERE (:name IS NULL OR LOWER(h.name) LIKE LOWER(CONCAT('%', :name, '%'))) " +
-            "AND (:brand IS NULL OR LOWER(h.brand) = LOWER(:brand)) " +
-            "AND (:city IS NULL OR LOWER(a.city) = LOWER(:city)) " +
-            "AND (:county IS NULL OR LOWER(a.county) = LOWER(:county)) " +
+            "WHERE (:name IS NULL OR h.nameNorm LIKE CONCAT('%', :name, '%')) " +
+            "AND (:brand IS NULL OR h.brandNorm = :brand) " +
+            "AND (:city IS NULL OR a.cityNorm = :city) " +
+            "AND (:county IS NULL OR a.countyNorm = :county) " +
             "AND (:amenityName IS NULL OR am.name = :amenityName)")
-    List<Hotel> findBySearchCriteria(@Param("name") String name,
-                                     @Param("brand") String brand,
-                                     @Param("city") String city,
-                                     @Param("county") String county,
-                                     @Param("amenityName") String amenityName);
+    List<Hotel> findByNormalizedCriteria(@Param("name") String name,
+                                         @Param("brand") String brand,
+                                         @Param("city") String city,
+                                         @Param("county") String county,
+                                         @Param("amenityName") String amenityName);
 
-    @Query("SELECT h.brand, COUNT(h) FROM Hotel h WHERE h.brand IS NOT NULL GROUP BY h.brand")
+    @Query("SELECT h.id FROM Hotel h " +
+            "LEFT JOIN h.address a " +
+            "WHERE (:name IS NULL OR h.nameNorm LIKE CONCAT('%', :name, '%')) " +
+            "AND (:brand IS NULL OR h.brandNorm = :brand) " +
+            "AND (:city IS NULL OR a.cityNorm = :city) " +
+            "AND (:county IS NULL OR a.countyNorm = :county) " +
+            "AND (:amenityCount = 0 OR h.id IN (" +
+            "SELECT h2.id FROM Hotel h2 JOIN h2.amenities am " +
+            "WHERE am.nameNorm IN :amenities " +
+            "GROUP BY h2.id " +
+            "HAVING COUNT(DISTINCT am.nameNorm) = :amenityCount)) " +
+            "ORDER BY h.id")
+    List<Long> findIdsBySearchCriteria(@Param("name") String name,
+                                       @Param("brand") String brand,
+                                       @Param("city") String city,
+                                       @Param("county") String county,
+                                       @Param("amenities") List<String> amenities,
+                                       @Param("amenityCount") long amenityCount);
+
+    @Query("SELECT h.id FROM Hotel h ORDER BY h.id")
+    List<Long> findAllIds();
+
+    @Query("SELECT h.id, h.name, h.description, h.brand FROM Hotel h WHERE h.id IN :ids ORDER BY h.id")
+    List<Object[]> findBasicRowsByIds(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT a.hotel.id, a.houseNumber, a.street, a.city, a.county, a.postCode " +
+            "FROM Address a WHERE a.hotel.id IN :hotelIds")
+    List<Object[]> findAddressRowsByHotelIds(@Param("hotelIds") Collection<Long> hotelIds);
+
+    @Query("SELECT c.hotel.id, c.contactType, c.contactValue " +
+            "FROM Contact c WHERE c.hotel.id IN :hotelIds ORDER BY c.id")
+    List<Object[]> findContactRowsByHotelIds(@Param("hotelIds") Collection<Long> hotelIds);
+
+    @Query("SELECT t.hotel.id, t.checkIn, t.checkOut " +
+            "FROM ArrivalTime t WHERE t.hotel.id IN :hotelIds")
+    List<Object[]> findArrivalTimeRowsByHotelIds(@Param("hotelIds") Collection<Long> hotelIds);
+
+    @Query("SELECT t.hotel.id, t.checkIn, t.checkOut FROM ArrivalTime t")
+    List<Object[]> findAllArrivalTimeRows();
+
+    @Query("SELECT t.hotel.id FROM ArrivalTime t " +
+            "WHERE t.checkIn >= :checkInFrom AND t.checkIn <= :checkInTo AND t.checkOut >= :checkOutFrom " +
+            "ORDER BY t.hotel.id")
+    List<Long> findIdsByArrivalTime(@Param("checkInFrom") LocalTime checkInFrom,
+                                    @Param("checkInTo") LocalTime checkInTo,
+                                    @Param("checkOutFrom") LocalTime checkOutFrom);
+
+    @Query("SELECT h.id, am.name FROM Hotel h JOIN h.amenities am WHERE h.id IN :hotelIds")
+    List<Object[]> findAmenityRowsByHotelIds(@Param("hotelIds") Collection<Long> hotelIds);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "hotels.histograms")
+    })
+    @Query("SELECT MIN(h.brand), COUNT(h) FROM Hotel h WHERE h.brandNorm IS NOT NULL GROUP BY h.brandNorm")
     List<Object[]> getHistogramByBrand();
 
-    @Query("SELECT a.city, COUNT(h) FROM Hotel h JOIN h.address a GROUP BY a.city")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "hotels.histograms")
+    })
+    @Query("SELECT MIN(a.city), COUNT(h) FROM Hotel h JOIN h.address a GROUP BY a.cityNorm")
     List<Object[]> getHistogramByCity();
 
-    @Query("SELECT a.county, COUNT(h) FROM Hotel h JOIN h.address a GROUP BY a.county")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "hotels.histograms")
+    })
+    @Query("SELECT MIN(a.county), COUNT(h) FROM Hotel h JOIN h.address a GROUP BY a.countyNorm")
     List<Object[]> getHistogramByCounty();
 
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "hotels.histograms")
+    })
     @Query("SELECT a.name, COUNT(h) FROM Amenity a " +
             "LEFT JOIN a.hotels h " +
             "GROUP BY a.id, a.name " +
             "ORDER BY a.name")
     List<Object[]> getHistogramByAmenities();
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "hotels.histograms")
+    })
+    @Query("SELECT HOUR(t.checkIn), COUNT(t) FROM ArrivalTime t GROUP BY HOUR(t.checkIn)")
+    List<Object[]> getHistogramByCheckInHour();
 }
@@ -0,0 +1,13 @@
+package ru.practicum.test_task.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import ru.practicum.test_task.model.HotelSummary;
+
+import java.util.List;
+
+@Repository
+public interface HotelSummaryRepository extends JpaRepository<HotelSummary, Long> {
+
+    List<HotelSummary> findAllByOrderByIdAsc();
+}
@@ -0,0 +1,40 @@
+package ru.practicum.test_task.repository;
+
+import ru.practicum.test_task.model.OutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    @Query("SELECT e FROM OutboxEvent e " +
+            "WHERE e.id > :afterId " +
+            "AND e.createdAt <= :visibleBefore " +
+            "ORDER BY e.id")
+    List<OutboxEvent> findBatchAfter(@Param("afterId") Long afterId,
+                                     @Param("visibleBefore") LocalDateTime visibleBefore,
+                                     Pageable pageable);
+
+    @Query("SELECT COALESCE(MAX(e.id), 0) FROM OutboxEvent e")
+    long findMaxId();
+
+    @Query("SELECT DISTINCT e.hotelId FROM OutboxEvent e WHERE e.id > :afterId")
+    List<Long> findHotelIdsChangedAfter(@Param("afterId") Long afterId);
+
+    @Query("SELECT e.id, e.hotelId FROM OutboxEvent e WHERE e.id > :afterId ORDER BY e.id")
+    List<Object[]> findHotelChangesAfter(@Param("afterId") Long afterId);
+
+    @Query("SELECT COALESCE(MAX(e.id), 0) FROM OutboxEvent e WHERE e.id <= :upToId AND e.createdAt < :createdBefore")
+    long findMaxDeliveredId(@Param("upToId") Long upToId, @Param("createdBefore") LocalDateTime createdBefore);
+
+    @Modifying
+    @Query("DELETE FROM OutboxEvent e WHERE e.id <= :upToId AND e.createdAt < :createdBefore")
+    int deleteDelivered(@Param("upToId") Long upToId, @Param("createdBefore") LocalDateTime createdBefore);
+}
@@ -0,0 +1,9 @@
+package ru.practicum.test_task.repository;
+
+import ru.practicum.test_task.model.OutboxOffset;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface OutboxOffsetRepository extends JpaRepository<OutboxOffset, String> {
+}
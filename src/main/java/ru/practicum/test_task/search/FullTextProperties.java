@@ -0,0 +1,19 @@
+package ru.practicum.test_task.search;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+
+@Data
+@ConfigurationProperties(prefix = "hotels.full-text")
+public class FullTextProperties {
+
+    private Path indexPath = Path.of("data", "hotels-index");
+
+    private int maxResults = 1000;
+
+    private int rebuildBatchSize = 500;
+
+    private boolean rebuildOnStartup = false;
+}
@@ -0,0 +1,7 @@
+package ru.practicum.test_task.search;
+
+import java.util.List;
+
+public record HotelDocument(Long id, String name, String brand, String description, String city,
+                            List<String> amenities) {
+}
@@ -0,0 +1,108 @@
+package ru.practicum.test_task.search;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.test_task.outbox.HotelChangeEvent;
+import ru.practicum.test_task.outbox.HotelChangeListener;
+import ru.practicum.test_task.outbox.OutboxTailer;
+import ru.practicum.test_task.outbox.RebuildPoint;
+import ru.practicum.test_task.repository.HotelRepository;
+import ru.practicum.test_task.sharding.ShardRouter;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Component
+@Slf4j
+public class HotelIndexer implements HotelChangeListener {
+
+    private final HotelRepository hotelRepository;
+    private final OutboxTailer outboxTailer;
+    private final HotelSearchIndex searchIndex;
+    private final FullTextProperties properties;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shardRouter;
+
+    public HotelIndexer(HotelRepository hotelRepository, OutboxTailer outboxTailer, HotelSearchIndex searchIndex,
+                        FullTextProperties properties, PlatformTransactionManager transactionManager,
+                        ShardRouter shardRouter) {
+        this.hotelRepository = hotelRepository;
+        this.outboxTailer = outboxTailer;
+        this.searchIndex = searchIndex;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.shardRouter = shardRouter;
+    }
+
+    @Override
+    public String getName() {
+        return "full-text-index";
+    }
+
+    @Override
+    public void onChange(HotelChangeEvent event) {
+        List<HotelDocument> documents = transactionTemplate.execute(status -> loadDocuments(List.of(event.hotelId())));
+        if (documents.isEmpty()) {
+            searchIndex.delete(List.of(event.hotelId()));
+        } else {
+            searchIndex.index(documents);
+        }
+    }
+
+    public int rebuild() {
+        long startedAt = System.currentTimeMillis();
+        RebuildPoint rebuildPoint = outboxTailer.rebuildPoint();
+        // every batch is read in its own transaction, changes in between are replayed from the rebuild point
+        int indexed = searchIndex.rebuild(batches -> shardRouter.forEachShard(shard -> {
+            rebuildPoint.take();
+            List<Long> ids = transactionTemplate.execute(status -> hotelRepository.findAllIds());
+            for (int from = 0; from < ids.size(); from += properties.getRebuildBatchSize()) {
+                List<Long> batch = ids.subList(from, Math.min(ids.size(), from + properties.getRebuildBatchSize()));
+                batches.accept(transactionTemplate.execute(status -> loadDocuments(batch)));
+            }
+        }));
+        rebuildPoint.resume(getName());
+        log.info("Rebuilt full-text index with {} hotels in {} ms", indexed, System.currentTimeMillis() - startedAt);
+        return indexed;
+    }
+
+    // An index left over from another database (e.g. an in-memory one that was recreated) is rebuilt from scratch
+    @EventListener(ApplicationReadyEvent.class)
+    public void synchronizeOnStartup() {
+        long hotels = shardRouter.fanOut(() -> transactionTemplate.execute(status -> hotelRepository.count())).stream()
+                .mapToLong(Long::longValue)
+                .sum();
+        if (properties.isRebuildOnStartup() || hotels != searchIndex.size()) {
+            rebuild();
+        }
+    }
+
+    private List<HotelDocument> loadDocuments(Collection<Long> hotelIds) {
+        Map<Long, String> cities = new HashMap<>();
+        for (Object[] row : hotelRepository.findAddressRowsByHotelIds(hotelIds)) {
+            cities.put((Long) row[0], (String) row[3]);
+        }
+
+        Map<Long, List<String>> amenities = new HashMap<>();
+        for (Object[] row : hotelRepository.findAmenityRowsByHotelIds(hotelIds)) {
+            amenities.computeIfAbsent((Long) row[0], id -> new ArrayList<>()).add((String) row[1]);
+        }
+
+        Map<Long, HotelDocument> documents = new LinkedHashMap<>();
+        for (Object[] row : hotelRepository.findBasicRowsByIds(hotelIds)) {
+            Long id = (Long) row[0];
+            documents.put(id, new HotelDocument(id, (String) row[1], (String) row[3], (String) row[2],
+                    cities.get(id), amenities.getOrDefault(id, List.of())));
+        }
+        return new ArrayList<>(documents.values());
+    }
+}
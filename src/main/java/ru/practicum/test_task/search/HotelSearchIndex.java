@@ -0,0 +1,222 @@
+package ru.practicum.test_task.search;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queryparser.classic.MultiFieldQueryParser;
+import org.apache.lucene.queryparser.classic.ParseException;
+import org.apache.lucene.queryparser.classic.QueryParser;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.AlreadyClosedException;
+import org.apache.lucene.store.FSDirectory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.LongPredicate;
+
+// IndexSearcher uses BM25 similarity by default; name, brand and city matches are boosted over description
+@Component
+@Slf4j
+public class HotelSearchIndex {
+
+    static final String ID = "id";
+    static final String ID_TERM = "id_term";
+    static final String NAME = "name";
+    static final String BRAND = "brand";
+    static final String DESCRIPTION = "description";
+    static final String CITY = "city";
+    static final String AMENITIES = "amenities";
+
+    private static final String[] SEARCH_FIELDS = {NAME, BRAND, CITY, DESCRIPTION, AMENITIES};
+    private static final Map<String, Float> BOOSTS = Map.of(NAME, 3f, BRAND, 2f, CITY, 2f, AMENITIES, 1.5f);
+
+    private final FullTextProperties properties;
+    private final Analyzer analyzer = new StandardAnalyzer();
+    private final FSDirectory directory;
+    private volatile IndexWriter writer;
+    private volatile SearcherManager searcherManager;
+
+    public HotelSearchIndex(FullTextProperties properties) throws IOException {
+        this.properties = properties;
+        Files.createDirectories(properties.getIndexPath());
+        this.directory = FSDirectory.open(properties.getIndexPath());
+        this.writer = openWriter();
+        this.searcherManager = new SearcherManager(writer, null);
+        log.info("Opened full-text index at {} with {} documents", properties.getIndexPath(), writer.getDocStats().numDocs);
+    }
+
+    public synchronized void index(Collection<HotelDocument> documents) {
+        try {
+            for (HotelDocument document : documents) {
+                writer.updateDocument(new Term(ID_TERM, String.valueOf(document.id())), toLucene(document));
+            }
+            commit();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to index hotels", e);
+        }
+    }
+
+    public synchronized void delete(Collection<Long> hotelIds) {
+        try {
+            for (Long hotelId : hotelIds) {
+                writer.deleteDocuments(new Term(ID_TERM, String.valueOf(hotelId)));
+            }
+            commit();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to delete hotels from index", e);
+        }
+    }
+
+    // searchers keep seeing the previous commit until the rebuilt index is committed; the source hands over
+    // documents one batch at a time, so the catalog never has to fit in memory at once. If the source fails,
+    // the pending delete-all and the partial batches are rolled back, the next index() must not commit them.
+    public synchronized int rebuild(Consumer<Consumer<Collection<HotelDocument>>> source) {
+        try {
+            writer.deleteAll();
+            source.accept(batch -> {
+                try {
+                    for (HotelDocument document : batch) {
+                        writer.addDocument(toLucene(document));
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Failed to rebuild index", e);
+                }
+            });
+            commit();
+            return size();
+        } catch (IOException e) {
+            discardUncommitted();
+            throw new UncheckedIOException("Failed to rebuild index", e);
+        } catch (RuntimeException e) {
+            discardUncommitted();
+            throw e;
+        }
+    }
+
+    public int size() {
+        return writer.getDocStats().numDocs;
+    }
+
+    // returns hotel ids ordered by relevance
+    public List<Long> search(String text) {
+        return search(text, id -> true);
+    }
+
+    // hits are read page by page until maxResults of them pass the filter, so a filter that rejects the best
+    // matches still gets the ones further down
+    public List<Long> search(String text, LongPredicate filter) {
+        Query query = parse(text);
+        int pageSize = properties.getMaxResults();
+        try {
+            SearcherManager manager = searcherManager;
+            IndexSearcher searcher;
+            try {
+                searcher = manager.acquire();
+            } catch (AlreadyClosedException e) {
+                // replaced by a failed rebuild in the meantime
+                manager = searcherManager;
+                searcher = manager.acquire();
+            }
+            try {
+                List<Long> ids = new ArrayList<>();
+                ScoreDoc after = null;
+                while (ids.size() < pageSize) {
+                    TopDocs page = searcher.searchAfter(after, query, pageSize);
+                    for (ScoreDoc hit : page.scoreDocs) {
+                        long id = searcher.storedFields().document(hit.doc).getField(ID).numericValue().longValue();
+                        if (filter.test(id) && ids.size() < pageSize) {
+                            ids.add(id);
+                        }
+                    }
+                    if (page.scoreDocs.length < pageSize) {
+                        break;
+                    }
+                    after = page.scoreDocs[page.scoreDocs.length - 1];
+                }
+                return ids;
+            } finally {
+                manager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Full-text search failed", e);
+        }
+    }
+
+    // rollback closes the writer, so it is reopened on the last commit together with a searcher manager for it
+    private void discardUncommitted() {
+        try {
+            writer.rollback();
+            writer = openWriter();
+            SearcherManager previous = searcherManager;
+            searcherManager = new SearcherManager(writer, null);
+            previous.close();
+            log.warn("Full-text rebuild failed, kept the previous index with {} documents", size());
+        } catch (IOException e) {
+            log.error("Could not reopen the full-text index after a failed rebuild", e);
+        }
+    }
+
+    private IndexWriter openWriter() throws IOException {
+        return new IndexWriter(directory, new IndexWriterConfig(analyzer)
+                .setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND));
+    }
+
+    private void commit() throws IOException {
+        writer.commit();
+        searcherManager.maybeRefresh();
+    }
+
+    @PreDestroy
+    public synchronized void close() throws IOException {
+        searcherManager.close();
+        writer.close();
+        directory.close();
+    }
+
+    private Query parse(String text) {
+        MultiFieldQueryParser parser = new MultiFieldQueryParser(SEARCH_FIELDS, analyzer, BOOSTS);
+        try {
+            return parser.parse(QueryParser.escape(text));
+        } catch (ParseException e) {
+            throw new IllegalArgumentException("Invalid full-text query: " + text, e);
+        }
+    }
+
+    private Document toLucene(HotelDocument hotel) {
+        Document document = new Document();
+        document.add(new StringField(ID_TERM, String.valueOf(hotel.id()), Field.Store.NO));
+        document.add(new StoredField(ID, hotel.id()));
+        addText(document, NAME, hotel.name());
+        addText(document, BRAND, hotel.brand());
+        addText(document, DESCRIPTION, hotel.description());
+        addText(document, CITY, hotel.city());
+        hotel.amenities().forEach(amenity -> addText(document, AMENITIES, amenity));
+        return document;
+    }
+
+    private void addText(Document document, String field, String value) {
+        if (value != null) {
+            document.add(new TextField(field, value, Field.Store.NO));
+        }
+    }
+}
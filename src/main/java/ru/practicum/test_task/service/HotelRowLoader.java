@@ -0,0 +1,93 @@
+package ru.practicum.test_task.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import ru.practicum.test_task.model.Address;
+import ru.practicum.test_task.model.Amenity;
+import ru.practicum.test_task.model.ArrivalTime;
+import ru.practicum.test_task.model.Contact;
+import ru.practicum.test_task.model.Hotel;
+import ru.practicum.test_task.repository.HotelRepository;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Builds detached hotels from scalar rows, querying only the associations the caller needs
+@Component
+@RequiredArgsConstructor
+public class HotelRowLoader {
+
+    private final HotelRepository hotelRepository;
+
+    public List<Hotel> loadAll(Collection<Long> hotelIds) {
+        return load(hotelIds, true, true, true, true);
+    }
+
+    public List<Hotel> load(Collection<Long> hotelIds, boolean withAddress, boolean withContacts,
+                            boolean withArrivalTime, boolean withAmenities) {
+        if (hotelIds.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, Hotel> hotelsById = new LinkedHashMap<>();
+        for (Object[] row : hotelRepository.findBasicRowsByIds(hotelIds)) {
+            Hotel hotel = new Hotel();
+            hotel.setId((Long) row[0]);
+            hotel.setName((String) row[1]);
+            hotel.setDescription((String) row[2]);
+            hotel.setBrand((String) row[3]);
+            hotel.setContacts(withContacts ? new ArrayList<>() : null);
+            hotel.setAmenities(withAmenities ? new ArrayList<>() : null);
+            hotelsById.put(hotel.getId(), hotel);
+        }
+        if (hotelsById.isEmpty()) {
+            return List.of();
+        }
+        Set<Long> ids = hotelsById.keySet();
+
+        if (withAddress) {
+            for (Object[] row : hotelRepository.findAddressRowsByHotelIds(ids)) {
+                Address address = new Address();
+                address.setHouseNumber((String) row[1]);
+                address.setStreet((String) row[2]);
+                address.setCity((String) row[3]);
+                address.setCounty((String) row[4]);
+                address.setPostCode((String) row[5]);
+                hotelsById.get((Long) row[0]).setAddress(address);
+            }
+        }
+
+        if (withContacts) {
+            for (Object[] row : hotelRepository.findContactRowsByHotelIds(ids)) {
+                Contact contact = new Contact();
+                contact.setContactType((String) row[1]);
+                contact.setContactValue((String) row[2]);
+                hotelsById.get((Long) row[0]).getContacts().add(contact);
+            }
+        }
+
+        if (withArrivalTime) {
+            for (Object[] row : hotelRepository.findArrivalTimeRowsByHotelIds(ids)) {
+                ArrivalTime arrivalTime = new ArrivalTime();
+                arrivalTime.setCheckIn((LocalTime) row[1]);
+                arrivalTime.setCheckOut((LocalTime) row[2]);
+                hotelsById.get((Long) row[0]).setArrivalTime(arrivalTime);
+            }
+        }
+
+        if (withAmenities) {
+            for (Object[] row : hotelRepository.findAmenityRowsByHotelIds(ids)) {
+                Amenity amenity = new Amenity();
+                amenity.setName((String) row[1]);
+                hotelsById.get((Long) row[0]).getAmenities().add(amenity);
+            }
+        }
+
+        return new ArrayList<>(hotelsById.values());
+    }
+}
@@ -1,8 +1,15 @@
 package ru.practicum.test_task.service;
 
+import ru.practicum.test_task.arrival.ArrivalTimeWindow;
+import ru.practicum.test_task.dto.FieldSelection;
+import ru.practicum.test_task.dto.request.BulkAmenitiesRequest;
 import ru.practicum.test_task.dto.request.CreateHotelRequest;
+import ru.practicum.test_task.dto.response.BulkAmenitiesResultDto;
+import ru.practicum.test_task.dto.response.HistogramsDto;
+import ru.practicum.test_task.dto.response.HotelChangesDto;
 import ru.practicum.test_task.dto.response.HotelDetailedDto;
 import ru.practicum.test_task.dto.response.HotelSummaryDto;
+import ru.practicum.test_task.dto.response.TopHistogramDto;
 
 import java.util.List;
 import java.util.Map;
@@ -11,13 +18,29 @@ public interface HotelService {
 
     List<HotelSummaryDto> getAllHotels();
 
+    HotelChangesDto getHotelChanges(String since);
+
     HotelDetailedDto getHotelById(Long id);
 
+    HotelDetailedDto getHotelById(Long id, FieldSelection fields);
+
     List<HotelSummaryDto> searchHotels(String name, String brand, String city, String county, List<String> amenities);
 
+    List<HotelSummaryDto> searchHotels(String query, String name, String brand, String city, String county,
+                                       List<String> amenities);
+
+    List<HotelSummaryDto> searchHotels(String query, String name, String brand, String city, String county,
+                                       List<String> amenities, ArrivalTimeWindow arrival);
+
     HotelSummaryDto createHotel(CreateHotelRequest request);
 
     void addAmenitiesToHotel(Long hotelId, List<String> amenities);
 
+    BulkAmenitiesResultDto updateAmenitiesInBulk(BulkAmenitiesRequest request);
+
     Map<String, Long> getHistogram(String param);
+
+    HistogramsDto getHistograms(List<String> params);
+
+    TopHistogramDto getTopHistogram(String param, int limit, String order, boolean approximate);
 }
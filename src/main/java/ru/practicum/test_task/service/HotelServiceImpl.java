@@ -1,19 +1,49 @@
 package ru.practicum.test_task.service;
 
+import ru.practicum.test_task.arrival.ArrivalTimeIndex;
+import ru.practicum.test_task.arrival.ArrivalTimeWindow;
+import ru.practicum.test_task.dto.FieldSelection;
+import ru.practicum.test_task.dto.request.BulkAmenitiesRequest;
 import ru.practicum.test_task.dto.request.CreateHotelRequest;
+import ru.practicum.test_task.dto.request.HotelFilterRequest;
+import ru.practicum.test_task.dto.response.BulkAmenitiesResultDto;
+import ru.practicum.test_task.dto.response.HistogramBucketDto;
+import ru.practicum.test_task.dto.response.HistogramsDto;
+import ru.practicum.test_task.dto.response.HotelChangesDto;
 import ru.practicum.test_task.dto.response.HotelDetailedDto;
 import ru.practicum.test_task.dto.response.HotelSummaryDto;
+import ru.practicum.test_task.dto.response.TopHistogramDto;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import ru.practicum.test_task.cache.SearchCriteria;
+import ru.practicum.test_task.cache.SearchResultCache;
+import ru.practicum.test_task.coalescing.Coalesced;
+import ru.practicum.test_task.columnar.ColumnarHotelStore;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
+import ru.practicum.test_task.exception.HotelNotFoundException;
+import ru.practicum.test_task.histogram.HistogramAccumulator;
+import ru.practicum.test_task.histogram.HistogramSketches;
+import ru.practicum.test_task.histogram.HistogramSpec;
+import ru.practicum.test_task.histogram.TopHistogramRequest;
+import ru.practicum.test_task.idfilter.HotelIdFilter;
 import ru.practicum.test_task.model.*;
+import ru.practicum.test_task.outbox.HotelChangeEvent;
+import ru.practicum.test_task.outbox.HotelChangeFeed;
+import ru.practicum.test_task.outbox.HotelOutbox;
+import ru.practicum.test_task.repository.AmenityBulkRepository;
 import ru.practicum.test_task.repository.AmenityRepository;
+import ru.practicum.test_task.repository.HistogramRepository;
 import ru.practicum.test_task.repository.HotelRepository;
+import ru.practicum.test_task.repository.HotelSummaryRepository;
+import ru.practicum.test_task.search.HotelSearchIndex;
+import ru.practicum.test_task.snapshot.CatalogSnapshot;
 
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.function.LongPredicate;
 import java.util.stream.Collectors;
 
 @Service
@@ -22,7 +52,20 @@ import java.util.stream.Collectors;
 public class HotelServiceImpl implements HotelService {
 
     private final HotelRepository hotelRepository;
+    private final HotelSummaryRepository hotelSummaryRepository;
     private final AmenityRepository amenityRepository;
+    private final AmenityBulkRepository amenityBulkRepository;
+    private final HistogramRepository histogramRepository;
+    private final HistogramSketches histogramSketches;
+    private final SearchResultCache searchResultCache;
+    private final HotelOutbox hotelOutbox;
+    private final HotelChangeFeed hotelChangeFeed;
+    private final HotelSearchIndex hotelSearchIndex;
+    private final HotelIdFilter hotelIdFilter;
+    private final HotelRowLoader hotelRowLoader;
+    private final CatalogSnapshot catalogSnapshot;
+    private final ColumnarHotelStore columnarHotelStore;
+    private final ArrivalTimeIndex arrivalTimeIndex;
 
     private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("HH:mm");
 
@@ -30,18 +73,66 @@ public class HotelServiceImpl implements HotelService {
     @Transactional(readOnly = true)
     public List<HotelSummaryDto> getAllHotels() {
         log.info("Getting all hotels");
-        return hotelRepository.findAll().stream()
-                .map(HotelSummaryDto::new)
-                .collect(Collectors.toList());
+        return catalogSnapshot.findAllSummaries()
+                .or(columnarHotelStore::findAllSummaries)
+                .orElseGet(() -> toSummaries(hotelSummaryRepository.findAllByOrderByIdAsc()));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public HotelChangesDto getHotelChanges(String since) {
+        log.info("Getting hotel changes since token: {}", since);
+
+        // the token is taken before the snapshot, changes in between are simply sent again next time
+        if (since == null) {
+            String token = hotelChangeFeed.headToken();
+            return new HotelChangesDto(toSummaries(hotelSummaryRepository.findAllByOrderByIdAsc()), List.of(), token, false);
+        }
+
+        HotelChangeFeed.Page page = hotelChangeFeed.readAfter(since);
+        List<HotelSummaryDto> hotels = findSummariesInOrder(page.hotelIds());
+        Set<Long> presentIds = hotels.stream()
+                .map(HotelSummaryDto::getId)
+                .collect(Collectors.toSet());
+        List<Long> removedIds = page.hotelIds().stream()
+                .filter(id -> !presentIds.contains(id))
+                .toList();
+        return new HotelChangesDto(hotels, removedIds, page.nextToken(), page.hasMore());
     }
 
     @Override
+    @Coalesced
     @Transactional(readOnly = true)
     public HotelDetailedDto getHotelById(Long id) {
+        return getHotelById(id, FieldSelection.all());
+    }
+
+    @Override
+    @Coalesced
+    @Transactional(readOnly = true)
+    public HotelDetailedDto getHotelById(Long id, FieldSelection fields) {
         log.info("Getting hotel by id: {}", id);
+        requireKnownId(id);
+
+        if (!fields.isAll()) {
+            return hotelRowLoader.load(List.of(id),
+                    fields.includes("address"),
+                    fields.includes("contacts"),
+                    fields.includes("arrivalTime"),
+                    fields.includes("amenities")).stream()
+                    .findFirst()
+                    .map(HotelDetailedDto::new)
+                    .orElseThrow(() -> new HotelNotFoundException(id));
+        }
+
+        Optional<Hotel> inMemory = catalogSnapshot.findHotel(id)
+                .or(() -> columnarHotelStore.findHotel(id));
+        if (inMemory.isPresent()) {
+            return new HotelDetailedDto(inMemory.get());
+        }
 
         Hotel hotel = hotelRepository.findByIdWithDetails(id)
-                .orElseThrow(() -> new RuntimeException("Hotel not found with id: " + id));
+                .orElseThrow(() -> new HotelNotFoundException(id));
 
         if (hotel.getAmenities().isEmpty()) {
             Hotel hotelWithAmenities = hotelRepository.findByIdWithAmenities(id)
@@ -61,15 +152,39 @@ public class HotelServiceImpl implements HotelService {
     @Override
     @Transactional(readOnly = true)
     public List<HotelSummaryDto> searchHotels(String name, String brand, String city, String county, List<String> amenities) {
-        log.info("Searching hotels with filters - name: {}, brand: {}, city: {}, county: {}, amenities: {}",
-                name, brand, city, county, amenities);
+        return searchHotels(null, name, brand, city, county, amenities);
+    }
 
-        String amenityName = (amenities != null && !amenities.isEmpty()) ? amenities.get(0) : null;
+    @Override
+    @Transactional(readOnly = true)
+    public List<HotelSummaryDto> searchHotels(String query, String name, String brand, String city, String county,
+                                              List<String> amenities) {
+        return searchHotels(query, name, brand, city, county, amenities, ArrivalTimeWindow.ANY);
+    }
 
-        List<Hotel> hotels = hotelRepository.findBySearchCriteria(name, brand, city, county, amenityName);
-        return hotels.stream()
-                .map(HotelSummaryDto::new)
-                .collect(Collectors.toList());
+    @Override
+    @Transactional(readOnly = true)
+    public List<HotelSummaryDto> searchHotels(String query, String name, String brand, String city, String county,
+                                              List<String> amenities, ArrivalTimeWindow arrival) {
+        log.info("Searching hotels with filters - q: {}, name: {}, brand: {}, city: {}, county: {}, amenities: {}, " +
+                "arrival: {}", query, name, brand, city, county, amenities, arrival);
+
+        SearchCriteria criteria = SearchCriteria.of(name, brand, city, county, amenities);
+        if (!StringUtils.hasText(query)) {
+            return findSearchSummaries(filterByArrivalTime(findCachedHotelIds(criteria), arrival));
+        }
+
+        // the index is updated asynchronously, so ranked hits are not cached and are only narrowed by the cached filter
+        LongPredicate filter = id -> true;
+        if (!criteria.isUnrestricted()) {
+            Set<Long> matchingIds = new HashSet<>(findCachedHotelIds(criteria));
+            filter = matchingIds::contains;
+        }
+        if (!arrival.isUnrestricted()) {
+            long[] arrivalIds = findArrivalIds(arrival);
+            filter = filter.and(id -> Arrays.binarySearch(arrivalIds, id) >= 0);
+        }
+        return findSearchSummaries(hotelSearchIndex.search(query, filter));
     }
 
     @Override
@@ -80,6 +195,12 @@ public class HotelServiceImpl implements HotelService {
         Hotel hotel = convertToEntity(request);
         Hotel savedHotel = hotelRepository.save(hotel);
 
+        hotelOutbox.append(savedHotel.getId(), HotelChangeType.HOTEL_CREATED, null);
+        searchResultCache.invalidate();
+        catalogSnapshot.markStale(savedHotel.getId());
+        columnarHotelStore.refreshAfterCommit();
+        arrivalTimeIndex.addAfterCommit(savedHotel.getId(), savedHotel.getArrivalTime());
+
         log.info("Hotel created with id: {}", savedHotel.getId());
         return new HotelSummaryDto(savedHotel);
     }
@@ -88,9 +209,10 @@ public class HotelServiceImpl implements HotelService {
     @Transactional
     public void addAmenitiesToHotel(Long hotelId, List<String> amenities) {
         log.info("Adding amenities to hotel {}: {}", hotelId, amenities);
+        requireKnownId(hotelId);
 
         Hotel hotel = hotelRepository.findById(hotelId)
-                .orElseThrow(() -> new RuntimeException("Hotel not found with id: " + hotelId));
+                .orElseThrow(() -> new HotelNotFoundException(hotelId));
 
         List<Amenity> existingAmenities = amenityRepository.findByHotelId(hotelId);
         Set<String> existingAmenityNames = existingAmenities.stream()
@@ -112,6 +234,11 @@ public class HotelServiceImpl implements HotelService {
         if (!amenitiesToAdd.isEmpty()) {
             hotel.getAmenities().addAll(amenitiesToAdd);
             hotelRepository.save(hotel);
+            hotelOutbox.append(hotelId, HotelChangeType.AMENITIES_ADDED, HotelChangeEvent.amenitiesPayload(
+                    amenitiesToAdd.stream().map(Amenity::getName).toList()));
+            searchResultCache.invalidate();
+            catalogSnapshot.markStale(hotelId);
+            columnarHotelStore.refreshAfterCommit();
             log.info("Successfully added {} amenities to hotel {}", amenitiesToAdd.size(), hotelId);
         } else {
             log.info("No new amenities to add for hotel {} (all already exist)", hotelId);
@@ -119,6 +246,66 @@ public class HotelServiceImpl implements HotelService {
     }
 
     @Override
+    @Transactional
+    public BulkAmenitiesResultDto updateAmenitiesInBulk(BulkAmenitiesRequest request) {
+        log.info("Bulk {} of amenities {} for hotels {} / filter {}",
+                request.getAction(), request.getAmenities(), request.getHotelIds(), request.getFilter());
+
+        if ((request.getHotelIds() == null) == (request.getFilter() == null)) {
+            throw new IllegalArgumentException("Exactly one of hotelIds and filter must be specified");
+        }
+        List<String> amenities = request.getAmenities().stream()
+                .filter(StringUtils::hasText)
+                .map(String::trim)
+                .distinct()
+                .toList();
+        if (amenities.isEmpty()) {
+            throw new IllegalArgumentException("At least one amenity name is required");
+        }
+        if (request.getHotelIds() != null && request.getHotelIds().isEmpty()) {
+            return new BulkAmenitiesResultDto(0, 0);
+        }
+
+        AmenityBulkRepository.HotelSelection selection;
+        if (request.getHotelIds() != null) {
+            selection = AmenityBulkRepository.HotelSelection.ofIds(request.getHotelIds());
+        } else {
+            HotelFilterRequest filter = request.getFilter();
+            SearchCriteria criteria = SearchCriteria.of(
+                    filter.getName(), filter.getBrand(), filter.getCity(), filter.getCounty(), filter.getAmenities());
+            // an empty filter selects the whole catalog, which is rarely what a client that forgot a field meant
+            if (criteria.isUnrestricted() != filter.isAll()) {
+                throw new IllegalArgumentException(filter.isAll()
+                        ? "Filter criteria cannot be combined with \"all\": true"
+                        : "An empty filter selects every hotel, send \"all\": true to confirm");
+            }
+            selection = AmenityBulkRepository.HotelSelection.ofCriteria(criteria);
+        }
+
+        boolean attach = request.getAction() == BulkAmenitiesRequest.Action.ATTACH;
+        if (attach) {
+            amenityBulkRepository.insertMissingAmenities(amenities);
+        }
+
+        int hotelsAffected = amenityBulkRepository.appendOutboxEvents(selection, amenities,
+                attach ? HotelChangeType.AMENITIES_ADDED : HotelChangeType.AMENITIES_REMOVED);
+        if (hotelsAffected == 0) {
+            log.info("No hotel needs a change for bulk {} of {}", request.getAction(), amenities);
+            return new BulkAmenitiesResultDto(0, 0);
+        }
+
+        int rowsAffected = attach
+                ? amenityBulkRepository.attach(selection, amenities)
+                : amenityBulkRepository.detach(selection, amenities);
+        searchResultCache.invalidate();
+        catalogSnapshot.retire();
+        columnarHotelStore.refreshAfterCommit();
+        log.info("Bulk {} changed {} amenity links of {} hotels", request.getAction(), rowsAffected, hotelsAffected);
+        return new BulkAmenitiesResultDto(hotelsAffected, rowsAffected);
+    }
+
+    @Override
+    @Coalesced
     @Transactional(readOnly = true)
     public Map<String, Long> getHistogram(String param) {
         log.info("Getting histogram for parameter: {}", param);
@@ -137,6 +324,8 @@ public class HotelServiceImpl implements HotelService {
             case "amenities":
                 results = hotelRepository.getHistogramByAmenities();
                 break;
+            case "arrival":
+                return getArrivalHistogram();
             default:
                 throw new IllegalArgumentException("Unsupported histogram parameter: " + param);
         }
@@ -148,6 +337,144 @@ public class HotelServiceImpl implements HotelService {
                 ));
     }
 
+    @Override
+    @Coalesced
+    @Transactional(readOnly = true)
+    public HistogramsDto getHistograms(List<String> params) {
+        log.info("Getting histograms for parameters: {}", params);
+
+        List<HistogramSpec> specs = HistogramSpec.parseAll(params);
+        HistogramAccumulator accumulator = new HistogramAccumulator(specs);
+        for (HistogramRepository.HistogramGroup group : histogramRepository.findGroups(specs)) {
+            for (HistogramSpec spec : specs) {
+                if (spec.hasAmenities() == group.amenities()) {
+                    accumulator.add(spec, spec.dimensions().stream().map(group::label).toList(), group.count());
+                }
+            }
+        }
+        return accumulator.toDto();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public TopHistogramDto getTopHistogram(String param, int limit, String order, boolean approximate) {
+        log.info("Getting top {} histogram buckets for parameter: {}, order: {}, approximate: {}",
+                limit, param, order, approximate);
+
+        TopHistogramRequest request = TopHistogramRequest.of(param, limit, order, approximate);
+        if (request.approximate()) {
+            return histogramSketches.top(request.dimension(), request.limit());
+        }
+
+        List<Object[]> rows = histogramRepository.findTop(request.dimension(), request.limit(), request.order());
+        List<HistogramBucketDto> buckets = rows.stream()
+                .map(row -> new HistogramBucketDto((String) row[0], ((Number) row[1]).longValue()))
+                .toList();
+        long total = rows.isEmpty() ? 0 : ((Number) rows.get(0)[2]).longValue();
+        long distinct = rows.isEmpty() ? 0 : ((Number) rows.get(0)[3]).longValue();
+        long shown = buckets.stream().mapToLong(HistogramBucketDto::getCount).sum();
+        return new TopHistogramDto(buckets, total - shown, distinct, false);
+    }
+
+    // check-ins per hour of day, every hour is present so the buckets line up across calls and shards
+    private Map<String, Long> getArrivalHistogram() {
+        Map<Integer, Long> checkInsPerHour = arrivalTimeIndex.checkInsPerHour().orElseGet(() -> {
+            Map<Integer, Long> counts = new HashMap<>();
+            for (Object[] row : hotelRepository.getHistogramByCheckInHour()) {
+                counts.put(((Number) row[0]).intValue(), (Long) row[1]);
+            }
+            return counts;
+        });
+
+        Map<String, Long> histogram = new LinkedHashMap<>();
+        for (int hour = 0; hour < 24; hour++) {
+            histogram.put(LocalTime.of(hour, 0).format(TIME_FORMATTER), checkInsPerHour.getOrDefault(hour, 0L));
+        }
+        return histogram;
+    }
+
+    private List<Long> filterByArrivalTime(List<Long> hotelIds, ArrivalTimeWindow arrival) {
+        if (arrival.isUnrestricted() || hotelIds.isEmpty()) {
+            return hotelIds;
+        }
+        long[] matchingIds = findArrivalIds(arrival);
+        return hotelIds.stream()
+                .filter(id -> Arrays.binarySearch(matchingIds, id) >= 0)
+                .toList();
+    }
+
+    // sorted, as the index keeps them
+    private long[] findArrivalIds(ArrivalTimeWindow arrival) {
+        return arrivalTimeIndex.findIds(arrival)
+                .orElseGet(() -> hotelRepository.findIdsByArrivalTime(arrival.checkInFromTime(),
+                        arrival.checkInToTime(), arrival.checkOutFromTime()).stream()
+                        .mapToLong(Long::longValue)
+                        .toArray());
+    }
+
+    // the filter learns about hotels created on other instances only from the outbox, so a miss it cannot rule out
+    // is confirmed by a primary key lookup; identity ids start at 1, anything below can be rejected without a query
+    private void requireKnownId(Long hotelId) {
+        if (hotelId == null || hotelId < 1) {
+            throw new HotelNotFoundException(hotelId);
+        }
+        if (hotelIdFilter.mightExist(hotelId)) {
+            return;
+        }
+        if (!hotelIdFilter.shouldConfirm(hotelId) || !hotelRepository.existsById(hotelId)) {
+            throw new HotelNotFoundException(hotelId);
+        }
+        hotelIdFilter.add(hotelId);
+    }
+
+    private List<Long> findHotelIds(SearchCriteria criteria) {
+        long generation = searchResultCache.currentGeneration();
+
+        List<Long> hotelIds = hotelRepository.findIdsBySearchCriteria(
+                criteria.getName(),
+                criteria.getBrand(),
+                criteria.getCity(),
+                criteria.getCounty(),
+                criteria.getAmenities(),
+                criteria.getAmenities().size()
+        );
+
+        searchResultCache.put(criteria, generation, hotelIds);
+        return hotelIds;
+    }
+
+    private List<Long> findCachedHotelIds(SearchCriteria criteria) {
+        return columnarHotelStore.findIds(criteria)
+                .or(() -> searchResultCache.get(criteria))
+                .orElseGet(() -> findHotelIds(criteria));
+    }
+
+    // the change feed must not use it: the columnar catalog may lag behind the outbox events it reports
+    private List<HotelSummaryDto> findSearchSummaries(List<Long> hotelIds) {
+        return columnarHotelStore.findSummaries(hotelIds)
+                .orElseGet(() -> findSummariesInOrder(hotelIds));
+    }
+
+    private List<HotelSummaryDto> findSummariesInOrder(List<Long> hotelIds) {
+        if (hotelIds.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, HotelSummary> summariesById = hotelSummaryRepository.findAllById(hotelIds).stream()
+                .collect(Collectors.toMap(HotelSummary::getId, summary -> summary));
+
+        return hotelIds.stream()
+                .map(summariesById::get)
+                .filter(Objects::nonNull)
+                .map(HotelSummaryDto::new)
+                .collect(Collectors.toList());
+    }
+
+    private List<HotelSummaryDto> toSummaries(List<HotelSummary> summaries) {
+        return summaries.stream()
+                .map(HotelSummaryDto::new)
+                .collect(Collectors.toList());
+    }
+
     private Hotel convertToEntity(CreateHotelRequest request) {
         Hotel hotel = new Hotel();
         hotel.setName(request.getName());
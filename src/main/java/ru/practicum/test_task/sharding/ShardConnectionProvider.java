@@ -0,0 +1,64 @@
+package ru.practicum.test_task.sharding;
+
+import org.hibernate.context.spi.CurrentTenantIdentifierResolver;
+import org.hibernate.engine.jdbc.connections.spi.MultiTenantConnectionProvider;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+// Each shard is a Hibernate tenant, which keeps second-level and query cache entries of different shards apart.
+// Connections still come from the application data source so statement timing and tracing keep working.
+class ShardConnectionProvider implements MultiTenantConnectionProvider, CurrentTenantIdentifierResolver {
+
+    private final DataSource dataSource;
+
+    ShardConnectionProvider(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    public String resolveCurrentTenantIdentifier() {
+        return String.valueOf(ShardContext.current());
+    }
+
+    @Override
+    public boolean validateExistingCurrentSessions() {
+        return false;
+    }
+
+    @Override
+    public Connection getAnyConnection() throws SQLException {
+        return ShardContext.call(0, dataSource::getConnection);
+    }
+
+    @Override
+    public void releaseAnyConnection(Connection connection) throws SQLException {
+        connection.close();
+    }
+
+    @Override
+    public Connection getConnection(String tenantIdentifier) throws SQLException {
+        return ShardContext.call(Integer.parseInt(tenantIdentifier), dataSource::getConnection);
+    }
+
+    @Override
+    public void releaseConnection(String tenantIdentifier, Connection connection) throws SQLException {
+        connection.close();
+    }
+
+    @Override
+    public boolean supportsAggressiveRelease() {
+        return false;
+    }
+
+    @Override
+    public boolean isUnwrappableAs(Class<?> unwrapType) {
+        return false;
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> unwrapType) {
+        throw new UnsupportedOperationException("Cannot unwrap to " + unwrapType);
+    }
+}
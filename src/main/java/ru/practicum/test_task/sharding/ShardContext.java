@@ -0,0 +1,36 @@
+package ru.practicum.test_task.sharding;
+
+// The shard the current thread works with. Connections, the Hibernate tenant and per-shard caches all follow it;
+// a thread that never entered a shard works with shard 0, which is also the only shard when sharding is off.
+public final class ShardContext {
+
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    public static int current() {
+        Integer shard = CURRENT.get();
+        return shard != null ? shard : 0;
+    }
+
+    public static <T, E extends Exception> T call(int shard, ShardTask<T, E> task) throws E {
+        Integer previous = CURRENT.get();
+        CURRENT.set(shard);
+        try {
+            return task.call();
+        } finally {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+
+    @FunctionalInterface
+    public interface ShardTask<T, E extends Exception> {
+
+        T call() throws E;
+    }
+}
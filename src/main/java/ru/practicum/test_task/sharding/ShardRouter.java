@@ -0,0 +1,122 @@
+package ru.practicum.test_task.sharding;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Component;
+import ru.practicum.test_task.util.TextNormalizer;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+import java.util.function.Supplier;
+
+// Decides which shard a hotel lives on and runs work against one or all shards.
+// Shard k hands out hotel ids congruent to k modulo the shard count, so any id can be routed without a lookup.
+// Without sharding there is exactly one shard and everything runs inline.
+@Component
+public class ShardRouter {
+
+    private final ShardingProperties properties;
+    private final int shardCount;
+    private final Map<String, Integer> shardsByCounty = new HashMap<>();
+    private final AtomicInteger nextShard = new AtomicInteger();
+    private final ExecutorService fanOutExecutor;
+
+    public ShardRouter(ShardingProperties properties) {
+        this.properties = properties;
+        this.shardCount = properties.isEnabled() ? properties.getShards().size() : 1;
+        if (shardCount == 0) {
+            throw new IllegalStateException("Sharding is enabled but no shards are configured");
+        }
+        if (properties.isEnabled()) {
+            for (int shard = 0; shard < shardCount; shard++) {
+                for (String county : properties.getShards().get(shard).getCounties()) {
+                    shardsByCounty.put(TextNormalizer.normalize(county), shard);
+                }
+            }
+        }
+
+        AtomicInteger threads = new AtomicInteger();
+        this.fanOutExecutor = shardCount > 1
+                ? Executors.newFixedThreadPool(properties.getFanOutThreads(), runnable -> {
+                    Thread thread = new Thread(runnable, "shard-fan-out-" + threads.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                })
+                : null;
+    }
+
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    public int shardForId(long hotelId) {
+        return Math.floorMod(hotelId, shardCount);
+    }
+
+    public int shardForNewHotel(String county) {
+        if (shardCount == 1) {
+            return 0;
+        }
+        if (properties.getKey() == ShardingProperties.ShardKey.ID) {
+            return Math.floorMod(nextShard.getAndIncrement(), shardCount);
+        }
+        String normalized = TextNormalizer.normalize(county);
+        Integer shard = shardsByCounty.get(normalized);
+        if (shard != null) {
+            return shard;
+        }
+        return normalized == null ? 0 : Math.floorMod(normalized.hashCode(), shardCount);
+    }
+
+    public <T> T onShard(int shard, Supplier<T> action) {
+        return ShardContext.call(shard, action::get);
+    }
+
+    public void forEachShard(IntConsumer action) {
+        for (int shard = 0; shard < shardCount; shard++) {
+            int current = shard;
+            ShardContext.call(current, () -> {
+                action.accept(current);
+                return null;
+            });
+        }
+    }
+
+    // results are in shard order; the first failure is rethrown once every shard has finished
+    public <T> List<T> fanOut(Supplier<T> action) {
+        if (shardCount == 1) {
+            return List.of(onShard(0, action));
+        }
+
+        List<CompletableFuture<T>> futures = new ArrayList<>(shardCount);
+        for (int shard = 0; shard < shardCount; shard++) {
+            int current = shard;
+            futures.add(CompletableFuture.supplyAsync(() -> onShard(current, action), fanOutExecutor));
+        }
+        try {
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+        return futures.stream()
+                .map(CompletableFuture::join)
+                .toList();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (fanOutExecutor != null) {
+            fanOutExecutor.shutdownNow();
+        }
+    }
+}
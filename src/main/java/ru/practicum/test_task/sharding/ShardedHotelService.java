@@ -0,0 +1,277 @@
+package ru.practicum.test_task.sharding;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.util.StringUtils;
+import ru.practicum.test_task.arrival.ArrivalTimeWindow;
+import ru.practicum.test_task.dto.FieldSelection;
+import ru.practicum.test_task.dto.request.BulkAmenitiesRequest;
+import ru.practicum.test_task.dto.request.CreateHotelRequest;
+import ru.practicum.test_task.dto.response.BulkAmenitiesResultDto;
+import ru.practicum.test_task.dto.response.HistogramBucketDto;
+import ru.practicum.test_task.dto.response.HistogramsDto;
+import ru.practicum.test_task.dto.response.HotelChangesDto;
+import ru.practicum.test_task.dto.response.HotelDetailedDto;
+import ru.practicum.test_task.dto.response.HotelSummaryDto;
+import ru.practicum.test_task.dto.response.TopHistogramDto;
+import ru.practicum.test_task.histogram.HistogramAccumulator;
+import ru.practicum.test_task.histogram.HistogramOrder;
+import ru.practicum.test_task.histogram.HistogramSpec;
+import ru.practicum.test_task.histogram.TopHistogramRequest;
+import ru.practicum.test_task.search.HotelSearchIndex;
+import ru.practicum.test_task.service.HotelService;
+import ru.practicum.test_task.util.TextNormalizer;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Single-hotel calls go to the hotel's shard, catalog-wide calls run on all shards in parallel and are merged.
+// Every shard call is a separate transaction of the wrapped service on that shard.
+@Slf4j
+public class ShardedHotelService implements HotelService {
+
+    private static final String TOKEN_SEPARATOR = ".";
+
+    private final HotelService delegate;
+    private final ShardRouter shardRouter;
+    private final HotelSearchIndex hotelSearchIndex;
+
+    public ShardedHotelService(HotelService delegate, ShardRouter shardRouter, HotelSearchIndex hotelSearchIndex) {
+        this.delegate = delegate;
+        this.shardRouter = shardRouter;
+        this.hotelSearchIndex = hotelSearchIndex;
+    }
+
+    @Override
+    public List<HotelSummaryDto> getAllHotels() {
+        return mergeSorted(shardRouter.fanOut(delegate::getAllHotels), Comparator.comparing(HotelSummaryDto::getId));
+    }
+
+    // the token is the per-shard tokens joined in shard order
+    @Override
+    public HotelChangesDto getHotelChanges(String since) {
+        List<String> tokens;
+        if (since == null) {
+            tokens = null;
+        } else {
+            tokens = List.of(since.split("\\" + TOKEN_SEPARATOR, -1));
+            if (tokens.size() != shardRouter.getShardCount()) {
+                throw new IllegalArgumentException("Invalid sync token: " + since);
+            }
+        }
+
+        List<HotelChangesDto> changes = new ArrayList<>(shardRouter.getShardCount());
+        for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+            String token = tokens != null ? tokens.get(shard) : null;
+            changes.add(shardRouter.onShard(shard, () -> delegate.getHotelChanges(token)));
+        }
+
+        HotelChangesDto merged = new HotelChangesDto(new ArrayList<>(), new ArrayList<>(), null, false);
+        for (HotelChangesDto change : changes) {
+            merged.getHotels().addAll(change.getHotels());
+            merged.getRemovedIds().addAll(change.getRemovedIds());
+            merged.setHasMore(merged.isHasMore() || change.isHasMore());
+        }
+        merged.setNextToken(changes.stream()
+                .map(HotelChangesDto::getNextToken)
+                .collect(Collectors.joining(TOKEN_SEPARATOR)));
+        return merged;
+    }
+
+    @Override
+    public HotelDetailedDto getHotelById(Long id) {
+        return shardRouter.onShard(shardRouter.shardForId(id), () -> delegate.getHotelById(id));
+    }
+
+    @Override
+    public HotelDetailedDto getHotelById(Long id, FieldSelection fields) {
+        return shardRouter.onShard(shardRouter.shardForId(id), () -> delegate.getHotelById(id, fields));
+    }
+
+    @Override
+    public List<HotelSummaryDto> searchHotels(String name, String brand, String city, String county,
+                                              List<String> amenities) {
+        return searchHotels(null, name, brand, city, county, amenities);
+    }
+
+    @Override
+    public List<HotelSummaryDto> searchHotels(String query, String name, String brand, String city, String county,
+                                              List<String> amenities) {
+        return searchHotels(query, name, brand, city, county, amenities, ArrivalTimeWindow.ANY);
+    }
+
+    @Override
+    public List<HotelSummaryDto> searchHotels(String query, String name, String brand, String city, String county,
+                                              List<String> amenities, ArrivalTimeWindow arrival) {
+        List<List<HotelSummaryDto>> results = shardRouter.fanOut(
+                () -> delegate.searchHotels(query, name, brand, city, county, amenities, arrival));
+        if (!StringUtils.hasText(query)) {
+            return mergeSorted(results, Comparator.comparing(HotelSummaryDto::getId));
+        }
+
+        // every shard keeps the index order for its own hotels, so merging by index rank restores the global order
+        Map<Long, Integer> ranks = new HashMap<>();
+        List<Long> rankedIds = hotelSearchIndex.search(query);
+        for (int rank = 0; rank < rankedIds.size(); rank++) {
+            ranks.putIfAbsent(rankedIds.get(rank), rank);
+        }
+        return mergeSorted(results, Comparator.comparing(hotel -> ranks.getOrDefault(hotel.getId(), Integer.MAX_VALUE)));
+    }
+
+    @Override
+    public HotelSummaryDto createHotel(CreateHotelRequest request) {
+        String county = request.getAddress() != null ? request.getAddress().getCounty() : null;
+        int shard = shardRouter.shardForNewHotel(county);
+        log.debug("Placing new hotel {} on shard {}", request.getName(), shard);
+        return shardRouter.onShard(shard, () -> delegate.createHotel(request));
+    }
+
+    @Override
+    public void addAmenitiesToHotel(Long hotelId, List<String> amenities) {
+        shardRouter.onShard(shardRouter.shardForId(hotelId), () -> {
+            delegate.addAmenitiesToHotel(hotelId, amenities);
+            return null;
+        });
+    }
+
+    // every shard commits on its own, there is no transaction across shards: a failure on one shard leaves the
+    // changes on the others in place, the response lists the failed shards and the client may repeat the request,
+    // which changes nothing where it already succeeded
+    @Override
+    public BulkAmenitiesResultDto updateAmenitiesInBulk(BulkAmenitiesRequest request) {
+        List<ShardOutcome> outcomes;
+        if (request.getHotelIds() == null || request.getFilter() != null) {
+            outcomes = shardRouter.fanOut(() -> updateOnShard(request));
+        } else {
+            Map<Integer, List<Long>> idsByShard = request.getHotelIds().stream()
+                    .collect(Collectors.groupingBy(shardRouter::shardForId));
+            outcomes = new ArrayList<>();
+            idsByShard.forEach((shard, ids) -> outcomes.add(shardRouter.onShard(shard,
+                    () -> updateOnShard(withHotelIds(request, ids)))));
+        }
+
+        // an empty id list reaches no shard, same answer as the unsharded service
+        if (outcomes.isEmpty()) {
+            return new BulkAmenitiesResultDto(0, 0);
+        }
+        if (outcomes.stream().allMatch(outcome -> outcome.error() != null)) {
+            throw outcomes.get(0).error();
+        }
+        BulkAmenitiesResultDto total = new BulkAmenitiesResultDto(0, 0);
+        for (ShardOutcome outcome : outcomes) {
+            if (outcome.error() != null) {
+                total.getFailedShards().add(outcome.shard());
+                continue;
+            }
+            total.setHotelsAffected(total.getHotelsAffected() + outcome.result().getHotelsAffected());
+            total.setRowsAffected(total.getRowsAffected() + outcome.result().getRowsAffected());
+        }
+        if (!total.getFailedShards().isEmpty()) {
+            log.warn("Bulk amenity update failed on shards {}, the other shards are committed", total.getFailedShards());
+        }
+        return total;
+    }
+
+    private ShardOutcome updateOnShard(BulkAmenitiesRequest request) {
+        try {
+            return new ShardOutcome(ShardContext.current(), delegate.updateAmenitiesInBulk(request), null);
+        } catch (RuntimeException e) {
+            log.warn("Bulk amenity update failed on shard {}: {}", ShardContext.current(), e.getMessage());
+            return new ShardOutcome(ShardContext.current(), null, e);
+        }
+    }
+
+    // shards may spell the same city differently, counts are summed per normalized value like on a single database
+    @Override
+    public Map<String, Long> getHistogram(String param) {
+        List<Map<String, Long>> histograms = shardRouter.fanOut(() -> delegate.getHistogram(param));
+        Function<String, String> groupKey = "amenities".equalsIgnoreCase(param)
+                ? Function.identity()
+                : TextNormalizer::normalize;
+
+        Map<String, String> labels = new HashMap<>();
+        Map<String, Long> merged = new LinkedHashMap<>();
+        for (Map<String, Long> histogram : histograms) {
+            histogram.forEach((label, count) -> {
+                String key = groupKey.apply(label);
+                merged.merge(labels.computeIfAbsent(key, k -> label), count, Long::sum);
+            });
+        }
+        return merged;
+    }
+
+    @Override
+    public HistogramsDto getHistograms(List<String> params) {
+        HistogramAccumulator accumulator = new HistogramAccumulator(HistogramSpec.parseAll(params));
+        shardRouter.fanOut(() -> delegate.getHistograms(params)).forEach(accumulator::addAll);
+        return accumulator.toDto();
+    }
+
+    // the sketches already follow the outbox of every shard; an exact top is cut from the merged histogram,
+    // because a per-shard LIMIT could drop a value that is large in total but small on each shard
+    @Override
+    public TopHistogramDto getTopHistogram(String param, int limit, String order, boolean approximate) {
+        TopHistogramRequest request = TopHistogramRequest.of(param, limit, order, approximate);
+        if (request.approximate()) {
+            return delegate.getTopHistogram(param, limit, order, true);
+        }
+
+        Comparator<Map.Entry<String, Long>> byCount = Map.Entry.comparingByValue();
+        if (request.order() == HistogramOrder.DESC) {
+            byCount = byCount.reversed();
+        }
+        List<Map.Entry<String, Long>> entries = getHistogram(param).entrySet().stream()
+                .filter(entry -> entry.getKey() != null)
+                .sorted(byCount.thenComparing(Map.Entry.comparingByKey()))
+                .toList();
+        List<HistogramBucketDto> buckets = entries.stream()
+                .limit(request.limit())
+                .map(entry -> new HistogramBucketDto(entry.getKey(), entry.getValue()))
+                .toList();
+        long total = entries.stream().mapToLong(Map.Entry::getValue).sum();
+        long shown = buckets.stream().mapToLong(HistogramBucketDto::getCount).sum();
+        return new TopHistogramDto(buckets, total - shown, entries.size(), false);
+    }
+
+    private BulkAmenitiesRequest withHotelIds(BulkAmenitiesRequest request, List<Long> hotelIds) {
+        BulkAmenitiesRequest copy = new BulkAmenitiesRequest();
+        copy.setAction(request.getAction());
+        copy.setAmenities(request.getAmenities());
+        copy.setHotelIds(hotelIds);
+        return copy;
+    }
+
+    private record ShardOutcome(int shard, BulkAmenitiesResultDto result, RuntimeException error) {
+    }
+
+    private static <T> List<T> mergeSorted(List<List<T>> sortedLists, Comparator<T> comparator) {
+        record Head<T>(T value, int list, int index) {
+        }
+
+        PriorityQueue<Head<T>> heads = new PriorityQueue<>((left, right) -> comparator.compare(left.value(), right.value()));
+        int total = 0;
+        for (int list = 0; list < sortedLists.size(); list++) {
+            total += sortedLists.get(list).size();
+            if (!sortedLists.get(list).isEmpty()) {
+                heads.add(new Head<>(sortedLists.get(list).get(0), list, 0));
+            }
+        }
+
+        List<T> merged = new ArrayList<>(total);
+        while (!heads.isEmpty()) {
+            Head<T> head = heads.poll();
+            merged.add(head.value());
+            List<T> source = sortedLists.get(head.list());
+            if (head.index() + 1 < source.size()) {
+                heads.add(new Head<>(source.get(head.index() + 1), head.list(), head.index() + 1));
+            }
+        }
+        return merged;
+    }
+}
@@ -0,0 +1,42 @@
+package ru.practicum.test_task.sharding;
+
+import liquibase.exception.LiquibaseException;
+import liquibase.integration.spring.SpringLiquibase;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+// Migrates every shard, then makes shard k issue hotel ids congruent to k modulo the shard count.
+// Replaces the auto-configured SpringLiquibase, which would only see the shard the routing data source defaults to.
+@Slf4j
+class ShardedLiquibase extends SpringLiquibase {
+
+    private final List<DataSource> shards;
+
+    ShardedLiquibase(List<DataSource> shards, String changeLog) {
+        this.shards = shards;
+        setChangeLog(changeLog);
+    }
+
+    @Override
+    public void afterPropertiesSet() throws LiquibaseException {
+        for (int shard = 0; shard < shards.size(); shard++) {
+            setDataSource(shards.get(shard));
+            super.afterPropertiesSet();
+            interleaveHotelIds(shards.get(shard), shard);
+        }
+    }
+
+    private void interleaveHotelIds(DataSource dataSource, int shard) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM hotels", Long.class);
+
+        int shardCount = shards.size();
+        long nextId = maxId + 1 + Math.floorMod(shard - (maxId + 1), shardCount);
+        jdbcTemplate.execute("ALTER TABLE hotels ALTER COLUMN id SET INCREMENT BY " + shardCount
+                + " RESTART WITH " + nextId);
+        log.info("Shard {} issues hotel ids from {} in steps of {}", shard, nextId, shardCount);
+    }
+}
@@ -0,0 +1,82 @@
+package ru.practicum.test_task.sharding;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import ru.practicum.test_task.datasource.ReplicaRoutingProperties;
+import ru.practicum.test_task.search.HotelSearchIndex;
+import ru.practicum.test_task.service.HotelService;
+import ru.practicum.test_task.service.HotelServiceImpl;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+@Configuration
+@ConditionalOnProperty(prefix = "hotels.sharding", name = "enabled", havingValue = "true")
+public class ShardingConfig {
+
+    // the request-scoped session of open-in-view would be opened for shard 0 and reused by every routed call,
+    // and replica routing would need a replica set per shard; both are refused rather than silently misrouted
+    @Bean
+    public ShardRoutingDataSource shardRoutingDataSource(DataSourceProperties dataSourceProperties,
+                                                         ShardingProperties properties,
+                                                         ReplicaRoutingProperties replicaRoutingProperties,
+                                                         @Value("${spring.jpa.open-in-view:true}") boolean openInView) {
+        if (replicaRoutingProperties.isEnabled()) {
+            throw new IllegalStateException("hotels.sharding.enabled and hotels.datasource.routing.enabled " +
+                    "cannot be combined: replica routing is not supported per shard");
+        }
+        if (openInView) {
+            throw new IllegalStateException("hotels.sharding.enabled requires spring.jpa.open-in-view=false, " +
+                    "as set by the sharding profile");
+        }
+        List<DataSource> shards = properties.getShards().stream()
+                .<DataSource>map(shard -> DataSourceBuilder.create()
+                        .url(shard.getUrl())
+                        .username(shard.getUsername() != null ? shard.getUsername() : dataSourceProperties.getUsername())
+                        .password(shard.getPassword() != null ? shard.getPassword() : dataSourceProperties.getPassword())
+                        .driverClassName(shard.getDriverClassName() != null
+                                ? shard.getDriverClassName()
+                                : dataSourceProperties.getDriverClassName())
+                        .build())
+                .toList();
+
+        return new ShardRoutingDataSource(shards);
+    }
+
+    // a separate bean, so the statement timing wrapper applied to "dataSource" leaves the shard list injectable
+    @Bean
+    @Primary
+    public DataSource dataSource(ShardRoutingDataSource shardRoutingDataSource) {
+        return new DelegatingDataSource(shardRoutingDataSource);
+    }
+
+    @Bean
+    public ShardedLiquibase liquibase(ShardRoutingDataSource shardRoutingDataSource,
+                                      @Value("${spring.liquibase.change-log}") String changeLog) {
+        return new ShardedLiquibase(shardRoutingDataSource.getShards(), changeLog);
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer shardTenancyCustomizer(DataSource dataSource) {
+        ShardConnectionProvider connectionProvider = new ShardConnectionProvider(dataSource);
+        return properties -> {
+            properties.put(AvailableSettings.MULTI_TENANT_CONNECTION_PROVIDER, connectionProvider);
+            properties.put(AvailableSettings.MULTI_TENANT_IDENTIFIER_RESOLVER, connectionProvider);
+        };
+    }
+
+    @Bean
+    @Primary
+    public HotelService shardedHotelService(HotelServiceImpl hotelService, ShardRouter shardRouter,
+                                            HotelSearchIndex hotelSearchIndex) {
+        return new ShardedHotelService(hotelService, shardRouter, hotelSearchIndex);
+    }
+}
@@ -0,0 +1,41 @@
+package ru.practicum.test_task.sharding;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "hotels.sharding")
+public class ShardingProperties {
+
+    private boolean enabled = false;
+
+    private ShardKey key = ShardKey.COUNTY;
+
+    private int fanOutThreads = 8;
+
+    private List<Shard> shards = new ArrayList<>();
+
+    public enum ShardKey {
+        // a new hotel goes to the shard listing its county, unlisted counties are spread by hash
+        COUNTY,
+        // new hotels are spread evenly, the shard is recovered from the id alone
+        ID
+    }
+
+    @Data
+    public static class Shard {
+
+        private String url;
+
+        private String username;
+
+        private String password;
+
+        private String driverClassName;
+
+        private List<String> counties = new ArrayList<>();
+    }
+}
@@ -0,0 +1,28 @@
+package ru.practicum.test_task.slowquery;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+
+@Getter
+@RequiredArgsConstructor
+public class SlowQuery {
+
+    private final long id;
+    private final Instant executedAt;
+    private final String sql;
+    private final List<String> parameters;
+    private final double elapsedMillis;
+    private final long rows;
+    private final String caller;
+    private final boolean slow;
+
+    // filled in asynchronously once EXPLAIN has run
+    private volatile String plan;
+
+    void setPlan(String plan) {
+        this.plan = plan;
+    }
+}
@@ -0,0 +1,31 @@
+package ru.practicum.test_task.slowquery;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+@Configuration
+public class SlowQueryConfig {
+
+    private static final String DATA_SOURCE_BEAN = "dataSource";
+
+    // wraps only the data source handed to JPA and Liquibase, the routing data source and replicas stay untouched
+    @Bean
+    public static BeanPostProcessor statementTimingPostProcessor(ObjectProvider<StatementListener> statementListeners) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!DATA_SOURCE_BEAN.equals(beanName) || !(bean instanceof DataSource dataSource)
+                        || bean instanceof StatementTimingDataSource) {
+                    return bean;
+                }
+                List<StatementListener> listeners = statementListeners.orderedStream().toList();
+                return listeners.isEmpty() ? bean : new StatementTimingDataSource(dataSource, listeners);
+            }
+        };
+    }
+}
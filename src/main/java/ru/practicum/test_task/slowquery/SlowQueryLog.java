@@ -0,0 +1,184 @@
+package ru.practicum.test_task.slowquery;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.repository.Repository;
+import org.springframework.stereotype.Component;
+import ru.practicum.test_task.util.RingBuffer;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Component
+@ConditionalOnProperty(prefix = "hotels.slow-query", name = "enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class SlowQueryLog implements StatementListener {
+
+    private static final String APP_PACKAGE = "ru.practicum.test_task.";
+    private static final String OWN_PACKAGE = SlowQueryLog.class.getPackageName() + ".";
+    private static final StackWalker STACK_WALKER = StackWalker.getInstance(StackWalker.Option.RETAIN_CLASS_REFERENCE);
+
+    private final SlowQueryProperties properties;
+    private final long thresholdNanos;
+    private final RingBuffer<SlowQuery> buffer;
+    private final AtomicLong ids = new AtomicLong();
+    private final Timer statementTimer;
+    private final Counter slowCounter;
+    private final ThreadPoolExecutor explainExecutor;
+
+    public SlowQueryLog(SlowQueryProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.thresholdNanos = properties.getThreshold().toNanos();
+        this.buffer = new RingBuffer<>(properties.getBufferSize());
+        this.statementTimer = Timer.builder("hotels.jdbc.statements").register(meterRegistry);
+        this.slowCounter = Counter.builder("hotels.jdbc.slow-statements").register(meterRegistry);
+
+        // a burst of slow statements must not pile up EXPLAIN work, extra plans are simply skipped
+        this.explainExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(64),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "slow-query-explain");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.DiscardPolicy());
+    }
+
+    public List<SlowQuery> getEntries() {
+        return buffer.snapshot();
+    }
+
+    public void clear() {
+        buffer.clear();
+    }
+
+    @Override
+    public void onStatement(String sql, Map<Integer, Object> parameters, long startedAtNanos, long elapsedNanos,
+                            long rows, DataSource target) {
+        statementTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+
+        boolean slow = elapsedNanos >= thresholdNanos;
+        if (!slow && ThreadLocalRandom.current().nextDouble() >= properties.getSampleRate()) {
+            return;
+        }
+
+        SlowQuery entry = new SlowQuery(ids.incrementAndGet(), Instant.now(), sql, render(parameters),
+                elapsedNanos / 1_000_000.0, rows, findCaller(), slow);
+        buffer.add(entry);
+        if (!slow) {
+            return;
+        }
+
+        slowCounter.increment();
+        log.warn("Slow statement took {} ms in {} ({} rows): {} {}", String.format(Locale.ROOT, "%.1f", entry.getElapsedMillis()),
+                entry.getCaller(), rows, sql, entry.getParameters());
+        if (properties.isExplain() && isQuery(sql)) {
+            List<Object> values = new ArrayList<>(parameters.values());
+            explainExecutor.execute(() -> entry.setPlan(explain(target, sql, values)));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        explainExecutor.shutdownNow();
+    }
+
+    private String explain(DataSource dataSource, String sql, List<Object> values) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(properties.getExplainPrefix() + sql)) {
+            for (int i = 0; i < values.size(); i++) {
+                statement.setObject(i + 1, values.get(i));
+            }
+            StringBuilder plan = new StringBuilder();
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    if (!plan.isEmpty()) {
+                        plan.append('\n');
+                    }
+                    plan.append(resultSet.getString(1));
+                }
+            }
+            return plan.toString();
+        } catch (SQLException e) {
+            log.debug("Could not explain statement {}: {}", sql, e.getMessage());
+            return "EXPLAIN failed: " + e.getMessage();
+        }
+    }
+
+    // prefers the outermost Spring Data repository method, falls back to the nearest application frame
+    private String findCaller() {
+        return STACK_WALKER.walk(frames -> {
+            String repositoryMethod = null;
+            String applicationFrame = null;
+            for (StackWalker.StackFrame frame : (Iterable<StackWalker.StackFrame>) frames::iterator) {
+                Class<?> declaringClass = frame.getDeclaringClass();
+                String className = declaringClass.getName();
+                if (Proxy.isProxyClass(declaringClass)) {
+                    Class<?> repository = findRepositoryInterface(declaringClass);
+                    if (repository != null) {
+                        repositoryMethod = repository.getSimpleName() + "." + frame.getMethodName();
+                    }
+                } else if (applicationFrame == null && className.startsWith(APP_PACKAGE)
+                        && !className.startsWith(OWN_PACKAGE)) {
+                    applicationFrame = declaringClass.getSimpleName() + "." + frame.getMethodName();
+                }
+            }
+            return repositoryMethod != null ? repositoryMethod : applicationFrame;
+        });
+    }
+
+    private Class<?> findRepositoryInterface(Class<?> proxyClass) {
+        for (Class<?> candidate : proxyClass.getInterfaces()) {
+            if (Repository.class.isAssignableFrom(candidate) && candidate.getName().startsWith(APP_PACKAGE)) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    private List<String> render(Map<Integer, Object> parameters) {
+        List<String> rendered = new ArrayList<>(parameters.size());
+        for (Object value : parameters.values()) {
+            rendered.add(render(value));
+        }
+        return rendered;
+    }
+
+    private String render(Object value) {
+        if (value == null) {
+            return "NULL";
+        }
+        if (value instanceof byte[] bytes) {
+            return "<" + bytes.length + " bytes>";
+        }
+        if (value instanceof java.io.InputStream || value instanceof java.io.Reader) {
+            return "<stream>";
+        }
+        String text = String.valueOf(value);
+        int maxLength = properties.getMaxParameterLength();
+        return text.length() > maxLength ? text.substring(0, maxLength) + "..." : text;
+    }
+
+    private boolean isQuery(String sql) {
+        String start = sql.stripLeading().toLowerCase(Locale.ROOT);
+        return start.startsWith("select") || start.startsWith("with");
+    }
+}
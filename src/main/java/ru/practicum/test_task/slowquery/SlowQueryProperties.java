@@ -0,0 +1,26 @@
+package ru.practicum.test_task.slowquery;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "hotels.slow-query")
+public class SlowQueryProperties {
+
+    private boolean enabled = true;
+
+    private Duration threshold = Duration.ofMillis(200);
+
+    // share of fast statements that are kept in the buffer for comparison
+    private double sampleRate = 0.01;
+
+    private int bufferSize = 200;
+
+    private int maxParameterLength = 200;
+
+    private boolean explain = true;
+
+    private String explainPrefix = "EXPLAIN ";
+}
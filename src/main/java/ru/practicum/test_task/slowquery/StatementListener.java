@@ -0,0 +1,11 @@
+package ru.practicum.test_task.slowquery;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+// Called on the executing thread once a statement has finished; parameters must be copied if kept
+public interface StatementListener {
+
+    void onStatement(String sql, Map<Integer, Object> parameters, long startedAtNanos, long elapsedNanos,
+                     long rows, DataSource target);
+}
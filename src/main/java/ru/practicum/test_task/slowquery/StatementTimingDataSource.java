@@ -0,0 +1,229 @@
+package ru.practicum.test_task.slowquery;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+// Times every statement executed through the wrapped data source and hands it to the statement listeners.
+// Elapsed time covers execution only, rows of a query are counted while the caller fetches them.
+public class StatementTimingDataSource extends DelegatingDataSource implements AutoCloseable {
+
+    private static final Set<String> EXECUTE_METHODS = Set.of(
+            "execute", "executeQuery", "executeUpdate", "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+
+    private final List<StatementListener> listeners;
+
+    public StatementTimingDataSource(DataSource targetDataSource, List<StatementListener> listeners) {
+        super(targetDataSource);
+        this.listeners = List.copyOf(listeners);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(super.getConnection(username, password));
+    }
+
+    // keeps the pool's inferred destroy method working after the bean has been wrapped
+    @Override
+    public void close() throws Exception {
+        if (getTargetDataSource() instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+
+    private Connection wrap(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                new ConnectionHandler(connection));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    // proxies are tracked in identity-based collections by Hibernate, so they must not delegate equals/hashCode
+    private static boolean isIdentityMethod(Method method) {
+        return method.getName().equals("hashCode") && method.getParameterCount() == 0
+                || method.getName().equals("equals") && method.getParameterCount() == 1;
+    }
+
+    private static Object identity(Object proxy, Method method, Object[] args) {
+        return method.getName().equals("hashCode") ? System.identityHashCode(proxy) : proxy == args[0];
+    }
+
+    private class ConnectionHandler implements InvocationHandler {
+
+        private final Connection target;
+
+        ConnectionHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (isIdentityMethod(method)) {
+                return identity(proxy, method, args);
+            }
+            Object result = StatementTimingDataSource.invoke(target, method, args);
+            if (result instanceof Statement statement) {
+                String sql = args != null && args.length > 0 && args[0] instanceof String text ? text : null;
+                Class<?> type = statement instanceof CallableStatement ? CallableStatement.class
+                        : statement instanceof PreparedStatement ? PreparedStatement.class
+                        : Statement.class;
+                return Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{type},
+                        new StatementHandler(statement, sql, (Connection) proxy));
+            }
+            return result;
+        }
+    }
+
+    private class StatementHandler implements InvocationHandler {
+
+        private final Statement target;
+        private final Connection connectionProxy;
+        private final Map<Integer, Object> parameters = new TreeMap<>();
+        private String sql;
+
+        private Execution pending;
+
+        StatementHandler(Statement target, String sql, Connection connectionProxy) {
+            this.target = target;
+            this.sql = sql;
+            this.connectionProxy = connectionProxy;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (isIdentityMethod(method)) {
+                return identity(proxy, method, args);
+            }
+            String name = method.getName();
+
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                parameters.put(index, name.equals("setNull") ? null : args[1]);
+            } else if (name.equals("clearParameters")) {
+                parameters.clear();
+            } else if (name.equals("getConnection")) {
+                return connectionProxy;
+            } else if (name.equals("close")) {
+                finish();
+            } else if (name.equals("getResultSet")) {
+                Object resultSet = StatementTimingDataSource.invoke(target, method, args);
+                return pending != null && resultSet instanceof ResultSet rs ? countRows(rs) : resultSet;
+            } else if (EXECUTE_METHODS.contains(name)) {
+                return execute(method, args);
+            }
+            return StatementTimingDataSource.invoke(target, method, args);
+        }
+
+        private Object execute(Method method, Object[] args) throws Throwable {
+            finish();
+            if (args != null && args.length > 0 && args[0] instanceof String text) {
+                sql = text;
+            }
+
+            long startedAt = System.nanoTime();
+            Object result = StatementTimingDataSource.invoke(target, method, args);
+            long elapsed = System.nanoTime() - startedAt;
+
+            if (result instanceof ResultSet resultSet) {
+                pending = new Execution(startedAt, elapsed);
+                return countRows(resultSet);
+            }
+            if (Boolean.TRUE.equals(result)) {
+                // the result set is picked up through getResultSet()
+                pending = new Execution(startedAt, elapsed);
+            } else {
+                record(startedAt, elapsed, affectedRows(result));
+            }
+            return result;
+        }
+
+        private ResultSet countRows(ResultSet resultSet) {
+            Execution execution = pending;
+            return (ResultSet) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{ResultSet.class},
+                    (proxy, method, args) -> {
+                        if (isIdentityMethod(method)) {
+                            return identity(proxy, method, args);
+                        }
+                        Object result = StatementTimingDataSource.invoke(resultSet, method, args);
+                        if (method.getName().equals("next") && Boolean.TRUE.equals(result)) {
+                            execution.rows++;
+                        } else if (method.getName().equals("close")) {
+                            finish();
+                        }
+                        return result;
+                    });
+        }
+
+        private void finish() {
+            Execution execution = pending;
+            if (execution != null) {
+                pending = null;
+                record(execution.startedAtNanos, execution.elapsedNanos, execution.rows);
+            }
+        }
+
+        private void record(long startedAtNanos, long elapsedNanos, long rows) {
+            if (sql == null) {
+                return;
+            }
+            for (StatementListener listener : listeners) {
+                listener.onStatement(sql, parameters, startedAtNanos, elapsedNanos, rows, getTargetDataSource());
+            }
+        }
+
+        private long affectedRows(Object result) {
+            if (result instanceof Number count) {
+                return count.longValue();
+            }
+            long total = 0;
+            if (result instanceof int[] counts) {
+                for (int count : counts) {
+                    total += Math.max(count, 0);
+                }
+            } else if (result instanceof long[] counts) {
+                for (long count : counts) {
+                    total += Math.max(count, 0);
+                }
+            } else {
+                return -1;
+            }
+            return total;
+        }
+    }
+
+    private static class Execution {
+
+        private final long startedAtNanos;
+        private final long elapsedNanos;
+        private long rows;
+
+        Execution(long startedAtNanos, long elapsedNanos) {
+            this.startedAtNanos = startedAtNanos;
+            this.elapsedNanos = elapsedNanos;
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package ru.practicum.test_task.snapshot;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.test_task.dto.response.HotelSummaryDto;
+import ru.practicum.test_task.model.Hotel;
+import ru.practicum.test_task.outbox.HotelChangeEvent;
+import ru.practicum.test_task.outbox.HotelChangeListener;
+import ru.practicum.test_task.outbox.OutboxTailer;
+import ru.practicum.test_task.repository.HotelRepository;
+import ru.practicum.test_task.repository.OutboxEventRepository;
+import ru.practicum.test_task.sharding.ShardContext;
+import ru.practicum.test_task.sharding.ShardRouter;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Serves catalog reads from the last snapshot file while the caches of a freshly started node are cold.
+// Hotels changed after the snapshot was written are served from the database: changes found in the outbox on
+// load, local writes right away and writes of other instances as the outbox delivers them. Once the background
+// catch-up has warmed the second-level cache the snapshot is dropped and every read goes to the database again.
+@Component
+@Slf4j
+public class CatalogSnapshot implements HotelChangeListener {
+
+    private final SnapshotProperties properties;
+    private final HotelRepository hotelRepository;
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxTailer outboxTailer;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shardRouter;
+
+    private volatile Serving serving;
+
+    public CatalogSnapshot(SnapshotProperties properties, HotelRepository hotelRepository,
+                           OutboxEventRepository outboxEventRepository, OutboxTailer outboxTailer,
+                           PlatformTransactionManager transactionManager, ShardRouter shardRouter) {
+        this.properties = properties;
+        this.hotelRepository = hotelRepository;
+        this.outboxEventRepository = outboxEventRepository;
+        this.outboxTailer = outboxTailer;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.shardRouter = shardRouter;
+    }
+
+    @Override
+    public String getName() {
+        return "catalog-snapshot";
+    }
+
+    // creations included, so the full list stops being served as soon as another instance adds a hotel
+    @Override
+    public void onChange(HotelChangeEvent event) {
+        Serving current = serving;
+        if (current != null && event.id() > current.loadedUpTo()[ShardContext.current()]) {
+            current.staleIds().add(event.hotelId());
+        }
+    }
+
+    // runs before the other startup listeners, which may keep the database busy for a while
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void loadOnStartup() {
+        if (properties.isEnabled() && load()) {
+            Thread catchUp = new Thread(this::catchUp, "catalog-snapshot-catch-up");
+            catchUp.setDaemon(true);
+            catchUp.start();
+        }
+    }
+
+    public boolean isServing() {
+        return serving != null;
+    }
+
+    public boolean load() {
+        Path path = properties.getPath().toAbsolutePath();
+        if (!Files.isRegularFile(path)) {
+            log.info("No catalog snapshot at {}", path);
+            return false;
+        }
+
+        CatalogSnapshotFile file;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            file = CatalogSnapshotFile.open(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } catch (IOException e) {
+            log.warn("Ignoring catalog snapshot {}: {}", path, e.getMessage());
+            return false;
+        }
+
+        long[] loadedUpTo = new long[shardRouter.getShardCount()];
+        Set<Long> staleIds = findStaleIds(file, loadedUpTo);
+        if (staleIds == null) {
+            return false;
+        }
+        serving = new Serving(file, staleIds, loadedUpTo);
+        // events after the ones read above are delivered again, even if the tailer passed them before loading
+        shardRouter.forEachShard(shard -> outboxTailer.rewind(getName(), loadedUpTo[shard]));
+        log.info("Serving {} hotels from catalog snapshot {} written at {}, {} changed since",
+                file.getRecordCount(), path, Instant.ofEpochMilli(file.getCreatedAt()), staleIds.size());
+        return true;
+    }
+
+    public Optional<Hotel> findHotel(Long hotelId) {
+        Serving current = serving;
+        if (current == null || current.staleIds().contains(hotelId)) {
+            return Optional.empty();
+        }
+        return current.file().find(hotelId)
+                .filter(record -> record.shard() == ShardContext.current())
+                .map(CatalogSnapshotFile.Record::hotel);
+    }
+
+    // the full list is only correct while no hotel has changed, a new hotel would be missing from it
+    public Optional<List<HotelSummaryDto>> findAllSummaries() {
+        Serving current = serving;
+        if (current == null || !current.staleIds().isEmpty()) {
+            return Optional.empty();
+        }
+        int shard = ShardContext.current();
+        List<HotelSummaryDto> summaries = new ArrayList<>(current.file().getRecordCount());
+        current.file().forEach(record -> {
+            if (record.shard() == shard) {
+                summaries.add(new HotelSummaryDto(record.hotel()));
+            }
+        });
+        return Optional.of(summaries);
+    }
+
+    public void markStale(Long hotelId) {
+        Serving current = serving;
+        if (current != null) {
+            current.staleIds().add(hotelId);
+        }
+    }
+
+    public void retire() {
+        if (serving != null) {
+            serving = null;
+            log.info("Stopped serving reads from the catalog snapshot");
+        }
+    }
+
+    public void catchUp() {
+        long startedAt = System.currentTimeMillis();
+        try {
+            shardRouter.forEachShard(shard -> {
+                List<Long> ids = transactionTemplate.execute(status -> hotelRepository.findAllIds());
+                for (int from = 0; from < ids.size() && serving != null; from += properties.getBatchSize()) {
+                    List<Long> batch = ids.subList(from, Math.min(ids.size(), from + properties.getBatchSize()));
+                    // two queries per batch, the second one fills in the hotels the first one loaded
+                    transactionTemplate.executeWithoutResult(status -> {
+                        hotelRepository.findAllByIdWithDetailsAndContacts(batch);
+                        hotelRepository.findAllByIdWithAmenities(batch);
+                    });
+                }
+            });
+            log.info("Caught up with the database in {} ms", System.currentTimeMillis() - startedAt);
+        } catch (RuntimeException e) {
+            log.warn("Catalog catch-up failed, reads go to the database from now on", e);
+        } finally {
+            retire();
+        }
+    }
+
+    // null when the snapshot cannot be trusted: another database, a different shard layout or pruned history;
+    // loadedUpTo receives the last event per shard whose hotel is already among the stale ids
+    private Set<Long> findStaleIds(CatalogSnapshotFile file, long[] loadedUpTo) {
+        long[] lastEventIds = file.getLastEventIds();
+        if (lastEventIds.length != shardRouter.getShardCount()) {
+            log.warn("Ignoring catalog snapshot written for {} shards", lastEventIds.length);
+            return null;
+        }
+
+        Set<Long> staleIds = ConcurrentHashMap.newKeySet();
+        for (int shard = 0; shard < lastEventIds.length; shard++) {
+            long lastEventId = lastEventIds[shard];
+            boolean usable = shardRouter.onShard(shard, () -> transactionTemplate.execute(status -> {
+                if (outboxEventRepository.findMaxId() < lastEventId
+                        || outboxTailer.currentOffset(OutboxTailer.PRUNED_OFFSET) > lastEventId) {
+                    return false;
+                }
+                // an event at or below the settled head can no longer commit behind the stale ids read below
+                loadedUpTo[ShardContext.current()] = outboxTailer.settledHead();
+                staleIds.addAll(outboxEventRepository.findHotelIdsChangedAfter(lastEventId));
+                return true;
+            }));
+            if (!usable) {
+                log.warn("Ignoring catalog snapshot that does not match the outbox of shard {}", shard);
+                return null;
+            }
+        }
+        return staleIds;
+    }
+
+    private record Serving(CatalogSnapshotFile file, Set<Long> staleIds, long[] loadedUpTo) {
+    }
+}
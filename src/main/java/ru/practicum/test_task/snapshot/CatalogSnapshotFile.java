@@ -0,0 +1,254 @@
+package ru.practicum.test_task.snapshot;
+
+import ru.practicum.test_task.model.Address;
+import ru.practicum.test_task.model.Amenity;
+import ru.practicum.test_task.model.ArrivalTime;
+import ru.practicum.test_task.model.Contact;
+import ru.practicum.test_task.model.Hotel;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+// Layout, all numbers big-endian:
+//   header  magic "HCAT", version, created at, shard count, last outbox event id of every shard
+//   records one per hotel, strings are a byte length (-1 for null) followed by UTF-8
+//   index   (hotel id, record offset) pairs sorted by id, so a lookup is a binary search in the mapped file
+//   footer  index offset, record count, CRC32 of everything before it
+final class CatalogSnapshotFile {
+
+    static final int MAGIC = 0x48434154;
+    static final short VERSION = 1;
+
+    private static final int INDEX_ENTRY_SIZE = Long.BYTES + Integer.BYTES;
+    private static final int FOOTER_SIZE = 3 * Integer.BYTES;
+    private static final int HEADER_SIZE = Integer.BYTES + 2 * Short.BYTES + Long.BYTES + Integer.BYTES;
+
+    private final ByteBuffer buffer;
+    private final long createdAt;
+    private final long[] lastEventIds;
+    private final int indexOffset;
+    private final int recordCount;
+
+    private CatalogSnapshotFile(ByteBuffer buffer, long createdAt, long[] lastEventIds, int indexOffset,
+                                int recordCount) {
+        this.buffer = buffer;
+        this.createdAt = createdAt;
+        this.lastEventIds = lastEventIds;
+        this.indexOffset = indexOffset;
+        this.recordCount = recordCount;
+    }
+
+    static CatalogSnapshotFile open(ByteBuffer buffer) throws IOException {
+        int size = buffer.limit();
+        if (size < HEADER_SIZE + FOOTER_SIZE) {
+            throw new IOException("file is truncated");
+        }
+        if (buffer.getInt(0) != MAGIC) {
+            throw new IOException("not a catalog snapshot");
+        }
+        short version = buffer.getShort(Integer.BYTES);
+        if (version != VERSION) {
+            throw new IOException("unsupported version " + version);
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(buffer.duplicate().position(0).limit(size - Integer.BYTES));
+        if ((int) crc.getValue() != buffer.getInt(size - Integer.BYTES)) {
+            throw new IOException("checksum mismatch");
+        }
+
+        long createdAt = buffer.getLong(Integer.BYTES + 2 * Short.BYTES);
+        int shardCount = buffer.getInt(Integer.BYTES + 2 * Short.BYTES + Long.BYTES);
+        long[] lastEventIds = new long[shardCount];
+        for (int shard = 0; shard < shardCount; shard++) {
+            lastEventIds[shard] = buffer.getLong(HEADER_SIZE + shard * Long.BYTES);
+        }
+        int indexOffset = buffer.getInt(size - FOOTER_SIZE);
+        int recordCount = buffer.getInt(size - FOOTER_SIZE + Integer.BYTES);
+        if (indexOffset < 0 || (long) indexOffset + (long) recordCount * INDEX_ENTRY_SIZE != size - FOOTER_SIZE) {
+            throw new IOException("corrupt index");
+        }
+        return new CatalogSnapshotFile(buffer, createdAt, lastEventIds, indexOffset, recordCount);
+    }
+
+    long getCreatedAt() {
+        return createdAt;
+    }
+
+    long[] getLastEventIds() {
+        return lastEventIds.clone();
+    }
+
+    int getRecordCount() {
+        return recordCount;
+    }
+
+    Optional<Record> find(long hotelId) {
+        int low = 0;
+        int high = recordCount - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            long id = buffer.getLong(indexOffset + middle * INDEX_ENTRY_SIZE);
+            if (id < hotelId) {
+                low = middle + 1;
+            } else if (id > hotelId) {
+                high = middle - 1;
+            } else {
+                return Optional.of(readRecord(buffer.getInt(indexOffset + middle * INDEX_ENTRY_SIZE + Long.BYTES)));
+            }
+        }
+        return Optional.empty();
+    }
+
+    // in id order
+    void forEach(Consumer<Record> action) {
+        for (int entry = 0; entry < recordCount; entry++) {
+            action.accept(readRecord(buffer.getInt(indexOffset + entry * INDEX_ENTRY_SIZE + Long.BYTES)));
+        }
+    }
+
+    // the mapped buffer is shared between request threads, so every read works on its own view
+    private Record readRecord(int offset) {
+        ByteBuffer in = buffer.duplicate().position(offset);
+
+        Hotel hotel = new Hotel();
+        hotel.setId(in.getLong());
+        int shard = in.getShort();
+        hotel.setName(readString(in));
+        hotel.setDescription(readString(in));
+        hotel.setBrand(readString(in));
+
+        if (in.get() != 0) {
+            Address address = new Address();
+            address.setHouseNumber(readString(in));
+            address.setStreet(readString(in));
+            address.setCity(readString(in));
+            address.setCounty(readString(in));
+            address.setPostCode(readString(in));
+            hotel.setAddress(address);
+        }
+
+        int contactCount = in.getShort();
+        List<Contact> contacts = new ArrayList<>(contactCount);
+        for (int i = 0; i < contactCount; i++) {
+            Contact contact = new Contact();
+            contact.setContactType(readString(in));
+            contact.setContactValue(readString(in));
+            contacts.add(contact);
+        }
+        hotel.setContacts(contacts);
+
+        if (in.get() != 0) {
+            ArrivalTime arrivalTime = new ArrivalTime();
+            arrivalTime.setCheckIn(readTime(in));
+            arrivalTime.setCheckOut(readTime(in));
+            hotel.setArrivalTime(arrivalTime);
+        }
+
+        int amenityCount = in.getShort();
+        List<Amenity> amenities = new ArrayList<>(amenityCount);
+        for (int i = 0; i < amenityCount; i++) {
+            Amenity amenity = new Amenity();
+            amenity.setName(readString(in));
+            amenities.add(amenity);
+        }
+        hotel.setAmenities(amenities);
+
+        return new Record(shard, hotel);
+    }
+
+    static void writeHeader(DataOutputStream out, long createdAt, long[] lastEventIds) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+        out.writeShort(0);
+        out.writeLong(createdAt);
+        out.writeInt(lastEventIds.length);
+        for (long lastEventId : lastEventIds) {
+            out.writeLong(lastEventId);
+        }
+    }
+
+    static void writeRecord(DataOutputStream out, int shard, Hotel hotel) throws IOException {
+        out.writeLong(hotel.getId());
+        out.writeShort(shard);
+        writeString(out, hotel.getName());
+        writeString(out, hotel.getDescription());
+        writeString(out, hotel.getBrand());
+
+        Address address = hotel.getAddress();
+        out.writeByte(address != null ? 1 : 0);
+        if (address != null) {
+            writeString(out, address.getHouseNumber());
+            writeString(out, address.getStreet());
+            writeString(out, address.getCity());
+            writeString(out, address.getCounty());
+            writeString(out, address.getPostCode());
+        }
+
+        out.writeShort(hotel.getContacts().size());
+        for (Contact contact : hotel.getContacts()) {
+            writeString(out, contact.getContactType());
+            writeString(out, contact.getContactValue());
+        }
+
+        ArrivalTime arrivalTime = hotel.getArrivalTime();
+        out.writeByte(arrivalTime != null ? 1 : 0);
+        if (arrivalTime != null) {
+            writeTime(out, arrivalTime.getCheckIn());
+            writeTime(out, arrivalTime.getCheckOut());
+        }
+
+        out.writeShort(hotel.getAmenities().size());
+        for (Amenity amenity : hotel.getAmenities()) {
+            writeString(out, amenity.getName());
+        }
+    }
+
+    // entries must be sorted by hotel id
+    static void writeIndex(DataOutputStream out, long[] hotelIds, int[] offsets, int count) throws IOException {
+        for (int i = 0; i < count; i++) {
+            out.writeLong(hotelIds[i]);
+            out.writeInt(offsets[i]);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeTime(DataOutputStream out, LocalTime time) throws IOException {
+        out.writeInt(time != null ? time.toSecondOfDay() : -1);
+    }
+
+    private static LocalTime readTime(ByteBuffer in) {
+        int secondOfDay = in.getInt();
+        return secondOfDay >= 0 ? LocalTime.ofSecondOfDay(secondOfDay) : null;
+    }
+
+    record Record(int shard, Hotel hotel) {
+    }
+}
@@ -0,0 +1,165 @@
+package ru.practicum.test_task.snapshot;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.test_task.model.Hotel;
+import ru.practicum.test_task.outbox.OutboxTailer;
+import ru.practicum.test_task.repository.HotelRepository;
+import ru.practicum.test_task.service.HotelRowLoader;
+import ru.practicum.test_task.sharding.ShardRouter;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+@Component
+@Slf4j
+public class CatalogSnapshotWriter {
+
+    private final HotelRepository hotelRepository;
+    private final OutboxTailer outboxTailer;
+    private final HotelRowLoader hotelRowLoader;
+    private final SnapshotProperties properties;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shardRouter;
+
+    public CatalogSnapshotWriter(HotelRepository hotelRepository, OutboxTailer outboxTailer,
+                                 HotelRowLoader hotelRowLoader, SnapshotProperties properties,
+                                 PlatformTransactionManager transactionManager, ShardRouter shardRouter) {
+        this.hotelRepository = hotelRepository;
+        this.outboxTailer = outboxTailer;
+        this.hotelRowLoader = hotelRowLoader;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.shardRouter = shardRouter;
+    }
+
+    @Scheduled(fixedDelayString = "${hotels.snapshot.interval:PT10M}",
+            initialDelayString = "${hotels.snapshot.interval:PT10M}")
+    public void writeScheduled() {
+        if (properties.isEnabled()) {
+            write();
+        }
+    }
+
+    // the file is replaced atomically, a reader never maps a half-written snapshot
+    public synchronized int write() {
+        long startedAt = System.currentTimeMillis();
+
+        // taken before the rows, changes in between are marked stale on load. The settled head rather than the
+        // highest id: an event below the highest id may commit after its row was read
+        long[] lastEventIds = new long[shardRouter.getShardCount()];
+        shardRouter.forEachShard(shard ->
+                lastEventIds[shard] = transactionTemplate.execute(status -> outboxTailer.settledHead()));
+
+        Path target = properties.getPath().toAbsolutePath();
+        Path temp = null;
+        try {
+            Files.createDirectories(target.getParent());
+            temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+
+            int count;
+            try (OutputStream file = new BufferedOutputStream(Files.newOutputStream(temp))) {
+                CheckedOutputStream checked = new CheckedOutputStream(file, new CRC32());
+                DataOutputStream out = new DataOutputStream(checked);
+                CatalogSnapshotFile.writeHeader(out, startedAt, lastEventIds);
+                Index index = writeRecords(out);
+
+                index.sort();
+                int indexOffset = out.size();
+                CatalogSnapshotFile.writeIndex(out, index.hotelIds, index.offsets, index.count);
+                out.writeInt(indexOffset);
+                out.writeInt(index.count);
+                out.flush();
+
+                new DataOutputStream(file).writeInt((int) checked.getChecksum().getValue());
+                count = index.count;
+            }
+
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.info("Wrote catalog snapshot with {} hotels to {} in {} ms", count, target,
+                    System.currentTimeMillis() - startedAt);
+            return count;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write catalog snapshot to " + target, e);
+        } finally {
+            if (temp != null) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException e) {
+                    log.warn("Could not delete temporary snapshot file {}", temp);
+                }
+            }
+        }
+    }
+
+    private Index writeRecords(DataOutputStream out) {
+        Index index = new Index();
+        shardRouter.forEachShard(shard -> transactionTemplate.executeWithoutResult(status -> {
+            List<Long> ids = hotelRepository.findAllIds();
+            for (int from = 0; from < ids.size(); from += properties.getBatchSize()) {
+                List<Long> batch = ids.subList(from, Math.min(ids.size(), from + properties.getBatchSize()));
+                for (Hotel hotel : hotelRowLoader.loadAll(batch)) {
+                    index.add(hotel.getId(), out.size());
+                    try {
+                        CatalogSnapshotFile.writeRecord(out, shard, hotel);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+            }
+        }));
+        if (out.size() == Integer.MAX_VALUE) {
+            throw new IllegalStateException("Catalog snapshot exceeds 2 GB");
+        }
+        return index;
+    }
+
+    // shards interleave their ids, so the index is sorted once all records are written
+    private static class Index {
+
+        private long[] hotelIds = new long[1024];
+        private int[] offsets = new int[1024];
+        private int count;
+
+        void add(long hotelId, int offset) {
+            if (count == hotelIds.length) {
+                hotelIds = Arrays.copyOf(hotelIds, count * 2);
+                offsets = Arrays.copyOf(offsets, count * 2);
+            }
+            hotelIds[count] = hotelId;
+            offsets[count] = offset;
+            count++;
+        }
+
+        void sort() {
+            Integer[] order = new Integer[count];
+            for (int i = 0; i < count; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (left, right) -> Long.compare(hotelIds[left], hotelIds[right]));
+
+            long[] sortedIds = new long[count];
+            int[] sortedOffsets = new int[count];
+            for (int i = 0; i < count; i++) {
+                sortedIds[i] = hotelIds[order[i]];
+                sortedOffsets[i] = offsets[order[i]];
+            }
+            hotelIds = sortedIds;
+            offsets = sortedOffsets;
+        }
+    }
+}
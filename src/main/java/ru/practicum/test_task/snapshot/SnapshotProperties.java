@@ -0,0 +1,20 @@
+package ru.practicum.test_task.snapshot;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "hotels.snapshot")
+public class SnapshotProperties {
+
+    private boolean enabled = true;
+
+    private Path path = Path.of("data", "catalog.snapshot");
+
+    private Duration interval = Duration.ofMinutes(10);
+
+    private int batchSize = 500;
+}
@@ -0,0 +1,60 @@
+package ru.practicum.test_task.summary;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import ru.practicum.test_task.dto.response.HotelSummaryDto;
+import ru.practicum.test_task.model.Address;
+import ru.practicum.test_task.model.Contact;
+import ru.practicum.test_task.model.Hotel;
+
+// Keeps hotel_summary in step with its source rows. Writes go through JDBC on the transaction's connection,
+// so they commit or roll back together with the entity change; hotel deletes cascade in the schema.
+@Component
+@RequiredArgsConstructor
+public class HotelSummaryListener {
+
+    private static final String PRIMARY_PHONE = "(SELECT c.contact_value FROM contacts c " +
+            "WHERE c.hotel_id = ? AND c.contact_type = 'PHONE' ORDER BY c.id FETCH FIRST 1 ROWS ONLY)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @PostPersist
+    public void onPersist(Object entity) {
+        if (entity instanceof Hotel hotel) {
+            jdbcTemplate.update("INSERT INTO hotel_summary (id, name, description) VALUES (?, ?, ?)",
+                    hotel.getId(), hotel.getName(), hotel.getDescription());
+        } else {
+            onUpdate(entity);
+        }
+    }
+
+    @PostUpdate
+    public void onUpdate(Object entity) {
+        if (entity instanceof Hotel hotel) {
+            jdbcTemplate.update("UPDATE hotel_summary SET name = ?, description = ? WHERE id = ?",
+                    hotel.getName(), hotel.getDescription(), hotel.getId());
+        } else if (entity instanceof Address address && address.getHotel() != null) {
+            jdbcTemplate.update("UPDATE hotel_summary SET address = ? WHERE id = ?",
+                    HotelSummaryDto.formatAddress(address), address.getHotel().getId());
+        } else if (entity instanceof Contact contact && contact.getHotel() != null) {
+            refreshPhone(contact.getHotel().getId());
+        }
+    }
+
+    @PostRemove
+    public void onRemove(Object entity) {
+        if (entity instanceof Address address && address.getHotel() != null) {
+            jdbcTemplate.update("UPDATE hotel_summary SET address = NULL WHERE id = ?", address.getHotel().getId());
+        } else if (entity instanceof Contact contact && contact.getHotel() != null) {
+            refreshPhone(contact.getHotel().getId());
+        }
+    }
+
+    private void refreshPhone(Long hotelId) {
+        jdbcTemplate.update("UPDATE hotel_summary SET phone = " + PRIMARY_PHONE + " WHERE id = ?", hotelId, hotelId);
+    }
+}
@@ -0,0 +1,118 @@
+package ru.practicum.test_task.tracing;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+// Collects the spans of one request on its own thread; not shared between threads.
+// Totals only count the outermost span of each category so nested calls are not added twice.
+public class RequestTrace {
+
+    private static final ThreadLocal<RequestTrace> CURRENT = new ThreadLocal<>();
+    private static final int CATEGORIES = SpanCategory.values().length;
+
+    private final long startedAtNanos = System.nanoTime();
+    private final int maxSpans;
+    private final List<TraceSpan> spans = new ArrayList<>();
+    private final long[] totalNanos = new long[CATEGORIES];
+    private final int[] counts = new int[CATEGORIES];
+    private final int[] depths = new int[CATEGORIES];
+    private int droppedSpans;
+    private long handlerReturnedAtNanos;
+
+    private RequestTrace(int maxSpans) {
+        this.maxSpans = maxSpans;
+    }
+
+    public static RequestTrace start(int maxSpans) {
+        RequestTrace trace = new RequestTrace(maxSpans);
+        CURRENT.set(trace);
+        return trace;
+    }
+
+    public static RequestTrace current() {
+        return CURRENT.get();
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    public long enter(SpanCategory category) {
+        depths[category.ordinal()]++;
+        return System.nanoTime();
+    }
+
+    public void exit(SpanCategory category, String name, long enteredAtNanos) {
+        long now = System.nanoTime();
+        depths[category.ordinal()]--;
+        record(category, name, enteredAtNanos, now - enteredAtNanos);
+        if (category == SpanCategory.CONTROLLER && depths[category.ordinal()] == 0) {
+            handlerReturnedAtNanos = now;
+        }
+    }
+
+    public void record(SpanCategory category, String name, long startedAtNanos, long durationNanos) {
+        int index = category.ordinal();
+        if (depths[index] == 0) {
+            totalNanos[index] += durationNanos;
+            counts[index]++;
+        }
+        if (spans.size() < maxSpans) {
+            spans.add(new TraceSpan(name, category, millis(startedAtNanos - this.startedAtNanos), millis(durationNanos)));
+        } else {
+            droppedSpans++;
+        }
+    }
+
+    // everything between the controller method returning and the handler completing is writing the body
+    public void responseWritten() {
+        if (handlerReturnedAtNanos != 0) {
+            record(SpanCategory.SERIALIZATION, "response body", handlerReturnedAtNanos,
+                    System.nanoTime() - handlerReturnedAtNanos);
+            handlerReturnedAtNanos = 0;
+        }
+    }
+
+    public long getStartedAtNanos() {
+        return startedAtNanos;
+    }
+
+    public List<TraceSpan> getSpans() {
+        return List.copyOf(spans);
+    }
+
+    public int getDroppedSpans() {
+        return droppedSpans;
+    }
+
+    public String toServerTiming(long endedAtNanos) {
+        StringBuilder header = new StringBuilder("total;dur=").append(format(endedAtNanos - startedAtNanos));
+        for (SpanCategory category : SpanCategory.values()) {
+            int index = category.ordinal();
+            long total = totalNanos[index];
+            int count = counts[index];
+            // a header sent with the first byte of the body covers serialization up to that byte
+            if (category == SpanCategory.SERIALIZATION && handlerReturnedAtNanos != 0) {
+                total += endedAtNanos - handlerReturnedAtNanos;
+                count++;
+            }
+            if (count == 0) {
+                continue;
+            }
+            header.append(", ").append(category.getMetricName()).append(";dur=").append(format(total));
+            if (count > 1) {
+                header.append(";desc=\"").append(count).append(" calls\"");
+            }
+        }
+        return header.toString();
+    }
+
+    private static double millis(long nanos) {
+        return Math.round(nanos / 1_000.0) / 1_000.0;
+    }
+
+    private static String format(long nanos) {
+        return String.format(Locale.ROOT, "%.3f", nanos / 1_000_000.0);
+    }
+}
@@ -0,0 +1,149 @@
+package ru.practicum.test_task.tracing;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.function.Supplier;
+
+// Sets Server-Timing right before the response can commit: on the first byte of the body, a flush, an error or
+// a redirect. The body streams straight through, nothing is buffered to make room for the header.
+public class ServerTimingResponse extends HttpServletResponseWrapper {
+
+    private final Supplier<String> serverTiming;
+    private String sent;
+    private ServletOutputStream outputStream;
+    private PrintWriter writer;
+
+    public ServerTimingResponse(HttpServletResponse response, Supplier<String> serverTiming) {
+        super(response);
+        this.serverTiming = serverTiming;
+    }
+
+    // the header that went out with the response, computed now when nothing has been written yet
+    public String finish() {
+        beforeCommit();
+        return sent != null ? sent : serverTiming.get();
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+        if (outputStream == null) {
+            outputStream = new HookedOutputStream(super.getOutputStream());
+        }
+        return outputStream;
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+        if (writer == null) {
+            writer = new PrintWriter(new HookedWriter(super.getWriter()));
+        }
+        return writer;
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+        beforeCommit();
+        super.flushBuffer();
+    }
+
+    @Override
+    public void sendError(int sc, String msg) throws IOException {
+        beforeCommit();
+        super.sendError(sc, msg);
+    }
+
+    @Override
+    public void sendError(int sc) throws IOException {
+        beforeCommit();
+        super.sendError(sc);
+    }
+
+    @Override
+    public void sendRedirect(String location) throws IOException {
+        beforeCommit();
+        super.sendRedirect(location);
+    }
+
+    private void beforeCommit() {
+        if (sent == null && !isCommitted()) {
+            sent = serverTiming.get();
+            setHeader(TracingFilter.SERVER_TIMING_HEADER, sent);
+        }
+    }
+
+    private final class HookedOutputStream extends ServletOutputStream {
+
+        private final ServletOutputStream delegate;
+
+        private HookedOutputStream(ServletOutputStream delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            beforeCommit();
+            delegate.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            beforeCommit();
+            delegate.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            beforeCommit();
+            delegate.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            beforeCommit();
+            delegate.close();
+        }
+
+        @Override
+        public boolean isReady() {
+            return delegate.isReady();
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            delegate.setWriteListener(writeListener);
+        }
+    }
+
+    private final class HookedWriter extends Writer {
+
+        private final Writer delegate;
+
+        private HookedWriter(Writer delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) throws IOException {
+            beforeCommit();
+            delegate.write(cbuf, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            beforeCommit();
+            delegate.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            beforeCommit();
+            delegate.close();
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package ru.practicum.test_task.tracing;
+
+public enum SpanCategory {
+    CONTROLLER("controller"),
+    SERVICE("service"),
+    REPOSITORY("repository"),
+    DB("db"),
+    SERIALIZATION("serialization");
+
+    private final String metricName;
+
+    SpanCategory(String metricName) {
+        this.metricName = metricName;
+    }
+
+    public String getMetricName() {
+        return metricName;
+    }
+}
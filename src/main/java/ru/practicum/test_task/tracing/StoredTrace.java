@@ -0,0 +1,8 @@
+package ru.practicum.test_task.tracing;
+
+import java.time.Instant;
+import java.util.List;
+
+public record StoredTrace(long id, Instant startedAt, String method, String uri, int status, double durationMillis,
+                          String serverTiming, List<TraceSpan> spans, int droppedSpans) {
+}
@@ -0,0 +1,5 @@
+package ru.practicum.test_task.tracing;
+
+// offsets are relative to the start of the request
+public record TraceSpan(String name, SpanCategory category, double startMillis, double durationMillis) {
+}
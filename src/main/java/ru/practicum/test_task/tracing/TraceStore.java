@@ -0,0 +1,46 @@
+package ru.practicum.test_task.tracing;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.practicum.test_task.util.RingBuffer;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Component
+@ConditionalOnProperty(prefix = "hotels.tracing", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class TraceStore {
+
+    private final TracingProperties properties;
+    private final RingBuffer<StoredTrace> buffer;
+    private final AtomicLong ids = new AtomicLong();
+
+    public TraceStore(TracingProperties properties) {
+        this.properties = properties;
+        this.buffer = new RingBuffer<>(properties.getStoreSize());
+    }
+
+    public void offer(RequestTrace trace, String method, String uri, int status, long endedAtNanos, String serverTiming) {
+        long durationNanos = endedAtNanos - trace.getStartedAtNanos();
+        if (durationNanos < properties.getStoreSlowerThan().toNanos()
+                && ThreadLocalRandom.current().nextDouble() >= properties.getSampleRate()) {
+            return;
+        }
+        Instant startedAt = Instant.now().minusNanos(System.nanoTime() - trace.getStartedAtNanos());
+        buffer.add(new StoredTrace(ids.incrementAndGet(), startedAt, method, uri, status,
+                durationNanos / (double) TimeUnit.MILLISECONDS.toNanos(1), serverTiming,
+                trace.getSpans(), trace.getDroppedSpans()));
+    }
+
+    public List<StoredTrace> getTraces() {
+        return buffer.snapshot();
+    }
+
+    public Optional<StoredTrace> find(long id) {
+        return buffer.snapshot().stream().filter(trace -> trace.id() == id).findFirst();
+    }
+}
@@ -0,0 +1,56 @@
+package ru.practicum.test_task.tracing;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+@Aspect
+@Component
+@ConditionalOnProperty(prefix = "hotels.tracing", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class TracingAspect {
+
+    private static final String APP_PACKAGE = "ru.practicum.test_task.";
+
+    @Around("within(ru.practicum.test_task.controller..*)")
+    public Object traceController(ProceedingJoinPoint joinPoint) throws Throwable {
+        return trace(joinPoint, SpanCategory.CONTROLLER);
+    }
+
+    @Around("within(ru.practicum.test_task.service..*)")
+    public Object traceService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return trace(joinPoint, SpanCategory.SERVICE);
+    }
+
+    @Around("target(org.springframework.data.repository.Repository)")
+    public Object traceRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        return trace(joinPoint, SpanCategory.REPOSITORY);
+    }
+
+    private Object trace(ProceedingJoinPoint joinPoint, SpanCategory category) throws Throwable {
+        RequestTrace trace = RequestTrace.current();
+        if (trace == null) {
+            return joinPoint.proceed();
+        }
+        long enteredAt = trace.enter(category);
+        try {
+            return joinPoint.proceed();
+        } finally {
+            trace.exit(category, spanName(joinPoint, category), enteredAt);
+        }
+    }
+
+    // repositories are JDK proxies, their own interface names the span rather than CrudRepository and friends
+    private String spanName(ProceedingJoinPoint joinPoint, SpanCategory category) {
+        String method = joinPoint.getSignature().getName();
+        if (category == SpanCategory.REPOSITORY) {
+            for (Class<?> type : joinPoint.getTarget().getClass().getInterfaces()) {
+                if (type.getName().startsWith(APP_PACKAGE)) {
+                    return type.getSimpleName() + "." + method;
+                }
+            }
+        }
+        return joinPoint.getSignature().getDeclaringType().getSimpleName() + "." + method;
+    }
+}
@@ -0,0 +1,57 @@
+package ru.practicum.test_task.tracing;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+// Server-Timing goes out with the first byte of the body, so it covers serialization up to that point
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 150)
+@ConditionalOnProperty(prefix = "hotels.tracing", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class TracingFilter extends OncePerRequestFilter {
+
+    public static final String SERVER_TIMING_HEADER = "Server-Timing";
+
+    private static final String API_PREFIX = "/property-view/";
+
+    private final TracingProperties properties;
+    private final TraceStore traceStore;
+
+    public TracingFilter(TracingProperties properties, TraceStore traceStore) {
+        this.properties = properties;
+        this.traceStore = traceStore;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith(request.getContextPath() + API_PREFIX);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        RequestTrace trace = RequestTrace.start(properties.getMaxSpans());
+        ServerTimingResponse timedResponse = new ServerTimingResponse(response,
+                () -> trace.toServerTiming(System.nanoTime()));
+        try {
+            filterChain.doFilter(request, timedResponse);
+        } finally {
+            RequestTrace.clear();
+            String serverTiming = timedResponse.finish();
+            long endedAt = System.nanoTime();
+
+            String query = request.getQueryString();
+            traceStore.offer(trace, request.getMethod(),
+                    query == null ? request.getRequestURI() : request.getRequestURI() + "?" + query,
+                    response.getStatus(), endedAt, serverTiming);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package ru.practicum.test_task.tracing;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "hotels.tracing")
+public class TracingProperties {
+
+    private boolean enabled = true;
+
+    // share of requests kept in the trace store regardless of their duration
+    private double sampleRate = 0.0;
+
+    private Duration storeSlowerThan = Duration.ofSeconds(1);
+
+    private int storeSize = 100;
+
+    private int maxSpans = 200;
+}
@@ -0,0 +1,25 @@
+package ru.practicum.test_task.tracing;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.practicum.test_task.slowquery.StatementListener;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+@Component
+@ConditionalOnProperty(prefix = "hotels.tracing", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class TracingStatementListener implements StatementListener {
+
+    private static final int MAX_SQL_LENGTH = 120;
+
+    @Override
+    public void onStatement(String sql, Map<Integer, Object> parameters, long startedAtNanos, long elapsedNanos,
+                            long rows, DataSource target) {
+        RequestTrace trace = RequestTrace.current();
+        if (trace != null) {
+            String name = sql.length() > MAX_SQL_LENGTH ? sql.substring(0, MAX_SQL_LENGTH) + "..." : sql;
+            trace.record(SpanCategory.DB, name, startedAtNanos, elapsedNanos);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package ru.practicum.test_task.util;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Estimates the retained heap of object graphs for a 64-bit JVM with compressed oops and class pointers:
+// 12-byte object headers, 16-byte array headers, 4-byte references, 8-byte alignment.
+// Objects reachable from several roots are counted once per estimator. JDK internals that cannot be read
+// reflectively are approximated: strings and collections by their contents, anything else by its fields.
+public class ObjectSizeEstimator {
+
+    private static final int OBJECT_HEADER = 12;
+    private static final int ARRAY_HEADER = 16;
+    private static final int REFERENCE = 4;
+    private static final int STRING_SHALLOW = 24;
+    private static final int MAP_ENTRY = 32;
+
+    private final Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final Map<Class<?>, Layout> layouts = new HashMap<>();
+
+    public long sizeOf(Object root) {
+        long total = 0;
+        Deque<Object> pending = new ArrayDeque<>();
+        pending.push(root);
+        while (!pending.isEmpty()) {
+            Object value = pending.pop();
+            if (value == null || value instanceof Class<?> || value instanceof Enum<?> || !visited.add(value)) {
+                continue;
+            }
+            total += shallowSize(value, pending);
+        }
+        return total;
+    }
+
+    private long shallowSize(Object value, Deque<Object> pending) {
+        Class<?> type = value.getClass();
+        if (type.isArray()) {
+            int length = Array.getLength(value);
+            Class<?> component = type.getComponentType();
+            if (component.isPrimitive()) {
+                return align(ARRAY_HEADER + (long) length * primitiveSize(component));
+            }
+            for (Object element : (Object[]) value) {
+                push(pending, element);
+            }
+            return align(ARRAY_HEADER + (long) length * REFERENCE);
+        }
+        if (value instanceof String string) {
+            boolean latin1 = string.chars().allMatch(c -> c < 256);
+            return STRING_SHALLOW + align(ARRAY_HEADER + (long) string.length() * (latin1 ? 1 : 2));
+        }
+        if (value instanceof BitSet bits) {
+            return layout(type).shallowSize + align(ARRAY_HEADER + bits.size() / Byte.SIZE);
+        }
+
+        Layout layout = layout(type);
+        if (!layout.readable && value instanceof Collection<?> collection) {
+            collection.forEach(element -> push(pending, element));
+            return layout.shallowSize + align(ARRAY_HEADER + (long) collection.size() * REFERENCE);
+        }
+        if (!layout.readable && value instanceof Map<?, ?> map) {
+            map.forEach((key, mapValue) -> {
+                push(pending, key);
+                push(pending, mapValue);
+            });
+            return layout.shallowSize + align(ARRAY_HEADER + (long) tableSize(map.size()) * REFERENCE)
+                    + (long) map.size() * MAP_ENTRY;
+        }
+        for (Field field : layout.referenceFields) {
+            try {
+                push(pending, field.get(value));
+            } catch (IllegalAccessException e) {
+                // counted as a reference only
+            }
+        }
+        return layout.shallowSize;
+    }
+
+    private static void push(Deque<Object> pending, Object value) {
+        if (value != null) {
+            pending.push(value);
+        }
+    }
+
+    private Layout layout(Class<?> type) {
+        return layouts.computeIfAbsent(type, Layout::of);
+    }
+
+    private static int tableSize(int entries) {
+        int size = 16;
+        while (size * 3 / 4 < entries) {
+            size <<= 1;
+        }
+        return size;
+    }
+
+    private static int primitiveSize(Class<?> type) {
+        if (type == long.class || type == double.class) {
+            return 8;
+        }
+        if (type == int.class || type == float.class) {
+            return 4;
+        }
+        if (type == short.class || type == char.class) {
+            return 2;
+        }
+        return 1;
+    }
+
+    private static long align(long size) {
+        return (size + 7) & ~7L;
+    }
+
+    private record Layout(long shallowSize, List<Field> referenceFields, boolean readable) {
+
+        static Layout of(Class<?> type) {
+            long size = OBJECT_HEADER;
+            List<Field> references = new ArrayList<>();
+            boolean readable = true;
+            for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+                for (Field field : current.getDeclaredFields()) {
+                    if (Modifier.isStatic(field.getModifiers())) {
+                        continue;
+                    }
+                    if (field.getType().isPrimitive()) {
+                        size += primitiveSize(field.getType());
+                    } else {
+                        size += REFERENCE;
+                        if (field.trySetAccessible()) {
+                            references.add(field);
+                        } else {
+                            readable = false;
+                        }
+                    }
+                }
+            }
+            return new Layout(align(size), references, readable);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package ru.practicum.test_task.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+public class RingBuffer<T> {
+
+    private final AtomicReferenceArray<T> slots;
+    private final AtomicLong written = new AtomicLong();
+
+    public RingBuffer(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Buffer size must be positive: " + capacity);
+        }
+        this.slots = new AtomicReferenceArray<>(capacity);
+    }
+
+    public long add(T item) {
+        long sequence = written.getAndIncrement();
+        slots.set((int) (sequence % slots.length()), item);
+        return sequence;
+    }
+
+    // newest first; a slot being overwritten concurrently may show either the old or the new item
+    public List<T> snapshot() {
+        long end = written.get();
+        long start = Math.max(0, end - slots.length());
+        List<T> items = new ArrayList<>((int) (end - start));
+        for (long sequence = end - 1; sequence >= start; sequence--) {
+            T item = slots.get((int) (sequence % slots.length()));
+            if (item != null) {
+                items.add(item);
+            }
+        }
+        return items;
+    }
+
+    public void clear() {
+        for (int i = 0; i < slots.length(); i++) {
+            slots.set(i, null);
+        }
+    }
+}
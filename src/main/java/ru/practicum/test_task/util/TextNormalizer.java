@@ -0,0 +1,27 @@
+package ru.practicum.test_task.util;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+// Single normalization used for the *_norm shadow columns and for the values they are compared with
+public final class TextNormalizer {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private TextNormalizer() {
+    }
+
+    public static String normalize(String value) {
+        if (value == null) return null;
+
+        String collapsed = WHITESPACE.matcher(value).replaceAll(" ").trim();
+        if (collapsed.isEmpty()) return null;
+
+        // upper-then-lower approximates Unicode case folding (e.g. "ß" and "SS" both become "ss")
+        String folded = Normalizer.normalize(collapsed, Normalizer.Form.NFC)
+                .toUpperCase(Locale.ROOT)
+                .toLowerCase(Locale.ROOT);
+        return folded.replace('ё', 'е');
+    }
+}
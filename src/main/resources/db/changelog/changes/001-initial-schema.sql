@@ -1,3 +1,6 @@
+--liquibase formatted sql
+
+--changeset hotels:001-initial-schema
 CREATE TABLE hotels (
     id SERIAL PRIMARY KEY,
     name VARCHAR(255) NOT NULL,
@@ -38,4 +41,4 @@ CREATE TABLE hotel_amenities (
     hotel_id INTEGER NOT NULL REFERENCES hotels(id) ON DELETE CASCADE,
     amenity_id INTEGER NOT NULL REFERENCES amenities(id) ON DELETE CASCADE,
     PRIMARY KEY (hotel_id, amenity_id)
-);
\ No newline at end of file
+);
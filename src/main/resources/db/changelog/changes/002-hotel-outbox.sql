@@ -0,0 +1,15 @@
+--liquibase formatted sql
+
+--changeset hotels:002-hotel-outbox
+CREATE TABLE hotel_outbox (
+    id BIGSERIAL PRIMARY KEY,
+    hotel_id INTEGER NOT NULL,
+    event_type VARCHAR(50) NOT NULL,
+    payload VARCHAR(2000),
+    created_at TIMESTAMP NOT NULL
+);
+
+CREATE TABLE outbox_offsets (
+    consumer VARCHAR(100) PRIMARY KEY,
+    last_event_id BIGINT NOT NULL
+);
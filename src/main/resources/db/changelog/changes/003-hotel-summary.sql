@@ -0,0 +1,25 @@
+--liquibase formatted sql
+
+--changeset hotels:003-hotel-summary
+CREATE TABLE hotel_summary (
+    id INTEGER PRIMARY KEY REFERENCES hotels(id) ON DELETE CASCADE,
+    name VARCHAR(255) NOT NULL,
+    description TEXT,
+    address VARCHAR(600),
+    phone VARCHAR(255)
+);
+
+INSERT INTO hotel_summary (id, name, description, address, phone)
+SELECT h.id,
+       h.name,
+       h.description,
+       CASE WHEN a.id IS NULL THEN NULL
+            ELSE COALESCE(a.house_number, 'null') || ' ' || a.street || ', ' || a.city || ', '
+                     || COALESCE(a.county, 'null') || ', ' || COALESCE(a.post_code, 'null')
+       END,
+       (SELECT c.contact_value FROM contacts c
+        WHERE c.hotel_id = h.id AND c.contact_type = 'PHONE'
+        ORDER BY c.id
+        FETCH FIRST 1 ROWS ONLY)
+FROM hotels h
+LEFT JOIN addresses a ON a.hotel_id = h.id;
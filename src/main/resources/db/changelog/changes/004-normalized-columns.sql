@@ -0,0 +1,12 @@
+--liquibase formatted sql
+
+--changeset hotels:004-normalized-columns
+ALTER TABLE hotels ADD COLUMN name_norm VARCHAR(255);
+ALTER TABLE hotels ADD COLUMN brand_norm VARCHAR(100);
+ALTER TABLE addresses ADD COLUMN city_norm VARCHAR(100);
+ALTER TABLE addresses ADD COLUMN county_norm VARCHAR(100);
+
+CREATE INDEX idx_hotels_name_norm ON hotels (name_norm);
+CREATE INDEX idx_hotels_brand_norm ON hotels (brand_norm);
+CREATE INDEX idx_addresses_city_norm ON addresses (city_norm);
+CREATE INDEX idx_addresses_county_norm ON addresses (county_norm);
@@ -0,0 +1,5 @@
+--liquibase formatted sql
+
+--changeset hotels:006-outbox-payload
+-- bulk updates list every changed amenity of a hotel in one event, which does not fit a bounded column
+ALTER TABLE hotel_outbox ALTER COLUMN payload SET DATA TYPE TEXT;
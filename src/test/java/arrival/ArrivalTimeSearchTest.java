@@ -0,0 +1,135 @@
+package arrival;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.test_task.HotelsApp;
+import ru.practicum.test_task.arrival.ArrivalTimeIndex;
+import ru.practicum.test_task.arrival.ArrivalTimeWindow;
+import ru.practicum.test_task.dto.request.CreateHotelRequest;
+import ru.practicum.test_task.dto.response.HotelSummaryDto;
+import ru.practicum.test_task.repository.AmenityRepository;
+import ru.practicum.test_task.repository.HotelRepository;
+import ru.practicum.test_task.repository.OutboxEventRepository;
+import ru.practicum.test_task.repository.OutboxOffsetRepository;
+import ru.practicum.test_task.service.HotelService;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
+import static support.HotelRequests.detailedHotel;
+
+@SpringBootTest(classes = HotelsApp.class, properties = "hotels.outbox.initial-delay=PT1H")
+@ActiveProfiles("test")
+class ArrivalTimeSearchTest {
+
+    @Autowired
+    private HotelService hotelService;
+
+    @Autowired
+    private ArrivalTimeIndex arrivalTimeIndex;
+
+    @Autowired
+    private HotelRepository hotelRepository;
+
+    @Autowired
+    private AmenityRepository amenityRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private OutboxOffsetRepository outboxOffsetRepository;
+
+    private Long earlyMinskId;
+    private Long lateMinskId;
+    private Long brestId;
+
+    @BeforeEach
+    void setUp() {
+        cleanUp();
+        arrivalTimeIndex.rebuild();
+
+        earlyMinskId = hotelService.createHotel(createRequest("Minsk Hilton", "Minsk", "12:00", "11:00")).getId();
+        lateMinskId = hotelService.createHotel(createRequest("Minsk Marriott", "Minsk", "15:30", "12:00")).getId();
+        brestId = hotelService.createHotel(createRequest("Brest Hilton", "Brest", "14:00", "12:30")).getId();
+    }
+
+    // the in-memory database is shared with the other test contexts
+    @AfterEach
+    void cleanUp() {
+        hotelRepository.deleteAll();
+        amenityRepository.deleteAll();
+        outboxEventRepository.deleteAll();
+        outboxOffsetRepository.deleteAll();
+    }
+
+    @Test
+    void searchHotels_ShouldCombineTimeWindowWithOtherFilters() {
+        assertThat(ids(search(null, ArrivalTimeWindow.of("12:00", "14:00", null))))
+                .containsExactly(earlyMinskId, brestId);
+        assertThat(ids(search(null, ArrivalTimeWindow.of(null, "14:00", "12:00"))))
+                .containsExactly(brestId);
+        assertThat(ids(search("Minsk", ArrivalTimeWindow.of("13:00", null, null))))
+                .containsExactly(lateMinskId);
+        assertThat(ids(hotelService.searchHotels(null, "hilton", null, null, null, null,
+                ArrivalTimeWindow.of(null, "12:00", null)))).containsExactly(earlyMinskId);
+        assertThat(search("Brest", ArrivalTimeWindow.of("15:00", null, null))).isEmpty();
+    }
+
+    @Test
+    void findIds_ShouldMatchDatabaseQuery() {
+        ArrivalTimeWindow window = ArrivalTimeWindow.of("12:00", "15:30", "12:00");
+
+        assertThat(arrivalTimeIndex.findIds(window)).hasValueSatisfying(ids ->
+                assertThat(ids).containsExactly(lateMinskId, brestId));
+        assertThat(hotelRepository.findIdsByArrivalTime(window.checkInFromTime(), window.checkInToTime(),
+                window.checkOutFromTime())).containsExactly(lateMinskId, brestId);
+    }
+
+    @Test
+    void getHistogram_ByArrival_ShouldCountCheckInsPerHour() {
+        Map<String, Long> histogram = hotelService.getHistogram("arrival");
+
+        assertThat(histogram).hasSize(24);
+        assertThat(histogram.keySet()).startsWith("00:00", "01:00");
+        assertThat(histogram).contains(entry("12:00", 1L), entry("14:00", 1L), entry("15:00", 1L),
+                entry("13:00", 0L));
+    }
+
+    @Test
+    void searchHotels_WithInvalidTime_ShouldThrow() {
+        assertThatThrownBy(() -> ArrivalTimeWindow.of("25:00", null, null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("expected HH:mm");
+    }
+
+    @Test
+    void searchHotels_WithInvertedWindow_ShouldThrowAndIndexShouldFindNothing() {
+        assertThatThrownBy(() -> ArrivalTimeWindow.of("15:00", "12:00", null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("checkInAfter");
+
+        ArrivalTimeWindow inverted = new ArrivalTimeWindow(15 * 60, 12 * 60, 0);
+        assertThat(arrivalTimeIndex.findIds(inverted)).hasValueSatisfying(ids -> assertThat(ids).isEmpty());
+    }
+
+    private List<HotelSummaryDto> search(String city, ArrivalTimeWindow arrival) {
+        return hotelService.searchHotels(null, null, null, city, null, null, arrival);
+    }
+
+    private List<Long> ids(List<HotelSummaryDto> hotels) {
+        return hotels.stream().map(HotelSummaryDto::getId).toList();
+    }
+
+    private CreateHotelRequest createRequest(String name, String city, String checkIn, String checkOut) {
+        return detailedHotel(name).brand(name.substring(name.indexOf(' ') + 1)).city(city)
+                .arrivalTime(checkIn, checkOut).build();
+    }
+}
@@ -0,0 +1,126 @@
+package benchmark;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.util.LogbackMDCAdapter;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.FileAppender;
+import ch.qos.logback.core.encoder.LayoutWrappingEncoder;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import ru.practicum.test_task.logging.JsonLayout;
+import ru.practicum.test_task.logging.SamplingTurboFilter;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+// Measures what the request thread pays for the per-request INFO lines of HotelServiceImpl
+@Tag("benchmark")
+class LoggingBenchmark {
+
+    private static final int THREADS = Integer.getInteger("benchmark.logging.threads", 8);
+    private static final int REQUESTS_PER_THREAD = Integer.getInteger("benchmark.logging.requests", 50_000);
+    private static final String PATTERN = "%d{yyyy-MM-dd'T'HH:mm:ss.SSSXXX} %5level --- [%15.15thread] %-40.40logger{39} : %m%n";
+
+    @Test
+    void requestPathLoggingOverhead() throws Exception {
+        Path directory = Files.createDirectories(Path.of("target", "logging-benchmark"));
+
+        System.out.println("Logging cost per request on the calling thread (" + THREADS + " threads, "
+                + REQUESTS_PER_THREAD + " requests each)");
+        System.out.println("  " + measure("sync pattern appender", directory.resolve("sync.log"), false, false));
+        System.out.println("  " + measure("async JSON", directory.resolve("async.log"), true, false));
+        System.out.println("  " + measure("async JSON + 1% INFO sampling", directory.resolve("sampled.log"), true, true));
+    }
+
+    private String measure(String name, Path file, boolean async, boolean sampled) throws Exception {
+        LoggerContext context = new LoggerContext();
+        context.setMDCAdapter(new LogbackMDCAdapter());
+        Appender<ILoggingEvent> appender = async ? asyncJson(context, file) : syncPattern(context, file);
+        if (sampled) {
+            SamplingTurboFilter filter = new SamplingTurboFilter();
+            filter.setContext(context);
+            filter.addSample("ru.practicum.test_task.service=0.01");
+            filter.start();
+            context.addTurboFilter(filter);
+        }
+        Logger root = context.getLogger(Logger.ROOT_LOGGER_NAME);
+        root.setLevel(Level.INFO);
+        root.addAppender(appender);
+        Logger logger = context.getLogger("ru.practicum.test_task.service.HotelServiceImpl");
+
+        runRequests(logger, REQUESTS_PER_THREAD / 10);
+        long startedAt = System.nanoTime();
+        runRequests(logger, REQUESTS_PER_THREAD);
+        long elapsedNanos = System.nanoTime() - startedAt;
+        context.stop();
+
+        // wall-clock time per request as seen by each of the concurrent callers
+        double nanosPerRequest = (double) elapsedNanos / REQUESTS_PER_THREAD;
+        return String.format("%s: %.0f ns per request, %d bytes written", name, nanosPerRequest, Files.size(file));
+    }
+
+    // mirrors the INFO lines of a search request
+    private void runRequests(Logger logger, int requests) throws InterruptedException {
+        List<String> amenities = List.of("Free WiFi", "Parking", "Swimming Pool");
+        CountDownLatch done = new CountDownLatch(THREADS);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < requests; i++) {
+                    logger.info("Searching hotels with filters - q: {}, name: {}, brand: {}, city: {}, county: {}, amenities: {}",
+                            "spa", null, "Hilton", "Minsk", null, amenities);
+                    logger.info("Getting hotel by id: {}", i);
+                }
+                done.countDown();
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        done.await();
+    }
+
+    private Appender<ILoggingEvent> syncPattern(LoggerContext context, Path file) {
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern(PATTERN);
+        encoder.start();
+        return fileAppender(context, file, encoder);
+    }
+
+    private Appender<ILoggingEvent> asyncJson(LoggerContext context, Path file) {
+        JsonLayout layout = new JsonLayout();
+        layout.setContext(context);
+        layout.start();
+        LayoutWrappingEncoder<ILoggingEvent> encoder = new LayoutWrappingEncoder<>();
+        encoder.setContext(context);
+        encoder.setLayout(layout);
+        encoder.start();
+
+        AsyncAppender async = new AsyncAppender();
+        async.setContext(context);
+        async.setQueueSize(8192);
+        async.setNeverBlock(true);
+        async.addAppender(fileAppender(context, file, encoder));
+        async.start();
+        return async;
+    }
+
+    private FileAppender<ILoggingEvent> fileAppender(LoggerContext context, Path file,
+                                                     ch.qos.logback.core.encoder.Encoder<ILoggingEvent> encoder) {
+        FileAppender<ILoggingEvent> appender = new FileAppender<>();
+        appender.setContext(context);
+        appender.setFile(file.toString());
+        appender.setAppend(false);
+        appender.setEncoder(encoder);
+        appender.start();
+        return appender;
+    }
+}
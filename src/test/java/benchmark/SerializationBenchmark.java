@@ -0,0 +1,73 @@
+package benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import ru.practicum.test_task.dto.response.HotelSummaryDto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Tag("benchmark")
+class SerializationBenchmark {
+
+    private static final int HOTELS = Integer.getInteger("benchmark.serialization.hotels", 1000);
+    private static final int WARMUP_ITERATIONS = 200;
+    private static final int MEASURED_ITERATIONS = 1000;
+
+    @Test
+    void hotelSummaryListPayloadSizeAndThroughput() throws Exception {
+        List<HotelSummaryDto> hotels = hotels();
+
+        System.out.println("Serialization of " + HOTELS + " HotelSummaryDto");
+        System.out.println("  " + measure("json", withFilters(new ObjectMapper()), hotels));
+        System.out.println("  " + measure("smile", withFilters(new SmileMapper()), hotels));
+        System.out.println("  " + measure("cbor", withFilters(new CBORMapper()), hotels));
+    }
+
+    private String measure(String name, ObjectMapper mapper, List<HotelSummaryDto> hotels) throws Exception {
+        ObjectWriter writer = mapper.writerFor(mapper.getTypeFactory()
+                .constructCollectionType(List.class, HotelSummaryDto.class));
+        int size = 0;
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            size = writer.writeValueAsBytes(hotels).length;
+        }
+
+        long startedAt = System.nanoTime();
+        long bytes = 0;
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            bytes += writer.writeValueAsBytes(hotels).length;
+        }
+        long elapsedNanos = System.nanoTime() - startedAt;
+        assertThat(bytes).isEqualTo((long) size * MEASURED_ITERATIONS);
+
+        double microsPerList = elapsedNanos / 1_000.0 / MEASURED_ITERATIONS;
+        double megabytesPerSecond = bytes / (elapsedNanos / 1_000_000_000.0) / (1024 * 1024);
+        return String.format("%s: %d bytes, %.1f us per list, %.1f MB/s", name, size, microsPerList, megabytesPerSecond);
+    }
+
+    private ObjectMapper withFilters(ObjectMapper mapper) {
+        return mapper.setFilterProvider(new SimpleFilterProvider().setDefaultFilter(SimpleBeanPropertyFilter.serializeAll()));
+    }
+
+    private List<HotelSummaryDto> hotels() {
+        List<HotelSummaryDto> hotels = new ArrayList<>(HOTELS);
+        for (int i = 0; i < HOTELS; i++) {
+            HotelSummaryDto hotel = new HotelSummaryDto();
+            hotel.setId((long) i + 1);
+            hotel.setName("Hotel " + i);
+            hotel.setDescription("Comfortable hotel number " + i + " close to the city center");
+            hotel.setAddress(i + " Pobediteley Avenue, Minsk, Belarus, 2200" + (i % 100));
+            hotel.setPhone("+375 17 309-" + (1000 + i % 9000));
+            hotels.add(hotel);
+        }
+        return hotels;
+    }
+}
@@ -0,0 +1,123 @@
+package benchmark;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Tag("benchmark")
+class StartupBenchmark {
+
+    private static final int RUNS = Integer.getInteger("benchmark.startup.runs", 3);
+    private static final Duration TIMEOUT = Duration.ofSeconds(120);
+    private static final Path TARGET = Path.of("target");
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofMillis(200))
+            .build();
+
+    @Test
+    void timeToFirstSuccessfulRequest() throws Exception {
+        List<String> report = new ArrayList<>();
+        String testClasspath = System.getProperty("java.class.path");
+
+        report.add(measure("default", TARGET, testClasspath, List.of()));
+        report.add(measure("fast-startup", TARGET, testClasspath, List.of("-Dspring.profiles.active=fast-startup")));
+
+        Path archive = TARGET.resolve("hotels-app.jsa");
+        Path classpathFile = TARGET.resolve("classpath.txt");
+        if (Files.exists(archive) && Files.exists(classpathFile)) {
+            String packagedClasspath = findThinJar() + System.getProperty("path.separator")
+                    + Files.readString(classpathFile).trim();
+            report.add(measure("fast-startup + AOT + CDS", TARGET, packagedClasspath, List.of(
+                    "-XX:SharedArchiveFile=hotels-app.jsa",
+                    "-Xlog:cds=off",
+                    "-Dspring.aot.enabled=true",
+                    "-Dspring.profiles.active=fast-startup")));
+        } else {
+            report.add("fast-startup + AOT + CDS: skipped, run 'mvn -Pfast-startup package' first");
+        }
+
+        System.out.println("Time to first successful GET /property-view/hotels (median of " + RUNS + " runs)");
+        report.forEach(line -> System.out.println("  " + line));
+    }
+
+    private String measure(String name, Path workingDirectory, String classpath, List<String> jvmOptions) throws Exception {
+        List<Long> timings = new ArrayList<>();
+        for (int run = 0; run < RUNS; run++) {
+            timings.add(startAndWaitForFirstResponse(workingDirectory, classpath, jvmOptions));
+        }
+        Collections.sort(timings);
+        return String.format("%s: %d ms (min %d ms, max %d ms)",
+                name, timings.get(timings.size() / 2), timings.get(0), timings.get(timings.size() - 1));
+    }
+
+    private long startAndWaitForFirstResponse(Path workingDirectory, String classpath, List<String> jvmOptions)
+            throws Exception {
+        int port = freePort();
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(jvmOptions);
+        command.add("-cp");
+        command.add(classpath);
+        command.add("ru.practicum.test_task.HotelsApp");
+        command.add("--server.port=" + port);
+        command.add("--spring.datasource.url=jdbc:h2:mem:startup-benchmark");
+
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/property-view/hotels"))
+                .timeout(Duration.ofSeconds(5))
+                .build();
+
+        long startedAt = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+                .directory(workingDirectory.toFile())
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        try {
+            while (System.nanoTime() - startedAt < TIMEOUT.toNanos()) {
+                assertThat(process.isAlive()).as("application process exited during startup").isTrue();
+                try {
+                    HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                    if (response.statusCode() == 200) {
+                        return Duration.ofNanos(System.nanoTime() - startedAt).toMillis();
+                    }
+                } catch (IOException e) {
+                    Thread.sleep(10);
+                }
+            }
+            throw new IllegalStateException("Application did not answer within " + TIMEOUT);
+        } finally {
+            process.destroy();
+            process.waitFor();
+        }
+    }
+
+    private String findThinJar() throws IOException {
+        try (var files = Files.list(TARGET)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(file -> file.endsWith(".jar") && !file.endsWith("-exec.jar"))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalStateException("Packaged application jar not found"));
+        }
+    }
+
+    private int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.test_task.HotelsApp;
+import ru.practicum.test_task.cache.SearchCriteria;
+import ru.practicum.test_task.cache.SearchResultCache;
+import ru.practicum.test_task.dto.response.HotelSummaryDto;
+import ru.practicum.test_task.repository.AmenityRepository;
+import ru.practicum.test_task.repository.HotelRepository;
+import ru.practicum.test_task.repository.OutboxEventRepository;
+import ru.practicum.test_task.repository.OutboxOffsetRepository;
+import ru.practicum.test_task.service.HotelService;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static support.HotelRequests.hotel;
+
+// the test profile turns the cache off, this context turns it back on
+@SpringBootTest(classes = HotelsApp.class, properties = "hotels.search-cache.enabled=true")
+@ActiveProfiles("test")
+class SearchResultCacheIntegrationTest {
+
+    @Autowired
+    private HotelService hotelService;
+
+    @Autowired
+    private SearchResultCache searchResultCache;
+
+    @SpyBean
+    private HotelRepository hotelRepository;
+
+    @Autowired
+    private AmenityRepository amenityRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private OutboxOffsetRepository outboxOffsetRepository;
+
+    private Long pinskId;
+
+    @BeforeEach
+    void setUp() {
+        cleanUp();
+        pinskId = hotelService.createHotel(hotel("Pinsk Hotel").city("Pinsk").build()).getId();
+        clearInvocations(hotelRepository);
+    }
+
+    // the in-memory database is shared with the other test contexts
+    @AfterEach
+    void cleanUp() {
+        hotelRepository.deleteAll();
+        amenityRepository.deleteAll();
+        outboxEventRepository.deleteAll();
+        outboxOffsetRepository.deleteAll();
+    }
+
+    @Test
+    void searchHotels_WhenRepeatedWithEquivalentCriteria_ShouldQueryDatabaseOnce() {
+        List<HotelSummaryDto> first = hotelService.searchHotels(null, null, "Pinsk", null, null);
+        List<HotelSummaryDto> second = hotelService.searchHotels(null, null, " PINSK ", null, null);
+
+        assertThat(ids(first)).containsExactly(pinskId);
+        assertThat(second).isEqualTo(first);
+        assertThat(searchResultCache.get(SearchCriteria.of(null, null, "pinsk", null, null))).contains(List.of(pinskId));
+        verify(hotelRepository, times(1)).findIdsBySearchCriteria(any(), any(), any(), any(), any(), anyLong());
+    }
+
+    @Test
+    void searchHotels_AfterCreateHotel_ShouldSeeNewHotel() {
+        hotelService.searchHotels(null, null, "Pinsk", null, null);
+
+        Long secondId = hotelService.createHotel(hotel("Second Pinsk Hotel").city("Pinsk").build()).getId();
+
+        assertThat(ids(hotelService.searchHotels(null, null, "Pinsk", null, null)))
+                .containsExactlyInAnyOrder(pinskId, secondId);
+        verify(hotelRepository, times(2)).findIdsBySearchCriteria(any(), any(), any(), any(), any(), anyLong());
+    }
+
+    @Test
+    void searchHotels_AfterAddingAmenities_ShouldSeeNewAmenities() {
+        assertThat(hotelService.searchHotels(null, null, "Pinsk", null, List.of("Sauna"))).isEmpty();
+        assertThat(hotelService.searchHotels(null, null, "Pinsk", null, List.of("sauna"))).isEmpty();
+        verify(hotelRepository, times(1)).findIdsBySearchCriteria(any(), any(), any(), any(), any(), anyLong());
+
+        hotelService.addAmenitiesToHotel(pinskId, List.of("Sauna"));
+        clearInvocations(hotelRepository);
+
+        assertThat(ids(hotelService.searchHotels(null, null, "Pinsk", null, List.of("Sauna"))))
+                .containsExactly(pinskId);
+        verify(hotelRepository, times(1)).findIdsBySearchCriteria(any(), any(), any(), any(), any(), anyLong());
+    }
+
+    @Test
+    void getHotelById_ShouldNotInvalidateCachedSearches() {
+        hotelService.searchHotels(null, null, "Pinsk", null, null);
+
+        hotelService.getHotelById(pinskId);
+        hotelService.searchHotels(null, null, "Pinsk", null, null);
+
+        verify(hotelRepository, times(1)).findIdsBySearchCriteria(any(), any(), any(), any(), any(), anyLong());
+    }
+
+    private List<Long> ids(List<HotelSummaryDto> hotels) {
+        return hotels.stream().map(HotelSummaryDto::getId).toList();
+    }
+}
@@ -0,0 +1,85 @@
+package cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.test_task.cache.SearchCacheProperties;
+import ru.practicum.test_task.cache.SearchCriteria;
+import ru.practicum.test_task.cache.SearchResultCache;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SearchResultCacheTest {
+
+    private SearchCacheProperties properties;
+    private SearchResultCache cache;
+
+    @BeforeEach
+    void setUp() {
+        properties = new SearchCacheProperties();
+        properties.setMaxEntries(2);
+        cache = new SearchResultCache(properties);
+    }
+
+    @Test
+    void criteria_ShouldBeNormalized() {
+        SearchCriteria first = SearchCriteria.of(" Grand ", "HILTON", "Minsk", "", List.of("Pool", "wifi", "pool"));
+        SearchCriteria second = SearchCriteria.of("grand", "hilton", " minsk", null, Arrays.asList("WiFi", null, "POOL"));
+
+        assertThat(first).isEqualTo(second);
+        assertThat(first.getCounty()).isNull();
+        assertThat(first.getAmenities()).containsExactly("pool", "wifi");
+    }
+
+    @Test
+    void get_AfterPut_ShouldReturnCachedIds() {
+        SearchCriteria criteria = SearchCriteria.of(null, null, "Minsk", null, null);
+
+        cache.put(criteria, cache.currentGeneration(), List.of(3L, 1L));
+
+        assertThat(cache.get(criteria)).contains(List.of(3L, 1L));
+    }
+
+    @Test
+    void get_AfterInvalidate_ShouldMiss() {
+        SearchCriteria criteria = SearchCriteria.of(null, null, "Minsk", null, null);
+        cache.put(criteria, cache.currentGeneration(), List.of(1L));
+
+        cache.invalidate();
+
+        assertThat(cache.get(criteria)).isEmpty();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void put_WithOutdatedGeneration_ShouldBeIgnored() {
+        SearchCriteria criteria = SearchCriteria.of(null, "Hilton", null, null, null);
+        long generation = cache.currentGeneration();
+
+        cache.invalidate();
+        cache.put(criteria, generation, List.of(1L));
+
+        assertThat(cache.get(criteria)).isEmpty();
+    }
+
+    @Test
+    void put_WhenFull_ShouldStayBounded() {
+        for (int i = 0; i < 5; i++) {
+            cache.put(SearchCriteria.of("hotel " + i, null, null, null, null), cache.currentGeneration(), List.of((long) i));
+        }
+
+        assertThat(cache.size()).isLessThanOrEqualTo(properties.getMaxEntries());
+    }
+
+    @Test
+    void get_WhenDisabled_ShouldMiss() {
+        properties.setEnabled(false);
+        SearchCriteria criteria = SearchCriteria.of("Grand", null, null, null, null);
+
+        cache.put(criteria, cache.currentGeneration(), List.of(1L));
+
+        assertThat(cache.get(criteria)).isEmpty();
+    }
+}
@@ -0,0 +1,78 @@
+package cache;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.test_task.HotelsApp;
+import ru.practicum.test_task.dto.response.HotelDetailedDto;
+import ru.practicum.test_task.service.HotelService;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static support.HotelRequests.detailedHotel;
+
+@SpringBootTest(classes = HotelsApp.class, properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+class SecondLevelCacheTest {
+
+    @Autowired
+    private HotelService hotelService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private Long hotelId;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        hotelId = hotelService.createHotel(detailedHotel("Cached Hotel").brand("Hilton").city("Grodno")
+                .email("cached@hotel.com").build()).getId();
+        hotelService.addAmenitiesToHotel(hotelId, List.of("Free WiFi", "Parking"));
+    }
+
+    @Test
+    void getHotelById_WhenRepeated_ShouldNotHitDatabase() {
+        HotelDetailedDto first = hotelService.getHotelById(hotelId);
+        statistics.clear();
+
+        HotelDetailedDto second = hotelService.getHotelById(hotelId);
+
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(statistics.getSecondLevelCacheHitCount()).isPositive();
+        assertThat(second).isEqualTo(first);
+        assertThat(second.getAmenities()).containsExactlyInAnyOrder("Free WiFi", "Parking");
+        assertThat(second.getContacts().getEmail()).isEqualTo("cached@hotel.com");
+        assertThat(second.getArrivalTime().getCheckIn()).isEqualTo("14:00");
+    }
+
+    @Test
+    void getHotelById_AfterAddingAmenities_ShouldSeeNewAmenities() {
+        hotelService.getHotelById(hotelId);
+
+        hotelService.addAmenitiesToHotel(hotelId, List.of("Sauna"));
+
+        assertThat(hotelService.getHotelById(hotelId).getAmenities()).contains("Sauna");
+    }
+
+    @Test
+    void getHistogram_WhenRepeated_ShouldBeServedFromQueryCache() {
+        Map<String, Long> first = hotelService.getHistogram("city");
+        statistics.clear();
+
+        Map<String, Long> second = hotelService.getHistogram("city");
+
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(statistics.getQueryCacheHitCount()).isEqualTo(1);
+        assertThat(second).isEqualTo(first);
+    }
+}
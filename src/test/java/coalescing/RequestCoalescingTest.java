@@ -0,0 +1,122 @@
+package coalescing;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.test_task.HotelsApp;
+import ru.practicum.test_task.coalescing.CoalescingAspect;
+import ru.practicum.test_task.datasource.ClientWrites;
+import ru.practicum.test_task.exception.HotelNotFoundException;
+import ru.practicum.test_task.service.HotelService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(classes = HotelsApp.class)
+@ActiveProfiles("test")
+class RequestCoalescingTest {
+
+    private static final int CALLERS = 8;
+
+    @Autowired
+    private HotelService hotelService;
+
+    @Autowired
+    private CoalescingAspect coalescingAspect;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void getHistogram_WithConcurrentCallers_ShouldGoThroughSingleFlight() throws Exception {
+        long before = calls();
+
+        List<Future<Map<String, Long>>> results = callConcurrently(() -> hotelService.getHistogram("city"));
+
+        Map<String, Long> first = results.get(0).get(5, TimeUnit.SECONDS);
+        for (Future<Map<String, Long>> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo(first);
+        }
+        assertThat(calls() - before).isEqualTo(CALLERS);
+    }
+
+    @Test
+    void getHotelById_WhenHotelNotExists_ShouldFailEveryCaller() throws Exception {
+        List<Future<Object>> results = callConcurrently(() -> hotelService.getHotelById(Long.MAX_VALUE));
+
+        for (Future<Object> result : results) {
+            assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS))
+                    .isInstanceOf(ExecutionException.class)
+                    .hasCauseInstanceOf(HotelNotFoundException.class);
+        }
+    }
+
+    @Test
+    void getHistogram_InsideCallerTransaction_ShouldRunOnItsOwn() {
+        long before = calls();
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> hotelService.getHistogram("city"));
+
+        assertThat(calls()).isEqualTo(before);
+    }
+
+    @Test
+    void getHistogram_WithinReadYourWritesWindow_ShouldRunOnItsOwn() {
+        long before = calls();
+
+        ClientWrites.bind(System.currentTimeMillis(), null);
+        try {
+            hotelService.getHistogram("city");
+        } finally {
+            ClientWrites.unbind();
+        }
+        assertThat(calls()).isEqualTo(before);
+
+        ClientWrites.bind(System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(1), null);
+        try {
+            hotelService.getHistogram("city");
+        } finally {
+            ClientWrites.unbind();
+        }
+        assertThat(calls()).isEqualTo(before + 1);
+    }
+
+    private long calls() {
+        return coalescingAspect.getSingleFlight().getExecutions() + coalescingAspect.getSingleFlight().getCoalesced();
+    }
+
+    private <T> List<Future<T>> callConcurrently(Callable<T> call) {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<T>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                return call.call();
+            }));
+        }
+        start.countDown();
+        return results;
+    }
+}
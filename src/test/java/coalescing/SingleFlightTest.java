@@ -0,0 +1,127 @@
+package coalescing;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.test_task.coalescing.SingleFlight;
+import ru.practicum.test_task.exception.CoalescedCallTimeoutException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+    private static final int FOLLOWERS = 4;
+
+    private final SingleFlight singleFlight = new SingleFlight();
+    private final ExecutorService executor = Executors.newFixedThreadPool(FOLLOWERS + 1);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void execute_ShouldShareOneExecutionAndResultWithConcurrentCallers() throws Throwable {
+        CountDownLatch release = new CountDownLatch(1);
+        Object result = new Object();
+        Future<Object> leader = submit(TIMEOUT, () -> {
+            release.await();
+            return result;
+        });
+        List<Future<Object>> followers = startFollowers(TIMEOUT, () -> {
+            throw new AssertionError("Only the first caller executes");
+        });
+
+        release.countDown();
+
+        assertThat(leader.get(5, TimeUnit.SECONDS)).isSameAs(result);
+        for (Future<Object> follower : followers) {
+            assertThat(follower.get(5, TimeUnit.SECONDS)).isSameAs(result);
+        }
+        assertThat(singleFlight.getExecutions()).isEqualTo(1);
+        assertThat(singleFlight.getCoalesced()).isEqualTo(FOLLOWERS);
+
+        assertThat(singleFlight.execute("hotel-1", TIMEOUT, () -> "next")).isEqualTo("next");
+        assertThat(singleFlight.getExecutions()).isEqualTo(2);
+    }
+
+    @Test
+    void execute_ShouldPropagateFailureToEveryWaitingCaller() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        IllegalStateException failure = new IllegalStateException("Database is unavailable");
+        Future<Object> leader = submit(TIMEOUT, () -> {
+            release.await();
+            throw failure;
+        });
+        List<Future<Object>> followers = startFollowers(TIMEOUT, () -> "unused");
+
+        release.countDown();
+
+        assertThatThrownBy(() -> leader.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCause(failure);
+        for (Future<Object> follower : followers) {
+            assertThatThrownBy(() -> follower.get(5, TimeUnit.SECONDS))
+                    .isInstanceOf(ExecutionException.class)
+                    .hasCause(failure);
+        }
+        assertThat(singleFlight.getExecutions()).isEqualTo(1);
+    }
+
+    @Test
+    void execute_WhenRunningCallIsSlow_ShouldTimeOutWaitersOnly() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        Future<Object> leader = submit(TIMEOUT, () -> {
+            release.await();
+            return "hotel";
+        });
+        List<Future<Object>> followers = startFollowers(Duration.ofMillis(50), () -> "unused");
+
+        for (Future<Object> follower : followers) {
+            assertThatThrownBy(() -> follower.get(5, TimeUnit.SECONDS))
+                    .isInstanceOf(ExecutionException.class)
+                    .hasCauseInstanceOf(CoalescedCallTimeoutException.class);
+        }
+
+        release.countDown();
+        assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("hotel");
+    }
+
+    // followers are started only once the leader holds the key, and return once all of them are waiting
+    private List<Future<Object>> startFollowers(Duration timeout, SingleFlight.Call call) throws InterruptedException {
+        while (singleFlight.getExecutions() == 0) {
+            Thread.sleep(5);
+        }
+        List<Future<Object>> followers = new ArrayList<>();
+        for (int i = 0; i < FOLLOWERS; i++) {
+            followers.add(submit(timeout, call));
+        }
+        while (singleFlight.getCoalesced() < FOLLOWERS) {
+            Thread.sleep(5);
+        }
+        return followers;
+    }
+
+    private Future<Object> submit(Duration timeout, SingleFlight.Call call) {
+        return executor.submit(() -> {
+            try {
+                return singleFlight.execute("hotel-1", timeout, call);
+            } catch (Exception | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+}
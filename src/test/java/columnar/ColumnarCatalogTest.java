@@ -0,0 +1,147 @@
+package columnar;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.test_task.HotelsApp;
+import ru.practicum.test_task.columnar.ColumnarHotelStore;
+import ru.practicum.test_task.dto.request.CreateHotelRequest;
+import ru.practicum.test_task.dto.response.CatalogFootprintDto;
+import ru.practicum.test_task.dto.response.HotelDetailedDto;
+import ru.practicum.test_task.dto.response.HotelSummaryDto;
+import ru.practicum.test_task.repository.AmenityRepository;
+import ru.practicum.test_task.repository.HotelRepository;
+import ru.practicum.test_task.repository.OutboxEventRepository;
+import ru.practicum.test_task.repository.OutboxOffsetRepository;
+import ru.practicum.test_task.service.HotelService;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static support.HotelRequests.detailedHotel;
+
+@SpringBootTest(classes = HotelsApp.class, properties = {
+        "hotels.columnar.enabled=true",
+        "hotels.columnar.batch-size=2",
+        "hotels.outbox.initial-delay=PT1H"
+})
+@ActiveProfiles("test")
+class ColumnarCatalogTest {
+
+    @Autowired
+    private HotelService hotelService;
+
+    @Autowired
+    private ColumnarHotelStore columnarHotelStore;
+
+    @Autowired
+    private HotelRepository hotelRepository;
+
+    @Autowired
+    private AmenityRepository amenityRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private OutboxOffsetRepository outboxOffsetRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Long minskId;
+    private Long brestId;
+    private Long moscowId;
+
+    @BeforeEach
+    void setUp() {
+        cleanUp();
+        columnarHotelStore.rebuild();
+
+        minskId = hotelService.createHotel(createRequest("Minsk Hilton", "Hilton", "Minsk", "Belarus")).getId();
+        brestId = hotelService.createHotel(createRequest("Brest Marriott", "Marriott", "Brest", "Belarus")).getId();
+        moscowId = hotelService.createHotel(createRequest("Moscow Hilton", "Hilton", "Moscow", "Russia")).getId();
+        hotelService.addAmenitiesToHotel(minskId, List.of("Free WiFi", "Parking"));
+        hotelService.addAmenitiesToHotel(moscowId, List.of("Free WiFi"));
+    }
+
+    // the in-memory database is shared with the other test contexts
+    @AfterEach
+    void cleanUp() {
+        hotelRepository.deleteAll();
+        amenityRepository.deleteAll();
+        outboxEventRepository.deleteAll();
+        outboxOffsetRepository.deleteAll();
+    }
+
+    @Test
+    void searchHotels_ShouldMatchDatabaseResultsIncludingLocalWrites() {
+        assertThat(ids(hotelService.searchHotels(null, "hilton", null, null, null)))
+                .containsExactly(minskId, moscowId);
+        assertThat(ids(hotelService.searchHotels(null, null, " minsk ", null, null))).containsExactly(minskId);
+        assertThat(ids(hotelService.searchHotels(null, null, null, "BELARUS", null)))
+                .containsExactly(minskId, brestId);
+        assertThat(ids(hotelService.searchHotels(null, null, null, null, List.of("free wifi", "PARKING"))))
+                .containsExactly(minskId);
+        assertThat(ids(hotelService.searchHotels("hilton", null, null, null, List.of("Free WiFi"))))
+                .containsExactly(minskId, moscowId);
+        assertThat(ids(hotelService.searchHotels("Brest", null, null, "Belarus", null))).containsExactly(brestId);
+    }
+
+    @Test
+    void getHotelById_ShouldServeFromCatalogUntilRebuilt() {
+        HotelDetailedDto detailed = hotelService.getHotelById(minskId);
+        List<HotelSummaryDto> summaries = hotelService.getAllHotels();
+        assertThat(detailed.getAmenities()).containsExactlyInAnyOrder("Free WiFi", "Parking");
+        assertThat(detailed.getArrivalTime().getCheckIn()).isEqualTo("14:00");
+        assertThat(ids(summaries)).containsExactly(minskId, brestId, moscowId);
+
+        jdbcTemplate.update("UPDATE hotels SET name = ? WHERE id = ?", "Renamed Hotel", minskId);
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+
+        assertThat(hotelService.getHotelById(minskId)).isEqualTo(detailed);
+        assertThat(hotelService.getAllHotels()).isEqualTo(summaries);
+
+        columnarHotelStore.rebuild();
+
+        assertThat(hotelService.getHotelById(minskId).getName()).isEqualTo("Renamed Hotel");
+    }
+
+    @Test
+    void footprint_ShouldReportFewerBytesPerHotelThanEntityCache() {
+        for (int i = 0; i < 97; i++) {
+            String city = i % 2 == 0 ? "Minsk" : "Brest";
+            hotelService.createHotel(createRequest("Hotel " + i, i % 3 == 0 ? "Hilton" : "Marriott", city, "Belarus"));
+        }
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+        for (Long id : hotelRepository.findAllIds()) {
+            hotelRepository.findByIdWithDetails(id);
+            hotelRepository.findByIdWithAmenities(id);
+            hotelRepository.findByIdWithContacts(id);
+        }
+
+        CatalogFootprintDto footprint = columnarHotelStore.footprint();
+
+        assertThat(footprint.getColumnarHotels()).isEqualTo(100);
+        assertThat(footprint.getEntityCacheHotels()).isEqualTo(100);
+        assertThat(footprint.getColumnarBytesPerHotel()).isPositive();
+        assertThat(footprint.getEntityCacheBytesPerHotel()).isGreaterThan(footprint.getColumnarBytesPerHotel());
+    }
+
+    private List<Long> ids(List<HotelSummaryDto> hotels) {
+        return hotels.stream().map(HotelSummaryDto::getId).toList();
+    }
+
+    private CreateHotelRequest createRequest(String name, String brand, String city, String county) {
+        return detailedHotel(name).brand(brand).city(city).county(county).build();
+    }
+}
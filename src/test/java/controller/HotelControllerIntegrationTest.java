@@ -1,6 +1,9 @@
 package controller;
 
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -14,6 +17,7 @@ import ru.practicum.test_task.dto.request.CreateHotelRequest;
 import ru.practicum.test_task.dto.request.AddressRequest;
 import ru.practicum.test_task.dto.request.ContactRequest;
 import ru.practicum.test_task.dto.request.ArrivalTimeRequest;
+import ru.practicum.test_task.dto.response.HotelSummaryDto;
 import ru.practicum.test_task.model.Hotel;
 import ru.practicum.test_task.model.Address;
 import ru.practicum.test_task.model.Contact;
@@ -21,6 +25,7 @@ import ru.practicum.test_task.repository.HotelRepository;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -318,6 +323,144 @@ class HotelControllerIntegrationTest {
                 .andExpect(jsonPath("$.error").exists());
     }
 
+    @Test
+    void getAllHotels_WithCborAccept_ShouldReturnCborPayload() throws Exception {
+        byte[] body = mockMvc.perform(get("/property-view/hotels").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        List<HotelSummaryDto> hotels = new CBORMapper().readValue(body, new TypeReference<>() {
+        });
+        assertThat(hotels).extracting(HotelSummaryDto::getName).containsExactly("Test Hotel");
+        assertThat(hotels.get(0).getPhone()).isEqualTo("+375 17 309-80-00");
+    }
+
+    @Test
+    void getHistogram_WithSmileAccept_ShouldReturnSmilePayload() throws Exception {
+        MediaType smile = MediaType.parseMediaType("application/x-jackson-smile");
+        byte[] body = mockMvc.perform(get("/property-view/histogram/city").accept(smile))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(smile))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        Map<String, Long> histogram = new SmileMapper().readValue(body, new TypeReference<>() {
+        });
+        assertThat(histogram).containsEntry("Minsk", 1L);
+    }
+
+    @Test
+    void getHotelById_WithWildcardAccept_ShouldDefaultToJson() throws Exception {
+        mockMvc.perform(get("/property-view/hotels/{id}", testHotel.getId()).accept(MediaType.ALL))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON));
+    }
+
+    @Test
+    void getAllHotels_WithFields_ShouldReturnOnlyRequestedFields() throws Exception {
+        mockMvc.perform(get("/property-view/hotels").param("fields", "name"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(testHotel.getId()))
+                .andExpect(jsonPath("$[0].name").value("Test Hotel"))
+                .andExpect(jsonPath("$[0].description").doesNotExist())
+                .andExpect(jsonPath("$[0].address").doesNotExist())
+                .andExpect(jsonPath("$[0].phone").doesNotExist());
+    }
+
+    @Test
+    void getHotelById_WithFields_ShouldReturnOnlyRequestedFields() throws Exception {
+        mockMvc.perform(get("/property-view/hotels/{id}", testHotel.getId()).param("fields", "brand,contacts"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.brand").value("Hilton"))
+                .andExpect(jsonPath("$.contacts.email").value("test@hotel.com"))
+                .andExpect(jsonPath("$.name").doesNotExist())
+                .andExpect(jsonPath("$.amenities").doesNotExist());
+    }
+
+    @Test
+    void searchHotels_WithUnknownField_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/property-view/search").param("fields", "id,password"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Unsupported field: password"));
+    }
+
+    @Test
+    void searchHotels_WithInvalidCheckInTime_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/property-view/search").param("checkInAfter", "2pm"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Invalid time, expected HH:mm: 2pm"));
+    }
+
+    @Test
+    void updateAmenitiesInBulk_ShouldReturnCountsAndRefreshCachedAmenities() throws Exception {
+        Hotel moscowHotel = hotelRepository.save(createTestHotel("Moscow Hotel", "Marriott", "Moscow"));
+        mockMvc.perform(get("/property-view/hotels/{id}", testHotel.getId()))
+                .andExpect(jsonPath("$.amenities").isEmpty());
+
+        String body = objectMapper.writeValueAsString(Map.of(
+                "action", "ATTACH",
+                "amenities", List.of("Free WiFi", "Parking"),
+                "hotelIds", List.of(testHotel.getId(), moscowHotel.getId(), 999_999L)));
+
+        mockMvc.perform(post("/property-view/amenities/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.hotelsAffected").value(2))
+                .andExpect(jsonPath("$.rowsAffected").value(4));
+
+        mockMvc.perform(get("/property-view/hotels/{id}", testHotel.getId()))
+                .andExpect(jsonPath("$.amenities.length()").value(2));
+    }
+
+    @Test
+    void updateAmenitiesInBulk_WithoutAction_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(post("/property-view/amenities/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"amenities\": [\"Spa\"], \"filter\": {}}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.action").exists());
+    }
+
+    @Test
+    void updateAmenitiesInBulk_WithEmptyFilter_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(post("/property-view/amenities/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"action\": \"ATTACH\", \"amenities\": [\"Spa\"], \"filter\": {}}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value(org.hamcrest.Matchers.containsString("\"all\": true")));
+    }
+
+    @Test
+    void getHistograms_ShouldReturnRequestedHistogramsAndCrossTabs() throws Exception {
+        hotelRepository.save(createTestHotel("Second Hotel", "Marriott", "Minsk"));
+
+        mockMvc.perform(get("/property-view/histogram").param("params", "city,brand,city:brand"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.histograms.city.Minsk").value(2))
+                .andExpect(jsonPath("$.histograms.brand.Hilton").value(1))
+                .andExpect(jsonPath("$.crossTabs['city:brand'].Minsk.Marriott").value(1));
+
+        mockMvc.perform(get("/property-view/histogram").param("params", "city,stars"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getHistogram_WithLimit_ShouldReturnTopBucketsAndOtherTotal() throws Exception {
+        hotelRepository.save(createTestHotel("Second Hotel", "Marriott", "Minsk"));
+        hotelRepository.save(createTestHotel("Third Hotel", "Marriott", "Brest"));
+
+        mockMvc.perform(get("/property-view/histogram/city").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.buckets[0].label").value("Minsk"))
+                .andExpect(jsonPath("$.buckets[0].count").value(2))
+                .andExpect(jsonPath("$.buckets.length()").value(1))
+                .andExpect(jsonPath("$.other").value(1))
+                .andExpect(jsonPath("$.distinct").value(2))
+                .andExpect(jsonPath("$.approximate").value(false));
+    }
+
+
     private Hotel createTestHotel(String name, String brand, String city) {
         Hotel hotel = new Hotel();
         hotel.setName(name);
@@ -0,0 +1,122 @@
+package datasource;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.Cookie;
+import liquibase.exception.LiquibaseException;
+import liquibase.integration.spring.SpringLiquibase;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import ru.practicum.test_task.HotelsApp;
+import ru.practicum.test_task.datasource.ReadWriteRoutingDataSource;
+import ru.practicum.test_task.datasource.ReadYourWritesFilter;
+import ru.practicum.test_task.dto.response.HotelSummaryDto;
+import ru.practicum.test_task.service.HotelService;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static support.HotelRequests.hotel;
+
+@SpringBootTest(classes = HotelsApp.class, properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing-primary;DB_CLOSE_DELAY=-1",
+        "hotels.datasource.routing.enabled=true",
+        "hotels.datasource.routing.read-your-writes-window=1h",
+        "hotels.datasource.routing.replicas[0].url=jdbc:h2:mem:routing-replica-1;DB_CLOSE_DELAY=-1",
+        "hotels.datasource.routing.replicas[1].url=jdbc:h2:mem:routing-replica-missing;IFEXISTS=TRUE",
+        "hotels.datasource.routing.replicas[2].url=jdbc:h2:mem:routing-replica-2;DB_CLOSE_DELAY=-1"
+})
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+class ReadWriteRoutingDataSourceTest {
+
+    private static final String REPLICA_1 = "jdbc:h2:mem:routing-replica-1;DB_CLOSE_DELAY=-1";
+    private static final String REPLICA_2 = "jdbc:h2:mem:routing-replica-2;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private HotelService hotelService;
+
+    @Autowired
+    private ReadWriteRoutingDataSource routingDataSource;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeAll
+    static void createReplicas() throws LiquibaseException {
+        createReplica(REPLICA_1, "Replica One Hotel");
+        createReplica(REPLICA_2, "Replica Two Hotel");
+    }
+
+    @Test
+    void readOnlyTransactions_ShouldBeBalancedAcrossHealthyReplicas_AndFollowWritesToPrimary() {
+        Set<String> names = new HashSet<>();
+        for (int i = 0; i < 6; i++) {
+            hotelService.getAllHotels().forEach(hotel -> names.add(hotel.getName()));
+        }
+
+        assertThat(names).containsExactlyInAnyOrder("Replica One Hotel", "Replica Two Hotel");
+        assertThat(routingDataSource.isWithinReadYourWritesWindow()).isFalse();
+
+        hotelService.createHotel(hotel("Primary Hotel").build());
+
+        assertThat(routingDataSource.isWithinReadYourWritesWindow()).isTrue();
+        List<HotelSummaryDto> afterWrite = hotelService.getAllHotels();
+        assertThat(afterWrite).extracting(HotelSummaryDto::getName).contains("Primary Hotel");
+
+        List<HotelSummaryDto> otherClient = CompletableFuture.supplyAsync(hotelService::getAllHotels).join();
+        assertThat(otherClient).extracting(HotelSummaryDto::getName).doesNotContain("Primary Hotel");
+    }
+
+    @Test
+    void readYourWritesCookie_ShouldPinOnlyTheClientThatWrote() throws Exception {
+        MvcResult write = mockMvc.perform(post("/property-view/hotels")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(hotel("Primary Hotel").build())))
+                .andExpect(status().isCreated())
+                .andReturn();
+        Cookie lastWrite = write.getResponse().getCookie(ReadYourWritesFilter.COOKIE_NAME);
+        assertThat(lastWrite).isNotNull();
+
+        String writer = mockMvc.perform(get("/property-view/hotels").cookie(lastWrite))
+                .andReturn().getResponse().getContentAsString();
+        String otherClient = mockMvc.perform(get("/property-view/hotels"))
+                .andReturn().getResponse().getContentAsString();
+
+        assertThat(writer).contains("Primary Hotel");
+        assertThat(otherClient).doesNotContain("Primary Hotel");
+    }
+
+    private static void createReplica(String url, String hotelName) throws LiquibaseException {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(url, "sa", "test");
+
+        SpringLiquibase liquibase = new SpringLiquibase();
+        liquibase.setDataSource(dataSource);
+        liquibase.setChangeLog("classpath:db/changelog/db.changelog-master.yaml");
+        liquibase.setResourceLoader(new DefaultResourceLoader());
+        liquibase.afterPropertiesSet();
+
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.update("DELETE FROM hotels");
+        jdbcTemplate.update("INSERT INTO hotels (name, brand) VALUES (?, ?)", hotelName, "Replica");
+        jdbcTemplate.update("INSERT INTO hotel_summary (id, name) SELECT id, name FROM hotels");
+    }
+}
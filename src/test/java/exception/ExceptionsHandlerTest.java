@@ -10,8 +10,11 @@ import org.springframework.validation.BindingResult;
 import org.springframework.validation.FieldError;
 import org.springframework.validation.ObjectError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
+import ru.practicum.test_task.exception.CoalescedCallTimeoutException;
 import ru.practicum.test_task.exception.ExceptionsHandler;
+import ru.practicum.test_task.exception.HistogramsNotReadyException;
 
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
@@ -50,12 +53,39 @@ class ExceptionsHandlerTest {
     }
 
     @Test
-    void handleRuntimeException_WithNestedCause_ShouldReturnMessageFromRootException() {
+    void handleBadRequestException_WithNestedCause_ShouldReturnMessageFromWrapperException() {
         RuntimeException cause = new RuntimeException("Root cause message");
-        RuntimeException ex = new RuntimeException("Wrapper exception", cause);
-        ResponseEntity<Map<String, String>> response = exceptionsHandler.handleRuntimeException(ex);
+        IllegalArgumentException ex = new IllegalArgumentException("Wrapper exception", cause);
+        ResponseEntity<Map<String, String>> response = exceptionsHandler.handleBadRequestException(ex);
 
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
         assertThat(response.getBody().get("error")).isEqualTo("Wrapper exception");
     }
-}
\ No newline at end of file
+
+    @Test
+    void handleGeneralException_WithUnexpectedRuntimeException_ShouldNotLeakMessage() {
+        RuntimeException ex = new IllegalStateException("Connection pool exhausted");
+        ResponseEntity<Map<String, String>> response = exceptionsHandler.handleGeneralException(ex);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.INTERNAL_SERVER_ERROR);
+        assertThat(response.getBody().get("error")).isEqualTo("Internal server error");
+    }
+
+    @Test
+    void handleCoalescedCallTimeoutException_ShouldReturnServiceUnavailable() {
+        CoalescedCallTimeoutException ex = new CoalescedCallTimeoutException("getHotelById [1]", Duration.ofSeconds(5));
+        ResponseEntity<Map<String, String>> response = exceptionsHandler.handleCoalescedCallTimeoutException(ex);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(response.getBody().get("error")).contains("5000 ms");
+    }
+
+    @Test
+    void handleHistogramsNotReadyException_ShouldReturnServiceUnavailable() {
+        ResponseEntity<Map<String, String>> response =
+                exceptionsHandler.handleHistogramsNotReadyException(new HistogramsNotReadyException());
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(response.getBody().get("error")).contains("not built yet");
+    }
+}
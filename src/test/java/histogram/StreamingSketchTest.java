@@ -0,0 +1,55 @@
+package histogram;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.test_task.histogram.CountMinSketch;
+import ru.practicum.test_task.histogram.HyperLogLog;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class StreamingSketchTest {
+
+    @Test
+    void countMinSketch_ShouldNeverUndercountAndStayWithinErrorBound() {
+        CountMinSketch sketch = new CountMinSketch(5, 256);
+        long[] counts = new long[2_000];
+        Random random = new Random(42);
+        long total = 0;
+        for (int i = 0; i < 20_000; i++) {
+            int key = (int) Math.abs(random.nextGaussian() * 300) % counts.length;
+            sketch.add(key * 0x9e3779b97f4a7c15L, 1);
+            counts[key]++;
+            total++;
+        }
+        sketch.add(7 * 0x9e3779b97f4a7c15L, -counts[7]);
+        total -= counts[7];
+        counts[7] = 0;
+
+        for (int key = 0; key < counts.length; key++) {
+            long estimate = sketch.estimate(key * 0x9e3779b97f4a7c15L);
+            assertThat(estimate).isGreaterThanOrEqualTo(counts[key]);
+            assertThat(estimate - counts[key]).isLessThanOrEqualTo(2 * total / 256);
+        }
+    }
+
+    @Test
+    void hyperLogLog_ShouldEstimateDistinctCountWithinStandardError() {
+        HyperLogLog small = new HyperLogLog(14);
+        HyperLogLog large = new HyperLogLog(14);
+        Random random = new Random(7);
+        for (int i = 0; i < 100; i++) {
+            long hash = random.nextLong();
+            small.add(hash);
+            small.add(hash);
+        }
+        for (int i = 0; i < 200_000; i++) {
+            large.add(random.nextLong());
+        }
+
+        assertThat(small.estimate()).isEqualTo(100);
+        // 1.04 / sqrt(2^14) is under 1%, three standard errors leave room for an unlucky seed
+        assertThat((double) large.estimate()).isCloseTo(200_000, within(200_000 * 0.03));
+    }
+}
@@ -0,0 +1,150 @@
+package histogram;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.test_task.HotelsApp;
+import ru.practicum.test_task.dto.request.BulkAmenitiesRequest;
+import ru.practicum.test_task.dto.response.HistogramBucketDto;
+import ru.practicum.test_task.dto.response.TopHistogramDto;
+import ru.practicum.test_task.histogram.HistogramSketches;
+import ru.practicum.test_task.outbox.OutboxTailer;
+import ru.practicum.test_task.repository.AmenityRepository;
+import ru.practicum.test_task.repository.HotelRepository;
+import ru.practicum.test_task.repository.OutboxEventRepository;
+import ru.practicum.test_task.repository.OutboxOffsetRepository;
+import ru.practicum.test_task.service.HotelService;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static support.HotelRequests.hotel;
+
+@SpringBootTest(classes = HotelsApp.class, properties = {
+        "hotels.outbox.visibility-delay=0s",
+        "hotels.outbox.initial-delay=PT1H",
+        "hotels.histogram-sketch.top-capacity=3"
+})
+@ActiveProfiles("test")
+class TopHistogramTest {
+
+    @Autowired
+    private HotelService hotelService;
+
+    @Autowired
+    private HistogramSketches histogramSketches;
+
+    @Autowired
+    private OutboxTailer outboxTailer;
+
+    @Autowired
+    private HotelRepository hotelRepository;
+
+    @Autowired
+    private AmenityRepository amenityRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private OutboxOffsetRepository outboxOffsetRepository;
+
+    private List<Long> ids;
+
+    @BeforeEach
+    void setUp() {
+        cleanUp();
+        histogramSketches.rebuild();
+
+        ids = List.of(
+                createHotel("Hilton", "Minsk"), createHotel("Hilton", "minsk "), createHotel("Marriott", "Minsk"),
+                createHotel(null, "Minsk"), createHotel("Hilton", "Brest"), createHotel("Radisson", "Brest"),
+                createHotel("HILTON", "Moscow"), createHotel("Marriott", "Grodno"));
+        hotelService.addAmenitiesToHotel(ids.get(0), List.of("Pool"));
+        hotelService.updateAmenitiesInBulk(bulkRequest(BulkAmenitiesRequest.Action.ATTACH,
+                List.of("Pool", "Spa"), ids.subList(0, 3)));
+        hotelService.updateAmenitiesInBulk(bulkRequest(BulkAmenitiesRequest.Action.DETACH,
+                List.of("Spa"), List.of(ids.get(1))));
+    }
+
+    // the in-memory database is shared with the other test contexts
+    @AfterEach
+    void cleanUp() {
+        hotelRepository.deleteAll();
+        amenityRepository.deleteAll();
+        outboxEventRepository.deleteAll();
+        outboxOffsetRepository.deleteAll();
+    }
+
+    @Test
+    void getTopHistogram_ShouldReturnFirstBucketsAndOtherTotal() {
+        TopHistogramDto cities = hotelService.getTopHistogram("city", 2, "desc", false);
+        assertThat(cities.getBuckets()).containsExactly(
+                new HistogramBucketDto("Minsk", 4), new HistogramBucketDto("Brest", 2));
+        assertThat(cities.getOther()).isEqualTo(2);
+        assertThat(cities.getDistinct()).isEqualTo(4);
+        assertThat(cities.isApproximate()).isFalse();
+
+        assertThat(hotelService.getTopHistogram("city", 1, "ASC", false).getBuckets())
+                .containsExactly(new HistogramBucketDto("Grodno", 1));
+        assertThat(hotelService.getTopHistogram("brand", 10, "desc", false).getBuckets())
+                .extracting(HistogramBucketDto::getCount)
+                .containsExactly(4L, 2L, 1L);
+        assertThat(hotelService.getTopHistogram("amenities", 1, "desc", false))
+                .isEqualTo(new TopHistogramDto(List.of(new HistogramBucketDto("Pool", 3)), 2, 2, false));
+    }
+
+    @Test
+    void getTopHistogram_WhenApproximate_ShouldFollowWritesThroughOutbox() {
+        outboxTailer.poll();
+
+        for (String param : List.of("city", "brand", "county", "amenities")) {
+            TopHistogramDto exact = hotelService.getTopHistogram(param, 2, "desc", false);
+            TopHistogramDto approximate = hotelService.getTopHistogram(param, 2, "desc", true);
+
+            assertThat(approximate.isApproximate()).isTrue();
+            assertThat(approximate.getBuckets()).extracting(HistogramBucketDto::getCount)
+                    .isEqualTo(exact.getBuckets().stream().map(HistogramBucketDto::getCount).toList());
+            assertThat(approximate.getOther()).isEqualTo(exact.getOther());
+            assertThat(approximate.getDistinct()).isEqualTo(exact.getDistinct());
+        }
+        assertThat(hotelService.getTopHistogram("amenities", 2, "desc", true).getBuckets()).containsExactly(
+                new HistogramBucketDto("Pool", 3), new HistogramBucketDto("Spa", 2));
+
+        // a redelivered event is not counted twice
+        outboxOffsetRepository.deleteAll();
+        outboxTailer.poll();
+        assertThat(hotelService.getTopHistogram("city", 1, "desc", true).getBuckets())
+                .containsExactly(new HistogramBucketDto("Minsk", 4));
+    }
+
+    @Test
+    void getTopHistogram_WithInvalidArguments_ShouldThrowException() {
+        assertThatThrownBy(() -> hotelService.getTopHistogram("city", 0, "desc", false))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> hotelService.getTopHistogram("city", 1, "sideways", false))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> hotelService.getTopHistogram("city", 1, "asc", true))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> hotelService.getTopHistogram("city", 4, "desc", true))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private Long createHotel(String brand, String city) {
+        return hotelService.createHotel(hotel("Hotel in " + city).brand(brand).city(city).county("Belarus")
+                .postCode("220004").build()).getId();
+    }
+
+    private BulkAmenitiesRequest bulkRequest(BulkAmenitiesRequest.Action action, List<String> amenities,
+                                             List<Long> hotelIds) {
+        BulkAmenitiesRequest request = new BulkAmenitiesRequest();
+        request.setAction(action);
+        request.setAmenities(amenities);
+        request.setHotelIds(hotelIds);
+        return request;
+    }
+}
@@ -0,0 +1,134 @@
+package idfilter;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import ru.practicum.test_task.HotelsApp;
+import ru.practicum.test_task.exception.HotelNotFoundException;
+import ru.practicum.test_task.idfilter.HotelIdFilter;
+import ru.practicum.test_task.idfilter.HotelIdFilterLoader;
+import ru.practicum.test_task.idfilter.HotelIdFilterProperties;
+import ru.practicum.test_task.model.Hotel;
+import ru.practicum.test_task.model.HotelChangeType;
+import ru.practicum.test_task.outbox.HotelChangeEvent;
+import ru.practicum.test_task.repository.HotelRepository;
+import ru.practicum.test_task.service.HotelService;
+import ru.practicum.test_task.sharding.ShardRouter;
+import ru.practicum.test_task.sharding.ShardingProperties;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static support.HotelRequests.hotel;
+
+@SpringBootTest(classes = HotelsApp.class, properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "hotels.outbox.initial-delay=PT1H"
+})
+@ActiveProfiles("test")
+class HotelIdFilterTest {
+
+    @Autowired
+    private HotelService hotelService;
+
+    @Autowired
+    private HotelRepository hotelRepository;
+
+    @Autowired
+    private HotelIdFilter hotelIdFilter;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void unknownIds_ShouldBeRejectedAfterOneLookup() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        assertThatThrownBy(() -> hotelService.getHotelById(987_654_321L))
+                .isInstanceOf(HotelNotFoundException.class)
+                .hasMessage("Hotel not found with id: 987654321")
+                .satisfies(e -> assertThat(e.getStackTrace()).isEmpty());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+
+        assertThatThrownBy(() -> hotelService.addAmenitiesToHotel(987_654_322L, List.of("Sauna")))
+                .isInstanceOf(HotelNotFoundException.class);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    void invalidIds_ShouldBeRejectedWithoutQueries() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        assertThatThrownBy(() -> hotelService.getHotelById(0L)).isInstanceOf(HotelNotFoundException.class);
+        assertThatThrownBy(() -> hotelService.getHotelById(-5L)).isInstanceOf(HotelNotFoundException.class);
+
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+
+    // a row written by another instance is not in the filter until the outbox delivers it
+    @Test
+    void hotelsCreatedElsewhere_ShouldBeFoundBeforeFilterLearnsAboutThem() {
+        jdbcTemplate.update("INSERT INTO hotels (name) VALUES (?)", "Remote Hotel");
+        Long remoteId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM hotels", Long.class);
+        assertThat(hotelIdFilter.mightExist(remoteId)).isFalse();
+
+        assertThat(hotelService.getHotelById(remoteId).getName()).isEqualTo("Remote Hotel");
+        assertThat(hotelIdFilter.mightExist(remoteId)).isTrue();
+    }
+
+    @Test
+    void missesBelowKnownIds_ShouldBeFinal_AndConfirmationsAboveThemRateLimited() {
+        HotelIdFilterProperties properties = new HotelIdFilterProperties();
+        properties.setConfirmationsPerSecond(2);
+        ShardRouter shardRouter = new ShardRouter(new ShardingProperties());
+        HotelIdFilter filter = new HotelIdFilter(properties, shardRouter);
+        HotelRepository repository = mock(HotelRepository.class);
+        when(repository.findAllIds()).thenReturn(List.of(1L, 2L, 5L));
+        HotelIdFilterLoader loader = new HotelIdFilterLoader(filter, repository, properties,
+                mock(PlatformTransactionManager.class), shardRouter);
+
+        assertThat(filter.shouldConfirm(4)).isTrue();
+        loader.load();
+        assertThat(filter.mightExist(4L)).isFalse();
+        assertThat(filter.shouldConfirm(4)).isFalse();
+
+        loader.onChange(new HotelChangeEvent(1, 9, HotelChangeType.HOTEL_CREATED, null, LocalDateTime.now()));
+        filter.add(20);
+        assertThat(filter.shouldConfirm(8)).isFalse();
+        assertThat(filter.shouldConfirm(15)).isTrue();
+        assertThat(filter.shouldConfirm(987_654_321)).isTrue();
+        assertThat(filter.shouldConfirm(987_654_322)).isFalse();
+    }
+
+    @Test
+    void newHotels_ShouldBeVisibleImmediately() {
+        Long createdId = hotelService.createHotel(hotel("Filtered Hotel").city("Gomel").build()).getId();
+
+        Hotel saved = new Hotel();
+        saved.setName("Saved Directly");
+        saved.setAmenities(new ArrayList<>());
+        saved.setContacts(new ArrayList<>());
+        Long savedId = hotelRepository.save(saved).getId();
+
+        assertThat(hotelIdFilter.mightExist(createdId)).isTrue();
+        assertThat(hotelIdFilter.mightExist(savedId)).isTrue();
+        assertThat(hotelIdFilter.mightExist(savedId + 1_000_000)).isFalse();
+        assertThat(hotelService.getHotelById(savedId).getName()).isEqualTo("Saved Directly");
+    }
+}
@@ -0,0 +1,135 @@
+package limiter;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.test_task.HotelsApp;
+import ru.practicum.test_task.limiter.ConcurrencyLimitFilter;
+import ru.practicum.test_task.limiter.ConcurrencyLimitProperties;
+import ru.practicum.test_task.limiter.EndpointClass;
+import ru.practicum.test_task.limiter.VegasLimiter;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(classes = HotelsApp.class, properties = {
+        "hotels.concurrency-limit.expensive.initial-limit=2",
+        "hotels.concurrency-limit.expensive.min-limit=2",
+        "hotels.concurrency-limit.retry-after=3s"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ConcurrencyLimitFilterTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ConcurrencyLimitFilter filter;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void expensiveEndpoints_WhenLimitExhausted_ShouldBeShedWhileCheapOnesPass() throws Exception {
+        VegasLimiter expensive = filter.getLimiter(EndpointClass.EXPENSIVE);
+        assertThat(expensive.tryAcquire()).isTrue();
+        assertThat(expensive.tryAcquire()).isTrue();
+        try {
+            mockMvc.perform(get("/property-view/search").param("city", "Minsk"))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(header().string(HttpHeaders.RETRY_AFTER, "3"));
+            mockMvc.perform(get("/property-view/histogram/city"))
+                    .andExpect(status().isServiceUnavailable());
+            mockMvc.perform(get("/property-view/hotels/{id}", Long.MAX_VALUE))
+                    .andExpect(status().isNotFound());
+        } finally {
+            expensive.onIgnored();
+            expensive.onIgnored();
+        }
+
+        mockMvc.perform(get("/property-view/search").param("city", "Minsk"))
+                .andExpect(status().isOk());
+        assertThat(meterRegistry.get("hotels.concurrency.rejected").tag("class", "expensive").counter().count())
+                .isEqualTo(2);
+        assertThat(meterRegistry.get("hotels.concurrency.limit").tag("class", "cheap").gauge().value())
+                .isPositive();
+    }
+
+    @Test
+    void vegasLimiter_ShouldGrowUnderSaturationAndShrinkWhenLatencyRises() {
+        ConcurrencyLimitProperties.Limit properties = new ConcurrencyLimitProperties.Limit(10, 2, 100);
+        properties.setProbeInterval(Integer.MAX_VALUE);
+        VegasLimiter limiter = new VegasLimiter(properties);
+
+        for (int i = 0; i < 10; i++) {
+            runSaturated(limiter, TimeUnit.MILLISECONDS.toNanos(10));
+        }
+        int grown = limiter.getLimit();
+        assertThat(grown).isGreaterThan(10);
+
+        for (int i = 0; i < 10; i++) {
+            runSaturated(limiter, TimeUnit.MILLISECONDS.toNanos(100));
+        }
+        assertThat(limiter.getLimit()).isLessThan(grown);
+
+        int beforeDrop = limiter.getLimit();
+        assertThat(limiter.tryAcquire()).isTrue();
+        limiter.onDropped();
+        assertThat(limiter.getLimit()).isLessThan(beforeDrop);
+    }
+
+    @Test
+    void clientErrors_ShouldNotLowerTheLimit() throws Exception {
+        ConcurrencyLimitProperties properties = new ConcurrencyLimitProperties();
+        properties.setCheap(new ConcurrencyLimitProperties.Limit(10, 2, 100));
+        properties.getCheap().setProbeInterval(Integer.MAX_VALUE);
+        ConcurrencyLimitFilter limitFilter = new ConcurrencyLimitFilter(properties, new SimpleMeterRegistry());
+        VegasLimiter cheap = limitFilter.getLimiter(EndpointClass.CHEAP);
+
+        FilterChain notFound = (request, response) ->
+                ((HttpServletResponse) response).setStatus(HttpStatus.NOT_FOUND.value());
+        FilterChain found = (request, response) -> {
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+
+        for (int i = 0; i < 20; i++) {
+            limitFilter.doFilter(new MockHttpServletRequest("GET", "/property-view/hotels/" + i),
+                    new MockHttpServletResponse(), notFound);
+            limitFilter.doFilter(new MockHttpServletRequest("GET", "/property-view/hotels/1"),
+                    new MockHttpServletResponse(), found);
+        }
+
+        assertThat(cheap.getLimit()).isEqualTo(10);
+        assertThat(cheap.getInFlight()).isZero();
+    }
+
+    private void runSaturated(VegasLimiter limiter, long rttNanos) {
+        int acquired = 0;
+        while (limiter.tryAcquire()) {
+            acquired++;
+        }
+        for (int i = 0; i < acquired; i++) {
+            limiter.onSuccess(rttNanos);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.util.LogbackMDCAdapter;
+import ch.qos.logback.core.read.ListAppender;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import ru.practicum.test_task.logging.JsonLayout;
+import ru.practicum.test_task.logging.SamplingTurboFilter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductionLoggingTest {
+
+    @Test
+    void samplingTurboFilter_ShouldKeepEveryNthInfoLineAndAllWarnings() {
+        LoggerContext context = new LoggerContext();
+        context.setMDCAdapter(new LogbackMDCAdapter());
+        SamplingTurboFilter filter = new SamplingTurboFilter();
+        filter.addSample("hotels.service=0.1");
+        filter.start();
+        context.addTurboFilter(filter);
+
+        ListAppender<ILoggingEvent> appender = new ListAppender<>();
+        appender.setContext(context);
+        appender.start();
+        Logger root = context.getLogger(Logger.ROOT_LOGGER_NAME);
+        root.setLevel(Level.INFO);
+        root.addAppender(appender);
+
+        Logger sampled = context.getLogger("hotels.service.HotelService");
+        Logger other = context.getLogger("hotels.controller.HotelController");
+        for (int i = 0; i < 100; i++) {
+            sampled.info("Getting hotel by id: {}", i);
+            other.info("Request {}", i);
+        }
+        sampled.warn("Hotel not found: {}", 42);
+
+        assertThat(appender.list).filteredOn(event -> event.getLoggerName().equals(sampled.getName()))
+                .hasSize(11)
+                .extracting(ILoggingEvent::getFormattedMessage)
+                .startsWith("Getting hotel by id: 0", "Getting hotel by id: 10")
+                .endsWith("Hotel not found: 42");
+        assertThat(appender.list).filteredOn(event -> event.getLoggerName().equals(other.getName())).hasSize(100);
+    }
+
+    @Test
+    void jsonLayout_ShouldWriteOneEscapedObjectPerLine() throws Exception {
+        LoggerContext context = new LoggerContext();
+        context.setMDCAdapter(new LogbackMDCAdapter());
+        ListAppender<ILoggingEvent> appender = new ListAppender<>();
+        appender.setContext(context);
+        appender.start();
+        Logger logger = context.getLogger("hotels.service.HotelService");
+        logger.addAppender(appender);
+
+        logger.error("Failed \"{}\"\nnext line", "Grand Hotel", new IllegalStateException("boom"));
+
+        JsonLayout layout = new JsonLayout();
+        layout.setContext(context);
+        layout.start();
+        String line = layout.doLayout(appender.list.get(0));
+
+        assertThat(line).endsWith(System.lineSeparator()).doesNotContain("\nnext");
+        JsonNode json = new ObjectMapper().readTree(line);
+        assertThat(json.get("level").asText()).isEqualTo("ERROR");
+        assertThat(json.get("logger").asText()).isEqualTo("hotels.service.HotelService");
+        assertThat(json.get("message").asText()).isEqualTo("Failed \"Grand Hotel\"\nnext line");
+        assertThat(json.get("exception").asText()).contains("IllegalStateException: boom");
+    }
+}
@@ -0,0 +1,117 @@
+package outbox;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.test_task.HotelsApp;
+import ru.practicum.test_task.model.OutboxOffset;
+import ru.practicum.test_task.outbox.OutboxTailer;
+import ru.practicum.test_task.repository.HotelRepository;
+import ru.practicum.test_task.repository.OutboxEventRepository;
+import ru.practicum.test_task.repository.OutboxOffsetRepository;
+import ru.practicum.test_task.service.HotelService;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static support.HotelRequests.hotel;
+
+@SpringBootTest(classes = HotelsApp.class, properties = {
+        "hotels.outbox.visibility-delay=0s",
+        "hotels.outbox.initial-delay=PT1H",
+        "hotels.outbox.changes-page-size=2"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class HotelChangeFeedTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private HotelService hotelService;
+
+    @Autowired
+    private HotelRepository hotelRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private OutboxOffsetRepository outboxOffsetRepository;
+
+    @BeforeEach
+    void setUp() {
+        hotelRepository.deleteAll();
+        outboxEventRepository.deleteAll();
+        outboxOffsetRepository.deleteAll();
+    }
+
+    @Test
+    void getHotelChanges_ShouldReturnOnlyHotelsChangedSinceToken() throws Exception {
+        Long firstId = hotelService.createHotel(hotel("First Hotel").build()).getId();
+
+        JsonNode initial = getChanges(null);
+        assertThat(initial.get("hotels")).hasSize(1);
+        assertThat(initial.get("hasMore").asBoolean()).isFalse();
+
+        Long secondId = hotelService.createHotel(hotel("Second Hotel").build()).getId();
+        hotelService.addAmenitiesToHotel(firstId, List.of("Sauna"));
+        hotelService.addAmenitiesToHotel(firstId, List.of("Pool"));
+
+        JsonNode firstPage = getChanges(initial.get("nextToken").asText());
+        assertThat(firstPage.get("hotels").findValuesAsText("name")).containsExactly("Second Hotel", "First Hotel");
+        assertThat(firstPage.get("hasMore").asBoolean()).isTrue();
+
+        JsonNode secondPage = getChanges(firstPage.get("nextToken").asText());
+        assertThat(secondPage.get("hotels").findValues("id")).extracting(JsonNode::asLong).containsExactly(firstId);
+        assertThat(secondPage.get("hasMore").asBoolean()).isFalse();
+
+        JsonNode upToDate = getChanges(secondPage.get("nextToken").asText());
+        assertThat(upToDate.get("hotels")).isEmpty();
+        assertThat(upToDate.get("nextToken").asText()).isEqualTo(secondPage.get("nextToken").asText());
+
+        hotelRepository.deleteById(secondId);
+        JsonNode afterRemoval = getChanges(initial.get("nextToken").asText());
+        assertThat(afterRemoval.get("hotels").findValuesAsText("name")).containsExactly("First Hotel");
+        assertThat(afterRemoval.get("removedIds")).extracting(JsonNode::asLong).containsExactly(secondId);
+    }
+
+    @Test
+    void getHotelChanges_WithPrunedToken_ShouldReturnGone() throws Exception {
+        hotelService.createHotel(hotel("Pruned Hotel").build());
+        long head = outboxEventRepository.findMaxId();
+        outboxOffsetRepository.save(new OutboxOffset(OutboxTailer.PRUNED_OFFSET, head));
+
+        mockMvc.perform(get("/property-view/hotels/changes").param("since", String.valueOf(head - 1)))
+                .andExpect(status().isGone())
+                .andExpect(jsonPath("$.error").exists());
+        mockMvc.perform(get("/property-view/hotels/changes").param("since", String.valueOf(head)))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/property-view/hotels/changes").param("since", "not-a-token"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private JsonNode getChanges(String since) throws Exception {
+        var request = get("/property-view/hotels/changes");
+        if (since != null) {
+            request.param("since", since);
+        }
+        String body = mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body);
+    }
+}
@@ -0,0 +1,239 @@
+package outbox;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.test_task.HotelsApp;
+import ru.practicum.test_task.dto.request.BulkAmenitiesRequest;
+import ru.practicum.test_task.model.HotelChangeType;
+import ru.practicum.test_task.model.OutboxOffset;
+import ru.practicum.test_task.outbox.HotelChangeEvent;
+import ru.practicum.test_task.outbox.HotelChangeFeed;
+import ru.practicum.test_task.outbox.HotelChangeListener;
+import ru.practicum.test_task.outbox.OutboxProperties;
+import ru.practicum.test_task.outbox.OutboxTailer;
+import ru.practicum.test_task.repository.OutboxEventRepository;
+import ru.practicum.test_task.repository.OutboxOffsetRepository;
+import ru.practicum.test_task.service.HotelService;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static support.HotelRequests.hotel;
+
+@SpringBootTest(classes = HotelsApp.class, properties = {
+        "hotels.outbox.visibility-delay=0s",
+        "hotels.outbox.initial-delay=PT1H",
+        "hotels.outbox.batch-size=2"
+})
+@ActiveProfiles("test")
+@Import(OutboxTailerTest.ListenerConfig.class)
+class OutboxTailerTest {
+
+    @Autowired
+    private HotelService hotelService;
+
+    @Autowired
+    private OutboxTailer outboxTailer;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private OutboxOffsetRepository outboxOffsetRepository;
+
+    @Autowired
+    private HotelChangeFeed hotelChangeFeed;
+
+    @Autowired
+    private OutboxProperties outboxProperties;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private RecordingListener listener;
+
+    @BeforeEach
+    void setUp() {
+        outboxEventRepository.deleteAll();
+        outboxOffsetRepository.deleteAll();
+        listener.events.clear();
+        listener.failuresLeft = 0;
+    }
+
+    @AfterEach
+    void restoreGapTimeout() {
+        outboxProperties.setGapTimeout(Duration.ZERO);
+    }
+
+    @Test
+    void poll_ShouldDeliverWriteEventsInOrderAndPersistOffset() {
+        Long hotelId = hotelService.createHotel(hotel("Outbox Hotel").build()).getId();
+        hotelService.addAmenitiesToHotel(hotelId, List.of("Free WiFi", "Pool"));
+        hotelService.addAmenitiesToHotel(hotelId, List.of("Parking"));
+
+        outboxTailer.poll();
+
+        assertThat(listener.events).extracting(HotelChangeEvent::type).containsExactly(
+                HotelChangeType.HOTEL_CREATED,
+                HotelChangeType.AMENITIES_ADDED,
+                HotelChangeType.AMENITIES_ADDED);
+        assertThat(listener.events).extracting(HotelChangeEvent::hotelId).containsOnly(hotelId);
+        assertThat(listener.events.get(1).amenities()).containsExactly("Free WiFi", "Pool");
+        assertThat(outboxTailer.currentOffset(listener.getName())).isEqualTo(listener.events.get(2).id());
+
+        outboxTailer.poll();
+
+        assertThat(listener.events).hasSize(3);
+    }
+
+    @Test
+    void amenityPayloads_ShouldKeepNamesWithCommas() {
+        Long hotelId = hotelService.createHotel(hotel("Comma Hotel").build()).getId();
+        hotelService.addAmenitiesToHotel(hotelId, List.of("Bar, Lounge"));
+        BulkAmenitiesRequest bulk = new BulkAmenitiesRequest();
+        bulk.setAction(BulkAmenitiesRequest.Action.ATTACH);
+        bulk.setAmenities(List.of("Spa \"Aqua\"", "Sauna, Steam Room"));
+        bulk.setHotelIds(List.of(hotelId));
+        hotelService.updateAmenitiesInBulk(bulk);
+
+        outboxTailer.poll();
+
+        assertThat(listener.events.get(1).amenities()).containsExactly("Bar, Lounge");
+        assertThat(listener.events.get(2).amenities()).containsExactly("Sauna, Steam Room", "Spa \"Aqua\"");
+    }
+
+    @Test
+    void poll_WhenListenerFails_ShouldRedeliverFromLastOffset() {
+        Long hotelId = hotelService.createHotel(hotel("Retry Hotel").build()).getId();
+        hotelService.addAmenitiesToHotel(hotelId, List.of("Sauna"));
+        listener.failuresLeft = 1;
+
+        outboxTailer.poll();
+
+        assertThat(listener.events).isEmpty();
+        assertThat(outboxTailer.currentOffset(listener.getName())).isZero();
+
+        outboxTailer.poll();
+
+        assertThat(listener.events).extracting(HotelChangeEvent::type).containsExactly(
+                HotelChangeType.HOTEL_CREATED,
+                HotelChangeType.AMENITIES_ADDED);
+    }
+
+    @Test
+    void poll_WhenLowerIdCommitsLate_ShouldHoldLaterEventsUntilItShowsUp() throws SQLException {
+        Long hotelId = hotelService.createHotel(hotel("Gap Hotel").build()).getId();
+        outboxTailer.poll();
+        long offset = outboxTailer.currentOffset(listener.getName());
+        // the events other tests deleted leave the same holes as pruning
+        outboxOffsetRepository.save(new OutboxOffset(OutboxTailer.PRUNED_OFFSET, offset));
+        outboxProperties.setGapTimeout(Duration.ofHours(1));
+
+        try (Connection slowWriter = dataSource.getConnection()) {
+            slowWriter.setAutoCommit(false);
+            long lateId = appendEvent(slowWriter, hotelId);
+            hotelService.addAmenitiesToHotel(hotelId, List.of("Sauna"));
+
+            outboxTailer.poll();
+
+            assertThat(listener.events).hasSize(1);
+            assertThat(outboxTailer.currentOffset(listener.getName())).isEqualTo(offset);
+            assertThat(hotelChangeFeed.readAfter(String.valueOf(offset)).hotelIds()).isEmpty();
+            assertThat(hotelChangeFeed.headToken()).isEqualTo(String.valueOf(offset));
+
+            slowWriter.commit();
+            outboxTailer.poll();
+
+            assertThat(listener.events).hasSize(3);
+            assertThat(listener.events).extracting(HotelChangeEvent::id).endsWith(lateId, lateId + 1);
+        }
+    }
+
+    @Test
+    void poll_WhenGapIsNeverFilled_ShouldMoveOnAfterGapTimeout() throws SQLException {
+        Long hotelId = hotelService.createHotel(hotel("Rollback Hotel").build()).getId();
+        outboxTailer.poll();
+        outboxProperties.setGapTimeout(Duration.ofHours(1));
+
+        try (Connection slowWriter = dataSource.getConnection()) {
+            slowWriter.setAutoCommit(false);
+            appendEvent(slowWriter, hotelId);
+            hotelService.addAmenitiesToHotel(hotelId, List.of("Sauna"));
+            slowWriter.rollback();
+        }
+
+        outboxTailer.poll();
+        assertThat(listener.events).hasSize(1);
+
+        outboxProperties.setGapTimeout(Duration.ZERO);
+        outboxTailer.poll();
+
+        assertThat(listener.events).extracting(HotelChangeEvent::type).containsExactly(
+                HotelChangeType.HOTEL_CREATED,
+                HotelChangeType.AMENITIES_ADDED);
+    }
+
+    // inserts an event in a transaction the caller has not committed yet and returns its id
+    private long appendEvent(Connection connection, Long hotelId) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "INSERT INTO hotel_outbox (hotel_id, event_type, payload, created_at) VALUES (?, ?, ?, ?)",
+                Statement.RETURN_GENERATED_KEYS)) {
+            statement.setLong(1, hotelId);
+            statement.setString(2, HotelChangeType.AMENITIES_ADDED.name());
+            statement.setString(3, "[\"Pool\"]");
+            statement.setTimestamp(4, Timestamp.valueOf(LocalDateTime.now()));
+            statement.executeUpdate();
+            try (ResultSet keys = statement.getGeneratedKeys()) {
+                keys.next();
+                return keys.getLong(1);
+            }
+        }
+    }
+
+    @TestConfiguration
+    static class ListenerConfig {
+
+        @Bean
+        RecordingListener recordingListener() {
+            return new RecordingListener();
+        }
+    }
+
+    static class RecordingListener implements HotelChangeListener {
+
+        final List<HotelChangeEvent> events = new ArrayList<>();
+        int failuresLeft;
+
+        @Override
+        public String getName() {
+            return "recording";
+        }
+
+        @Override
+        public void onChange(HotelChangeEvent event) {
+            if (failuresLeft > 0) {
+                failuresLeft--;
+                throw new IllegalStateException("listener unavailable");
+            }
+            events.add(event);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package ratelimit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.test_task.HotelsApp;
+import ru.practicum.test_task.ratelimit.RateLimitFilter;
+import ru.practicum.test_task.ratelimit.TokenBucket;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(classes = HotelsApp.class, properties = {
+        "hotels.rate-limit.api-key.capacity=10",
+        "hotels.rate-limit.api-key.refill-per-second=1",
+        "hotels.rate-limit.api-keys=partner-a,partner-b,partner-c",
+        "hotels.rate-limit.costs.search=5",
+        "hotels.rate-limit.costs.histogram=20"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class RateLimitFilterTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void search_WhenApiKeyBudgetExhausted_ShouldBeThrottledWithRateLimitHeaders() throws Exception {
+        mockMvc.perform(get("/property-view/search").header("X-API-Key", "partner-a"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(RateLimitFilter.LIMIT_HEADER, "10"))
+                .andExpect(header().string(RateLimitFilter.REMAINING_HEADER, "5"));
+        mockMvc.perform(get("/property-view/search").header("X-API-Key", "partner-a"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(RateLimitFilter.REMAINING_HEADER, "0"));
+
+        mockMvc.perform(get("/property-view/search").header("X-API-Key", "partner-a"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "5"))
+                .andExpect(header().string(RateLimitFilter.RESET_HEADER, "10"));
+
+        mockMvc.perform(get("/property-view/search").header("X-API-Key", "partner-b"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/property-view/search"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(RateLimitFilter.LIMIT_HEADER, "100"));
+    }
+
+    @Test
+    void search_WithUnknownApiKey_ShouldBeLimitedByIp() throws Exception {
+        mockMvc.perform(get("/property-view/search").header("X-API-Key", "made-up"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(RateLimitFilter.LIMIT_HEADER, "100"));
+    }
+
+    @Test
+    void histogram_WhenCostExceedsCapacity_ShouldBeRejectedWithoutRetryAfter() throws Exception {
+        mockMvc.perform(get("/property-view/histogram/city").header("X-API-Key", "partner-c"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().doesNotExist(HttpHeaders.RETRY_AFTER))
+                .andExpect(header().string(RateLimitFilter.REMAINING_HEADER, "10"));
+
+        mockMvc.perform(get("/property-view/search").header("X-API-Key", "partner-c"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void tokenBucket_ShouldRefillOverTime() {
+        long start = 0;
+        TokenBucket bucket = new TokenBucket(10, 2, start);
+
+        assertThat(bucket.tryConsume(10, start).allowed()).isTrue();
+        TokenBucket.Result throttled = bucket.tryConsume(1, start);
+        assertThat(throttled.allowed()).isFalse();
+        assertThat(throttled.retryAfterNanos()).isEqualTo(TimeUnit.MILLISECONDS.toNanos(500));
+
+        long twoSecondsLater = start + TimeUnit.SECONDS.toNanos(2);
+        TokenBucket.Result refilled = bucket.tryConsume(4, twoSecondsLater);
+        assertThat(refilled.allowed()).isTrue();
+        assertThat(refilled.remaining()).isZero();
+        assertThat(bucket.tryConsume(1, twoSecondsLater).allowed()).isFalse();
+
+        TokenBucket.Result tooExpensive = new TokenBucket(10, 2, start).tryConsume(11, start);
+        assertThat(tooExpensive.allowed()).isFalse();
+        assertThat(tooExpensive.retryable()).isFalse();
+    }
+}
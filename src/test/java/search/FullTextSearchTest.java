@@ -0,0 +1,137 @@
+package search;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.test_task.HotelsApp;
+import ru.practicum.test_task.dto.request.CreateHotelRequest;
+import ru.practicum.test_task.dto.response.HotelSummaryDto;
+import ru.practicum.test_task.outbox.OutboxTailer;
+import ru.practicum.test_task.repository.HotelRepository;
+import ru.practicum.test_task.search.FullTextProperties;
+import ru.practicum.test_task.search.HotelDocument;
+import ru.practicum.test_task.search.HotelIndexer;
+import ru.practicum.test_task.search.HotelSearchIndex;
+import ru.practicum.test_task.service.HotelService;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static support.HotelRequests.hotel;
+
+@SpringBootTest(classes = HotelsApp.class, properties = {
+        "hotels.outbox.visibility-delay=0s",
+        "hotels.outbox.initial-delay=PT1H"
+})
+@ActiveProfiles("test")
+class FullTextSearchTest {
+
+    @Autowired
+    private HotelService hotelService;
+
+    @Autowired
+    private HotelRepository hotelRepository;
+
+    @Autowired
+    private OutboxTailer outboxTailer;
+
+    @Autowired
+    private HotelIndexer hotelIndexer;
+
+    @Autowired
+    private HotelSearchIndex hotelSearchIndex;
+
+    @Autowired
+    private FullTextProperties fullTextProperties;
+
+    @Test
+    void searchHotels_WithQuery_ShouldRankByRelevanceAndApplyFilters() {
+        Long spaResort = hotelService.createHotel(
+                createRequest("Riverside Spa Resort", "Thermal spa, sauna and a quiet spa garden", "Minsk")).getId();
+        Long cityHotel = hotelService.createHotel(
+                createRequest("Central Hotel", "Business hotel with a small spa", "Minsk")).getId();
+        Long brestSpa = hotelService.createHotel(
+                createRequest("Brest Spa", "Spa hotel near the fortress", "Brest")).getId();
+        hotelService.addAmenitiesToHotel(cityHotel, List.of("Rooftop Pool"));
+        outboxTailer.poll();
+
+        assertThat(hotelService.searchHotels("spa", null, null, null, null, null))
+                .extracting(HotelSummaryDto::getId)
+                .containsSubsequence(spaResort, cityHotel)
+                .contains(brestSpa);
+        assertThat(hotelService.searchHotels("spa", null, null, "minsk", null, null))
+                .extracting(HotelSummaryDto::getId)
+                .containsExactly(spaResort, cityHotel);
+        assertThat(hotelService.searchHotels("fortress", null, null, null, null, null))
+                .extracting(HotelSummaryDto::getId)
+                .containsExactly(brestSpa);
+        assertThat(hotelService.searchHotels("rooftop pool", null, null, null, null, null))
+                .extracting(HotelSummaryDto::getId)
+                .containsExactly(cityHotel);
+    }
+
+    @Test
+    void searchHotels_WithQuery_ShouldFindFilteredHitsBeyondMaxResults() {
+        Long resort = hotelService.createHotel(
+                createRequest("Lakeside Sauna Resort", "Sauna, sauna garden and a sauna bar", "Minsk")).getId();
+        Long gomelSauna = hotelService.createHotel(
+                createRequest("Gomel Hotel", "Hotel with a sauna", "Gomel")).getId();
+        outboxTailer.poll();
+
+        int maxResults = fullTextProperties.getMaxResults();
+        fullTextProperties.setMaxResults(1);
+        try {
+            assertThat(hotelService.searchHotels("sauna", null, null, null, null, null)).hasSize(1);
+            assertThat(hotelService.searchHotels("sauna", null, null, "minsk", null, null))
+                    .extracting(HotelSummaryDto::getId)
+                    .containsExactly(resort);
+            assertThat(hotelService.searchHotels("sauna", null, null, "gomel", null, null))
+                    .extracting(HotelSummaryDto::getId)
+                    .containsExactly(gomelSauna);
+        } finally {
+            fullTextProperties.setMaxResults(maxResults);
+        }
+    }
+
+    @Test
+    void rebuild_ShouldIndexEveryHotelFromDatabase() {
+        hotelService.createHotel(createRequest("Rebuild Hotel", "Indexed by rebuild only", "Grodno"));
+        hotelService.createHotel(createRequest("Second Rebuild Hotel", "Indexed in another batch", "Grodno"));
+
+        int batchSize = fullTextProperties.getRebuildBatchSize();
+        fullTextProperties.setRebuildBatchSize(1);
+        try {
+            assertThat(hotelIndexer.rebuild()).isEqualTo(hotelRepository.count());
+        } finally {
+            fullTextProperties.setRebuildBatchSize(batchSize);
+        }
+        assertThat(hotelService.searchHotels("rebuild", null, null, null, null, null))
+                .extracting(HotelSummaryDto::getName)
+                .containsExactlyInAnyOrder("Rebuild Hotel", "Second Rebuild Hotel");
+    }
+
+    @Test
+    void rebuild_WhenSourceFailsPartway_ShouldKeepPreviousIndex() {
+        hotelService.createHotel(createRequest("Surviving Hotel", "Indexed before the source broke", "Pinsk"));
+        hotelIndexer.rebuild();
+        int indexed = hotelSearchIndex.size();
+
+        assertThatThrownBy(() -> hotelSearchIndex.rebuild(batches -> {
+            batches.accept(List.of(new HotelDocument(-1L, "Partial Hotel", null, null, null, List.of())));
+            throw new IllegalStateException("Connection lost");
+        })).isInstanceOf(IllegalStateException.class);
+
+        // the next outbox-driven update commits, it must not commit the abandoned rebuild along with it
+        hotelSearchIndex.index(List.of(new HotelDocument(-2L, "Late Hotel", null, null, null, List.of())));
+        assertThat(hotelSearchIndex.size()).isEqualTo(indexed + 1);
+        assertThat(hotelSearchIndex.search("surviving")).hasSize(1);
+        assertThat(hotelSearchIndex.search("partial")).isEmpty();
+        hotelSearchIndex.delete(List.of(-2L));
+    }
+
+    private CreateHotelRequest createRequest(String name, String description, String city) {
+        return hotel(name).description(description).city(city).build();
+    }
+}
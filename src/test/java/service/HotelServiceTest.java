@@ -7,15 +7,21 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.test_task.HotelsApp;
+import ru.practicum.test_task.dto.FieldSelection;
+import ru.practicum.test_task.dto.request.BulkAmenitiesRequest;
 import ru.practicum.test_task.dto.request.CreateHotelRequest;
+import ru.practicum.test_task.dto.request.HotelFilterRequest;
 import ru.practicum.test_task.dto.request.AddressRequest;
 import ru.practicum.test_task.dto.request.ContactRequest;
 import ru.practicum.test_task.dto.request.ArrivalTimeRequest;
+import ru.practicum.test_task.dto.response.BulkAmenitiesResultDto;
+import ru.practicum.test_task.dto.response.HistogramsDto;
 import ru.practicum.test_task.dto.response.HotelDetailedDto;
 import ru.practicum.test_task.dto.response.HotelSummaryDto;
 import ru.practicum.test_task.model.*;
 import ru.practicum.test_task.repository.HotelRepository;
 import ru.practicum.test_task.repository.AmenityRepository;
+import ru.practicum.test_task.repository.HotelSummaryRepository;
 import ru.practicum.test_task.service.HotelService;
 
 import java.util.ArrayList;
@@ -39,6 +45,9 @@ class HotelServiceTest {
     @Autowired
     private AmenityRepository amenityRepository;
 
+    @Autowired
+    private HotelSummaryRepository hotelSummaryRepository;
+
     private Hotel testHotel;
 
     @BeforeEach
@@ -113,6 +122,35 @@ class HotelServiceTest {
         assertThat(result.getAmenities()).isEmpty();
     }
 
+    @Test
+    void getHotelById_WithFieldSelection_ShouldLoadOnlyRequestedParts() {
+        FieldSelection fields = FieldSelection.parse("name,arrivalTime", HotelDetailedDto.FIELDS);
+
+        HotelDetailedDto result = hotelService.getHotelById(testHotel.getId(), fields);
+
+        assertThat(result.getName()).isEqualTo("Test Hotel");
+        assertThat(result.getArrivalTime().getCheckIn()).isEqualTo("14:00");
+        assertThat(result.getAddress()).isNull();
+        assertThat(result.getContacts()).isNull();
+        assertThat(result.getAmenities()).isEmpty();
+
+        assertThatThrownBy(() -> hotelService.getHotelById(999L, fields))
+                .hasMessageContaining("Hotel not found");
+    }
+
+    @Test
+    void getAllHotels_ShouldBeServedFromSummaryKeptInStepWithWrites() {
+        testHotel.setName("Renamed Hotel");
+        testHotel.getAddress().setCity("Brest");
+        hotelRepository.flush();
+
+        HotelSummary summary = hotelSummaryRepository.findById(testHotel.getId()).orElseThrow();
+        assertThat(summary.getName()).isEqualTo("Renamed Hotel");
+        assertThat(summary.getAddress()).isEqualTo("9 Pobediteley Avenue, Brest, Belarus, 220004");
+        assertThat(summary.getPhone()).isEqualTo("+375 17 309-80-00");
+        assertThat(hotelService.getAllHotels()).extracting(HotelSummaryDto::getName).containsExactly("Renamed Hotel");
+    }
+
     @Test
     void getHotelById_WhenHotelNotExists_ShouldThrowException() {
         Long nonExistentId = 999L;
@@ -261,6 +299,89 @@ class HotelServiceTest {
         assertThat(results.get(0).getName()).isEqualTo("Test Hotel");
     }
 
+    @Test
+    void searchHotels_ByMultipleAmenities_ShouldRequireAllOfThem() {
+        Hotel hotel1 = hotelRepository.save(createHotelWithInitializedCollections("First Hotel", "Hilton", "Minsk"));
+        Hotel hotel2 = hotelRepository.save(createHotelWithInitializedCollections("Second Hotel", "Hilton", "Minsk"));
+
+        hotelService.addAmenitiesToHotel(hotel1.getId(), List.of("Free WiFi", "Pool"));
+        hotelService.addAmenitiesToHotel(hotel2.getId(), List.of("Free WiFi"));
+
+        List<HotelSummaryDto> results = hotelService.searchHotels(null, null, null, null,
+                List.of(" pool", "FREE WIFI", "Pool"));
+
+        assertThat(results).hasSize(1);
+        assertThat(results.get(0).getName()).isEqualTo("First Hotel");
+    }
+
+    @Test
+    void searchHotels_ShouldMatchOnNormalizedColumns() {
+        hotelRepository.save(createHotelWithInitializedCollections("Гостиница  Орёл", "HILTON", "Орёл"));
+        hotelRepository.save(createHotelWithInitializedCollections("Second Hotel", "hilton ", " MINSK"));
+        hotelRepository.flush();
+
+        assertThat(hotelService.searchHotels(null, null, "орел", null, null))
+                .extracting(HotelSummaryDto::getName)
+                .containsExactly("Гостиница  Орёл");
+        assertThat(hotelService.searchHotels("гостиница орел", null, null, null, null)).hasSize(1);
+        assertThat(hotelService.searchHotels(null, "Hilton", "Minsk", null, null)).hasSize(2);
+        assertThat(hotelService.getHistogram("city")).hasSize(2).containsEntry("Орёл", 1L).containsValue(2L);
+    }
+
+    @Test
+    void searchHotels_ByAmenities_ShouldMatchOnNormalizedNames() {
+        Hotel hotel1 = hotelRepository.save(createHotelWithInitializedCollections("First Hotel", "Hilton", "Minsk"));
+        Hotel hotel2 = hotelRepository.save(createHotelWithInitializedCollections("Second Hotel", "Hilton", "Minsk"));
+        hotelService.addAmenitiesToHotel(hotel1.getId(), List.of("Straße  View"));
+        hotelService.updateAmenitiesInBulk(bulkRequest(BulkAmenitiesRequest.Action.ATTACH, List.of("Große Sauna"),
+                List.of(hotel2.getId()), null));
+
+        assertThat(hotelService.searchHotels(null, null, null, null, List.of("STRASSE VIEW")))
+                .extracting(HotelSummaryDto::getName)
+                .containsExactly("First Hotel");
+
+        HotelFilterRequest filter = new HotelFilterRequest();
+        filter.setAmenities(List.of("grosse sauna"));
+        BulkAmenitiesResultDto attached = hotelService.updateAmenitiesInBulk(
+                bulkRequest(BulkAmenitiesRequest.Action.ATTACH, List.of("Spa"), null, filter));
+
+        assertThat(attached.getHotelsAffected()).isEqualTo(1);
+        assertThat(hotelService.searchHotels(null, null, null, null, List.of("spa")))
+                .extracting(HotelSummaryDto::getName)
+                .containsExactly("Second Hotel");
+    }
+
+    @Test
+    void searchHotels_WithTwoSpellingsOfOneAmenity_ShouldCountThemOnce() {
+        Hotel hotel = hotelRepository.save(createHotelWithInitializedCollections("Spelled Hotel", "Hilton", "Minsk"));
+        hotelService.addAmenitiesToHotel(hotel.getId(), List.of("WiFi"));
+        hotelService.addAmenitiesToHotel(hotel.getId(), List.of("wifi", "Pool"));
+
+        assertThat(hotelService.searchHotels(null, null, null, null, List.of("wifi")))
+                .extracting(HotelSummaryDto::getName)
+                .containsExactly("Spelled Hotel");
+        assertThat(hotelService.searchHotels(null, null, null, null, List.of("WIFI", "pool")))
+                .extracting(HotelSummaryDto::getName)
+                .containsExactly("Spelled Hotel");
+    }
+
+    @Test
+    void updateAmenitiesInBulk_WithTwoSpellingsOfOneAmenity_ShouldSelectLikeSearch() {
+        Hotel hotel = hotelRepository.save(createHotelWithInitializedCollections("Spelled Hotel", "Hilton", "Minsk"));
+        hotelService.addAmenitiesToHotel(hotel.getId(), List.of("WiFi"));
+        hotelService.addAmenitiesToHotel(hotel.getId(), List.of("wifi"));
+
+        HotelFilterRequest filter = new HotelFilterRequest();
+        filter.setAmenities(List.of("wifi"));
+        BulkAmenitiesResultDto attached = hotelService.updateAmenitiesInBulk(
+                bulkRequest(BulkAmenitiesRequest.Action.ATTACH, List.of("Spa"), null, filter));
+
+        assertThat(attached.getHotelsAffected()).isEqualTo(1);
+        assertThat(hotelService.searchHotels(null, null, null, null, List.of("spa")))
+                .extracting(HotelSummaryDto::getName)
+                .containsExactly("Spelled Hotel");
+    }
+
     @Test
     void getHistogram_ForBrand_ShouldReturnBrandCounts() {
         Hotel secondHilton = new Hotel();
@@ -318,6 +439,85 @@ class HotelServiceTest {
         assertThat(histogram.get("Parking")).isEqualTo(1L);
     }
 
+    @Test
+    void updateAmenitiesInBulk_ShouldAttachByFilterAndDetachByIds() {
+        Hotel secondHilton = hotelRepository.save(createHotelWithInitializedCollections("Second Hilton", "Hilton", "Minsk"));
+        Hotel moscowHilton = hotelRepository.save(createHotelWithInitializedCollections("Moscow Hilton", "Hilton", "Moscow"));
+        hotelService.updateAmenitiesInBulk(
+                bulkRequest(BulkAmenitiesRequest.Action.ATTACH, List.of("Pool"), List.of(testHotel.getId()), null));
+
+        HotelFilterRequest filter = new HotelFilterRequest();
+        filter.setBrand("hilton");
+        filter.setCity(" MINSK");
+        BulkAmenitiesResultDto attached = hotelService.updateAmenitiesInBulk(
+                bulkRequest(BulkAmenitiesRequest.Action.ATTACH, List.of("Pool", "Spa"), null, filter));
+
+        assertThat(attached.getHotelsAffected()).isEqualTo(2);
+        assertThat(attached.getRowsAffected()).isEqualTo(3);
+        assertThat(hotelService.searchHotels(null, null, null, null, List.of("spa", "pool")))
+                .extracting(HotelSummaryDto::getName)
+                .containsExactlyInAnyOrder("Test Hotel", "Second Hilton");
+
+        BulkAmenitiesResultDto detached = hotelService.updateAmenitiesInBulk(bulkRequest(
+                BulkAmenitiesRequest.Action.DETACH, List.of("Pool"), List.of(testHotel.getId(), moscowHilton.getId()), null));
+
+        assertThat(detached.getHotelsAffected()).isEqualTo(1);
+        assertThat(detached.getRowsAffected()).isEqualTo(1);
+        assertThat(hotelService.getHistogram("amenities"))
+                .containsEntry("Pool", 1L)
+                .containsEntry("Spa", 2L);
+        assertThat(hotelRepository.findAmenityRowsByHotelIds(List.of(secondHilton.getId())))
+                .extracting(row -> (String) row[1])
+                .containsExactlyInAnyOrder("Pool", "Spa");
+    }
+
+    @Test
+    void updateAmenitiesInBulk_WithIdsAndFilter_ShouldThrowException() {
+        BulkAmenitiesRequest request = bulkRequest(BulkAmenitiesRequest.Action.ATTACH, List.of("Spa"),
+                List.of(testHotel.getId()), new HotelFilterRequest());
+
+        assertThatThrownBy(() -> hotelService.updateAmenitiesInBulk(request))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Exactly one of hotelIds and filter");
+    }
+
+    @Test
+    void updateAmenitiesInBulk_WithEmptyFilter_ShouldRequireExplicitAll() {
+        HotelFilterRequest empty = new HotelFilterRequest();
+        empty.setAmenities(List.of(" "));
+
+        assertThatThrownBy(() -> hotelService.updateAmenitiesInBulk(
+                bulkRequest(BulkAmenitiesRequest.Action.ATTACH, List.of("Spa"), null, empty)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("\"all\": true");
+        assertThat(hotelService.searchHotels(null, null, null, null, List.of("spa"))).isEmpty();
+
+        HotelFilterRequest allAndCity = new HotelFilterRequest();
+        allAndCity.setAll(true);
+        allAndCity.setCity("Minsk");
+        assertThatThrownBy(() -> hotelService.updateAmenitiesInBulk(
+                bulkRequest(BulkAmenitiesRequest.Action.ATTACH, List.of("Spa"), null, allAndCity)))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        HotelFilterRequest all = new HotelFilterRequest();
+        all.setAll(true);
+        hotelRepository.save(createHotelWithInitializedCollections("Second Hotel", "Marriott", "Brest"));
+        BulkAmenitiesResultDto attached = hotelService.updateAmenitiesInBulk(
+                bulkRequest(BulkAmenitiesRequest.Action.ATTACH, List.of("Spa"), null, all));
+
+        assertThat(attached.getHotelsAffected()).isEqualTo(2);
+    }
+
+    private BulkAmenitiesRequest bulkRequest(BulkAmenitiesRequest.Action action, List<String> amenities,
+                                             List<Long> hotelIds, HotelFilterRequest filter) {
+        BulkAmenitiesRequest request = new BulkAmenitiesRequest();
+        request.setAction(action);
+        request.setAmenities(amenities);
+        request.setHotelIds(hotelIds);
+        request.setFilter(filter);
+        return request;
+    }
+
     private Hotel createHotelWithInitializedCollections(String name, String brand, String city) {
         Hotel hotel = new Hotel();
         hotel.setName(name);
@@ -344,6 +544,46 @@ class HotelServiceTest {
         return hotel;
     }
 
+    @Test
+    void getHistograms_ShouldMatchSingleHistogramsAndCrossTabs() {
+        Hotel minskMarriott = hotelRepository.save(createHotelWithInitializedCollections("Minsk Marriott", "Marriott", "Minsk"));
+        Hotel moscowHilton = hotelRepository.save(createHotelWithInitializedCollections("Moscow Hilton", "hilton ", "MOSCOW"));
+        hotelRepository.save(createHotelWithInitializedCollections("No Brand Hotel", null, "Moscow"));
+        Hotel secondHilton = hotelRepository.save(createHotelWithInitializedCollections("Second Hilton", "Hilton", "Minsk"));
+        hotelService.addAmenitiesToHotel(secondHilton.getId(), List.of("Free WiFi"));
+        hotelService.addAmenitiesToHotel(minskMarriott.getId(), List.of("Free WiFi", "Pool"));
+        hotelService.addAmenitiesToHotel(moscowHilton.getId(), List.of("Pool"));
+        Amenity sauna = new Amenity();
+        sauna.setName("Sauna");
+        amenityRepository.save(sauna);
+
+        HistogramsDto result = hotelService.getHistograms(
+                List.of("city", "brand", "county", "amenities", "city:brand", "amenities:city", "city"));
+
+        assertThat(result.getHistograms()).containsOnlyKeys("city", "brand", "county", "amenities");
+        for (String param : List.of("city", "brand", "county", "amenities")) {
+            assertThat(result.getHistograms().get(param)).isEqualTo(hotelService.getHistogram(param));
+        }
+        assertThat(result.getHistograms().get("amenities")).containsEntry("Sauna", 0L);
+        assertThat(result.getCrossTabs()).containsOnlyKeys("city:brand", "amenities:city");
+        assertThat(result.getCrossTabs().get("city:brand")).isEqualTo(Map.of(
+                "Minsk", Map.of("Hilton", 2L, "Marriott", 1L),
+                "MOSCOW", Map.of("hilton ", 1L)));
+        assertThat(result.getCrossTabs().get("amenities:city")).isEqualTo(Map.of(
+                "Free WiFi", Map.of("Minsk", 2L),
+                "Pool", Map.of("MOSCOW", 1L, "Minsk", 1L)));
+    }
+
+    @Test
+    void getHistograms_WithInvalidParameter_ShouldThrowException() {
+        assertThatThrownBy(() -> hotelService.getHistograms(List.of("city", "city:invalid_param")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Unsupported histogram parameter");
+        assertThatThrownBy(() -> hotelService.getHistograms(List.of("city:city")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Unsupported histogram cross-tab");
+    }
+
     @Test
     void getHistogram_WithInvalidParameter_ShouldThrowException() {
         assertThatThrownBy(() -> hotelService.getHistogram("invalid_param"))
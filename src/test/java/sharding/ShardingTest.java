@@ -0,0 +1,164 @@
+package sharding;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.test_task.HotelsApp;
+import ru.practicum.test_task.datasource.ReplicaRoutingProperties;
+import ru.practicum.test_task.dto.FieldSelection;
+import ru.practicum.test_task.dto.request.BulkAmenitiesRequest;
+import ru.practicum.test_task.dto.request.CreateHotelRequest;
+import ru.practicum.test_task.dto.response.BulkAmenitiesResultDto;
+import ru.practicum.test_task.dto.response.HistogramsDto;
+import ru.practicum.test_task.dto.response.HotelChangesDto;
+import ru.practicum.test_task.dto.response.HotelSummaryDto;
+import ru.practicum.test_task.service.HotelService;
+import ru.practicum.test_task.sharding.ShardingConfig;
+import ru.practicum.test_task.sharding.ShardingProperties;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
+import static support.HotelRequests.hotel;
+
+@SpringBootTest(classes = HotelsApp.class, properties = {
+        "hotels.sharding.key=county",
+        "hotels.sharding.shards[0].url=jdbc:h2:mem:shard-0;DB_CLOSE_DELAY=-1",
+        "hotels.sharding.shards[0].counties=Belarus",
+        "hotels.sharding.shards[1].url=jdbc:h2:mem:shard-1;DB_CLOSE_DELAY=-1",
+        "hotels.sharding.shards[1].counties=Russia,Kazakhstan",
+        "hotels.sharding.shards[2].url=jdbc:h2:mem:shard-2;DB_CLOSE_DELAY=-1",
+        "hotels.sharding.shards[2].counties=Georgia",
+        "hotels.outbox.visibility-delay=0s",
+        "hotels.outbox.initial-delay=PT1H"
+})
+@ActiveProfiles({"test", "sharding"})
+class ShardingTest {
+
+    @Autowired
+    private HotelService hotelService;
+
+    @Test
+    void hotelsShouldBePlacedByCounty_RoutedById_AndMergedAcrossShards() {
+        HotelSummaryDto minsk = hotelService.createHotel(createRequest("Minsk Hilton", "Hilton", "Minsk", "Belarus"));
+        HotelSummaryDto moscow = hotelService.createHotel(createRequest("Moscow Hilton", "Hilton", "Moscow", "Russia"));
+        HotelSummaryDto almaty = hotelService.createHotel(createRequest("Almaty Hotel", "Rixos", "Almaty", "Kazakhstan"));
+        HotelSummaryDto tbilisi = hotelService.createHotel(createRequest("Tbilisi Hotel", "Hilton", "Tbilisi", "georgia"));
+
+        assertThat(hotelNames(0)).containsExactly("Minsk Hilton");
+        assertThat(hotelNames(1)).containsExactlyInAnyOrder("Moscow Hilton", "Almaty Hotel");
+        assertThat(hotelNames(2)).containsExactly("Tbilisi Hotel");
+        assertThat(List.of(minsk.getId() % 3, moscow.getId() % 3, almaty.getId() % 3, tbilisi.getId() % 3))
+                .containsExactly(0L, 1L, 1L, 2L);
+
+        assertThat(hotelService.getHotelById(tbilisi.getId(), FieldSelection.all()).getName()).isEqualTo("Tbilisi Hotel");
+        assertThat(hotelService.getAllHotels()).extracting(HotelSummaryDto::getId)
+                .isSorted()
+                .containsExactlyInAnyOrder(minsk.getId(), moscow.getId(), almaty.getId(), tbilisi.getId());
+        List<HotelSummaryDto> hiltons = hotelService.searchHotels(null, "hilton", null, null, null);
+        assertThat(hiltons).extracting(HotelSummaryDto::getId).isSorted();
+        assertThat(hiltons).extracting(HotelSummaryDto::getName)
+                .containsExactlyInAnyOrder("Minsk Hilton", "Moscow Hilton", "Tbilisi Hotel");
+        assertThat(hotelService.getHistogram("brand"))
+                .containsEntry("Hilton", 3L)
+                .containsEntry("Rixos", 1L);
+
+        hotelService.addAmenitiesToHotel(moscow.getId(), List.of("Pool"));
+        hotelService.addAmenitiesToHotel(tbilisi.getId(), List.of("Pool", "Spa"));
+        assertThat(hotelService.getHistogram("amenities"))
+                .containsEntry("Pool", 2L)
+                .containsEntry("Spa", 1L);
+        HistogramsDto histograms = hotelService.getHistograms(List.of("brand", "amenities:brand"));
+        assertThat(histograms.getHistograms().get("brand")).containsEntry("Hilton", 3L).containsEntry("Rixos", 1L);
+        assertThat(histograms.getCrossTabs().get("amenities:brand").get("Pool")).containsExactly(entry("Hilton", 2L));
+        assertThat(hotelService.getHotelById(moscow.getId()).getAmenities()).containsExactly("Pool");
+    }
+
+    @Test
+    void getHotelChanges_ShouldCombinePerShardTokens() {
+        HotelChangesDto initial = hotelService.getHotelChanges(null);
+        assertThat(initial.getNextToken().split("\\.")).hasSize(3);
+
+        HotelSummaryDto created = hotelService.createHotel(createRequest("Changed Hotel", "Rixos", "Batumi", "Georgia"));
+
+        HotelChangesDto changes = hotelService.getHotelChanges(initial.getNextToken());
+        assertThat(changes.getHotels()).extracting(HotelSummaryDto::getId).containsExactly(created.getId());
+        assertThat(hotelService.getHotelChanges(changes.getNextToken()).getHotels()).isEmpty();
+    }
+
+    @Test
+    void updateAmenitiesInBulk_WhenOneShardFails_ShouldReportItAndKeepOtherShards() {
+        HotelSummaryDto minsk = hotelService.createHotel(createRequest("Changed Minsk", "Bulk", "Minsk", "Belarus"));
+        HotelSummaryDto batumi = hotelService.createHotel(createRequest("Changed Batumi", "Bulk", "Batumi", "Georgia"));
+        BulkAmenitiesRequest request = new BulkAmenitiesRequest();
+        request.setAction(BulkAmenitiesRequest.Action.ATTACH);
+        request.setAmenities(List.of("Sauna"));
+        request.setHotelIds(List.of(minsk.getId(), batumi.getId()));
+
+        JdbcTemplate shard2 = shardJdbcTemplate(2);
+        shard2.execute("ALTER TABLE hotel_amenities RENAME TO hotel_amenities_offline");
+        BulkAmenitiesResultDto result;
+        try {
+            result = hotelService.updateAmenitiesInBulk(request);
+        } finally {
+            shard2.execute("ALTER TABLE hotel_amenities_offline RENAME TO hotel_amenities");
+        }
+
+        assertThat(result.getFailedShards()).containsExactly(2);
+        assertThat(result.getHotelsAffected()).isEqualTo(1);
+        assertThat(hotelService.getHotelById(minsk.getId()).getAmenities()).containsExactly("Sauna");
+        assertThat(hotelService.getHotelById(batumi.getId()).getAmenities()).isEmpty();
+
+        shardJdbcTemplate(0).update("DELETE FROM hotels WHERE id = ?", minsk.getId());
+        shard2.update("DELETE FROM hotels WHERE id = ?", batumi.getId());
+    }
+
+    @Test
+    void updateAmenitiesInBulk_WithEmptyHotelIds_ShouldChangeNothing() {
+        BulkAmenitiesRequest request = new BulkAmenitiesRequest();
+        request.setAction(BulkAmenitiesRequest.Action.ATTACH);
+        request.setAmenities(List.of("Sauna"));
+        request.setHotelIds(List.of());
+
+        BulkAmenitiesResultDto result = hotelService.updateAmenitiesInBulk(request);
+
+        assertThat(result.getHotelsAffected()).isZero();
+        assertThat(result.getRowsAffected()).isZero();
+        assertThat(result.getFailedShards()).isEmpty();
+    }
+
+    @Test
+    void shardRoutingDataSource_ShouldRefuseReplicaRoutingAndOpenInView() {
+        ShardingProperties properties = new ShardingProperties();
+        ReplicaRoutingProperties replicaRouting = new ReplicaRoutingProperties();
+        replicaRouting.setEnabled(true);
+
+        assertThatThrownBy(() -> new ShardingConfig().shardRoutingDataSource(
+                new DataSourceProperties(), properties, replicaRouting, false))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("hotels.datasource.routing.enabled");
+        assertThatThrownBy(() -> new ShardingConfig().shardRoutingDataSource(
+                new DataSourceProperties(), properties, new ReplicaRoutingProperties(), true))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("spring.jpa.open-in-view=false");
+    }
+
+    private List<String> hotelNames(int shard) {
+        return shardJdbcTemplate(shard).queryForList("SELECT name FROM hotels WHERE name NOT LIKE 'Changed%'", String.class);
+    }
+
+    private JdbcTemplate shardJdbcTemplate(int shard) {
+        return new JdbcTemplate(new DriverManagerDataSource(
+                "jdbc:h2:mem:shard-" + shard + ";DB_CLOSE_DELAY=-1", "sa", "test"));
+    }
+
+    private CreateHotelRequest createRequest(String name, String brand, String city, String county) {
+        return hotel(name).brand(brand).city(city).county(county).build();
+    }
+}
@@ -0,0 +1,87 @@
+package slowquery;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.test_task.HotelsApp;
+import ru.practicum.test_task.repository.HotelRepository;
+import ru.practicum.test_task.service.HotelService;
+import ru.practicum.test_task.slowquery.SlowQuery;
+import ru.practicum.test_task.slowquery.SlowQueryLog;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasItem;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static support.HotelRequests.hotel;
+
+@SpringBootTest(classes = HotelsApp.class, properties = {
+        "hotels.slow-query.threshold=0ms",
+        "hotels.slow-query.sample-rate=0"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class SlowQueryLogTest {
+
+    @Autowired
+    private HotelService hotelService;
+
+    @Autowired
+    private HotelRepository hotelRepository;
+
+    @Autowired
+    private SlowQueryLog slowQueryLog;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        hotelService.createHotel(hotel("Slow Hotel").city("Vitebsk").build());
+        hotelService.createHotel(hotel("Another Slow Hotel").city("Vitebsk").build());
+        slowQueryLog.clear();
+    }
+
+    @Test
+    void repositoryQuery_ShouldBeRecordedWithParametersRowsCallerAndPlan() throws Exception {
+        assertThat(hotelRepository.findByCity("VITEBSK")).hasSizeGreaterThanOrEqualTo(2);
+
+        SlowQuery entry = slowQueryLog.getEntries().stream()
+                .filter(query -> query.getSql().contains("city_norm"))
+                .findFirst()
+                .orElseThrow();
+        assertThat(entry.isSlow()).isTrue();
+        assertThat(entry.getCaller()).isEqualTo("HotelRepository.findByCity");
+        assertThat(entry.getParameters()).containsExactly("vitebsk");
+        assertThat(entry.getRows()).isGreaterThanOrEqualTo(2);
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (entry.getPlan() == null && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertThat(entry.getPlan()).containsIgnoringCase("SELECT").doesNotContain("EXPLAIN failed");
+
+        mockMvc.perform(get("/admin/slow-queries").param("slowOnly", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@.caller == 'HotelRepository.findByCity')].parameters[0]").value(hasItem("vitebsk")));
+    }
+
+    @Test
+    void writes_ShouldReportAffectedRows() {
+        hotelService.createHotel(hotel("Written Hotel").city("Polotsk").build());
+
+        List<SlowQuery> inserts = slowQueryLog.getEntries().stream()
+                .filter(query -> query.getSql().toLowerCase().startsWith("insert into hotels"))
+                .toList();
+        assertThat(inserts).hasSize(1);
+        assertThat(inserts.get(0).getRows()).isEqualTo(1);
+        assertThat(inserts.get(0).getParameters()).contains("Written Hotel");
+    }
+}
@@ -0,0 +1,275 @@
+package snapshot;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.test_task.HotelsApp;
+import ru.practicum.test_task.dto.response.HotelDetailedDto;
+import ru.practicum.test_task.dto.response.HotelSummaryDto;
+import ru.practicum.test_task.model.Hotel;
+import ru.practicum.test_task.model.OutboxOffset;
+import ru.practicum.test_task.outbox.OutboxProperties;
+import ru.practicum.test_task.outbox.OutboxTailer;
+import ru.practicum.test_task.repository.AmenityRepository;
+import ru.practicum.test_task.repository.HotelRepository;
+import ru.practicum.test_task.repository.OutboxEventRepository;
+import ru.practicum.test_task.repository.OutboxOffsetRepository;
+import ru.practicum.test_task.service.HotelService;
+import ru.practicum.test_task.snapshot.CatalogSnapshot;
+import ru.practicum.test_task.snapshot.CatalogSnapshotWriter;
+import ru.practicum.test_task.snapshot.SnapshotProperties;
+
+import javax.sql.DataSource;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static support.HotelRequests.detailedHotel;
+
+@SpringBootTest(classes = HotelsApp.class, properties = {
+        "hotels.snapshot.batch-size=2",
+        "hotels.outbox.visibility-delay=0s",
+        "hotels.outbox.initial-delay=PT1H"
+})
+@ActiveProfiles("test")
+class CatalogSnapshotTest {
+
+    @Autowired
+    private HotelService hotelService;
+
+    @Autowired
+    private CatalogSnapshot catalogSnapshot;
+
+    @Autowired
+    private CatalogSnapshotWriter catalogSnapshotWriter;
+
+    @Autowired
+    private SnapshotProperties snapshotProperties;
+
+    @Autowired
+    private HotelRepository hotelRepository;
+
+    @Autowired
+    private AmenityRepository amenityRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private OutboxOffsetRepository outboxOffsetRepository;
+
+    @Autowired
+    private OutboxTailer outboxTailer;
+
+    @Autowired
+    private OutboxProperties outboxProperties;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    void setUp() {
+        catalogSnapshot.retire();
+        cleanUp();
+    }
+
+    // the in-memory database is shared with the other test contexts
+    @AfterEach
+    void cleanUp() {
+        hotelRepository.deleteAll();
+        amenityRepository.deleteAll();
+        outboxEventRepository.deleteAll();
+        outboxOffsetRepository.deleteAll();
+    }
+
+    @Test
+    void load_ShouldServeReadsFromSnapshotUntilCaughtUp() {
+        Long firstId = hotelService.createHotel(detailedHotel("First Hotel").brand("Hilton").build()).getId();
+        hotelService.createHotel(detailedHotel("Second Hotel").brand("Hilton").build());
+        hotelService.createHotel(detailedHotel("Third Hotel").brand("Hilton").build());
+        hotelService.addAmenitiesToHotel(firstId, List.of("WiFi", "Parking"));
+        List<HotelSummaryDto> summaries = hotelService.getAllHotels();
+        HotelDetailedDto detailed = hotelService.getHotelById(firstId);
+
+        assertThat(catalogSnapshotWriter.write()).isEqualTo(3);
+        renameBehindTheService(firstId, "Renamed Hotel");
+
+        assertThat(catalogSnapshot.load()).isTrue();
+        assertThat(hotelService.getAllHotels()).isEqualTo(summaries);
+        assertThat(hotelService.getHotelById(firstId)).isEqualTo(detailed);
+
+        catalogSnapshot.catchUp();
+
+        assertThat(catalogSnapshot.isServing()).isFalse();
+        assertThat(hotelService.getHotelById(firstId).getName()).isEqualTo("Renamed Hotel");
+    }
+
+    @Test
+    void catchUp_ShouldWarmCacheWithTwoQueriesPerBatch() {
+        List<Long> ids = new ArrayList<>();
+        for (String name : List.of("First Hotel", "Second Hotel", "Third Hotel")) {
+            Long id = hotelService.createHotel(detailedHotel(name).brand("Hilton").build()).getId();
+            hotelService.addAmenitiesToHotel(id, List.of("WiFi", "Parking"));
+            ids.add(id);
+        }
+        catalogSnapshotWriter.write();
+        assertThat(catalogSnapshot.load()).isTrue();
+
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        sessionFactory.getCache().evictAllRegions();
+        Statistics statistics = sessionFactory.getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        try {
+            catalogSnapshot.catchUp();
+
+            // the ids, then two batches of two hotels and one hotel
+            assertThat(statistics.getPrepareStatementCount()).isEqualTo(5);
+        } finally {
+            statistics.setStatisticsEnabled(false);
+        }
+        for (Long id : ids) {
+            assertThat(sessionFactory.getCache().containsEntity(Hotel.class, id)).isTrue();
+            assertThat(sessionFactory.getCache().containsCollection(Hotel.class.getName() + ".contacts", id)).isTrue();
+            assertThat(sessionFactory.getCache().containsCollection(Hotel.class.getName() + ".amenities", id)).isTrue();
+        }
+    }
+
+    @Test
+    void load_ShouldServeHotelsChangedAfterSnapshotFromDatabase() {
+        Long firstId = hotelService.createHotel(detailedHotel("First Hotel").brand("Hilton").build()).getId();
+        Long secondId = hotelService.createHotel(detailedHotel("Second Hotel").brand("Hilton").build()).getId();
+        catalogSnapshotWriter.write();
+
+        hotelService.addAmenitiesToHotel(firstId, List.of("Pool"));
+        assertThat(catalogSnapshot.load()).isTrue();
+
+        assertThat(hotelService.getHotelById(firstId).getAmenities()).containsExactly("Pool");
+        assertThat(hotelService.getAllHotels()).hasSize(2);
+
+        renameBehindTheService(secondId, "Renamed Hotel");
+        assertThat(hotelService.getHotelById(secondId).getName()).isEqualTo("Second Hotel");
+
+        Long thirdId = hotelService.createHotel(detailedHotel("Third Hotel").brand("Hilton").build()).getId();
+        assertThat(hotelService.getHotelById(thirdId).getName()).isEqualTo("Third Hotel");
+        assertThat(hotelService.getAllHotels()).extracting(HotelSummaryDto::getId)
+                .containsExactly(firstId, secondId, thirdId);
+    }
+
+    @Test
+    void load_ShouldStopServingHotelsChangedOnOtherInstances() {
+        Long firstId = hotelService.createHotel(detailedHotel("First Hotel").brand("Hilton").build()).getId();
+        Long secondId = hotelService.createHotel(detailedHotel("Second Hotel").brand("Hilton").build()).getId();
+        catalogSnapshotWriter.write();
+        assertThat(catalogSnapshot.load()).isTrue();
+
+        renameBehindTheService(secondId, "Renamed Hotel");
+        Hotel remote = new Hotel();
+        remote.setName("Remote Hotel");
+        remote.setAmenities(new ArrayList<>());
+        remote.setContacts(new ArrayList<>());
+        Long remoteId = hotelRepository.save(remote).getId();
+        appendRemoteEvent(secondId, "AMENITIES_ADDED");
+        appendRemoteEvent(remoteId, "HOTEL_CREATED");
+        assertThat(hotelService.getHotelById(secondId).getName()).isEqualTo("Second Hotel");
+
+        outboxTailer.poll();
+
+        assertThat(catalogSnapshot.isServing()).isTrue();
+        assertThat(hotelService.getHotelById(secondId).getName()).isEqualTo("Renamed Hotel");
+        assertThat(hotelService.getAllHotels()).extracting(HotelSummaryDto::getId)
+                .containsExactly(firstId, secondId, remoteId);
+    }
+
+    @Test
+    void load_WhenLowerEventCommitsAfterWrite_ShouldServeItsHotelFromDatabase() throws SQLException {
+        Long firstId = hotelService.createHotel(detailedHotel("First Hotel").brand("Hilton").build()).getId();
+        Long secondId = hotelService.createHotel(detailedHotel("Second Hotel").brand("Hilton").build()).getId();
+        // the events other tests deleted leave the same holes as pruning
+        outboxOffsetRepository.save(new OutboxOffset(OutboxTailer.PRUNED_OFFSET, outboxEventRepository.findMaxId()));
+        Duration gapTimeout = outboxProperties.getGapTimeout();
+        outboxProperties.setGapTimeout(Duration.ofHours(1));
+
+        try (Connection slowWriter = dataSource.getConnection()) {
+            slowWriter.setAutoCommit(false);
+            try (PreparedStatement rename = slowWriter.prepareStatement("UPDATE hotels SET name = ? WHERE id = ?")) {
+                rename.setString(1, "Renamed Hotel");
+                rename.setLong(2, firstId);
+                rename.executeUpdate();
+            }
+            try (PreparedStatement event = slowWriter.prepareStatement(
+                    "INSERT INTO hotel_outbox (hotel_id, event_type, created_at) VALUES (?, ?, ?)")) {
+                event.setLong(1, firstId);
+                event.setString(2, "AMENITIES_ADDED");
+                event.setTimestamp(3, Timestamp.valueOf(LocalDateTime.now()));
+                event.executeUpdate();
+            }
+            hotelService.addAmenitiesToHotel(secondId, List.of("Pool"));
+
+            catalogSnapshotWriter.write();
+            slowWriter.commit();
+        } finally {
+            outboxProperties.setGapTimeout(gapTimeout);
+        }
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+
+        assertThat(catalogSnapshot.load()).isTrue();
+        assertThat(hotelService.getHotelById(firstId).getName()).isEqualTo("Renamed Hotel");
+    }
+
+    @Test
+    void load_ShouldRejectCorruptedSnapshot() throws Exception {
+        hotelService.createHotel(detailedHotel("First Hotel").brand("Hilton").build());
+        catalogSnapshotWriter.write();
+
+        try (FileChannel channel = FileChannel.open(snapshotProperties.getPath(), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{'X'}), 40);
+        }
+
+        assertThat(catalogSnapshot.load()).isFalse();
+        assertThat(catalogSnapshot.isServing()).isFalse();
+    }
+
+    @Test
+    void load_ShouldRejectSnapshotOfAnotherDatabase() {
+        hotelService.createHotel(detailedHotel("First Hotel").brand("Hilton").build());
+        catalogSnapshotWriter.write();
+        outboxEventRepository.deleteAll();
+
+        assertThat(catalogSnapshot.load()).isFalse();
+    }
+
+    // as written by another instance, old enough to be past the tailer's visibility delay
+    private void appendRemoteEvent(Long hotelId, String type) {
+        jdbcTemplate.update("INSERT INTO hotel_outbox (hotel_id, event_type, created_at) VALUES (?, ?, ?)",
+                hotelId, type, LocalDateTime.now().minusHours(1));
+    }
+
+    // bypasses the outbox, so only a read from the snapshot still sees the old name
+    private void renameBehindTheService(Long hotelId, String name) {
+        jdbcTemplate.update("UPDATE hotels SET name = ? WHERE id = ?", name, hotelId);
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+    }
+}
@@ -0,0 +1,89 @@
+package support;
+
+import ru.practicum.test_task.dto.request.AddressRequest;
+import ru.practicum.test_task.dto.request.ArrivalTimeRequest;
+import ru.practicum.test_task.dto.request.ContactRequest;
+import ru.practicum.test_task.dto.request.CreateHotelRequest;
+
+// Builds valid create requests: only the name is required, everything else falls back to a hotel in Minsk
+public final class HotelRequests {
+
+    private final CreateHotelRequest request = new CreateHotelRequest();
+    private final AddressRequest address = new AddressRequest();
+    private final ContactRequest contacts = new ContactRequest();
+
+    private HotelRequests(String name) {
+        request.setName(name);
+        address.setStreet("Main Street");
+        address.setCity("Minsk");
+        contacts.setPhone("+375 17 000-00-00");
+        request.setAddress(address);
+        request.setContacts(contacts);
+    }
+
+    public static HotelRequests hotel(String name) {
+        return new HotelRequests(name);
+    }
+
+    // address, contacts and arrival time filled in completely, for tests that read them back
+    public static HotelRequests detailedHotel(String name) {
+        return new HotelRequests(name)
+                .houseNumber("1")
+                .county("Belarus")
+                .postCode("220004")
+                .email("hotel@example.com")
+                .arrivalTime("14:00", "12:00");
+    }
+
+    public HotelRequests brand(String brand) {
+        request.setBrand(brand);
+        return this;
+    }
+
+    public HotelRequests description(String description) {
+        request.setDescription(description);
+        return this;
+    }
+
+    public HotelRequests houseNumber(String houseNumber) {
+        address.setHouseNumber(houseNumber);
+        return this;
+    }
+
+    public HotelRequests city(String city) {
+        address.setCity(city);
+        return this;
+    }
+
+    public HotelRequests county(String county) {
+        address.setCounty(county);
+        return this;
+    }
+
+    public HotelRequests postCode(String postCode) {
+        address.setPostCode(postCode);
+        return this;
+    }
+
+    public HotelRequests phone(String phone) {
+        contacts.setPhone(phone);
+        return this;
+    }
+
+    public HotelRequests email(String email) {
+        contacts.setEmail(email);
+        return this;
+    }
+
+    public HotelRequests arrivalTime(String checkIn, String checkOut) {
+        ArrivalTimeRequest arrivalTime = new ArrivalTimeRequest();
+        arrivalTime.setCheckIn(checkIn);
+        arrivalTime.setCheckOut(checkOut);
+        request.setArrivalTime(arrivalTime);
+        return this;
+    }
+
+    public CreateHotelRequest build() {
+        return request;
+    }
+}
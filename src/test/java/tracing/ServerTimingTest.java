@@ -0,0 +1,93 @@
+package tracing;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.test_task.HotelsApp;
+import ru.practicum.test_task.service.HotelService;
+import ru.practicum.test_task.tracing.ServerTimingResponse;
+import ru.practicum.test_task.tracing.SpanCategory;
+import ru.practicum.test_task.tracing.StoredTrace;
+import ru.practicum.test_task.tracing.TraceSpan;
+import ru.practicum.test_task.tracing.TraceStore;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static support.HotelRequests.hotel;
+
+@SpringBootTest(classes = HotelsApp.class, properties = "hotels.tracing.sample-rate=1.0")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ServerTimingTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private HotelService hotelService;
+
+    @Autowired
+    private TraceStore traceStore;
+
+    @Test
+    void getHotelById_ShouldReportTimingBreakdownAndStoreTrace() throws Exception {
+        Long hotelId = hotelService.createHotel(hotel("Traced Hotel").city("Mogilev").build()).getId();
+
+        String serverTiming = mockMvc.perform(get("/property-view/hotels/{id}", hotelId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Traced Hotel"))
+                .andExpect(header().exists("Server-Timing"))
+                .andReturn().getResponse().getHeader("Server-Timing");
+
+        assertThat(serverTiming).startsWith("total;dur=")
+                .contains("controller;dur=", "service;dur=", "repository;dur=", "db;dur=", "serialization;dur=");
+
+        StoredTrace trace = traceStore.getTraces().get(0);
+        assertThat(trace.uri()).isEqualTo("/property-view/hotels/" + hotelId);
+        assertThat(trace.status()).isEqualTo(200);
+        assertThat(trace.serverTiming()).isEqualTo(serverTiming);
+        List<TraceSpan> spans = trace.spans();
+        assertThat(spans).extracting(TraceSpan::name)
+                .contains("HotelController.getHotelById", "HotelServiceImpl.getHotelById",
+                        "HotelRepository.findByIdWithDetails", "response body");
+        assertThat(spans).filteredOn(span -> span.category() == SpanCategory.DB).isNotEmpty();
+
+        mockMvc.perform(get("/admin/traces/{id}", trace.id()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.uri").value(trace.uri()));
+        mockMvc.perform(get("/admin/traces/{id}", Long.MAX_VALUE))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void serverTimingResponse_ShouldSetHeaderOnFirstByteWithoutBufferingTheBody() throws IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        AtomicInteger computed = new AtomicInteger();
+        ServerTimingResponse timedResponse = new ServerTimingResponse(response,
+                () -> "total;dur=" + computed.incrementAndGet());
+
+        timedResponse.getOutputStream().write("{\"name\":".getBytes(StandardCharsets.UTF_8));
+
+        assertThat(response.getHeader("Server-Timing")).isEqualTo("total;dur=1");
+        assertThat(response.getContentAsString()).isEqualTo("{\"name\":");
+
+        timedResponse.getOutputStream().write("\"Streamed\"}".getBytes(StandardCharsets.UTF_8));
+        timedResponse.flushBuffer();
+
+        assertThat(timedResponse.finish()).isEqualTo("total;dur=1");
+        assertThat(computed).hasValue(1);
+        assertThat(response.getContentAsString()).isEqualTo("{\"name\":\"Streamed\"}");
+    }
+}
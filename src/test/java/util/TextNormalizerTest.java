@@ -0,0 +1,23 @@
+package util;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.test_task.util.TextNormalizer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TextNormalizerTest {
+
+    @Test
+    void normalize_ShouldFoldCaseCollapseWhitespaceAndYo() {
+        assertThat(TextNormalizer.normalize("  Grand \t Hotel\nMOSCOW ")).isEqualTo("grand hotel moscow");
+        assertThat(TextNormalizer.normalize("Орёл")).isEqualTo("орел");
+        assertThat(TextNormalizer.normalize("Straße")).isEqualTo(TextNormalizer.normalize("STRASSE"));
+        assertThat(TextNormalizer.normalize("Café")).isEqualTo("café");
+    }
+
+    @Test
+    void normalize_WithBlankValue_ShouldReturnNull() {
+        assertThat(TextNormalizer.normalize(null)).isNull();
+        assertThat(TextNormalizer.normalize(" \t ")).isNull();
+    }
+}